@@ -0,0 +1,71 @@
+package com.example.pitdemo.config;
+
+import com.example.pitdemo.service.UserService;
+import com.example.pitdemo.service.snapshot.FsyncPolicy;
+import com.example.pitdemo.service.snapshot.SnapshotManager;
+import com.example.pitdemo.service.snapshot.WriteAheadLog;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Keeps users across restarts when {@code pitdemo.snapshot.path} is set.
+ *
+ * On startup the users are restored from the snapshot file, if it exists,
+ * before the application serves requests. A snapshot is then written every
+ * {@code pitdemo.snapshot.interval} and once more on shutdown.
+ *
+ * Setting {@code pitdemo.wal.directory} as well logs every change in
+ * between, synced as {@code pitdemo.wal.fsync} says ({@code per-operation},
+ * {@code per-batch} or {@code interval}, every
+ * {@code pitdemo.wal.fsync-interval}), and replays it after the snapshot on
+ * startup, so a crash loses no acknowledged change.
+ *
+ * Restoring replaces every user in the store, so snapshots are only for
+ * stores that keep users in memory; startup fails if {@code pitdemo.store}
+ * names one that keeps them in the datasource, which survives restarts anyway.
+ */
+@Configuration
+@ConditionalOnProperty(name = "pitdemo.snapshot.path")
+public class SnapshotConfiguration {
+
+    public SnapshotConfiguration(@Value("${pitdemo.store:memory}") String store) {
+        if (!StoreConfiguration.IN_MEMORY_STORES.contains(store)) {
+            throw new IllegalStateException("pitdemo.snapshot.path needs an in-memory store, but pitdemo.store is "
+                    + store + ": restoring a snapshot would replace the users it keeps");
+        }
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "pitdemo.wal.directory")
+    public WriteAheadLog writeAheadLog(@Value("${pitdemo.wal.directory}") Path directory,
+                                       @Value("${pitdemo.wal.fsync:per-batch}") FsyncPolicy policy,
+                                       @Value("${pitdemo.wal.fsync-interval:PT1S}") Duration interval)
+            throws IOException {
+        return new WriteAheadLog(directory, policy, interval);
+    }
+
+    // The log outlives the manager on shutdown, so the final snapshot can checkpoint it
+    @Bean(destroyMethod = "close")
+    public SnapshotManager snapshotManager(UserService userService,
+                                           @Value("${pitdemo.snapshot.path}") Path path,
+                                           @Value("${pitdemo.snapshot.interval:PT5M}") Duration interval,
+                                           ObjectProvider<WriteAheadLog> log)
+            throws IOException {
+        Path directory = path.toAbsolutePath().getParent();
+        if (directory != null) {
+            Files.createDirectories(directory);
+        }
+        SnapshotManager snapshots = new SnapshotManager(userService, path, log.getIfAvailable());
+        snapshots.restore();
+        snapshots.scheduleEvery(interval);
+        return snapshots;
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.pitdemo.config;
+
+import com.example.pitdemo.repository.UserRepository;
+import com.example.pitdemo.service.store.BirthdayRollover;
+import com.example.pitdemo.service.store.ColumnarUserStore;
+import com.example.pitdemo.service.store.InMemoryUserStore;
+import com.example.pitdemo.service.store.JpaUserStore;
+import com.example.pitdemo.service.store.OffHeapUserStore;
+import com.example.pitdemo.service.store.UserStore;
+import com.example.pitdemo.service.store.WriteBehindUserStore;
+import com.example.pitdemo.util.DayClock;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Chooses where {@link com.example.pitdemo.service.UserService} keeps users
+ * with {@code pitdemo.store}: {@code memory} (the default), {@code columnar}
+ * for memory laid out in primitive columns, {@code offheap} for direct
+ * memory sized up front for {@code pitdemo.offheap.expected-users}, {@code jpa}
+ * for the configured datasource, or {@code write-behind} for memory backed by
+ * the datasource, written at most {@code pitdemo.write-behind.flush-interval}
+ * late, in batches of {@code pitdemo.write-behind.batch-size}, with writers
+ * held back beyond {@code pitdemo.write-behind.max-pending} unwritten users.
+ * Whichever store is chosen is advanced to the new date after each midnight.
+ * The store, the rollover and the service all read the date from one
+ * {@link DayClock}, so they agree on what today is.
+ */
+@Configuration
+public class StoreConfiguration {
+
+    /** The values of {@code pitdemo.store} whose users live only in memory. */
+    static final Set<String> IN_MEMORY_STORES = Set.of("memory", "columnar", "offheap");
+
+    @Bean
+    public DayClock dayClock() {
+        return DayClock.system();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "pitdemo.store", havingValue = "memory", matchIfMissing = true)
+    public UserStore inMemoryUserStore(DayClock clock) {
+        return new InMemoryUserStore(clock);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "pitdemo.store", havingValue = "columnar")
+    public UserStore columnarUserStore(DayClock clock) {
+        return new ColumnarUserStore(clock);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "pitdemo.store", havingValue = "offheap")
+    public UserStore offHeapUserStore(DayClock clock,
+                                      @Value("${pitdemo.offheap.expected-users:0}") int expectedUsers) {
+        return new OffHeapUserStore(clock, expectedUsers);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "pitdemo.store", havingValue = "jpa")
+    public UserStore jpaUserStore(UserRepository repository, DayClock clock) {
+        return new JpaUserStore(repository, clock);
+    }
+
+    // Closed before the datasource, so the last changes are written on shutdown
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "pitdemo.store", havingValue = "write-behind")
+    public UserStore writeBehindUserStore(UserRepository repository, DayClock clock,
+                                          @Value("${pitdemo.write-behind.max-pending:10000}") int maxPending,
+                                          @Value("${pitdemo.write-behind.batch-size:1000}") int batchSize,
+                                          @Value("${pitdemo.write-behind.flush-interval:PT0.5S}")
+                                          Duration flushInterval) {
+        return new WriteBehindUserStore(repository, clock, maxPending, batchSize, flushInterval);
+    }
+
+    @Bean(destroyMethod = "close")
+    public BirthdayRollover birthdayRollover(UserStore store, DayClock clock) {
+        return new BirthdayRollover(store, clock);
+    }
+}
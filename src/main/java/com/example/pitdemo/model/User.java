@@ -1,9 +1,11 @@
 package com.example.pitdemo.model;
 
+import com.example.pitdemo.util.AgeUtils;
+import com.example.pitdemo.util.DayClock;
+import com.example.pitdemo.util.KeyUtils;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import java.time.LocalDate;
-import java.time.Period;
 import java.util.Objects;
 
 /**
@@ -13,11 +15,34 @@ import java.util.Objects;
  * with mutation testing to reveal weak spots in our test suite.
  */
 @Entity
-@Table(name = "users")
+@Table(name = "users", uniqueConstraints = {
+        @UniqueConstraint(name = User.USERNAME_KEY_CONSTRAINT, columnNames = "username_key"),
+        @UniqueConstraint(name = User.EMAIL_KEY_CONSTRAINT, columnNames = "email_key")
+}, indexes = {
+        @Index(name = "idx_users_username", columnList = "username"),
+        @Index(name = "idx_users_birth_date", columnList = "birth_date"),
+        @Index(name = "idx_users_status", columnList = "status"),
+        @Index(name = "idx_users_score", columnList = "score")
+})
 public class User {
 
+    /** Ids reserved per sequence call; also the JDBC batch size for inserts. */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    /** Unique constraint on the normalized username column. */
+    public static final String USERNAME_KEY_CONSTRAINT = "uk_users_username_key";
+
+    /** Unique constraint on the normalized email column. */
+    public static final String EMAIL_KEY_CONSTRAINT = "uk_users_email_key";
+
+    /**
+     * Ids come from a sequence, fetched 50 at a time through Hibernate's
+     * pooled optimizer, so inserts can be batched; an identity column would
+     * force one round trip per insert to learn the id.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = User.ID_ALLOCATION_SIZE)
     private Long id;
 
     @NotBlank(message = "Username cannot be blank")
@@ -39,6 +64,20 @@ public class User {
     @Enumerated(EnumType.STRING)
     private UserStatus status;
 
+    /**
+     * Username and email normalized by {@link KeyUtils#normalize}, kept up to
+     * date on every write. Their unique constraints make the database enforce
+     * case-insensitive uniqueness, backed by an index.
+     */
+    @Column(name = "username_key", nullable = false)
+    private String usernameKey;
+
+    @Column(name = "email_key", nullable = false)
+    private String emailKey;
+
+    @Transient
+    private UserChangeListener changeListener;
+
     // Constructors
     public User() {
         this.status = UserStatus.INACTIVE;
@@ -52,6 +91,13 @@ public class User {
         this.birthDate = birthDate;
     }
 
+    @PrePersist
+    @PreUpdate
+    void updateKeys() {
+        usernameKey = username == null ? null : KeyUtils.normalize(username);
+        emailKey = email == null ? null : KeyUtils.normalize(email);
+    }
+
     // Business logic methods - these are perfect for mutation testing
 
     /**
@@ -59,10 +105,18 @@ public class User {
      * This method demonstrates boundary conditions that mutation testing can reveal.
      */
     public int getAge() {
+        return getAge(DayClock.system().epochDay());
+    }
+
+    /**
+     * Calculates the user's age on a given day, as {@link #getAge()} does for today.
+     * Works on epoch days and allocates nothing.
+     */
+    public int getAge(long todayEpochDay) {
         if (birthDate == null) {
             return 0;
         }
-        return Period.between(birthDate, LocalDate.now()).getYears();
+        return AgeUtils.age(birthDate.toEpochDay(), todayEpochDay);
     }
 
     /**
@@ -73,26 +127,36 @@ public class User {
         return getAge() >= 18;
     }
 
+    /**
+     * Determines if the user is an adult on a given day.
+     */
+    public boolean isAdult(long todayEpochDay) {
+        return getAge(todayEpochDay) >= 18;
+    }
+
     /**
      * Calculates the user's experience level based on their score.
      * This method demonstrates multiple conditional branches.
      */
     public String getExperienceLevel() {
-        if (score < 0) {
-            throw new IllegalArgumentException("Score cannot be negative");
-        }
-        
-        if (score >= 90) {
-            return "Expert";
-        } else if (score >= 70) {
-            return "Advanced";
-        } else if (score >= 50) {
-            return "Intermediate";
-        } else if (score >= 30) {
-            return "Beginner";
-        } else {
-            return "Novice";
-        }
+        return experienceLevelOf(score);
+    }
+
+    /**
+     * Returns the user's experience level as an {@link ExperienceLevel},
+     * for callers that branch on it.
+     *
+     * @throws IllegalArgumentException if the score is negative
+     */
+    public ExperienceLevel experienceLevel() {
+        return ExperienceLevel.of(score);
+    }
+
+    /**
+     * Returns the experience level for a score, as {@link #getExperienceLevel()} does.
+     */
+    public static String experienceLevelOf(int score) {
+        return ExperienceLevel.of(score).getDisplayName();
     }
 
     /**
@@ -110,6 +174,8 @@ public class User {
         if (newScore >= 50 && this.status == UserStatus.INACTIVE) {
             this.status = UserStatus.ACTIVE;
         }
+
+        fireChanged();
     }
 
     /**
@@ -227,6 +293,7 @@ public class User {
 
     public void setBirthDate(LocalDate birthDate) {
         this.birthDate = birthDate;
+        fireChanged();
     }
 
     public int getScore() {
@@ -235,6 +302,7 @@ public class User {
 
     public void setScore(int score) {
         this.score = score;
+        fireChanged();
     }
 
     public UserStatus getStatus() {
@@ -243,6 +311,33 @@ public class User {
 
     public void setStatus(UserStatus status) {
         this.status = status;
+        fireChanged();
+    }
+
+    /**
+     * Sets score, status and birth date together, notifying the listener
+     * once, so a change to several of them is written back as one.
+     */
+    public void setState(int score, UserStatus status, LocalDate birthDate) {
+        this.score = score;
+        this.status = status;
+        this.birthDate = birthDate;
+        fireChanged();
+    }
+
+    /**
+     * Registers the listener notified after score, status or birth date changes.
+     * A user has at most one listener; pass {@code null} to detach it.
+     */
+    public void setChangeListener(UserChangeListener changeListener) {
+        this.changeListener = changeListener;
+    }
+
+    private void fireChanged() {
+        UserChangeListener listener = this.changeListener;
+        if (listener != null) {
+            listener.userChanged(this);
+        }
     }
 
     // equals, hashCode, and toString
@@ -279,4 +374,64 @@ public class User {
         SUSPENDED,
         DELETED
     }
+
+    /**
+     * Experience levels by score, lowest first, so ordinals follow the score.
+     */
+    public enum ExperienceLevel {
+        NOVICE("Novice", 0),
+        BEGINNER("Beginner", 30),
+        INTERMEDIATE("Intermediate", 50),
+        ADVANCED("Advanced", 70),
+        EXPERT("Expert", 90);
+
+        // Level for every score updateScore accepts, so most lookups skip the comparisons
+        private static final ExperienceLevel[] BY_SCORE = new ExperienceLevel[101];
+
+        static {
+            ExperienceLevel[] levels = values();
+            int level = 0;
+            for (int score = 0; score < BY_SCORE.length; score++) {
+                while (level + 1 < levels.length && score >= levels[level + 1].minScore) {
+                    level++;
+                }
+                BY_SCORE[score] = levels[level];
+            }
+        }
+
+        private final String displayName;
+        private final int minScore;
+
+        ExperienceLevel(String displayName, int minScore) {
+            this.displayName = displayName;
+            this.minScore = minScore;
+        }
+
+        /**
+         * Returns the level for a score; scores above 100, which only
+         * {@link User#setScore} lets through, are {@link #EXPERT}.
+         *
+         * @throws IllegalArgumentException if the score is negative
+         */
+        public static ExperienceLevel of(int score) {
+            if (score < 0) {
+                throw new IllegalArgumentException("Score cannot be negative");
+            }
+            return score < BY_SCORE.length ? BY_SCORE[score] : EXPERT;
+        }
+
+        /**
+         * The name {@link User#getExperienceLevel()} returns, e.g. "Expert".
+         */
+        public String getDisplayName() {
+            return displayName;
+        }
+
+        /**
+         * The lowest score at this level.
+         */
+        public int getMinScore() {
+            return minScore;
+        }
+    }
 }
@@ -0,0 +1,14 @@
+package com.example.pitdemo.model;
+
+/**
+ * Callback notified after a {@link User}'s score, status or birth date changes.
+ *
+ * Stores attach one to every user they hold so that derived state such as
+ * counters and secondary indexes follows changes made through any setter,
+ * not only through the service.
+ */
+@FunctionalInterface
+public interface UserChangeListener {
+
+    void userChanged(User user);
+}
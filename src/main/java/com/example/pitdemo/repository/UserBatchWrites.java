@@ -0,0 +1,39 @@
+package com.example.pitdemo.repository;
+
+import com.example.pitdemo.model.User;
+
+import java.util.List;
+
+/**
+ * Bulk write fragment of {@link UserRepository}.
+ */
+public interface UserBatchWrites {
+
+    /**
+     * Inserts new users in one transaction, flushing every
+     * {@link User#ID_ALLOCATION_SIZE} so Hibernate sends them as JDBC
+     * batches and the persistence context stays small. Each user gets its id;
+     * users are detached afterwards.
+     *
+     * If any row is rejected, for instance by a unique constraint, nothing is
+     * inserted, no user keeps an id, and the failure surfaces as a
+     * {@link org.springframework.dao.DataIntegrityViolationException}.
+     */
+    void insertAll(List<User> users);
+
+    /**
+     * Copies score, status and birth date of each user onto its row, found
+     * by id, in one transaction. Rows are loaded a thousand at a time and
+     * written back as JDBC batches. Users without a row are skipped.
+     */
+    void updateAll(List<User> users);
+
+    /**
+     * Writes one batch of changes in a single transaction: deletes every row
+     * first if {@code clear}, then inserts {@code inserts} as
+     * {@link #insertAll} does and updates {@code updates} as
+     * {@link #updateAll} does. If any step fails, nothing is written and no
+     * inserted user keeps an id.
+     */
+    void writeBatch(boolean clear, List<User> inserts, List<User> updates);
+}
@@ -0,0 +1,82 @@
+package com.example.pitdemo.repository;
+
+import com.example.pitdemo.model.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Implementation of {@link UserBatchWrites}, picked up by Spring Data by name.
+ */
+class UserBatchWritesImpl implements UserBatchWrites {
+
+    // Bound on the IN list when loading the rows to update
+    private static final int IDS_PER_QUERY = 1_000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public void insertAll(List<User> users) {
+        try {
+            for (int i = 0; i < users.size(); i++) {
+                entityManager.persist(users.get(i));
+                if ((i + 1) % User.ID_ALLOCATION_SIZE == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+            }
+            entityManager.flush();
+        } catch (RuntimeException e) {
+            // The transaction rolls back, so no user keeps the id persist gave it
+            users.forEach(user -> user.setId(null));
+            throw e;
+        }
+        entityManager.clear();
+    }
+
+    @Override
+    @Transactional
+    public void updateAll(List<User> users) {
+        for (int from = 0; from < users.size(); from += IDS_PER_QUERY) {
+            List<User> chunk = users.subList(from, Math.min(from + IDS_PER_QUERY, users.size()));
+            Map<Long, User> changes = new HashMap<>(chunk.size() * 2);
+            for (User user : chunk) {
+                changes.put(user.getId(), user);
+            }
+            List<User> rows = entityManager.createQuery("select u from User u where u.id in :ids", User.class)
+                    .setParameter("ids", changes.keySet())
+                    .getResultList();
+            for (User row : rows) {
+                User changed = changes.get(row.getId());
+                row.setScore(changed.getScore());
+                row.setStatus(changed.getStatus());
+                row.setBirthDate(changed.getBirthDate());
+            }
+            entityManager.flush();
+            entityManager.clear();
+        }
+    }
+
+    // Calls the other writes directly, so they join this transaction
+    @Override
+    @Transactional
+    public void writeBatch(boolean clear, List<User> inserts, List<User> updates) {
+        if (clear) {
+            entityManager.createQuery("delete from User").executeUpdate();
+        }
+        insertAll(inserts);
+        try {
+            updateAll(updates);
+        } catch (RuntimeException e) {
+            // The inserts roll back with the rest
+            inserts.forEach(user -> user.setId(null));
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.pitdemo.repository;
+
+import com.example.pitdemo.model.User;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Spring Data repository for {@link User} entities, used by
+ * {@link com.example.pitdemo.service.store.JpaUserStore}.
+ */
+public interface UserRepository extends JpaRepository<User, Long>, UserBatchWrites {
+
+    /**
+     * Exact, case-sensitive match on the username index.
+     */
+    Optional<User> findByUsername(String username);
+
+    /**
+     * Checks a normalized username against the unique key index.
+     */
+    boolean existsByUsernameKey(String usernameKey);
+
+    /**
+     * Checks a normalized email against the unique key index.
+     */
+    boolean existsByEmailKey(String emailKey);
+
+    /**
+     * The next users by id after {@code id}, which follows insertion order,
+     * read from the primary key index.
+     */
+    List<User> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    /**
+     * Users with {@code status} in insertion order, read from the status index.
+     */
+    List<User> findByStatusOrderByIdAsc(User.UserStatus status);
+
+    long countByStatus(User.UserStatus status);
+
+    /**
+     * Users born in {@code [from, to)}, plus those without a birth date if
+     * {@code undated}; oldest first, then undated, ties in insertion order.
+     * A {@code null} {@code from} is unbounded.
+     */
+    @Query("select u from User u"
+            + " where (u.birthDate < :to and (:from is null or u.birthDate >= :from))"
+            + " or (:undated = true and u.birthDate is null)"
+            + " order by case when u.birthDate is null then 1 else 0 end, u.birthDate, u.id")
+    List<User> findByBirthDateRange(@Param("from") LocalDate from, @Param("to") LocalDate to,
+                                    @Param("undated") boolean undated);
+
+    @Query("select count(u) from User u"
+            + " where (u.birthDate < :to and (:from is null or u.birthDate >= :from))"
+            + " or (:undated = true and u.birthDate is null)")
+    long countByBirthDateRange(@Param("from") LocalDate from, @Param("to") LocalDate to,
+                               @Param("undated") boolean undated);
+
+    /**
+     * Computes every statistics figure in one aggregate over the table.
+     *
+     * Ages follow {@link com.example.pitdemo.util.AgeUtils#age}: dates are
+     * packed as {@code year * 10000 + month * 100 + day}, and the difference
+     * divided by 10000, truncating, is the age in whole years.
+     *
+     * @param today today packed the same way
+     * @param adultBirthDate the latest birth date of an adult today
+     */
+    @Query("select new com.example.pitdemo.repository.UserStatisticsRow("
+            + " count(u),"
+            + " avg(u.score),"
+            + " sum(case when u.birthDate is null then 0"
+            + "     else (:today - (year(u.birthDate) * 10000 + month(u.birthDate) * 100 + day(u.birthDate)))"
+            + "         / 10000 end),"
+            + " sum(case when u.status = :active then 1 else 0 end),"
+            + " sum(case when u.birthDate <= :adultBirthDate then 1 else 0 end),"
+            + " sum(case when u.status = :active and u.birthDate <= :adultBirthDate and u.score >= 75"
+            + "     then 1 else 0 end))"
+            + " from User u")
+    UserStatisticsRow aggregateStatistics(@Param("today") int today,
+                                          @Param("adultBirthDate") LocalDate adultBirthDate,
+                                          @Param("active") User.UserStatus active);
+
+    /**
+     * Writes the mutable fields of one user in a single statement.
+     *
+     * @return the number of rows updated, 0 if the user is gone
+     */
+    @Transactional
+    @Modifying
+    @Query("update User u set u.score = :score, u.status = :status, u.birthDate = :birthDate where u.id = :id")
+    int updateState(@Param("id") Long id, @Param("score") int score, @Param("status") User.UserStatus status,
+                    @Param("birthDate") LocalDate birthDate);
+}
@@ -0,0 +1,38 @@
+package com.example.pitdemo.repository;
+
+import com.example.pitdemo.service.UserService.UserStatistics;
+
+/**
+ * Result of {@link UserRepository#aggregateStatistics}: one row of sums
+ * over the users table. Sums and averages are {@code null} for an empty table.
+ */
+public final class UserStatisticsRow {
+
+    private final long totalUsers;
+    private final Double averageScore;
+    private final Long ageSum;
+    private final Long activeUsers;
+    private final Long adultUsers;
+    private final Long promotableUsers;
+
+    public UserStatisticsRow(Long totalUsers, Double averageScore, Long ageSum,
+                             Long activeUsers, Long adultUsers, Long promotableUsers) {
+        this.totalUsers = totalUsers == null ? 0 : totalUsers;
+        this.averageScore = averageScore;
+        this.ageSum = ageSum;
+        this.activeUsers = activeUsers;
+        this.adultUsers = adultUsers;
+        this.promotableUsers = promotableUsers;
+    }
+
+    /**
+     * Maps the row to service statistics; users without a birth date count as age 0.
+     */
+    public UserStatistics toStatistics() {
+        if (totalUsers == 0) {
+            return new UserStatistics(0, 0.0, 0.0, 0, 0, 0);
+        }
+        return new UserStatistics(Math.toIntExact(totalUsers), averageScore, (double) ageSum / totalUsers,
+                Math.toIntExact(activeUsers), Math.toIntExact(adultUsers), Math.toIntExact(promotableUsers));
+    }
+}
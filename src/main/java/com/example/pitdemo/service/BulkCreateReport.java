@@ -0,0 +1,104 @@
+package com.example.pitdemo.service;
+
+import com.example.pitdemo.model.User;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of {@link UserService#createUsers}: one row per input, in input
+ * order, that either holds the created user or the reason it was rejected.
+ */
+public class BulkCreateReport {
+
+    private final List<Row> rows;
+    private final int createdCount;
+
+    BulkCreateReport(List<Row> rows) {
+        this.rows = Collections.unmodifiableList(rows);
+        int created = 0;
+        for (Row row : rows) {
+            if (row.isCreated()) {
+                created++;
+            }
+        }
+        this.createdCount = created;
+    }
+
+    public List<Row> getRows() {
+        return rows;
+    }
+
+    public List<User> getCreatedUsers() {
+        List<User> created = new ArrayList<>(createdCount);
+        for (Row row : rows) {
+            if (row.isCreated()) {
+                created.add(row.getUser());
+            }
+        }
+        return created;
+    }
+
+    public List<Row> getRejectedRows() {
+        List<Row> rejected = new ArrayList<>(rows.size() - createdCount);
+        for (Row row : rows) {
+            if (!row.isCreated()) {
+                rejected.add(row);
+            }
+        }
+        return rejected;
+    }
+
+    public int getCreatedCount() { return createdCount; }
+    public int getRejectedCount() { return rows.size() - createdCount; }
+
+    /**
+     * Result for one input.
+     */
+    public static final class Row {
+        private final int index;
+        private final NewUser input;
+        private final User user;
+        private final String error;
+
+        private Row(int index, NewUser input, User user, String error) {
+            this.index = index;
+            this.input = input;
+            this.user = user;
+            this.error = error;
+        }
+
+        static Row created(int index, NewUser input, User user) {
+            return new Row(index, input, user, null);
+        }
+
+        static Row rejected(int index, NewUser input, String error) {
+            return new Row(index, input, null, error);
+        }
+
+        /**
+         * Position of the input in the submitted collection, from 0.
+         */
+        public int getIndex() { return index; }
+        public NewUser getInput() { return input; }
+        public boolean isCreated() { return user != null; }
+
+        /**
+         * The created user, or {@code null} if the row was rejected.
+         */
+        public User getUser() { return user; }
+
+        /**
+         * Why the row was rejected, or {@code null} if it was created.
+         */
+        public String getError() { return error; }
+
+        @Override
+        public String toString() {
+            return isCreated()
+                    ? "Row{" + index + ", created " + user.getUsername() + '}'
+                    : "Row{" + index + ", rejected: " + error + '}';
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.pitdemo.service;
+
+import java.time.LocalDate;
+
+/**
+ * Input for one user in {@link UserService#createUsers}: the same fields
+ * {@link UserService#createUser} takes.
+ */
+public final class NewUser {
+
+    private final String username;
+    private final String email;
+    private final LocalDate birthDate;
+
+    public NewUser(String username, String email, LocalDate birthDate) {
+        this.username = username;
+        this.email = email;
+        this.birthDate = birthDate;
+    }
+
+    public String getUsername() { return username; }
+    public String getEmail() { return email; }
+    public LocalDate getBirthDate() { return birthDate; }
+
+    @Override
+    public String toString() {
+        return "NewUser{" +
+                "username='" + username + '\'' +
+                ", email='" + email + '\'' +
+                ", birthDate=" + birthDate +
+                '}';
+    }
+}
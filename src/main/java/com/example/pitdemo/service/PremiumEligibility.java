@@ -0,0 +1,86 @@
+package com.example.pitdemo.service;
+
+import com.example.pitdemo.model.User;
+import com.example.pitdemo.util.AgeUtils;
+import com.example.pitdemo.util.MathUtils;
+
+import java.time.LocalDate;
+
+/**
+ * The premium access rule behind {@link UserService#canAccessPremiumFeatures}.
+ *
+ * Eligibility depends only on score, status and age, and age only matters
+ * at the 18 and 25 year thresholds, so stores can keep the set of eligible
+ * users and update it as those change.
+ */
+public final class PremiumEligibility {
+
+    /** Users become eligible at this age. */
+    public static final int ADULT_AGE = 18;
+
+    /** From this age on, users need {@link #SENIOR_MIN_SCORE} instead of {@link #JUNIOR_MIN_SCORE}. */
+    public static final int SENIOR_AGE = 25;
+
+    private static final int JUNIOR_MIN_SCORE = 60;
+    private static final int SENIOR_MIN_SCORE = 70;
+    private static final int HIGH_SCORE = 85;
+
+    private static final int MAX_SCORE = 100;
+
+    // Bit n is set if n is prime, for every score updateScore accepts
+    private static final long[] PRIME_SCORES = new long[MAX_SCORE / Long.SIZE + 1];
+
+    static {
+        for (int prime : MathUtils.sieveOfEratosthenes(MAX_SCORE)) {
+            PRIME_SCORES[prime >>> 6] |= 1L << prime;
+        }
+    }
+
+    private PremiumEligibility() {
+    }
+
+    /**
+     * Checks the rule for a user of the given age: active, adult, at least
+     * the score required for the age, and a prime score or a high one.
+     */
+    public static boolean isEligible(int score, User.UserStatus status, int age) {
+        // Must be active and adult
+        if (status != User.UserStatus.ACTIVE || age < ADULT_AGE) {
+            return false;
+        }
+
+        // Score requirements based on age
+        int requiredScore = age < SENIOR_AGE ? JUNIOR_MIN_SCORE : SENIOR_MIN_SCORE;
+        if (score < requiredScore) {
+            return false;
+        }
+
+        return isPrimeScore(score) || score >= HIGH_SCORE;
+    }
+
+    /**
+     * Checks the rule for a user as of {@code today}; users without a birth
+     * date count as age 0, as in {@link User#getAge()}.
+     */
+    public static boolean isEligible(int score, User.UserStatus status, LocalDate birthDate, LocalDate today) {
+        int age = birthDate == null ? 0 : AgeUtils.age(birthDate.toEpochDay(), today.toEpochDay());
+        return isEligible(score, status, age);
+    }
+
+    /**
+     * Checks the rule for a user as of {@code today}.
+     */
+    public static boolean isEligible(User user, LocalDate today) {
+        return isEligible(user.getScore(), user.getStatus(), user.getBirthDate(), today);
+    }
+
+    /**
+     * Same as {@link MathUtils#isPrime}, with scores up to 100 read from a bitset.
+     */
+    static boolean isPrimeScore(int score) {
+        if (score >= 0 && score <= MAX_SCORE) {
+            return (PRIME_SCORES[score >>> 6] & (1L << score)) != 0;
+        }
+        return MathUtils.isPrime(score);
+    }
+}
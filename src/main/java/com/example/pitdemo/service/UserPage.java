@@ -0,0 +1,70 @@
+package com.example.pitdemo.service;
+
+import com.example.pitdemo.model.User;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One page of users in insertion order, from {@link UserService#getUsers}.
+ *
+ * The page token names the position of the last user on the page, not an
+ * offset, so the next page starts right after that user however many users
+ * were added in the meantime: nobody is skipped or repeated, and users added
+ * later simply show up on a later page.
+ */
+public final class UserPage {
+
+    private final List<User> users;
+    private final long lastPosition;
+    private final boolean more;
+
+    /**
+     * @param users the users on the page
+     * @param lastPosition the store position of the last user on the page,
+     *                     which the next page continues after
+     * @param more whether the store had users after the page when it was read
+     */
+    public UserPage(List<User> users, long lastPosition, boolean more) {
+        this.users = Collections.unmodifiableList(users);
+        this.lastPosition = lastPosition;
+        this.more = more;
+    }
+
+    public List<User> getUsers() {
+        return users;
+    }
+
+    public boolean hasNextPage() {
+        return more;
+    }
+
+    /**
+     * Returns the token that fetches the next page, or {@code null} if this
+     * is the last page.
+     */
+    public String getNextPageToken() {
+        return more ? Long.toString(lastPosition, Character.MAX_RADIX) : null;
+    }
+
+    /**
+     * Returns the store position a page token continues after; {@code null}
+     * starts at the first user.
+     *
+     * @throws IllegalArgumentException if the token was not made by {@link #getNextPageToken()}
+     */
+    static long positionOf(String pageToken) {
+        if (pageToken == null) {
+            return 0;
+        }
+        try {
+            long position = Long.parseLong(pageToken, Character.MAX_RADIX);
+            if (position > 0) {
+                return position;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new IllegalArgumentException("Invalid page token: " + pageToken);
+    }
+}
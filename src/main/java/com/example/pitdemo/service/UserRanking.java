@@ -0,0 +1,128 @@
+package com.example.pitdemo.service;
+
+import com.example.pitdemo.model.User;
+import com.example.pitdemo.util.AgeUtils;
+import com.example.pitdemo.util.KeyUtils;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+
+/**
+ * The ranking formula behind {@link UserService#calculateUserRanking}.
+ *
+ * A ranking depends only on score, status and adulthood, so stores can
+ * keep users ordered by it and update the order as those change. The
+ * formula scales the score by one factor each for adulthood, status and
+ * experience level; with only 2 x 4 x 5 combinations, their products are
+ * computed once into a table, and ranking a user is one lookup and one
+ * multiplication. The level comes from {@link User.ExperienceLevel#of}, so
+ * no level name is built or compared.
+ */
+public final class UserRanking {
+
+    private static final int ADULT_AGE = 18;
+
+    private static final double[] AGE_FACTORS = {0.8, 1.2};
+    // By status ordinal; deleted users rank 0
+    private static final double[] STATUS_FACTORS = {1.5, 0.5, 0.1, 0.0};
+    // By User.ExperienceLevel ordinal, Novice to Expert
+    private static final double[] LEVEL_FACTORS = {0.7, 1.0, 1.3, 1.7, 2.0};
+
+    // The product of the three factors for every (adult, status, level) cell.
+    // Multiplying the score once gives the same rounded ranking as applying the
+    // factors one after another, which the tests check over the score range
+    private static final double[] MULTIPLIERS = new double[AGE_FACTORS.length * STATUS_FACTORS.length
+            * LEVEL_FACTORS.length];
+
+    static {
+        for (int adult = 0; adult < AGE_FACTORS.length; adult++) {
+            for (int status = 0; status < STATUS_FACTORS.length; status++) {
+                for (int level = 0; level < LEVEL_FACTORS.length; level++) {
+                    MULTIPLIERS[cell(adult == 1, status, level)] =
+                            AGE_FACTORS[adult] * STATUS_FACTORS[status] * LEVEL_FACTORS[level];
+                }
+            }
+        }
+    }
+
+    private UserRanking() {
+    }
+
+    /**
+     * Calculates a ranking from the score, scaled by adulthood, status and
+     * experience level, rounded to 2 decimal places.
+     *
+     * @throws IllegalArgumentException if the score is negative
+     */
+    public static double of(int score, User.UserStatus status, boolean adult) {
+        if (score < 0) {
+            throw new IllegalArgumentException("Score cannot be negative");
+        }
+        int level = User.ExperienceLevel.of(score).ordinal();
+        return round(score * MULTIPLIERS[cell(adult, status.ordinal(), level)]);
+    }
+
+    /**
+     * Ranks a batch of users given as parallel columns, as {@link #of} does
+     * for each: {@code statuses} holds {@link User.UserStatus} ordinals.
+     *
+     * @return the rankings, in the order of the columns
+     * @throws IllegalArgumentException if the columns differ in length, or a score is
+     *         negative or a status ordinal unknown
+     */
+    public static double[] rankAll(int[] scores, byte[] statuses, boolean[] adults) {
+        if (statuses.length != scores.length || adults.length != scores.length) {
+            throw new IllegalArgumentException("Columns must have the same length");
+        }
+        double[] rankings = new double[scores.length];
+        for (int i = 0; i < scores.length; i++) {
+            int score = scores[i];
+            int status = statuses[i];
+            if (score < 0) {
+                throw new IllegalArgumentException("Score cannot be negative");
+            }
+            if (status < 0 || status >= STATUS_FACTORS.length) {
+                throw new IllegalArgumentException("Unknown status ordinal: " + status);
+            }
+            int level = User.ExperienceLevel.of(score).ordinal();
+            rankings[i] = round(score * MULTIPLIERS[cell(adults[i], status, level)]);
+        }
+        return rankings;
+    }
+
+    /**
+     * Calculates the ranking of a user as of {@code today}.
+     */
+    public static double of(User user, LocalDate today) {
+        return of(user.getScore(), user.getStatus(), isAdult(user.getBirthDate(), today));
+    }
+
+    /**
+     * Whether a user can be ranked at all: the formula needs a status and a
+     * score that is not negative, which only setters bypassing validation break.
+     */
+    public static boolean isRankable(int score, User.UserStatus status) {
+        return score >= 0 && status != null;
+    }
+
+    /**
+     * Orders rankable users for a leaderboard as of {@code today}: highest
+     * ranking first, ties by username key (see {@link KeyUtils#normalize}).
+     */
+    public static Comparator<User> leaderboardOrder(LocalDate today) {
+        return Comparator.comparingDouble((User user) -> of(user, today)).reversed()
+                .thenComparing(user -> KeyUtils.normalize(user.getUsername()));
+    }
+
+    private static int cell(boolean adult, int status, int level) {
+        return ((adult ? 1 : 0) * STATUS_FACTORS.length + status) * LEVEL_FACTORS.length + level;
+    }
+
+    private static double round(double ranking) {
+        return Math.round(ranking * 100.0) / 100.0; // Round to 2 decimal places
+    }
+
+    static boolean isAdult(LocalDate birthDate, LocalDate today) {
+        return birthDate != null && !birthDate.isAfter(AgeUtils.latestBirthDateForAge(today, ADULT_AGE));
+    }
+}
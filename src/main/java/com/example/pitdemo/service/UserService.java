@@ -1,24 +1,95 @@
 package com.example.pitdemo.service;
 
 import com.example.pitdemo.model.User;
-import com.example.pitdemo.util.MathUtils;
+import com.example.pitdemo.service.snapshot.UserSnapshot;
+import com.example.pitdemo.service.snapshot.WalRecord;
+import com.example.pitdemo.service.snapshot.WriteAheadLog;
+import com.example.pitdemo.service.store.InMemoryUserStore;
+import com.example.pitdemo.service.store.UserSetVersion;
+import com.example.pitdemo.service.store.UserStore;
+import com.example.pitdemo.util.DayClock;
+import com.example.pitdemo.util.LockStripes;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
-import java.util.List;
 import java.util.ArrayList;
-import java.util.stream.Collectors;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 /**
  * User service demonstrating complex business logic for mutation testing.
  * 
  * This service combines various operations and validations that make
  * excellent candidates for revealing weak spots in our test suite.
+ *
+ * The service is a singleton bean and is safe for concurrent use. Reads,
+ * including those of a single user, take no lock and never wait for
+ * writers; one that races a change to the same user may see part of it.
+ * Changes to a user hold that user's lock stripe so they see and leave
+ * consistent state, and clears and snapshots hold every stripe.
+ *
+ * With a {@link WriteAheadLog} attached, every change is logged under the
+ * same lock stripe, so records of one user are logged in the order they
+ * were applied, and the call returns once the log's fsync policy is met.
+ * A change is logged before it is applied, so one the log refuses, for
+ * example because it is closed or failed earlier, is not applied either.
+ * New users are checked against the store's own limits before they are
+ * logged, so the store does not refuse a logged user; this holds for
+ * stores only this service writes to, which are the ones to log.
+ * A change whose record was appended but whose sync then fails is applied
+ * and reported failed, like any write that may or may not have reached disk.
  */
 @Service
 public class UserService {
 
-    private final List<User> users = new ArrayList<>();
+    private static final int LOCK_STRIPES = 64;
+    // Populations and batches at least this large are processed in parallel
+    private static final int PARALLEL_THRESHOLD = 10_000;
+
+    /** The most users {@link #getUsers} returns on one page. */
+    public static final int MAX_PAGE_SIZE = 1_000;
+
+    private final UserStore store;
+    private final DayClock clock;
+    private final LockStripes userLocks = new LockStripes(LOCK_STRIPES);
+    private volatile WriteAheadLog log;
+
+    public UserService() {
+        this(new InMemoryUserStore());
+    }
+
+    /**
+     * Creates a service backed by the given store, for example a
+     * {@link com.example.pitdemo.service.store.ColumnarUserStore} for scan-heavy workloads.
+     */
+    public UserService(UserStore store) {
+        this(store, DayClock.system());
+    }
+
+    /**
+     * Creates a service that takes today's date from {@code clock}, for
+     * evaluating ages, rankings and eligibility as of a chosen date. Store
+     * indexes and statistics follow the store's own clock, so give the
+     * store the same one. The application injects the store chosen by
+     * {@code pitdemo.store} and the clock shared with it.
+     */
+    @Autowired
+    public UserService(UserStore store, DayClock clock) {
+        if (clock == null) {
+            throw new IllegalArgumentException("Clock cannot be null");
+        }
+        this.store = store;
+        this.clock = clock;
+    }
 
     /**
      * Creates a new user with validation.
@@ -27,35 +98,206 @@ public class UserService {
     public User createUser(String username, String email, LocalDate birthDate) {
         validateUserInput(username, email, birthDate);
         
-        if (usernameExists(username)) {
-            throw new IllegalArgumentException("Username already exists: " + username);
-        }
-        
-        if (emailExists(email)) {
-            throw new IllegalArgumentException("Email already exists: " + email);
-        }
-        
         User user = new User(username, email, birthDate);
         
         // Auto-activate adults with valid email
-        if (user.isAdult() && user.hasValidEmailFormat()) {
+        if (user.isAdult(clock.epochDay()) && user.hasValidEmailFormat()) {
             user.setStatus(User.UserStatus.ACTIVE);
         }
         
-        users.add(user);
+        // The store rejects taken keys itself, so there is no lookup first unless the user
+        // is to be logged; then it is checked under the locks of both keys, so no concurrent
+        // signup takes either between logging and adding the user
+        long sequence = 0;
+        int[] stripes = userLocks.lockAll(List.of(UserStore.normalize(username), UserStore.normalize(email)));
+        try {
+            if (log != null) {
+                String rejection = rejection(user);
+                if (rejection != null) {
+                    throw new IllegalArgumentException(rejection);
+                }
+                sequence = logChange(user);
+            }
+            store.add(user);
+        } finally {
+            userLocks.unlock(stripes);
+        }
+        awaitLogged(sequence);
+        return user;
+    }
+
+    /**
+     * Creates many users at once with the same validation and auto-activation
+     * rules as {@link #createUser}, reporting bad rows instead of throwing.
+     *
+     * Rows are validated independently, in parallel for large batches. One
+     * pass then rejects usernames and emails repeated within the batch,
+     * keeping the first occurrence, and the store inserts the rest in a
+     * single operation, rejecting those already taken. The insert holds the
+     * lock stripes of every username and email in the batch, so it is
+     * ordered against single-user changes and {@link #clearUsers} like they
+     * are against each other. With a log attached, the batch is also checked
+     * against the store under those stripes and logged before it is inserted.
+     */
+    public BulkCreateReport createUsers(Collection<NewUser> newUsers) {
+        if (newUsers == null) {
+            throw new IllegalArgumentException("Users cannot be null");
+        }
+        List<NewUser> inputs = new ArrayList<>(newUsers);
+        User[] users = new User[inputs.size()];
+        String[] errors = new String[inputs.size()];
+        LocalDate today = clock.today();
+
+        IntStream rows = IntStream.range(0, inputs.size());
+        if (inputs.size() >= PARALLEL_THRESHOLD) {
+            rows = rows.parallel();
+        }
+        rows.forEach(i -> {
+            try {
+                users[i] = buildUser(inputs.get(i), today);
+            } catch (IllegalArgumentException e) {
+                errors[i] = e.getMessage();
+            }
+        });
+
+        rejectDuplicatesWithinBatch(users, errors);
+
+        List<String> keys = new ArrayList<>(users.length * 2);
+        for (User user : users) {
+            if (user != null) {
+                keys.add(UserStore.normalize(user.getUsername()));
+                keys.add(UserStore.normalize(user.getEmail()));
+            }
+        }
+
+        List<BulkCreateReport.Row> report = new ArrayList<>(users.length);
+        long sequence = 0;
+        int[] stripes = userLocks.lockAll(keys);
+        try {
+            // When logging, users are checked against the store and logged before it takes
+            // them; otherwise the store's own checks in addAll are enough
+            boolean logging = log != null;
+            List<User> accepted = new ArrayList<>(users.length);
+            for (int i = 0; i < users.length; i++) {
+                if (users[i] != null && logging) {
+                    errors[i] = rejection(users[i]);
+                    if (errors[i] != null) {
+                        users[i] = null;
+                    }
+                }
+                if (users[i] != null) {
+                    accepted.add(users[i]);
+                    sequence = Math.max(sequence, logChange(users[i]));
+                }
+            }
+            Iterator<String> rejections = store.addAll(accepted).iterator();
+            for (int i = 0; i < users.length; i++) {
+                String error = users[i] == null ? errors[i] : rejections.next();
+                if (error == null) {
+                    report.add(BulkCreateReport.Row.created(i, inputs.get(i), users[i]));
+                } else {
+                    report.add(BulkCreateReport.Row.rejected(i, inputs.get(i), error));
+                }
+            }
+        } finally {
+            userLocks.unlock(stripes);
+        }
+        // One wait covers the whole batch
+        awaitLogged(sequence);
+        return new BulkCreateReport(report);
+    }
+
+    /**
+     * Says why the store would not take the user, or returns {@code null} if it would.
+     */
+    private String rejection(User user) {
+        try {
+            store.validate(user);
+        } catch (IllegalArgumentException e) {
+            return e.getMessage();
+        }
+        return takenKey(user);
+    }
+
+    /**
+     * Says why the user cannot be added because its username or email is
+     * taken, or returns {@code null} if neither is.
+     */
+    private String takenKey(User user) {
+        if (usernameExists(user.getUsername())) {
+            return "Username already exists: " + user.getUsername();
+        }
+        if (emailExists(user.getEmail())) {
+            return "Email already exists: " + user.getEmail();
+        }
+        return null;
+    }
+
+    private User buildUser(NewUser input, LocalDate today) {
+        if (input == null) {
+            throw new IllegalArgumentException("User data cannot be null");
+        }
+        validateUserInput(input.getUsername(), input.getEmail(), input.getBirthDate(), today);
+
+        User user = new User(input.getUsername(), input.getEmail(), input.getBirthDate());
+        if (user.isAdult(today.toEpochDay()) && user.hasValidEmailFormat()) {
+            user.setStatus(User.UserStatus.ACTIVE);
+        }
         return user;
     }
 
+    /**
+     * Rejects any user whose username or email, ignoring case, already
+     * appeared earlier in the batch.
+     */
+    private void rejectDuplicatesWithinBatch(User[] users, String[] errors) {
+        Set<String> usernames = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        for (int i = 0; i < users.length; i++) {
+            User user = users[i];
+            if (user == null) {
+                continue;
+            }
+            String usernameKey = UserStore.normalize(user.getUsername());
+            String emailKey = UserStore.normalize(user.getEmail());
+            if (usernames.contains(usernameKey)) {
+                errors[i] = "Duplicate username in batch: " + user.getUsername();
+                users[i] = null;
+            } else if (emails.contains(emailKey)) {
+                errors[i] = "Duplicate email in batch: " + user.getEmail();
+                users[i] = null;
+            } else {
+                usernames.add(usernameKey);
+                emails.add(emailKey);
+            }
+        }
+    }
+
     /**
      * Updates user score with business rules.
      * Demonstrates state transitions and complex validation.
      */
     public void updateUserScore(String username, int newScore) {
-        User user = findUserByUsername(username);
-        if (user == null) {
-            throw new IllegalArgumentException("User not found: " + username);
+        long[] sequence = new long[1];
+        Lock lock = lockFor(username);
+        lock.lock();
+        try {
+            // The rules run on a copy that the store writes back once, so a store that
+            // writes through to a database issues one update for the whole change
+            boolean found = store.update(username, user -> {
+                applyScoreUpdate(user, newScore);
+                sequence[0] = logChange(user);
+            });
+            if (!found) {
+                throw new IllegalArgumentException("User not found: " + username);
+            }
+        } finally {
+            lock.unlock();
         }
-        
+        awaitLogged(sequence[0]);
+    }
+
+    private void applyScoreUpdate(User user, int newScore) {
         int oldScore = user.getScore();
         user.updateScore(newScore);
         
@@ -80,113 +322,76 @@ public class UserService {
      */
     public double calculateUserRanking(String username) {
         User user = findUserByUsername(username);
-        if (user == null) {
-            return 0.0;
-        }
-        
-        double ranking = user.getScore();
-        
-        // Age factor - adults get bonus
-        if (user.isAdult()) {
-            ranking *= 1.2;
-        } else {
-            ranking *= 0.8;
-        }
-        
-        // Status factor
-        switch (user.getStatus()) {
-            case ACTIVE:
-                ranking *= 1.5;
-                break;
-            case INACTIVE:
-                ranking *= 0.5;
-                break;
-            case SUSPENDED:
-                ranking *= 0.1;
-                break;
-            case DELETED:
-                ranking = 0.0;
-                break;
+        return user == null ? 0.0 : calculateRanking(user);
+    }
+
+    /**
+     * Returns up to {@code k} users with the highest ranking, best first;
+     * users with the same ranking are ordered by username, ignoring case.
+     * Stores that keep users in ranking order answer without ranking everyone.
+     */
+    public List<User> topN(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k cannot be negative");
         }
-        
-        // Experience level multiplier
-        String level = user.getExperienceLevel();
-        switch (level) {
-            case "Expert":
-                ranking *= 2.0;
-                break;
-            case "Advanced":
-                ranking *= 1.7;
-                break;
-            case "Intermediate":
-                ranking *= 1.3;
-                break;
-            case "Beginner":
-                ranking *= 1.0;
-                break;
-            case "Novice":
-                ranking *= 0.7;
-                break;
+        return store.findTopRanked(k, clock.today());
+    }
+
+    /**
+     * Returns the leaderboard position of a user: 1 plus the number of users
+     * with a strictly higher ranking, so users with equal rankings share a position.
+     *
+     * @throws IllegalArgumentException if no user has exactly this username
+     */
+    public int rankOf(String username) {
+        int rank = store.rankOf(username, clock.today());
+        if (rank == 0) {
+            throw new IllegalArgumentException("User not found: " + username);
         }
-        
-        return Math.round(ranking * 100.0) / 100.0; // Round to 2 decimal places
+        return rank;
+    }
+
+    private double calculateRanking(User user) {
+        return UserRanking.of(user.getScore(), user.getStatus(), user.isAdult(clock.epochDay()));
     }
 
     /**
      * Finds users by age range with validation.
      * Demonstrates filtering and boundary conditions.
+     * Users are returned oldest first.
      */
     public List<User> findUsersByAgeRange(int minAge, int maxAge) {
-        if (minAge < 0 || maxAge < 0) {
-            throw new IllegalArgumentException("Age cannot be negative");
-        }
-        
-        if (minAge > maxAge) {
-            throw new IllegalArgumentException("Minimum age cannot be greater than maximum age");
-        }
-        
-        return users.stream()
-                .filter(user -> {
-                    int age = user.getAge();
-                    return age >= minAge && age <= maxAge;
-                })
-                .collect(Collectors.toList());
+        validateAgeRange(minAge, maxAge);
+        return store.findByAgeRange(minAge, maxAge, clock.today());
+    }
+
+    /**
+     * Counts users by age range without building the list of matches.
+     */
+    public int countUsersByAgeRange(int minAge, int maxAge) {
+        validateAgeRange(minAge, maxAge);
+        return store.countByAgeRange(minAge, maxAge, clock.today());
     }
 
     /**
      * Generates a user report with statistics.
-     * Demonstrates aggregation operations and mathematical calculations.
+     * The store keeps the aggregates up to date, so this does not scan users.
      */
     public UserStatistics generateStatistics() {
-        if (users.isEmpty()) {
-            return new UserStatistics(0, 0.0, 0.0, 0, 0, 0);
-        }
-        
-        int totalUsers = users.size();
-        int activeUsers = (int) users.stream()
-                .filter(user -> user.getStatus() == User.UserStatus.ACTIVE)
-                .count();
-        
-        double averageScore = users.stream()
-                .mapToInt(User::getScore)
-                .average()
-                .orElse(0.0);
-        
-        double averageAge = users.stream()
-                .mapToInt(User::getAge)
-                .average()
-                .orElse(0.0);
-        
-        int adultUsers = (int) users.stream()
-                .filter(User::isAdult)
-                .count();
-        
-        int promotableUsers = (int) users.stream()
-                .filter(User::canBePromoted)
-                .count();
-        
-        return new UserStatistics(totalUsers, averageScore, averageAge, 
-                                activeUsers, adultUsers, promotableUsers);
+        return store.statistics();
+    }
+
+    /**
+     * Recomputes statistics from scratch in a single pass over all users.
+     * Used to audit the maintained figures; also reports score and age spread.
+     * Large populations are traversed in parallel.
+     */
+    public UserStatisticsAccumulator recomputeStatistics() {
+        List<User> users = store.findAll();
+        Stream<User> stream = users.size() >= PARALLEL_THRESHOLD
+                ? users.parallelStream()
+                : users.stream();
+        return stream.collect(UserStatisticsAccumulator.collector(clock.today()));
     }
 
     /**
@@ -262,29 +467,178 @@ public class UserService {
      */
     public boolean canAccessPremiumFeatures(String username) {
         User user = findUserByUsername(username);
-        if (user == null) {
-            return false;
+        return user != null && isPremiumEligible(user);
+    }
+
+    private boolean isPremiumEligible(User user) {
+        return PremiumEligibility.isEligible(user.getScore(), user.getStatus(), user.getAge(clock.epochDay()));
+    }
+
+    /**
+     * Returns the users with {@code status}. The default store keeps users
+     * by status, so this costs only the matches.
+     *
+     * @throws IllegalArgumentException if {@code status} is null
+     */
+    public List<User> findUsersByStatus(User.UserStatus status) {
+        validateStatus(status);
+        return store.findByStatus(status);
+    }
+
+    /**
+     * Counts the users with {@code status}; O(1) with the default store.
+     *
+     * @throws IllegalArgumentException if {@code status} is null
+     */
+    public int countUsersByStatus(User.UserStatus status) {
+        validateStatus(status);
+        return store.countByStatus(status);
+    }
+
+    private void validateStatus(User.UserStatus status) {
+        if (status == null) {
+            throw new IllegalArgumentException("Status cannot be null");
         }
-        
-        // Must be active and adult
-        if (user.getStatus() != User.UserStatus.ACTIVE || !user.isAdult()) {
-            return false;
+    }
+
+    /**
+     * Checks premium access as {@link #canAccessPremiumFeatures} does.
+     * Stores that keep the set of eligible users answer without evaluating the rule.
+     */
+    public boolean isPremium(String username) {
+        return store.isPremium(username, clock.today());
+    }
+
+    /**
+     * Returns every user who can access premium features. Stores that keep
+     * the set of eligible users answer without checking everyone.
+     */
+    public List<User> listPremiumUsers() {
+        return store.findPremium(clock.today());
+    }
+
+    /**
+     * Copies every user's state for a snapshot.
+     *
+     * The log's last sequence and a version of the user set are read while
+     * every lock stripe is held. Changes are logged before they are applied,
+     * both under a stripe, so at that moment every logged change has been
+     * applied and no other has: the snapshot holds exactly the changes up to
+     * its sequence, and replaying the later records brings it up to date.
+     * Writers wait only while the version is taken, which with the default
+     * store does not copy users; the snapshot is built from it afterwards.
+     */
+    public UserSnapshot snapshot() {
+        long sequence;
+        UserSetVersion version;
+        userLocks.lockAll();
+        try {
+            WriteAheadLog current = log;
+            sequence = current == null ? 0 : current.lastSequence();
+            version = store.currentVersion();
+        } finally {
+            userLocks.unlockAll();
         }
-        
-        // Score requirements based on age
-        int requiredScore = user.getAge() < 25 ? 60 : 70;
-        
-        if (user.getScore() < requiredScore) {
-            return false;
+        UserSnapshot.Builder snapshot = UserSnapshot.builder(version.size()).sequence(sequence);
+        version.forEach((user, state) -> snapshot.add(user.getUsername(), user.getEmail(), state.getBirthDate(),
+                state.getScore(), state.getStatus()));
+        return snapshot.build();
+    }
+
+    /**
+     * Replaces all users with those of a snapshot, in one bulk insert that
+     * rebuilds the store's indexes. Users come back exactly as they were
+     * saved, without validation or auto-activation. Restoring is not
+     * logged; replay the log on top of it afterwards.
+     *
+     * @return the number of users restored
+     */
+    public int restore(UserSnapshot snapshot) {
+        if (snapshot == null) {
+            throw new IllegalArgumentException("Snapshot cannot be null");
         }
-        
-        // Additional check using utility method
-        return MathUtils.isPrime(user.getScore()) || user.getScore() >= 85;
+        store.clear();
+        int restored = 0;
+        for (String rejection : store.addAll(snapshot.toUsers())) {
+            if (rejection == null) {
+                restored++;
+            }
+        }
+        return restored;
+    }
+
+    /**
+     * Applies a change read back from a write-ahead log, without validation
+     * or auto-activation and without logging it again. A put creates the
+     * user or overwrites its state.
+     */
+    public void replay(WalRecord record) {
+        if (record == null) {
+            throw new IllegalArgumentException("Record cannot be null");
+        }
+        if (record.getType() == WalRecord.Type.CLEAR) {
+            store.clear();
+            return;
+        }
+        Lock lock = lockFor(record.getUsername());
+        lock.lock();
+        try {
+            User user = findUserByUsername(record.getUsername());
+            if (user == null) {
+                store.add(record.toUser());
+            } else {
+                user.setState(record.getScore(), record.getStatus(), record.getBirthDate());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Logs every change from now on to {@code log}, or stops logging if it
+     * is {@code null}. Attach the log after replaying it.
+     */
+    public void setWriteAheadLog(WriteAheadLog log) {
+        this.log = log;
     }
 
     // Helper methods
 
+    // Called under the user's lock with its state after the change, before the store
+    // takes it; returns 0 when not logging
+    private long logChange(User user) {
+        return append(WalRecord.put(user));
+    }
+
+    private long append(WalRecord record) {
+        WriteAheadLog current = log;
+        if (current == null) {
+            return 0;
+        }
+        try {
+            return current.append(record);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not log change", e);
+        }
+    }
+
+    private void awaitLogged(long sequence) {
+        WriteAheadLog current = log;
+        if (current == null || sequence == 0) {
+            return;
+        }
+        try {
+            current.sync(sequence);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not log change", e);
+        }
+    }
+
     private void validateUserInput(String username, String email, LocalDate birthDate) {
+        validateUserInput(username, email, birthDate, clock.today());
+    }
+
+    private void validateUserInput(String username, String email, LocalDate birthDate, LocalDate today) {
         if (username == null || username.trim().isEmpty()) {
             throw new IllegalArgumentException("Username cannot be null or empty");
         }
@@ -297,7 +651,7 @@ public class UserService {
             throw new IllegalArgumentException("Birth date cannot be null");
         }
         
-        if (birthDate.isAfter(LocalDate.now())) {
+        if (birthDate.isAfter(today)) {
             throw new IllegalArgumentException("Birth date cannot be in the future");
         }
         
@@ -306,27 +660,36 @@ public class UserService {
         }
     }
 
+    private void validateAgeRange(int minAge, int maxAge) {
+        if (minAge < 0 || maxAge < 0) {
+            throw new IllegalArgumentException("Age cannot be negative");
+        }
+        
+        if (minAge > maxAge) {
+            throw new IllegalArgumentException("Minimum age cannot be greater than maximum age");
+        }
+    }
+
     private boolean usernameExists(String username) {
-        return users.stream()
-                .anyMatch(user -> user.getUsername().equalsIgnoreCase(username));
+        return store.usernameExists(username);
     }
 
     private boolean emailExists(String email) {
-        return users.stream()
-                .anyMatch(user -> user.getEmail().equalsIgnoreCase(email));
+        return store.emailExists(email);
     }
 
     private User findUserByUsername(String username) {
-        return users.stream()
-                .filter(user -> user.getUsername().equals(username))
-                .findFirst()
-                .orElse(null);
+        return store.findByUsername(username);
+    }
+
+    private Lock lockFor(String username) {
+        return userLocks.lockFor(username == null ? "" : UserStore.normalize(username));
     }
 
     private int calculateQualificationBonus(User user) {
         int bonus = 5; // Base bonus
         
-        if (user.isAdult()) {
+        if (user.isAdult(clock.epochDay())) {
             bonus += 3;
         }
         
@@ -339,11 +702,49 @@ public class UserService {
 
     // Getter for testing purposes
     public List<User> getAllUsers() {
-        return new ArrayList<>(users);
+        return store.findAll();
     }
 
+    /**
+     * Returns every user with the score, status and birth date it has now,
+     * as an immutable version that later changes leave alone, for reports
+     * that must see one consistent point in time. With the default store
+     * this neither copies users nor waits for writers.
+     */
+    public UserSetVersion getUserSetVersion() {
+        return store.currentVersion();
+    }
+
+    /**
+     * Returns one page of users in insertion order, for clients that page
+     * through everyone instead of copying the whole list with {@link #getAllUsers()}.
+     * Pages stay consistent while users are added: see {@link UserPage}.
+     *
+     * @param pageToken {@link UserPage#getNextPageToken()} of the previous page, or {@code null} for the first
+     * @param pageSize the most users on the page, 1 to {@value #MAX_PAGE_SIZE}
+     * @throws IllegalArgumentException if the page size is out of range or the token is invalid
+     */
+    public UserPage getUsers(String pageToken, int pageSize) {
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return store.findPage(UserPage.positionOf(pageToken), pageSize);
+    }
+
+    /**
+     * Removes every user. Holds every lock stripe so the clear is logged
+     * after, or before, each change to a single user, as it was applied.
+     */
     public void clearUsers() {
-        users.clear();
+        long sequence;
+        userLocks.lockAll();
+        try {
+            sequence = append(WalRecord.clear());
+            store.clear();
+        } finally {
+            userLocks.unlockAll();
+        }
+        awaitLogged(sequence);
     }
 
     // Inner class for statistics
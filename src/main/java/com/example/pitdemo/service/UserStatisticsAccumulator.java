@@ -0,0 +1,168 @@
+package com.example.pitdemo.service;
+
+import com.example.pitdemo.model.User;
+import com.example.pitdemo.service.UserService.UserStatistics;
+import com.example.pitdemo.util.AgeUtils;
+
+import java.time.LocalDate;
+import java.util.stream.Collector;
+
+/**
+ * Computes every {@link UserStatistics} figure, plus score and age spread,
+ * in a single pass over users.
+ *
+ * Each user's age is computed once against a fixed {@code today}, so the
+ * result is consistent even if the traversal crosses midnight. Accumulators
+ * can be merged, which lets the collector run as a parallel stream.
+ */
+public class UserStatisticsAccumulator {
+
+    private final long todayEpochDay;
+
+    private long count;
+    private long activeUsers;
+    private long adultUsers;
+    private long promotableUsers;
+
+    private long scoreSum;
+    private long scoreSquares;
+    private int minScore = Integer.MAX_VALUE;
+    private int maxScore = Integer.MIN_VALUE;
+
+    private long ageSum;
+    private long ageSquares;
+    private int minAge = Integer.MAX_VALUE;
+    private int maxAge = Integer.MIN_VALUE;
+
+    public UserStatisticsAccumulator(LocalDate today) {
+        this.todayEpochDay = today.toEpochDay();
+    }
+
+    /**
+     * Returns a collector that folds users into an accumulator as of {@code today}.
+     */
+    public static Collector<User, ?, UserStatisticsAccumulator> collector(LocalDate today) {
+        return Collector.of(
+                () -> new UserStatisticsAccumulator(today),
+                UserStatisticsAccumulator::accept,
+                UserStatisticsAccumulator::combine,
+                Collector.Characteristics.UNORDERED,
+                Collector.Characteristics.IDENTITY_FINISH);
+    }
+
+    /**
+     * Adds one user. Reads each field once and computes the age once,
+     * with the same arithmetic as the maintained statistics.
+     */
+    public void accept(User user) {
+        int score = user.getScore();
+        LocalDate birthDate = user.getBirthDate();
+        int age = birthDate == null ? 0 : AgeUtils.age(birthDate.toEpochDay(), todayEpochDay);
+        boolean active = user.getStatus() == User.UserStatus.ACTIVE;
+        boolean adult = age >= 18;
+
+        count++;
+        if (active) {
+            activeUsers++;
+        }
+        if (adult) {
+            adultUsers++;
+        }
+        if (active && adult && score >= 75) {
+            promotableUsers++;
+        }
+
+        scoreSum += score;
+        scoreSquares += (long) score * score;
+        minScore = Math.min(minScore, score);
+        maxScore = Math.max(maxScore, score);
+
+        ageSum += age;
+        ageSquares += (long) age * age;
+        minAge = Math.min(minAge, age);
+        maxAge = Math.max(maxAge, age);
+    }
+
+    /**
+     * Merges another accumulator into this one and returns this one.
+     */
+    public UserStatisticsAccumulator combine(UserStatisticsAccumulator other) {
+        count += other.count;
+        activeUsers += other.activeUsers;
+        adultUsers += other.adultUsers;
+        promotableUsers += other.promotableUsers;
+
+        scoreSum += other.scoreSum;
+        scoreSquares += other.scoreSquares;
+        minScore = Math.min(minScore, other.minScore);
+        maxScore = Math.max(maxScore, other.maxScore);
+
+        ageSum += other.ageSum;
+        ageSquares += other.ageSquares;
+        minAge = Math.min(minAge, other.minAge);
+        maxAge = Math.max(maxAge, other.maxAge);
+        return this;
+    }
+
+    public UserStatistics toStatistics() {
+        return new UserStatistics((int) count, getAverageScore(), getAverageAge(),
+                (int) activeUsers, (int) adultUsers, (int) promotableUsers);
+    }
+
+    public long getCount() { return count; }
+    public long getActiveUsers() { return activeUsers; }
+    public long getAdultUsers() { return adultUsers; }
+    public long getPromotableUsers() { return promotableUsers; }
+
+    public double getAverageScore() {
+        return mean(scoreSum);
+    }
+
+    public double getAverageAge() {
+        return mean(ageSum);
+    }
+
+    /**
+     * Minimum score, or 0 when no users were accumulated.
+     */
+    public int getMinScore() {
+        return count == 0 ? 0 : minScore;
+    }
+
+    public int getMaxScore() {
+        return count == 0 ? 0 : maxScore;
+    }
+
+    /**
+     * Population standard deviation of scores, or 0 when no users were accumulated.
+     */
+    public double getScoreStandardDeviation() {
+        return standardDeviation(scoreSum, scoreSquares);
+    }
+
+    public int getMinAge() {
+        return count == 0 ? 0 : minAge;
+    }
+
+    public int getMaxAge() {
+        return count == 0 ? 0 : maxAge;
+    }
+
+    public double getAgeStandardDeviation() {
+        return standardDeviation(ageSum, ageSquares);
+    }
+
+    private double mean(long sum) {
+        return count == 0 ? 0.0 : (double) sum / count;
+    }
+
+    private double standardDeviation(long sum, long squares) {
+        if (count == 0) {
+            return 0.0;
+        }
+        double mean = (double) sum / count;
+        double variance = (double) squares / count - mean * mean;
+        // Rounding can push a zero variance slightly negative
+        return Math.sqrt(Math.max(variance, 0.0));
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.pitdemo.service.importer;
+
+import com.example.pitdemo.service.NewUser;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.Locale;
+
+/**
+ * Parses CSV lines of username, email and birth date.
+ *
+ * If the first line names all three columns ({@code username},
+ * {@code email}, {@code birthDate}, in any order and case) it is taken as
+ * a header that sets the column order; otherwise columns are in that order
+ * and the first line is data. Fields may be double-quoted, with {@code ""}
+ * for a literal quote, but may not span lines. Extra columns are ignored.
+ */
+final class CsvRecordParser extends RecordParser {
+
+    private int usernameColumn = 0;
+    private int emailColumn = 1;
+    private int birthDateColumn = 2;
+    private boolean firstLine = true;
+
+    private ByteBuffer fieldBuffer;
+    private int fieldStart;
+    private int fieldEnd;
+
+    @Override
+    NewUser parse(ByteBuffer buffer, int start, int end) {
+        if (firstLine) {
+            firstLine = false;
+            if (readHeader(decode(buffer, start, end))) {
+                return null;
+            }
+        }
+
+        String username = null;
+        String email = null;
+        LocalDate birthDate = null;
+        int columns = 0;
+        int position = start;
+        while (true) {
+            int next = readField(buffer, position, end);
+            if (columns == usernameColumn) {
+                username = decode(fieldBuffer, fieldStart, fieldEnd);
+            } else if (columns == emailColumn) {
+                email = decode(fieldBuffer, fieldStart, fieldEnd);
+            } else if (columns == birthDateColumn) {
+                birthDate = parseDate(fieldBuffer, fieldStart, fieldEnd);
+            }
+            columns++;
+            if (next >= end) {
+                break;
+            }
+            position = next + 1;
+        }
+
+        int required = Math.max(usernameColumn, Math.max(emailColumn, birthDateColumn)) + 1;
+        if (columns < required) {
+            throw new IllegalArgumentException("Expected " + required + " fields but found " + columns);
+        }
+        return new NewUser(username, email, birthDate);
+    }
+
+    private boolean readHeader(String line) {
+        String[] names = line.split(",", -1);
+        int username = -1;
+        int email = -1;
+        int birthDate = -1;
+        for (int i = 0; i < names.length; i++) {
+            switch (names[i].trim().toLowerCase(Locale.ROOT)) {
+                case "username" -> username = i;
+                case "email" -> email = i;
+                case "birthdate" -> birthDate = i;
+                default -> { }
+            }
+        }
+        if (username < 0 || email < 0 || birthDate < 0) {
+            return false;
+        }
+        usernameColumn = username;
+        emailColumn = email;
+        birthDateColumn = birthDate;
+        return true;
+    }
+
+    /**
+     * Locates the field starting at {@code position}, unquoting into the
+     * scratch buffer if needed, and returns the index of the comma after it
+     * or {@code end}.
+     */
+    private int readField(ByteBuffer buffer, int position, int end) {
+        if (position < end && buffer.get(position) == '"') {
+            resetScratch();
+            int i = position + 1;
+            while (true) {
+                if (i >= end) {
+                    throw new IllegalArgumentException("Unterminated quoted field");
+                }
+                byte b = buffer.get(i);
+                if (b == '"') {
+                    if (i + 1 < end && buffer.get(i + 1) == '"') {
+                        appendScratch(b);
+                        i += 2;
+                        continue;
+                    }
+                    i++;
+                    break;
+                }
+                appendScratch(b);
+                i++;
+            }
+            if (i < end && buffer.get(i) != ',') {
+                throw new IllegalArgumentException("Unexpected character after quoted field");
+            }
+            fieldBuffer = scratch();
+            fieldStart = 0;
+            fieldEnd = scratchLength();
+            return i;
+        }
+
+        int i = position;
+        while (i < end && buffer.get(i) != ',') {
+            i++;
+        }
+        fieldBuffer = buffer;
+        fieldStart = position;
+        fieldEnd = i;
+        return i;
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.pitdemo.service.importer;
+
+import java.util.Locale;
+
+/**
+ * File formats the {@link UserImporter} reads.
+ */
+public enum ImportFormat {
+
+    /**
+     * Comma-separated username, email and birth date, with an optional header.
+     */
+    CSV {
+        @Override
+        RecordParser newParser() {
+            return new CsvRecordParser();
+        }
+    },
+
+    /**
+     * One JSON object per line with {@code username}, {@code email} and {@code birthDate} fields.
+     */
+    NDJSON {
+        @Override
+        RecordParser newParser() {
+            return new NdjsonRecordParser();
+        }
+    };
+
+    abstract RecordParser newParser();
+
+    /**
+     * Picks the format from a file extension: {@code .csv}, or {@code .ndjson} / {@code .jsonl}.
+     *
+     * @throws IllegalArgumentException for any other extension
+     */
+    public static ImportFormat fromFileName(String fileName) {
+        String name = fileName.toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv")) {
+            return CSV;
+        }
+        if (name.endsWith(".ndjson") || name.endsWith(".jsonl")) {
+            return NDJSON;
+        }
+        throw new IllegalArgumentException("Unknown import format: " + fileName);
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.pitdemo.service.importer;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of one import: row counts, throughput and the first rejections.
+ *
+ * Only the first {@link #MAX_RECORDED_REJECTIONS} rejections are kept, so a
+ * file full of bad rows does not grow the report without bound; the count
+ * always covers all of them.
+ */
+public class ImportReport {
+
+    public static final int MAX_RECORDED_REJECTIONS = 100;
+
+    private final long rowsRead;
+    private final long created;
+    private final long rejected;
+    private final long elapsedNanos;
+    private final List<Rejection> rejections;
+
+    ImportReport(long rowsRead, long created, long rejected, long elapsedNanos, List<Rejection> rejections) {
+        this.rowsRead = rowsRead;
+        this.created = created;
+        this.rejected = rejected;
+        this.elapsedNanos = elapsedNanos;
+        this.rejections = Collections.unmodifiableList(rejections);
+    }
+
+    /**
+     * Rows that held a record; blank lines and the CSV header are not counted.
+     */
+    public long getRowsRead() { return rowsRead; }
+    public long getCreated() { return created; }
+    public long getRejected() { return rejected; }
+    public long getElapsedNanos() { return elapsedNanos; }
+
+    public double getRowsPerSecond() {
+        return elapsedNanos == 0 ? 0.0 : rowsRead * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * The first rejections, in file order.
+     */
+    public List<Rejection> getRejections() { return rejections; }
+
+    @Override
+    public String toString() {
+        return String.format("ImportReport{rows=%d, created=%d, rejected=%d, %.0f rows/s}",
+                rowsRead, created, rejected, getRowsPerSecond());
+    }
+
+    /**
+     * A row that was not imported, with its line number from 1.
+     */
+    public static final class Rejection {
+        private final long line;
+        private final String reason;
+
+        Rejection(long line, String reason) {
+            this.line = line;
+            this.reason = reason;
+        }
+
+        public long getLine() { return line; }
+        public String getReason() { return reason; }
+
+        @Override
+        public String toString() {
+            return "line " + line + ": " + reason;
+        }
+    }
+}
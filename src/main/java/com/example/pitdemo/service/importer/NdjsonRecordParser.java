@@ -0,0 +1,255 @@
+package com.example.pitdemo.service.importer;
+
+import com.example.pitdemo.service.NewUser;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+/**
+ * Parses newline-delimited JSON, one object per line, such as
+ * {@code {"username":"alice","email":"alice@example.com","birthDate":"1990-01-01"}}.
+ *
+ * The three fields take a string or {@code null}; other fields are skipped
+ * whatever their value. Keys are matched against the raw bytes, so only
+ * the values that are kept are decoded.
+ */
+final class NdjsonRecordParser extends RecordParser {
+
+    private static final byte[] USERNAME = "username".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] EMAIL = "email".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] BIRTH_DATE = "birthDate".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[][] KEYS = {USERNAME, EMAIL, BIRTH_DATE};
+    private static final byte[] NULL = "null".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] UNICODE_ESCAPE = {'\\', 'u'};
+
+    private ByteBuffer stringBuffer;
+    private int stringStart;
+    private int stringEnd;
+
+    @Override
+    NewUser parse(ByteBuffer buffer, int start, int end) {
+        String username = null;
+        String email = null;
+        LocalDate birthDate = null;
+
+        int i = expect(buffer, skipWhitespace(buffer, start, end), end, '{');
+        i = skipWhitespace(buffer, i, end);
+        if (i < end && buffer.get(i) == '}') {
+            i++;
+        } else {
+            while (true) {
+                i = readString(buffer, i, end);
+                byte[] key = knownKey();
+                i = expect(buffer, skipWhitespace(buffer, i, end), end, ':');
+                i = skipWhitespace(buffer, i, end);
+
+                if (key == null) {
+                    i = skipValue(buffer, i, end);
+                } else if (matches(buffer, i, end, NULL)) {
+                    i += NULL.length;
+                } else {
+                    i = readString(buffer, i, end);
+                    if (key == USERNAME) {
+                        username = decode(stringBuffer, stringStart, stringEnd);
+                    } else if (key == EMAIL) {
+                        email = decode(stringBuffer, stringStart, stringEnd);
+                    } else {
+                        birthDate = parseDate(stringBuffer, stringStart, stringEnd);
+                    }
+                }
+
+                i = skipWhitespace(buffer, i, end);
+                if (i < end && buffer.get(i) == ',') {
+                    i = skipWhitespace(buffer, i + 1, end);
+                    continue;
+                }
+                i = expect(buffer, i, end, '}');
+                break;
+            }
+        }
+
+        if (skipWhitespace(buffer, i, end) != end) {
+            throw new IllegalArgumentException("Unexpected content after JSON object");
+        }
+        return new NewUser(username, email, birthDate);
+    }
+
+    /**
+     * Returns the field the last string read names, or {@code null} for any other field.
+     */
+    private byte[] knownKey() {
+        for (byte[] key : KEYS) {
+            if (stringEnd - stringStart == key.length && matches(stringBuffer, stringStart, stringEnd, key)) {
+                return key;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Reads the JSON string starting at {@code position} and returns the index after its closing quote.
+     * The contents are left in place when they have no escapes, or unescaped into the scratch buffer.
+     */
+    private int readString(ByteBuffer buffer, int position, int end) {
+        if (position >= end || buffer.get(position) != '"') {
+            throw new IllegalArgumentException("Expected a string");
+        }
+        int i = position + 1;
+        while (i < end && buffer.get(i) != '"' && buffer.get(i) != '\\') {
+            i++;
+        }
+        if (i < end && buffer.get(i) == '"') {
+            stringBuffer = buffer;
+            stringStart = position + 1;
+            stringEnd = i;
+            return i + 1;
+        }
+
+        resetScratch();
+        for (int j = position + 1; j < i; j++) {
+            appendScratch(buffer.get(j));
+        }
+        while (true) {
+            if (i >= end) {
+                throw new IllegalArgumentException("Unterminated string");
+            }
+            byte b = buffer.get(i);
+            if (b == '"') {
+                break;
+            }
+            if (b != '\\') {
+                appendScratch(b);
+                i++;
+                continue;
+            }
+            i = readEscape(buffer, i + 1, end);
+        }
+        stringBuffer = scratch();
+        stringStart = 0;
+        stringEnd = scratchLength();
+        return i + 1;
+    }
+
+    /**
+     * Unescapes the escape whose code starts at {@code position} into the scratch buffer.
+     */
+    private int readEscape(ByteBuffer buffer, int position, int end) {
+        if (position >= end) {
+            throw new IllegalArgumentException("Unterminated string");
+        }
+        byte code = buffer.get(position);
+        switch (code) {
+            case '"', '\\', '/' -> appendScratch(code);
+            case 'b' -> appendScratch((byte) '\b');
+            case 'f' -> appendScratch((byte) '\f');
+            case 'n' -> appendScratch((byte) '\n');
+            case 'r' -> appendScratch((byte) '\r');
+            case 't' -> appendScratch((byte) '\t');
+            case 'u' -> {
+                char unit = hexUnit(buffer, position + 1, end);
+                if (Character.isHighSurrogate(unit) && matches(buffer, position + 5, end, UNICODE_ESCAPE)) {
+                    char low = hexUnit(buffer, position + 7, end);
+                    if (Character.isLowSurrogate(low)) {
+                        appendScratchCodePoint(Character.toCodePoint(unit, low));
+                        return position + 11;
+                    }
+                }
+                if (Character.isSurrogate(unit)) {
+                    throw new IllegalArgumentException("Unpaired surrogate escape");
+                }
+                appendScratchCodePoint(unit);
+                return position + 5;
+            }
+            default -> throw new IllegalArgumentException("Invalid escape: \\" + (char) code);
+        }
+        return position + 1;
+    }
+
+    private static char hexUnit(ByteBuffer buffer, int position, int end) {
+        if (position + 4 > end) {
+            throw new IllegalArgumentException("Truncated unicode escape");
+        }
+        int value = 0;
+        for (int i = position; i < position + 4; i++) {
+            int digit = Character.digit(buffer.get(i), 16);
+            if (digit < 0) {
+                throw new IllegalArgumentException("Invalid unicode escape");
+            }
+            value = value * 16 + digit;
+        }
+        return (char) value;
+    }
+
+    /**
+     * Skips any JSON value, including nested objects and arrays.
+     */
+    private int skipValue(ByteBuffer buffer, int position, int end) {
+        if (position >= end) {
+            throw new IllegalArgumentException("Expected a value");
+        }
+        byte first = buffer.get(position);
+        if (first == '"') {
+            return readString(buffer, position, end);
+        }
+        if (first == '{' || first == '[') {
+            int depth = 0;
+            int i = position;
+            while (i < end) {
+                byte b = buffer.get(i);
+                if (b == '"') {
+                    i = readString(buffer, i, end);
+                    continue;
+                }
+                if (b == '{' || b == '[') {
+                    depth++;
+                } else if (b == '}' || b == ']') {
+                    depth--;
+                    if (depth == 0) {
+                        return i + 1;
+                    }
+                }
+                i++;
+            }
+            throw new IllegalArgumentException("Unterminated " + (first == '{' ? "object" : "array"));
+        }
+        int i = position;
+        while (i < end) {
+            byte b = buffer.get(i);
+            if (b == ',' || b == '}' || b == ' ' || b == '\t') {
+                break;
+            }
+            i++;
+        }
+        if (i == position) {
+            throw new IllegalArgumentException("Expected a value");
+        }
+        return i;
+    }
+
+    private static int expect(ByteBuffer buffer, int position, int end, char expected) {
+        if (position >= end || buffer.get(position) != expected) {
+            throw new IllegalArgumentException("Expected '" + expected + "'");
+        }
+        return position + 1;
+    }
+
+    private static int skipWhitespace(ByteBuffer buffer, int position, int end) {
+        while (position < end && (buffer.get(position) == ' ' || buffer.get(position) == '\t')) {
+            position++;
+        }
+        return position;
+    }
+
+    private static boolean matches(ByteBuffer buffer, int position, int end, byte[] expected) {
+        if (position + expected.length > end) {
+            return false;
+        }
+        for (int i = 0; i < expected.length; i++) {
+            if (buffer.get(position + i) != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.pitdemo.service.importer;
+
+import com.example.pitdemo.service.NewUser;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Parses one line of an import file straight from the mapped bytes.
+ *
+ * Fields are located in place and only decoded once they are known to be
+ * needed, so a row allocates just its final strings and date. Fields that
+ * need unescaping are copied into a reusable scratch buffer first. A parser
+ * keeps state between lines and is used by a single thread.
+ */
+abstract class RecordParser {
+
+    private byte[] scratch = new byte[256];
+    private ByteBuffer scratchBuffer = ByteBuffer.wrap(scratch);
+    private int scratchLength;
+
+    /**
+     * Parses the bytes {@code [start, end)} of one line, without its line terminator.
+     *
+     * @return the parsed user, or {@code null} if the line holds no record, such as a header
+     * @throws IllegalArgumentException if the line is malformed
+     */
+    abstract NewUser parse(ByteBuffer buffer, int start, int end);
+
+    final void resetScratch() {
+        scratchLength = 0;
+    }
+
+    final void appendScratch(byte b) {
+        if (scratchLength == scratch.length) {
+            scratch = Arrays.copyOf(scratch, scratch.length * 2);
+            scratchBuffer = ByteBuffer.wrap(scratch);
+        }
+        scratch[scratchLength++] = b;
+    }
+
+    /**
+     * Appends a code point to the scratch buffer as UTF-8.
+     */
+    final void appendScratchCodePoint(int codePoint) {
+        if (codePoint < 0x80) {
+            appendScratch((byte) codePoint);
+        } else if (codePoint < 0x800) {
+            appendScratch((byte) (0xC0 | codePoint >> 6));
+            appendScratch((byte) (0x80 | codePoint & 0x3F));
+        } else if (codePoint < 0x10000) {
+            appendScratch((byte) (0xE0 | codePoint >> 12));
+            appendScratch((byte) (0x80 | codePoint >> 6 & 0x3F));
+            appendScratch((byte) (0x80 | codePoint & 0x3F));
+        } else {
+            appendScratch((byte) (0xF0 | codePoint >> 18));
+            appendScratch((byte) (0x80 | codePoint >> 12 & 0x3F));
+            appendScratch((byte) (0x80 | codePoint >> 6 & 0x3F));
+            appendScratch((byte) (0x80 | codePoint & 0x3F));
+        }
+    }
+
+    final ByteBuffer scratch() {
+        return scratchBuffer;
+    }
+
+    final int scratchLength() {
+        return scratchLength;
+    }
+
+    /**
+     * Decodes UTF-8 bytes into a string.
+     */
+    static String decode(ByteBuffer buffer, int start, int end) {
+        byte[] bytes = new byte[end - start];
+        buffer.get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Parses an ISO {@code yyyy-MM-dd} date, or returns {@code null} for an empty field.
+     */
+    static LocalDate parseDate(ByteBuffer buffer, int start, int end) {
+        if (start == end) {
+            return null;
+        }
+        if (end - start == 10 && buffer.get(start + 4) == '-' && buffer.get(start + 7) == '-') {
+            int year = digits(buffer, start, 4);
+            int month = digits(buffer, start + 5, 2);
+            int day = digits(buffer, start + 8, 2);
+            if (year >= 0 && month >= 0 && day >= 0) {
+                try {
+                    return LocalDate.of(year, month, day);
+                } catch (DateTimeException e) {
+                    // Reported below with the raw field
+                }
+            }
+        }
+        throw new IllegalArgumentException("Invalid birth date: " + decode(buffer, start, end));
+    }
+
+    /**
+     * Parses {@code count} decimal digits, or returns -1 if any byte is not a digit.
+     */
+    private static int digits(ByteBuffer buffer, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.pitdemo.service.importer;
+
+import com.example.pitdemo.service.BulkCreateReport;
+import com.example.pitdemo.service.NewUser;
+import com.example.pitdemo.service.UserService;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams users from a CSV or NDJSON file into {@link UserService#createUsers}.
+ *
+ * The file is memory-mapped a window at a time and each line is parsed in
+ * place from the mapped bytes, without first reading it into a string.
+ * Parsed rows are handed to the bulk insert in fixed-size chunks, so memory
+ * stays bounded by the window and chunk sizes whatever the size of the file.
+ * Malformed rows and rows the service rejects are counted and reported with
+ * their line numbers; they do not stop the import.
+ */
+public class UserImporter {
+
+    private static final int DEFAULT_CHUNK_SIZE = 10_000;
+    private static final int DEFAULT_WINDOW_SIZE = 64 << 20;
+
+    private final UserService userService;
+    private final int chunkSize;
+    private final int windowSize;
+
+    public UserImporter(UserService userService) {
+        this(userService, DEFAULT_CHUNK_SIZE);
+    }
+
+    public UserImporter(UserService userService, int chunkSize) {
+        this(userService, chunkSize, DEFAULT_WINDOW_SIZE);
+    }
+
+    UserImporter(UserService userService, int chunkSize, int windowSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+        if (windowSize <= 0) {
+            throw new IllegalArgumentException("Window size must be positive");
+        }
+        this.userService = userService;
+        this.chunkSize = chunkSize;
+        this.windowSize = windowSize;
+    }
+
+    /**
+     * Imports a file whose format follows from its extension.
+     *
+     * @throws IllegalArgumentException if the extension is not recognized,
+     *         or a line is longer than the mapping window
+     */
+    public ImportReport importFile(Path file) throws IOException {
+        return importFile(file, ImportFormat.fromFileName(file.getFileName().toString()));
+    }
+
+    public ImportReport importFile(Path file, ImportFormat format) throws IOException {
+        Run run = new Run(format.newParser());
+        long start = System.nanoTime();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            while (position < size) {
+                long length = Math.min(windowSize, size - position);
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                boolean last = position + length == size;
+                // Stop at the last complete line; the rest is mapped again with the next window
+                int end = last ? (int) length : lastIndexOf(window, (byte) '\n', (int) length) + 1;
+                if (end == 0) {
+                    throw new IllegalArgumentException("Line " + (run.line + 1) + " is longer than "
+                            + windowSize + " bytes");
+                }
+                run.readLines(window, position == 0 ? skipByteOrderMark(window, end) : 0, end);
+                position += end;
+            }
+        }
+        run.flush();
+
+        return new ImportReport(run.rowsRead, run.created, run.rejected, System.nanoTime() - start, run.rejections);
+    }
+
+    private static int skipByteOrderMark(MappedByteBuffer window, int end) {
+        boolean bom = end >= 3
+                && window.get(0) == (byte) 0xEF && window.get(1) == (byte) 0xBB && window.get(2) == (byte) 0xBF;
+        return bom ? 3 : 0;
+    }
+
+    private static int lastIndexOf(MappedByteBuffer window, byte b, int end) {
+        for (int i = end - 1; i >= 0; i--) {
+            if (window.get(i) == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * State of one import: the pending chunk and the running counts.
+     */
+    private final class Run {
+        private final RecordParser parser;
+        private final List<NewUser> chunk = new ArrayList<>(chunkSize);
+        private final long[] chunkLines = new long[chunkSize];
+        private final List<ImportReport.Rejection> rejections = new ArrayList<>();
+
+        private long line;
+        private long rowsRead;
+        private long created;
+        private long rejected;
+
+        Run(RecordParser parser) {
+            this.parser = parser;
+        }
+
+        void readLines(MappedByteBuffer window, int start, int end) {
+            int lineStart = start;
+            while (lineStart < end) {
+                int lineEnd = lineStart;
+                while (lineEnd < end && window.get(lineEnd) != '\n') {
+                    lineEnd++;
+                }
+                line++;
+                int contentEnd = lineEnd > lineStart && window.get(lineEnd - 1) == '\r' ? lineEnd - 1 : lineEnd;
+                if (contentEnd > lineStart) {
+                    readLine(window, lineStart, contentEnd);
+                }
+                lineStart = lineEnd + 1;
+            }
+        }
+
+        private void readLine(MappedByteBuffer window, int start, int end) {
+            NewUser user;
+            try {
+                user = parser.parse(window, start, end);
+            } catch (IllegalArgumentException e) {
+                rowsRead++;
+                reject(line, e.getMessage());
+                return;
+            }
+            if (user == null) {
+                return;
+            }
+            rowsRead++;
+            chunkLines[chunk.size()] = line;
+            chunk.add(user);
+            if (chunk.size() == chunkSize) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            BulkCreateReport report = userService.createUsers(chunk);
+            created += report.getCreatedCount();
+            for (BulkCreateReport.Row row : report.getRejectedRows()) {
+                reject(chunkLines[row.getIndex()], row.getError());
+            }
+            chunk.clear();
+        }
+
+        private void reject(long rejectedLine, String reason) {
+            rejected++;
+            if (rejections.size() < ImportReport.MAX_RECORDED_REJECTIONS) {
+                rejections.add(new ImportReport.Rejection(rejectedLine, reason));
+            }
+        }
+    }
+}
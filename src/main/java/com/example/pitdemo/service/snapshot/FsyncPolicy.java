@@ -0,0 +1,30 @@
+package com.example.pitdemo.service.snapshot;
+
+/**
+ * When the {@link WriteAheadLog} forces appended records to disk, trading
+ * write latency against how much a power failure can lose.
+ *
+ * Whatever the policy, a record reaches the operating system before the
+ * change it records returns, so a crash of the process alone never loses
+ * an acknowledged change.
+ */
+public enum FsyncPolicy {
+
+    /**
+     * Sync after every record. Nothing acknowledged is lost, and every change pays a full sync.
+     */
+    PER_OPERATION,
+
+    /**
+     * Group commit: a change waits until a sync covers its record, and one
+     * sync covers every record appended while the previous one ran. Nothing
+     * acknowledged is lost, and concurrent changes share the cost.
+     */
+    PER_BATCH,
+
+    /**
+     * Sync on a timer. Changes never wait for the disk, and a power failure
+     * can lose up to one interval of them.
+     */
+    INTERVAL
+}
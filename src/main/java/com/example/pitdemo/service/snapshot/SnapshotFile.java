@@ -0,0 +1,297 @@
+package com.example.pitdemo.service.snapshot;
+
+import com.example.pitdemo.model.User;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Reads and writes {@link UserSnapshot}s in a compact binary format.
+ *
+ * <pre>
+ * int     magic "USNP", int version
+ * varlong sequence of the last write-ahead log record included
+ * varint  status count, then each status name as a string
+ * varint  email domain count, then each domain as a string
+ * varint  user count, then each user as a record:
+ *   varint  length of the rest of the record
+ *   byte    flags: 1 = has birth date, 2 = email has a domain
+ *   byte    status code, or -1 for none
+ *   zigzag  score
+ *   zigzag  birth date as epoch day, if flagged
+ *   string  username
+ *   string  email up to its last '@', or all of it
+ *   varint  email domain code, if flagged
+ * int     CRC32 of everything before it
+ * </pre>
+ *
+ * Strings are a varint byte length followed by UTF-8. Statuses and the
+ * part of emails after the {@code @} are stored once in a dictionary and
+ * referred to by code, so a typical user takes about thirty bytes.
+ * Readers skip any bytes a record has beyond the fields they know.
+ * Version 1 files have no sequence and read as sequence 0.
+ */
+public final class SnapshotFile {
+
+    static final int MAGIC = 0x55534E50;
+    static final int VERSION = 2;
+
+    private static final int HAS_BIRTH_DATE = 1;
+    private static final int HAS_DOMAIN = 2;
+    private static final int TRAILER_LENGTH = 4;
+    private static final User.UserStatus[] STATUSES = User.UserStatus.values();
+
+    private SnapshotFile() {
+    }
+
+    /**
+     * Writes the snapshot to a temporary file next to {@code file}, syncs it
+     * to disk and renames it over {@code file}. Readers see either the old
+     * snapshot or the complete new one, never a partial write.
+     */
+    public static void write(UserSnapshot snapshot, Path file) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            try (FileOutputStream stream = new FileOutputStream(temp.toFile())) {
+                CheckedOutputStream checked = new CheckedOutputStream(stream, new CRC32());
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(checked, 1 << 16));
+                writeContents(snapshot, out);
+                out.flush();
+                int checksum = (int) checked.getChecksum().getValue();
+                stream.write(ByteBuffer.allocate(TRAILER_LENGTH).putInt(checksum).array());
+                stream.getChannel().force(true);
+            }
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        syncDirectory(file.toAbsolutePath().getParent());
+    }
+
+    /**
+     * Maps the file and decodes it after checking its checksum.
+     *
+     * @throws IOException if the file cannot be read, is not a snapshot or is corrupt
+     */
+    public static UserSnapshot read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot too large to map: " + size + " bytes");
+            }
+            if (size < 2 * Integer.BYTES + TRAILER_LENGTH) {
+                throw new IOException("Not a user snapshot: " + file);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt(0) != MAGIC) {
+                throw new IOException("Not a user snapshot: " + file);
+            }
+
+            int contentLength = (int) size - TRAILER_LENGTH;
+            CRC32 crc = new CRC32();
+            crc.update(buffer.slice(0, contentLength));
+            if ((int) crc.getValue() != buffer.getInt(contentLength)) {
+                throw new IOException("Corrupt snapshot, checksum mismatch: " + file);
+            }
+
+            buffer.limit(contentLength);
+            try {
+                return readContents(buffer.position(Integer.BYTES));
+            } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e) {
+                throw new IOException("Corrupt snapshot: " + file, e);
+            }
+        }
+    }
+
+    private static void writeContents(UserSnapshot snapshot, DataOutput out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        writeVarLong(out, snapshot.getSequence());
+
+        writeVarInt(out, STATUSES.length);
+        for (User.UserStatus status : STATUSES) {
+            writeString(out, status.name().getBytes(StandardCharsets.UTF_8));
+        }
+
+        int size = snapshot.size();
+        Map<String, Integer> domainCodes = new HashMap<>();
+        List<String> domains = new ArrayList<>();
+        int[] userDomains = new int[size];
+        for (int i = 0; i < size; i++) {
+            String email = snapshot.getEmail(i);
+            int at = email.lastIndexOf('@');
+            userDomains[i] = at < 0 ? -1 : domainCodes.computeIfAbsent(email.substring(at + 1), domain -> {
+                domains.add(domain);
+                return domains.size() - 1;
+            });
+        }
+        writeVarInt(out, domains.size());
+        for (String domain : domains) {
+            writeString(out, domain.getBytes(StandardCharsets.UTF_8));
+        }
+
+        writeVarInt(out, size);
+        for (int i = 0; i < size; i++) {
+            String email = snapshot.getEmail(i);
+            int domain = userDomains[i];
+            LocalDate birthDate = snapshot.getBirthDate(i);
+            User.UserStatus status = snapshot.getStatus(i);
+            byte[] username = snapshot.getUsername(i).getBytes(StandardCharsets.UTF_8);
+            byte[] local = (domain < 0 ? email : email.substring(0, email.lastIndexOf('@')))
+                    .getBytes(StandardCharsets.UTF_8);
+            long score = zigZag(snapshot.getScore(i));
+            long birthDay = birthDate == null ? 0 : zigZag(birthDate.toEpochDay());
+
+            int length = 2 + varLength(score)
+                    + (birthDate == null ? 0 : varLength(birthDay))
+                    + varLength(username.length) + username.length
+                    + varLength(local.length) + local.length
+                    + (domain < 0 ? 0 : varLength(domain));
+            writeVarInt(out, length);
+            out.writeByte((birthDate == null ? 0 : HAS_BIRTH_DATE) | (domain < 0 ? 0 : HAS_DOMAIN));
+            out.writeByte(status == null ? -1 : status.ordinal());
+            writeVarLong(out, score);
+            if (birthDate != null) {
+                writeVarLong(out, birthDay);
+            }
+            writeString(out, username);
+            writeString(out, local);
+            if (domain >= 0) {
+                writeVarInt(out, domain);
+            }
+        }
+    }
+
+    private static UserSnapshot readContents(ByteBuffer buffer) throws IOException {
+        int version = buffer.getInt();
+        if (version < 1 || version > VERSION) {
+            throw new IOException("Unsupported snapshot version: " + version);
+        }
+        long sequence = version == 1 ? 0 : readVarLong(buffer);
+        byte[] scratch = new byte[256];
+
+        User.UserStatus[] statuses = new User.UserStatus[readVarInt(buffer)];
+        for (int i = 0; i < statuses.length; i++) {
+            statuses[i] = User.UserStatus.valueOf(readString(buffer, scratch));
+        }
+        String[] domains = new String[readVarInt(buffer)];
+        for (int i = 0; i < domains.length; i++) {
+            domains[i] = readString(buffer, scratch);
+        }
+
+        int size = readVarInt(buffer);
+        UserSnapshot.Builder builder = UserSnapshot.builder(size).sequence(sequence);
+        for (int i = 0; i < size; i++) {
+            int length = readVarInt(buffer);
+            int end = buffer.position() + length;
+            int flags = buffer.get();
+            int status = buffer.get();
+            int score = (int) unZigZag(readVarLong(buffer));
+            LocalDate birthDate = (flags & HAS_BIRTH_DATE) == 0
+                    ? null : LocalDate.ofEpochDay(unZigZag(readVarLong(buffer)));
+            String username = readString(buffer, scratch);
+            String email = readString(buffer, scratch);
+            if ((flags & HAS_DOMAIN) != 0) {
+                email = email + '@' + domains[readVarInt(buffer)];
+            }
+            if (buffer.position() > end) {
+                throw new IllegalArgumentException("Record " + i + " overruns its length");
+            }
+            buffer.position(end);
+            builder.add(username, email, birthDate, score, status < 0 ? null : statuses[status]);
+        }
+        if (buffer.hasRemaining()) {
+            throw new IllegalArgumentException("Unexpected bytes after the last record");
+        }
+        return builder.build();
+    }
+
+    private static void syncDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Not every platform can sync a directory; the rename itself is still atomic
+        }
+    }
+
+    static void writeString(DataOutput out, byte[] bytes) throws IOException {
+        writeVarInt(out, bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(ByteBuffer buffer, byte[] scratch) {
+        int length = readVarInt(buffer);
+        byte[] bytes = length <= scratch.length ? scratch : new byte[length];
+        buffer.get(bytes, 0, length);
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+
+    static void writeVarInt(DataOutput out, int value) throws IOException {
+        writeVarLong(out, value & 0xFFFFFFFFL);
+    }
+
+    static void writeVarLong(DataOutput out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    static int readVarInt(ByteBuffer buffer) {
+        long value = readVarLong(buffer);
+        if (value > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Varint out of range: " + value);
+        }
+        return (int) value;
+    }
+
+    static long readVarLong(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    static int varLength(long value) {
+        int length = 1;
+        while ((value & ~0x7FL) != 0) {
+            value >>>= 7;
+            length++;
+        }
+        return length;
+    }
+
+    static long zigZag(long value) {
+        return value << 1 ^ value >> 63;
+    }
+
+    static long unZigZag(long value) {
+        return value >>> 1 ^ -(value & 1);
+    }
+}
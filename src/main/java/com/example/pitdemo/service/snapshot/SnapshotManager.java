@@ -0,0 +1,152 @@
+package com.example.pitdemo.service.snapshot;
+
+import com.example.pitdemo.service.UserService;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Saves a {@link UserService}'s users to a snapshot file in the background
+ * and restores them from it on startup.
+ *
+ * Snapshots are taken and written on a single background thread, one at a
+ * time, so callers never wait for the disk and two writes never race for
+ * the file. Closing the manager writes a final snapshot.
+ *
+ * With a {@link WriteAheadLog}, restoring replays the changes logged after
+ * the snapshot and then has the service log new ones, and each snapshot
+ * written lets the log drop the segments it covers.
+ */
+public class SnapshotManager implements AutoCloseable {
+
+    private static final System.Logger LOG = System.getLogger(SnapshotManager.class.getName());
+
+    private final UserService userService;
+    private final Path file;
+    private final WriteAheadLog log;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "user-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public SnapshotManager(UserService userService, Path file) {
+        this(userService, file, null);
+    }
+
+    /**
+     * @param log the log to replay and checkpoint, or {@code null} for snapshots alone
+     */
+    public SnapshotManager(UserService userService, Path file, WriteAheadLog log) {
+        if (userService == null || file == null) {
+            throw new IllegalArgumentException("User service and snapshot file cannot be null");
+        }
+        this.userService = userService;
+        this.file = file;
+        this.log = log;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Replaces the service's users with those of the snapshot file, if there
+     * is one. With a log, then replays the changes logged after the snapshot
+     * and attaches the log to the service.
+     *
+     * @return the number of users restored from the snapshot, 0 if there is no snapshot yet
+     * @throws IOException if the snapshot or the log cannot be read or is corrupt
+     */
+    public int restore() throws IOException {
+        UserSnapshot snapshot = Files.exists(file) ? SnapshotFile.read(file) : null;
+        int restored = snapshot == null ? 0 : userService.restore(snapshot);
+        if (log != null) {
+            long sequence = snapshot == null ? 0 : snapshot.getSequence();
+            long replayed = log.replay(sequence, userService::replay);
+            log.skipTo(sequence);
+            userService.setWriteAheadLog(log);
+            LOG.log(System.Logger.Level.INFO, "Replayed " + replayed + " logged changes after snapshot " + file);
+        }
+        return restored;
+    }
+
+    /**
+     * Takes and writes a snapshot on the background thread.
+     *
+     * @return completes with the number of users written, or with the I/O failure
+     * @throws IllegalStateException if the manager is closed
+     */
+    public CompletableFuture<Integer> snapshotAsync() {
+        try {
+            return CompletableFuture.supplyAsync(this::writeSnapshot, executor);
+        } catch (RejectedExecutionException e) {
+            throw new IllegalStateException("Snapshot manager is closed", e);
+        }
+    }
+
+    /**
+     * Writes a snapshot every {@code interval} until the manager is closed.
+     * Failures are logged and retried at the next interval.
+     */
+    public void scheduleEvery(Duration interval) {
+        if (interval == null || interval.isNegative() || interval.isZero()) {
+            throw new IllegalArgumentException("Snapshot interval must be positive");
+        }
+        long millis = interval.toMillis();
+        executor.scheduleWithFixedDelay(() -> {
+            // Any exception escaping the task would cancel the schedule; log it and try again next time
+            try {
+                writeSnapshot();
+            } catch (UncheckedIOException e) {
+                LOG.log(System.Logger.Level.WARNING, "Scheduled snapshot to " + file + " failed", e.getCause());
+            } catch (RuntimeException e) {
+                LOG.log(System.Logger.Level.WARNING, "Scheduled snapshot to " + file + " failed", e);
+            }
+        }, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops scheduled snapshots, waits for any running one and writes a final snapshot.
+     *
+     * @throws IOException if the final snapshot cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        if (executor.isShutdown()) {
+            return;
+        }
+        executor.shutdown();
+        try {
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            writeSnapshot();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private synchronized int writeSnapshot() {
+        UserSnapshot snapshot = userService.snapshot();
+        try {
+            SnapshotFile.write(snapshot, file);
+            if (log != null) {
+                log.checkpoint(snapshot.getSequence());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return snapshot.size();
+    }
+}
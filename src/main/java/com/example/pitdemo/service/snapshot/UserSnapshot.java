@@ -0,0 +1,144 @@
+package com.example.pitdemo.service.snapshot;
+
+import com.example.pitdemo.model.User;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable copy of every user's state at one point in time.
+ *
+ * Users are kept column by column. Strings, dates and statuses are
+ * immutable, so capturing a snapshot only copies references and scores.
+ *
+ * The sequence is that of the last {@link WriteAheadLog} record the
+ * snapshot is known to include; recovery replays the log after it.
+ */
+public final class UserSnapshot {
+
+    private final long sequence;
+    private final int size;
+    private final String[] usernames;
+    private final String[] emails;
+    private final LocalDate[] birthDates;
+    private final int[] scores;
+    private final User.UserStatus[] statuses;
+
+    private UserSnapshot(Builder builder) {
+        this.sequence = builder.sequence;
+        this.size = builder.size;
+        this.usernames = Arrays.copyOf(builder.usernames, size);
+        this.emails = Arrays.copyOf(builder.emails, size);
+        this.birthDates = Arrays.copyOf(builder.birthDates, size);
+        this.scores = Arrays.copyOf(builder.scores, size);
+        this.statuses = Arrays.copyOf(builder.statuses, size);
+    }
+
+    public static Builder builder(int expectedSize) {
+        return new Builder(expectedSize);
+    }
+
+    public int size() { return size; }
+
+    /**
+     * Sequence of the last log record included, 0 if none.
+     */
+    public long getSequence() { return sequence; }
+
+    public String getUsername(int index) { return usernames[checkIndex(index)]; }
+    public String getEmail(int index) { return emails[checkIndex(index)]; }
+    public LocalDate getBirthDate(int index) { return birthDates[checkIndex(index)]; }
+    public int getScore(int index) { return scores[checkIndex(index)]; }
+    public User.UserStatus getStatus(int index) { return statuses[checkIndex(index)]; }
+
+    /**
+     * Creates a new {@code User} for every entry, in snapshot order.
+     */
+    public List<User> toUsers() {
+        List<User> users = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            User user = new User(usernames[i], emails[i], birthDates[i]);
+            user.setScore(scores[i]);
+            user.setStatus(statuses[i]);
+            users.add(user);
+        }
+        return users;
+    }
+
+    private int checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        return index;
+    }
+
+    /**
+     * Collects users into a snapshot. Not thread-safe.
+     */
+    public static final class Builder {
+        private long sequence;
+        private int size;
+        private String[] usernames;
+        private String[] emails;
+        private LocalDate[] birthDates;
+        private int[] scores;
+        private User.UserStatus[] statuses;
+
+        private Builder(int expectedSize) {
+            int capacity = Math.max(expectedSize, 16);
+            usernames = new String[capacity];
+            emails = new String[capacity];
+            birthDates = new LocalDate[capacity];
+            scores = new int[capacity];
+            statuses = new User.UserStatus[capacity];
+        }
+
+        /**
+         * @throws IllegalArgumentException if the sequence is negative
+         */
+        public Builder sequence(long sequence) {
+            if (sequence < 0) {
+                throw new IllegalArgumentException("Sequence cannot be negative: " + sequence);
+            }
+            this.sequence = sequence;
+            return this;
+        }
+
+        /**
+         * Copies the user's current state.
+         */
+        public Builder add(User user) {
+            return add(user.getUsername(), user.getEmail(), user.getBirthDate(), user.getScore(), user.getStatus());
+        }
+
+        /**
+         * @throws IllegalArgumentException if the username or email is {@code null}, which no store accepts
+         */
+        public Builder add(String username, String email, LocalDate birthDate, int score, User.UserStatus status) {
+            if (username == null || email == null) {
+                throw new IllegalArgumentException("Username and email cannot be null");
+            }
+            if (size == usernames.length) {
+                int capacity = size * 2;
+                usernames = Arrays.copyOf(usernames, capacity);
+                emails = Arrays.copyOf(emails, capacity);
+                birthDates = Arrays.copyOf(birthDates, capacity);
+                scores = Arrays.copyOf(scores, capacity);
+                statuses = Arrays.copyOf(statuses, capacity);
+            }
+            usernames[size] = username;
+            emails[size] = email;
+            birthDates[size] = birthDate;
+            scores[size] = score;
+            statuses[size] = status;
+            size++;
+            return this;
+        }
+
+        public UserSnapshot build() {
+            return new UserSnapshot(this);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.pitdemo.service.snapshot;
+
+import com.example.pitdemo.model.User;
+
+import java.time.LocalDate;
+
+/**
+ * One change recorded in the {@link WriteAheadLog}.
+ *
+ * A {@link Type#PUT} carries the whole state of one user after the change,
+ * whether the change created the user, updated the score or moved the
+ * status. Replaying a put therefore just overwrites the user, so replaying
+ * a record that a snapshot already includes does no harm.
+ */
+public final class WalRecord {
+
+    public enum Type {
+        /** The state of one user after a change. */
+        PUT,
+        /** All users were removed. */
+        CLEAR
+    }
+
+    private static final WalRecord CLEAR = new WalRecord(Type.CLEAR, 0, null, null, null, 0, null);
+
+    private final Type type;
+    private final long sequence;
+    private final String username;
+    private final String email;
+    private final LocalDate birthDate;
+    private final int score;
+    private final User.UserStatus status;
+
+    private WalRecord(Type type, long sequence, String username, String email, LocalDate birthDate,
+                      int score, User.UserStatus status) {
+        this.type = type;
+        this.sequence = sequence;
+        this.username = username;
+        this.email = email;
+        this.birthDate = birthDate;
+        this.score = score;
+        this.status = status;
+    }
+
+    /**
+     * Records the user's current state.
+     */
+    public static WalRecord put(User user) {
+        if (user.getUsername() == null || user.getEmail() == null) {
+            throw new IllegalArgumentException("Username and email cannot be null");
+        }
+        return new WalRecord(Type.PUT, 0, user.getUsername(), user.getEmail(), user.getBirthDate(),
+                user.getScore(), user.getStatus());
+    }
+
+    public static WalRecord clear() {
+        return CLEAR;
+    }
+
+    static WalRecord read(long sequence, String username, String email, LocalDate birthDate,
+                          int score, User.UserStatus status) {
+        return new WalRecord(Type.PUT, sequence, username, email, birthDate, score, status);
+    }
+
+    static WalRecord readClear(long sequence) {
+        return new WalRecord(Type.CLEAR, sequence, null, null, null, 0, null);
+    }
+
+    public Type getType() { return type; }
+
+    /**
+     * Position of the record in the log, from 1; 0 for a record not read from a log.
+     */
+    public long getSequence() { return sequence; }
+
+    public String getUsername() { return username; }
+    public String getEmail() { return email; }
+    public LocalDate getBirthDate() { return birthDate; }
+    public int getScore() { return score; }
+    public User.UserStatus getStatus() { return status; }
+
+    /**
+     * Creates a new user with the recorded state.
+     */
+    public User toUser() {
+        User user = new User(username, email, birthDate);
+        user.setScore(score);
+        user.setStatus(status);
+        return user;
+    }
+
+    @Override
+    public String toString() {
+        return type == Type.CLEAR
+                ? "WalRecord{" + sequence + " CLEAR}"
+                : "WalRecord{" + sequence + " PUT " + username + ", score=" + score + ", status=" + status + "}";
+    }
+}
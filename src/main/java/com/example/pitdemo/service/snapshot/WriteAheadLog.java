@@ -0,0 +1,705 @@
+package com.example.pitdemo.service.snapshot;
+
+import com.example.pitdemo.model.User;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of user changes, replayed on top of the latest snapshot
+ * to recover the changes made after it.
+ *
+ * The log is a directory of segment files, each named after the sequence
+ * of its first record. A segment starts with a header and holds frames:
+ *
+ * <pre>
+ * int     magic "UWAL", int version
+ * varint  status count, then each status name as a string
+ * each record as a frame:
+ *   int     length of the payload
+ *   int     CRC32 of the payload
+ *   varlong sequence
+ *   byte    type: 1 = put, 2 = clear
+ *   for a put:
+ *     string  username
+ *     string  email
+ *     byte    flags: 1 = has birth date
+ *     zigzag  score
+ *     zigzag  birth date as epoch day, if flagged
+ *     byte    status code, or -1 for none
+ * </pre>
+ *
+ * Opening the log truncates the last segment after its last whole frame,
+ * dropping a record torn by a crash. {@link #checkpoint} starts a new
+ * segment and deletes those a snapshot has made redundant; segments also
+ * roll once they reach a size limit, so each one can be mapped whole.
+ *
+ * Under {@link FsyncPolicy#PER_BATCH}, {@link #append} only buffers the
+ * record and {@link #sync} writes it: the first waiting thread writes and
+ * syncs everything buffered so far while later records collect for the
+ * next sync, so one sync serves as many changes as arrive during the
+ * previous one.
+ */
+public class WriteAheadLog implements AutoCloseable {
+
+    private static final System.Logger LOG = System.getLogger(WriteAheadLog.class.getName());
+
+    static final int MAGIC = 0x5557414C;
+    static final int VERSION = 1;
+    static final long DEFAULT_SEGMENT_SIZE = 64L << 20;
+
+    private static final String SUFFIX = ".wal";
+    private static final int FRAME_HEADER_LENGTH = 2 * Integer.BYTES;
+    private static final int PUT = 1;
+    private static final int CLEAR = 2;
+    private static final int HAS_BIRTH_DATE = 1;
+    private static final User.UserStatus[] STATUSES = User.UserStatus.values();
+
+    private final Path directory;
+    private final FsyncPolicy policy;
+    private final long segmentSize;
+    private final ScheduledExecutorService syncer;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition flushed = lock.newCondition();
+
+    // Everything below is guarded by lock
+    private final FrameCodec frame = new FrameCodec();
+    private Buffer pending = new Buffer();
+    private Buffer spare = new Buffer();
+    private FileChannel channel;
+    private long segmentFirstSequence;
+    private long segmentLength;
+    private long lastSequence;
+    private long writtenSequence;
+    private long durableSequence;
+    private boolean flushing;
+    private IOException failure;
+    private boolean closed;
+
+    /**
+     * Opens the log in {@code directory}, creating it if needed, and
+     * repairs a torn last record.
+     *
+     * @param syncInterval how often to sync under {@link FsyncPolicy#INTERVAL}; ignored otherwise
+     * @throws IOException if the directory or its last segment cannot be opened
+     */
+    public WriteAheadLog(Path directory, FsyncPolicy policy, Duration syncInterval) throws IOException {
+        this(directory, policy, syncInterval, DEFAULT_SEGMENT_SIZE);
+    }
+
+    WriteAheadLog(Path directory, FsyncPolicy policy, Duration syncInterval, long segmentSize) throws IOException {
+        if (directory == null || policy == null) {
+            throw new IllegalArgumentException("Log directory and fsync policy cannot be null");
+        }
+        if (policy == FsyncPolicy.INTERVAL
+                && (syncInterval == null || syncInterval.isNegative() || syncInterval.isZero())) {
+            throw new IllegalArgumentException("Sync interval must be positive");
+        }
+        if (segmentSize <= 0) {
+            throw new IllegalArgumentException("Segment size must be positive");
+        }
+        this.directory = directory;
+        this.policy = policy;
+        this.segmentSize = segmentSize;
+
+        Files.createDirectories(directory);
+        openLastSegment();
+
+        if (policy == FsyncPolicy.INTERVAL) {
+            syncer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "wal-sync");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long millis = syncInterval.toMillis();
+            syncer.scheduleWithFixedDelay(this::syncWritten, millis, millis, TimeUnit.MILLISECONDS);
+        } else {
+            syncer = null;
+        }
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public FsyncPolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Sequence of the last record appended, 0 if none.
+     */
+    public long lastSequence() {
+        lock.lock();
+        try {
+            return lastSequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Makes the next record's sequence greater than {@code sequence}, so
+     * records appended after restoring a snapshot sort after it even when
+     * the segments it covered are gone.
+     */
+    public void skipTo(long sequence) {
+        lock.lock();
+        try {
+            if (sequence > lastSequence) {
+                lastSequence = sequence;
+                writtenSequence = Math.max(writtenSequence, sequence);
+                durableSequence = Math.max(durableSequence, sequence);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Appends a record and returns its sequence.
+     *
+     * Under {@link FsyncPolicy#PER_BATCH} the record is only buffered;
+     * call {@link #sync} before acknowledging the change. Otherwise it is
+     * written before this returns, and synced too under
+     * {@link FsyncPolicy#PER_OPERATION}.
+     *
+     * @throws IOException if the record cannot be written, or an earlier write failed
+     * @throws IllegalStateException if the log is closed
+     */
+    public long append(WalRecord record) throws IOException {
+        if (record == null) {
+            throw new IllegalArgumentException("Record cannot be null");
+        }
+        lock.lock();
+        try {
+            ensureWritable();
+            long sequence = lastSequence + 1;
+            if (policy == FsyncPolicy.PER_BATCH) {
+                frame.encode(record, sequence, pending);
+                lastSequence = sequence;
+                return sequence;
+            }
+
+            spare.reset();
+            frame.encode(record, sequence, spare);
+            try {
+                writeFully(channel, spare);
+                if (policy == FsyncPolicy.PER_OPERATION) {
+                    channel.force(false);
+                }
+            } catch (IOException e) {
+                failure = e;
+                throw e;
+            }
+            segmentLength += spare.size();
+            lastSequence = sequence;
+            writtenSequence = sequence;
+            durableSequence = sequence;
+            if (segmentLength >= segmentSize) {
+                roll();
+            }
+            return sequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits until the record with the given sequence, and every one before
+     * it, is as durable as the policy promises. Only
+     * {@link FsyncPolicy#PER_BATCH} ever waits; a sequence of 0 returns at once.
+     *
+     * @throws IOException if the records cannot be written
+     */
+    public void sync(long sequence) throws IOException {
+        if (policy != FsyncPolicy.PER_BATCH || sequence <= 0) {
+            return;
+        }
+        lock.lock();
+        try {
+            if (sequence > lastSequence) {
+                throw new IllegalArgumentException("Sequence " + sequence + " has not been appended");
+            }
+            while (durableSequence < sequence) {
+                ensureWritable();
+                if (flushing) {
+                    flushed.awaitUninterruptibly();
+                } else {
+                    flushBatch();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Passes every record after {@code afterSequence} to {@code action},
+     * oldest first. Call it before appending to the log.
+     *
+     * @return the number of records replayed
+     * @throws IOException if a segment cannot be read or a record is corrupt
+     */
+    public long replay(long afterSequence, Consumer<WalRecord> action) throws IOException {
+        List<Path> segments;
+        lock.lock();
+        try {
+            ensureOpen();
+            segments = segments();
+        } finally {
+            lock.unlock();
+        }
+
+        long replayed = 0;
+        for (int i = 0; i < segments.size(); i++) {
+            if (i + 1 < segments.size() && firstSequence(segments.get(i + 1)) - 1 <= afterSequence) {
+                continue;
+            }
+            Path segment = segments.get(i);
+            try (FileChannel reader = FileChannel.open(segment, StandardOpenOption.READ)) {
+                MappedByteBuffer buffer = reader.map(FileChannel.MapMode.READ_ONLY, 0, reader.size());
+                User.UserStatus[] statuses = readHeader(buffer, segment);
+                FrameCodec decoder = new FrameCodec();
+                while (buffer.hasRemaining()) {
+                    WalRecord record = decoder.decode(buffer, statuses, segment);
+                    if (record == null) {
+                        throw new IOException("Corrupt write-ahead log segment: " + segment);
+                    }
+                    if (record.getSequence() > afterSequence) {
+                        action.accept(record);
+                        replayed++;
+                    }
+                }
+            }
+        }
+        return replayed;
+    }
+
+    /**
+     * Starts a new segment and deletes every older one holding only records
+     * up to {@code sequence}, which a durable snapshot now includes.
+     *
+     * @throws IOException if the new segment cannot be created
+     */
+    public void checkpoint(long sequence) throws IOException {
+        lock.lock();
+        try {
+            ensureWritable();
+            while (flushing) {
+                flushed.awaitUninterruptibly();
+            }
+            roll();
+            List<Path> segments = segments();
+            for (int i = 0; i + 1 < segments.size(); i++) {
+                if (firstSequence(segments.get(i + 1)) - 1 > sequence) {
+                    break;
+                }
+                Files.delete(segments.get(i));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes and syncs everything appended, then closes the log. Further
+     * appends throw {@link IllegalStateException}.
+     *
+     * @throws IOException if the remaining records cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        if (syncer != null) {
+            syncer.shutdown();
+        }
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            try {
+                while (flushing) {
+                    flushed.awaitUninterruptibly();
+                }
+                while (failure == null && pending.size() > 0) {
+                    flushBatch();
+                }
+                if (failure == null) {
+                    channel.force(false);
+                }
+            } finally {
+                closed = true;
+                channel.close();
+                flushed.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Called with the lock held; releases it while writing so appends can continue
+    private void flushBatch() throws IOException {
+        Buffer batch = pending;
+        long batchSequence = lastSequence;
+        FileChannel target = channel;
+        pending = spare;
+        spare = batch;
+        flushing = true;
+        lock.unlock();
+        IOException error = null;
+        try {
+            writeFully(target, batch);
+            target.force(false);
+        } catch (IOException e) {
+            error = e;
+        } finally {
+            lock.lock();
+            flushing = false;
+            flushed.signalAll();
+        }
+        if (error != null) {
+            failure = error;
+            throw error;
+        }
+        segmentLength += batch.size();
+        batch.reset();
+        writtenSequence = batchSequence;
+        durableSequence = batchSequence;
+        if (segmentLength >= segmentSize) {
+            roll();
+        }
+    }
+
+    // Interval policy: sync whatever has been written. Runs on the syncer thread
+    private void syncWritten() {
+        FileChannel target;
+        lock.lock();
+        try {
+            if (closed || failure != null) {
+                return;
+            }
+            target = channel;
+        } finally {
+            lock.unlock();
+        }
+        try {
+            target.force(false);
+        } catch (ClosedChannelException e) {
+            // The segment rolled and was synced as it closed
+        } catch (IOException e) {
+            LOG.log(System.Logger.Level.WARNING, "Syncing write-ahead log in " + directory + " failed", e);
+        }
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("Write-ahead log is closed");
+        }
+    }
+
+    private void ensureWritable() throws IOException {
+        ensureOpen();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    // Called with the lock held and no flush running. Records not yet written go to the new segment
+    private void roll() throws IOException {
+        if (writtenSequence < segmentFirstSequence) {
+            return;
+        }
+        channel.force(false);
+        channel.close();
+        startSegment(writtenSequence + 1);
+    }
+
+    private void startSegment(long firstSequence) throws IOException {
+        Path segment = directory.resolve(segmentName(firstSequence));
+        FileChannel created = FileChannel.open(segment,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            Buffer header = header();
+            writeFully(created, header);
+            created.force(true);
+            segmentLength = header.size();
+        } catch (IOException e) {
+            created.close();
+            Files.deleteIfExists(segment);
+            failure = e;
+            throw e;
+        }
+        syncDirectory(directory);
+        channel = created;
+        segmentFirstSequence = firstSequence;
+    }
+
+    private void openLastSegment() throws IOException {
+        List<Path> segments = segments();
+        if (segments.isEmpty()) {
+            startSegment(1);
+            return;
+        }
+        Path segment = segments.get(segments.size() - 1);
+        long first = firstSequence(segment);
+        FileChannel opened = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long size = opened.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Write-ahead log segment too large to map: " + segment);
+            }
+            long last = first - 1;
+            long end = 0;
+            if (size > 0) {
+                MappedByteBuffer buffer = opened.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                User.UserStatus[] statuses = readHeaderIfWhole(buffer, segment);
+                if (statuses != null) {
+                    FrameCodec decoder = new FrameCodec();
+                    WalRecord record;
+                    while ((record = decoder.decode(buffer, statuses, segment)) != null) {
+                        last = record.getSequence();
+                    }
+                    end = buffer.position();
+                }
+            }
+
+            if (end == 0) {
+                // Torn while being created: start it again
+                opened.truncate(0);
+                Buffer header = header();
+                writeFully(opened.position(0), header);
+                end = header.size();
+            } else if (end < size) {
+                LOG.log(System.Logger.Level.WARNING, "Truncating torn write-ahead log record at byte "
+                        + end + " of " + segment);
+                opened.truncate(end);
+            }
+            opened.force(true);
+            opened.position(end);
+            channel = opened;
+            segmentFirstSequence = first;
+            segmentLength = end;
+            lastSequence = last;
+            writtenSequence = last;
+            durableSequence = last;
+        } catch (IOException | RuntimeException e) {
+            opened.close();
+            throw e;
+        }
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> isSegmentName(file.getFileName().toString()))
+                    .sorted()
+                    .collect(ArrayList::new, ArrayList::add, ArrayList::addAll);
+        }
+    }
+
+    static String segmentName(long firstSequence) {
+        return String.format("%020d%s", firstSequence, SUFFIX);
+    }
+
+    private static boolean isSegmentName(String name) {
+        if (name.length() != 20 + SUFFIX.length() || !name.endsWith(SUFFIX)) {
+            return false;
+        }
+        for (int i = 0; i < 20; i++) {
+            if (name.charAt(i) < '0' || name.charAt(i) > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long firstSequence(Path segment) {
+        return Long.parseLong(segment.getFileName().toString().substring(0, 20));
+    }
+
+    private static Buffer header() throws IOException {
+        Buffer header = new Buffer();
+        DataOutputStream out = new DataOutputStream(header);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        SnapshotFile.writeVarInt(out, STATUSES.length);
+        for (User.UserStatus status : STATUSES) {
+            SnapshotFile.writeString(out, status.name().getBytes(StandardCharsets.UTF_8));
+        }
+        return header;
+    }
+
+    private static User.UserStatus[] readHeader(ByteBuffer buffer, Path segment) throws IOException {
+        User.UserStatus[] statuses = readHeaderIfWhole(buffer, segment);
+        if (statuses == null) {
+            throw new IOException("Not a write-ahead log segment: " + segment);
+        }
+        return statuses;
+    }
+
+    // Returns null if the header is cut short, as by a crash while the segment was created
+    private static User.UserStatus[] readHeaderIfWhole(ByteBuffer buffer, Path segment) throws IOException {
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Not a write-ahead log segment: " + segment);
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported write-ahead log version: " + version);
+            }
+            byte[] scratch = new byte[64];
+            User.UserStatus[] statuses = new User.UserStatus[SnapshotFile.readVarInt(buffer)];
+            for (int i = 0; i < statuses.length; i++) {
+                statuses[i] = User.UserStatus.valueOf(SnapshotFile.readString(buffer, scratch));
+            }
+            return statuses;
+        } catch (BufferUnderflowException e) {
+            return null;
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Corrupt write-ahead log header: " + segment, e);
+        }
+    }
+
+    private static void writeFully(FileChannel target, Buffer buffer) throws IOException {
+        ByteBuffer bytes = buffer.asByteBuffer();
+        while (bytes.hasRemaining()) {
+            target.write(bytes);
+        }
+    }
+
+    private static void syncDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Not every platform can sync a directory
+        }
+    }
+
+    /**
+     * Encodes and decodes frames, reusing its scratch space. Not thread-safe.
+     */
+    private static final class FrameCodec {
+        private final CRC32 crc = new CRC32();
+        private final Buffer payload = new Buffer();
+        private final DataOutputStream out = new DataOutputStream(payload);
+        private final byte[] scratch = new byte[256];
+
+        void encode(WalRecord record, long sequence, Buffer target) throws IOException {
+            payload.reset();
+            SnapshotFile.writeVarLong(out, sequence);
+            if (record.getType() == WalRecord.Type.CLEAR) {
+                out.writeByte(CLEAR);
+            } else {
+                LocalDate birthDate = record.getBirthDate();
+                User.UserStatus status = record.getStatus();
+                out.writeByte(PUT);
+                SnapshotFile.writeString(out, record.getUsername().getBytes(StandardCharsets.UTF_8));
+                SnapshotFile.writeString(out, record.getEmail().getBytes(StandardCharsets.UTF_8));
+                out.writeByte(birthDate == null ? 0 : HAS_BIRTH_DATE);
+                SnapshotFile.writeVarLong(out, SnapshotFile.zigZag(record.getScore()));
+                if (birthDate != null) {
+                    SnapshotFile.writeVarLong(out, SnapshotFile.zigZag(birthDate.toEpochDay()));
+                }
+                out.writeByte(status == null ? -1 : status.ordinal());
+            }
+
+            crc.reset();
+            crc.update(payload.asByteBuffer());
+            target.writeInt(payload.size());
+            target.writeInt((int) crc.getValue());
+            payload.writeTo(target);
+        }
+
+        /**
+         * Decodes the frame at the buffer's position and moves past it, or
+         * returns {@code null} without moving if the rest of the buffer does
+         * not start with a whole frame whose checksum matches.
+         *
+         * @throws IOException if a frame with a matching checksum does not decode
+         */
+        WalRecord decode(ByteBuffer buffer, User.UserStatus[] statuses, Path segment) throws IOException {
+            int start = buffer.position();
+            if (buffer.remaining() < FRAME_HEADER_LENGTH) {
+                return null;
+            }
+            int length = buffer.getInt(start);
+            if (length <= 0 || length > buffer.remaining() - FRAME_HEADER_LENGTH) {
+                return null;
+            }
+            ByteBuffer body = buffer.slice(start + FRAME_HEADER_LENGTH, length);
+            crc.reset();
+            crc.update(body);
+            if ((int) crc.getValue() != buffer.getInt(start + Integer.BYTES)) {
+                return null;
+            }
+            body.rewind();
+
+            WalRecord record;
+            try {
+                long sequence = SnapshotFile.readVarLong(body);
+                int type = body.get();
+                if (type == CLEAR) {
+                    record = WalRecord.readClear(sequence);
+                } else if (type == PUT) {
+                    String username = SnapshotFile.readString(body, scratch);
+                    String email = SnapshotFile.readString(body, scratch);
+                    int flags = body.get();
+                    int score = (int) SnapshotFile.unZigZag(SnapshotFile.readVarLong(body));
+                    LocalDate birthDate = (flags & HAS_BIRTH_DATE) == 0
+                            ? null : LocalDate.ofEpochDay(SnapshotFile.unZigZag(SnapshotFile.readVarLong(body)));
+                    int status = body.get();
+                    record = WalRecord.read(sequence, username, email, birthDate, score,
+                            status < 0 ? null : statuses[status]);
+                } else {
+                    throw new IllegalArgumentException("Unknown record type: " + type);
+                }
+            } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e) {
+                throw new IOException("Corrupt write-ahead log record at byte " + start + " of " + segment, e);
+            }
+            buffer.position(start + FRAME_HEADER_LENGTH + length);
+            return record;
+        }
+    }
+
+    /**
+     * Byte array stream that hands out its contents without copying.
+     */
+    private static final class Buffer extends ByteArrayOutputStream {
+        Buffer() {
+            super(4096);
+        }
+
+        ByteBuffer asByteBuffer() {
+            return ByteBuffer.wrap(buf, 0, count);
+        }
+
+        void writeInt(int value) {
+            write(value >>> 24);
+            write(value >>> 16);
+            write(value >>> 8);
+            write(value);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.pitdemo.service.store;
+
+import com.example.pitdemo.model.User;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Users ordered by birth date, for age range queries.
+ *
+ * An age range is translated once into a birth date range for the given
+ * day and answered with a sub-map scan, so the cost follows the size of the
+ * result rather than the population. Users sharing a birth date are kept in
+ * small copy-on-write arrays.
+ */
+class BirthDateIndex implements UserIndex {
+
+    private static final User[] NONE = new User[0];
+
+    private final ConcurrentNavigableMap<LocalDate, User[]> usersByBirthDate = new ConcurrentSkipListMap<>();
+    private volatile User[] undated = NONE;
+
+    @Override
+    public void userAdded(User user, UserState state) {
+        add(user, state.getBirthDate());
+    }
+
+    /**
+     * Groups the batch by birth date, so each date's array is copied once
+     * rather than once per user.
+     */
+    @Override
+    public void usersAdded(List<User> users, List<UserState> states) {
+        Map<LocalDate, List<User>> usersByDate = new HashMap<>();
+        List<User> addedUndated = new ArrayList<>();
+        for (int i = 0; i < users.size(); i++) {
+            LocalDate birthDate = states.get(i).getBirthDate();
+            if (birthDate == null) {
+                addedUndated.add(users.get(i));
+            } else {
+                usersByDate.computeIfAbsent(birthDate, date -> new ArrayList<>()).add(users.get(i));
+            }
+        }
+        usersByDate.forEach((date, added) -> usersByBirthDate.merge(date, added.toArray(NONE), BirthDateIndex::concat));
+        if (!addedUndated.isEmpty()) {
+            synchronized (this) {
+                undated = concat(undated, addedUndated.toArray(NONE));
+            }
+        }
+    }
+
+    @Override
+    public void userChanged(User user, UserState before, UserState after) {
+        if (!Objects.equals(before.getBirthDate(), after.getBirthDate())) {
+            remove(user, before.getBirthDate());
+            add(user, after.getBirthDate());
+        }
+    }
+
+    @Override
+    public void cleared() {
+        usersByBirthDate.clear();
+        synchronized (this) {
+            undated = NONE;
+        }
+    }
+
+    /**
+     * Finds users whose age on {@code today} is within the range, oldest first.
+     * Users without a birth date count as age 0 and come last.
+     */
+    List<User> find(int minAge, int maxAge, LocalDate today) {
+        BirthDateRange range = BirthDateRange.forAges(minAge, maxAge, today);
+        List<User> result = new ArrayList<>();
+        for (User[] users : scan(range).values()) {
+            Collections.addAll(result, users);
+        }
+        if (range.includesUndated()) {
+            Collections.addAll(result, undated);
+        }
+        return result;
+    }
+
+    /**
+     * Counts users whose age on {@code today} is within the range, without building a list.
+     */
+    int count(int minAge, int maxAge, LocalDate today) {
+        BirthDateRange range = BirthDateRange.forAges(minAge, maxAge, today);
+        int count = 0;
+        for (User[] users : scan(range).values()) {
+            count += users.length;
+        }
+        if (range.includesUndated()) {
+            count += undated.length;
+        }
+        return count;
+    }
+
+    private NavigableMap<LocalDate, User[]> scan(BirthDateRange range) {
+        if (range.getFrom() == null) {
+            return usersByBirthDate.headMap(range.getTo(), false);
+        }
+        return usersByBirthDate.subMap(range.getFrom(), true, range.getTo(), false);
+    }
+
+    private void add(User user, LocalDate birthDate) {
+        if (birthDate == null) {
+            synchronized (this) {
+                undated = append(undated, user);
+            }
+            return;
+        }
+        usersByBirthDate.merge(birthDate, new User[] {user}, (existing, added) -> append(existing, user));
+    }
+
+    private void remove(User user, LocalDate birthDate) {
+        if (birthDate == null) {
+            synchronized (this) {
+                undated = without(undated, user);
+            }
+            return;
+        }
+        usersByBirthDate.computeIfPresent(birthDate, (date, existing) -> {
+            User[] remaining = without(existing, user);
+            return remaining.length == 0 ? null : remaining;
+        });
+    }
+
+    private static User[] append(User[] users, User user) {
+        User[] copy = Arrays.copyOf(users, users.length + 1);
+        copy[users.length] = user;
+        return copy;
+    }
+
+    private static User[] concat(User[] users, User[] added) {
+        User[] copy = Arrays.copyOf(users, users.length + added.length);
+        System.arraycopy(added, 0, copy, users.length, added.length);
+        return copy;
+    }
+
+    private static User[] without(User[] users, User user) {
+        for (int i = 0; i < users.length; i++) {
+            if (users[i] == user) {
+                User[] copy = new User[users.length - 1];
+                System.arraycopy(users, 0, copy, 0, i);
+                System.arraycopy(users, i + 1, copy, i, users.length - i - 1);
+                return copy;
+            }
+        }
+        return users;
+    }
+}
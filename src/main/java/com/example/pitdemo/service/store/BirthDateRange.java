@@ -0,0 +1,87 @@
+package com.example.pitdemo.service.store;
+
+import com.example.pitdemo.util.AgeUtils;
+
+import java.time.LocalDate;
+
+/**
+ * The birth dates of everyone whose age on a given day is within an age range.
+ *
+ * Because Period truncates toward zero, birth dates up to almost a year
+ * after today still count as age 0. The matching birth dates therefore
+ * always form a single half-open interval {@code [from, to)}, and a range
+ * starting at 0 also matches users without a birth date.
+ */
+final class BirthDateRange {
+
+    private static final BirthDateRange EMPTY = new BirthDateRange(null, LocalDate.MIN, false);
+
+    private final LocalDate from;
+    private final LocalDate to;
+    private final boolean includesUndated;
+
+    private BirthDateRange(LocalDate from, LocalDate to, boolean includesUndated) {
+        this.from = from;
+        this.to = to;
+        this.includesUndated = includesUndated;
+    }
+
+    /**
+     * Translates an age range, inclusive at both ends, into birth dates as of {@code today}.
+     */
+    static BirthDateRange forAges(int minAge, int maxAge, LocalDate today) {
+        if (!isRepresentable(today, minAge)) {
+            return EMPTY;
+        }
+        LocalDate to = minAge == 0
+                ? AgeUtils.dateOfAge(today, 1)
+                : AgeUtils.latestBirthDateForAge(today, minAge).plusDays(1);
+        LocalDate from = isRepresentable(today, maxAge + 1L)
+                ? AgeUtils.latestBirthDateForAge(today, (int) (maxAge + 1L)).plusDays(1)
+                : null;
+        return new BirthDateRange(from, to, minAge == 0);
+    }
+
+    private static boolean isRepresentable(LocalDate today, long years) {
+        return today.getYear() - years >= LocalDate.MIN.getYear();
+    }
+
+    /**
+     * First matching birth date, or {@code null} if the range is unbounded towards the past.
+     */
+    LocalDate getFrom() {
+        return from;
+    }
+
+    /**
+     * First birth date after the range; exclusive.
+     */
+    LocalDate getTo() {
+        return to;
+    }
+
+    /**
+     * First matching birth date as an epoch day, or {@code Long.MIN_VALUE} if unbounded.
+     */
+    long fromEpochDay() {
+        return from == null ? Long.MIN_VALUE : from.toEpochDay();
+    }
+
+    long toEpochDay() {
+        return to.toEpochDay();
+    }
+
+    boolean includesUndated() {
+        return includesUndated;
+    }
+
+    /**
+     * Checks whether the range includes a birth date, or no birth date for {@code null}.
+     */
+    boolean contains(LocalDate birthDate) {
+        if (birthDate == null) {
+            return includesUndated;
+        }
+        return (from == null || !birthDate.isBefore(from)) && birthDate.isBefore(to);
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.pitdemo.service.store;
+
+import com.example.pitdemo.model.User;
+import com.example.pitdemo.util.AgeUtils;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.BiConsumer;
+
+/**
+ * Users waiting for a birthday that changes what an index derives from them.
+ *
+ * Each user is queued once, under the first of the index's threshold ages
+ * it has not reached yet, in a priority queue ordered by that day. Passing
+ * a day takes out only the users whose birthday has come, in O(log n)
+ * each, and users past every threshold are not queued at all.
+ *
+ * Removing a user only forgets its entry; the entry stays in the queue and
+ * is skipped when it comes up, until stale entries outnumber live ones and
+ * the queue is rebuilt.
+ *
+ * Not thread-safe; indexes call it under their own lock.
+ */
+final class BirthdayQueue {
+
+    private final int[] ages;
+    private final PriorityQueue<Entry> queue = new PriorityQueue<>();
+    private final Map<User, Entry> entries = new IdentityHashMap<>();
+
+    /**
+     * @param ages the threshold ages, ascending
+     */
+    BirthdayQueue(int... ages) {
+        for (int i = 1; i < ages.length; i++) {
+            if (ages[i] <= ages[i - 1]) {
+                throw new IllegalArgumentException("Threshold ages must be ascending");
+            }
+        }
+        this.ages = ages.clone();
+    }
+
+    /**
+     * Queues the user under its next threshold birthday after {@code asOf},
+     * replacing any earlier entry; does nothing if there is none.
+     */
+    void add(User user, UserState state, long asOf) {
+        remove(user);
+        long day = nextThreshold(state.getBirthDate(), asOf);
+        if (day != Long.MAX_VALUE) {
+            Entry entry = new Entry(day, user, state);
+            entries.put(user, entry);
+            queue.add(entry);
+        }
+    }
+
+    void remove(User user) {
+        if (entries.remove(user) != null && queue.size() > 2 * entries.size() + 64) {
+            queue.clear();
+            queue.addAll(entries.values());
+        }
+    }
+
+    /**
+     * Takes out every user whose threshold birthday is on or before
+     * {@code day} and hands each, in birthday order, to {@code action}.
+     * The users are no longer queued when the action runs, so it may add them again.
+     */
+    void pollDue(long day, BiConsumer<User, UserState> action) {
+        List<Entry> due = new ArrayList<>();
+        while (!queue.isEmpty() && queue.peek().day <= day) {
+            Entry entry = queue.poll();
+            if (entries.get(entry.user) == entry) {
+                entries.remove(entry.user);
+                due.add(entry);
+            }
+        }
+        for (Entry entry : due) {
+            action.accept(entry.user, entry.state);
+        }
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    void clear() {
+        queue.clear();
+        entries.clear();
+    }
+
+    /**
+     * Returns the first threshold birthday after {@code asOf}, or
+     * {@link Long#MAX_VALUE} if every threshold has passed or there is no birth date.
+     */
+    private long nextThreshold(LocalDate birthDate, long asOf) {
+        if (birthDate == null) {
+            return Long.MAX_VALUE;
+        }
+        for (int age : ages) {
+            long day = AgeUtils.dateOfAge(birthDate, age).toEpochDay();
+            if (day > asOf) {
+                return day;
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+
+    private static final class Entry implements Comparable<Entry> {
+        private final long day;
+        private final User user;
+        private final UserState state;
+
+        private Entry(long day, User user, UserState state) {
+            this.day = day;
+            this.user = user;
+            this.state = state;
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            return Long.compare(day, other.day);
+        }
+    }
+}
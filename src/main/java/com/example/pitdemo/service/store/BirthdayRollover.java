@@ -0,0 +1,74 @@
+package com.example.pitdemo.service.store;
+
+import com.example.pitdemo.util.DayClock;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Advances a store to the new date just after every midnight.
+ *
+ * Indexes that depend on the date, such as adult counts, rankings and
+ * premium eligibility, otherwise catch up on the first query of the day,
+ * which then pays for every user who had a threshold birthday. Rolling over
+ * in the background updates just those users and leaves queries nothing to do.
+ */
+public class BirthdayRollover implements AutoCloseable {
+
+    private static final System.Logger LOG = System.getLogger(BirthdayRollover.class.getName());
+
+    private final UserStore store;
+    private final DayClock clock;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "birthday-rollover");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Starts rolling {@code store} over at each midnight of {@code clock}'s time zone.
+     */
+    public BirthdayRollover(UserStore store, DayClock clock) {
+        if (store == null || clock == null) {
+            throw new IllegalArgumentException("Store and clock cannot be null");
+        }
+        this.store = store;
+        this.clock = clock;
+        scheduleNext();
+    }
+
+    private void scheduleNext() {
+        try {
+            // A little past midnight, so the clock already reads the new day
+            executor.schedule(this::rollOver, clock.millisUntilTomorrow() + 1, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Closed meanwhile
+        }
+    }
+
+    private void rollOver() {
+        try {
+            store.advanceTo(clock.today());
+        } catch (RuntimeException e) {
+            // Queries still catch up on their own; try again tomorrow
+            LOG.log(System.Logger.Level.WARNING, "Rolling users over to " + clock.today() + " failed", e);
+        }
+        scheduleNext();
+    }
+
+    /**
+     * Stops rolling over, waiting for a running rollover to finish.
+     */
+    @Override
+    public void close() {
+        // Drops the rollover waiting for the next midnight
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.pitdemo.service.store;
+
+import com.example.pitdemo.util.DayClock;
+
+import java.util.Arrays;
+
+/**
+ * User store that keeps users as columns of primitives instead of objects.
+ *
+ * Each user is a row across parallel arrays: scores, birth dates as epoch
+ * days, status ordinals, and username and email codes from a string
+ * dictionary. Statistics and age range filters run as tight loops over
+ * these arrays, without touching a {@code User}, a {@code LocalDate} or an
+ * enum per user. The uniqueness indexes are arrays too, indexed by the
+ * dictionary code of the normalized key.
+ *
+ * See {@link RowUserStore} for how {@code User} objects are materialized
+ * and written back.
+ */
+public class ColumnarUserStore extends RowUserStore {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final StringDictionary strings = new StringDictionary();
+
+    // Row + 1 (0 when free) per dictionary code of a normalized username or email
+    private int[] rowsByUsernameKey = new int[INITIAL_CAPACITY];
+    private int[] rowsByEmailKey = new int[INITIAL_CAPACITY];
+
+    private int[] usernameCodes = new int[INITIAL_CAPACITY];
+    private int[] emailCodes = new int[INITIAL_CAPACITY];
+    private int[] scores = new int[INITIAL_CAPACITY];
+    private int[] birthDays = new int[INITIAL_CAPACITY];
+    private byte[] statuses = new byte[INITIAL_CAPACITY];
+
+    public ColumnarUserStore() {
+        this(DayClock.system());
+    }
+
+    /**
+     * Creates a store whose statistics are as of the clock's date.
+     */
+    public ColumnarUserStore(DayClock clock) {
+        super(clock);
+    }
+
+    @Override
+    int rowOfUsernameKey(String key) {
+        return rowOf(rowsByUsernameKey, key);
+    }
+
+    @Override
+    int rowOfEmailKey(String key) {
+        return rowOf(rowsByEmailKey, key);
+    }
+
+    @Override
+    void appendRow(int row, String username, String email, String usernameKey, String emailKey) {
+        ensureCapacity(row + 1);
+        usernameCodes[row] = strings.encode(username);
+        emailCodes[row] = strings.encode(email);
+        rowsByUsernameKey = putRow(rowsByUsernameKey, strings.encode(usernameKey), row);
+        rowsByEmailKey = putRow(rowsByEmailKey, strings.encode(emailKey), row);
+    }
+
+    @Override
+    String username(int row) {
+        return strings.decode(usernameCodes[row]);
+    }
+
+    // The dictionary hands back the string it stores, so this decodes nothing
+    @Override
+    boolean usernameMatches(int row, String username) {
+        return username(row).equals(username);
+    }
+
+    @Override
+    String email(int row) {
+        return strings.decode(emailCodes[row]);
+    }
+
+    @Override
+    int score(int row) {
+        return scores[row];
+    }
+
+    @Override
+    int birthDay(int row) {
+        return birthDays[row];
+    }
+
+    @Override
+    byte status(int row) {
+        return statuses[row];
+    }
+
+    @Override
+    void setScore(int row, int score) {
+        scores[row] = score;
+    }
+
+    @Override
+    void setBirthDay(int row, int birthDay) {
+        birthDays[row] = birthDay;
+    }
+
+    @Override
+    void setStatus(int row, byte status) {
+        statuses[row] = status;
+    }
+
+    @Override
+    void clearRows() {
+        strings.clear();
+        rowsByUsernameKey = new int[INITIAL_CAPACITY];
+        rowsByEmailKey = new int[INITIAL_CAPACITY];
+        usernameCodes = new int[INITIAL_CAPACITY];
+        emailCodes = new int[INITIAL_CAPACITY];
+        scores = new int[INITIAL_CAPACITY];
+        birthDays = new int[INITIAL_CAPACITY];
+        statuses = new byte[INITIAL_CAPACITY];
+    }
+
+    private int rowOf(int[] rowsByKey, String key) {
+        int code = strings.find(key);
+        return code == StringDictionary.NOT_FOUND || code >= rowsByKey.length ? -1 : rowsByKey[code] - 1;
+    }
+
+    private static int[] putRow(int[] rowsByKey, int code, int row) {
+        if (code >= rowsByKey.length) {
+            rowsByKey = Arrays.copyOf(rowsByKey, Math.max(code + 1, rowsByKey.length * 2));
+        }
+        rowsByKey[code] = row + 1;
+        return rowsByKey;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= scores.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, scores.length * 2);
+        usernameCodes = Arrays.copyOf(usernameCodes, newCapacity);
+        emailCodes = Arrays.copyOf(emailCodes, newCapacity);
+        scores = Arrays.copyOf(scores, newCapacity);
+        birthDays = Arrays.copyOf(birthDays, newCapacity);
+        statuses = Arrays.copyOf(statuses, newCapacity);
+    }
+}
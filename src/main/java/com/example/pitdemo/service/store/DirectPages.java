@@ -0,0 +1,81 @@
+package com.example.pitdemo.service.store;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Fixed-width slots in direct memory.
+ *
+ * Slots are allocated a page at a time as capacity grows, so growing never
+ * copies existing slots and the total size is not limited by the 2 GB cap
+ * of a single buffer. Memory is released when the pages are garbage
+ * collected. Not thread-safe; callers guard it with their own lock.
+ */
+final class DirectPages {
+
+    private static final int PAGE_SHIFT = 16;
+    private static final int SLOTS_PER_PAGE = 1 << PAGE_SHIFT;
+    private static final int SLOT_MASK = SLOTS_PER_PAGE - 1;
+
+    private final int slotSize;
+    private ByteBuffer[] pages = new ByteBuffer[16];
+    private int pageCount;
+
+    DirectPages(int slotSize) {
+        this.slotSize = slotSize;
+    }
+
+    /**
+     * Makes slots {@code 0} to {@code slots - 1} addressable. New slots are zeroed.
+     */
+    void ensureCapacity(int slots) {
+        int pagesNeeded = (int) (((long) slots + SLOT_MASK) >>> PAGE_SHIFT);
+        if (pagesNeeded > pages.length) {
+            pages = Arrays.copyOf(pages, Math.max(pagesNeeded, pages.length * 2));
+        }
+        while (pageCount < pagesNeeded) {
+            pages[pageCount++] = ByteBuffer.allocateDirect(SLOTS_PER_PAGE * slotSize);
+        }
+    }
+
+    int capacity() {
+        return pageCount << PAGE_SHIFT;
+    }
+
+    long byteSize() {
+        return (long) pageCount * SLOTS_PER_PAGE * slotSize;
+    }
+
+    int getInt(int slot, int offset) {
+        return pages[slot >>> PAGE_SHIFT].getInt(position(slot, offset));
+    }
+
+    void putInt(int slot, int offset, int value) {
+        pages[slot >>> PAGE_SHIFT].putInt(position(slot, offset), value);
+    }
+
+    long getLong(int slot, int offset) {
+        return pages[slot >>> PAGE_SHIFT].getLong(position(slot, offset));
+    }
+
+    void putLong(int slot, int offset, long value) {
+        pages[slot >>> PAGE_SHIFT].putLong(position(slot, offset), value);
+    }
+
+    byte getByte(int slot, int offset) {
+        return pages[slot >>> PAGE_SHIFT].get(position(slot, offset));
+    }
+
+    void putByte(int slot, int offset, byte value) {
+        pages[slot >>> PAGE_SHIFT].put(position(slot, offset), value);
+    }
+
+    void clear() {
+        pages = new ByteBuffer[16];
+        pageCount = 0;
+    }
+
+    private int position(int slot, int offset) {
+        return (slot & SLOT_MASK) * slotSize + offset;
+    }
+}
@@ -0,0 +1,347 @@
+package com.example.pitdemo.service.store;
+
+import com.example.pitdemo.model.User;
+import com.example.pitdemo.model.UserChangeListener;
+import com.example.pitdemo.service.UserService.UserStatistics;
+import com.example.pitdemo.util.DayClock;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Heap-based user store with hash indexes on normalized username and email.
+ *
+ * Every lookup is a single hash probe instead of a scan over all users.
+ * The store is safe for concurrent use and never takes a global lock:
+ * adding a user reserves both keys with put-if-absent, so uniqueness holds
+ * even when many signups run in parallel.
+ *
+ * Each stored user carries a change listener, so the secondary indexes
+ * follow every change to score, status or birth date. Every add, change
+ * and clear also publishes a new {@link UserSetVersion}, which readers take
+ * without copying or waiting.
+ */
+public class InMemoryUserStore implements UserStore {
+
+    private final Map<String, Registration> usersByUsername = new ConcurrentHashMap<>();
+    private final Map<String, Registration> usersByEmail = new ConcurrentHashMap<>();
+    // Every committed user in insertion order, replaced by its next version on each change
+    private final AtomicReference<UserSetVersion> current = new AtomicReference<>(UserSetVersion.EMPTY);
+
+    private final DayClock clock;
+    private final UserStatisticsIndex statistics;
+    private final BirthDateIndex birthDates = new BirthDateIndex();
+    private final StatusIndex statuses = new StatusIndex();
+    private final RankingIndex rankings;
+    private final PremiumIndex premium;
+    private final List<UserIndex> indexes;
+    private final UserChangeListener observer;
+
+    public InMemoryUserStore() {
+        this(DayClock.system());
+    }
+
+    /**
+     * Creates a store whose statistics are as of the clock's date. The
+     * date-dependent indexes start at that date and only move forward, so
+     * queries for earlier dates are answered as of the latest date seen.
+     */
+    public InMemoryUserStore(DayClock clock) {
+        this(clock, user -> { });
+    }
+
+    /**
+     * Creates a store that also tells {@code observer} about every change
+     * to a stored user, after the indexes have followed it.
+     */
+    InMemoryUserStore(DayClock clock, UserChangeListener observer) {
+        if (clock == null) {
+            throw new IllegalArgumentException("Clock cannot be null");
+        }
+        LocalDate today = clock.today();
+        this.clock = clock;
+        this.statistics = new UserStatisticsIndex(today);
+        this.rankings = new RankingIndex(today);
+        this.premium = new PremiumIndex(today);
+        this.indexes = List.of(statistics, birthDates, statuses, rankings, premium);
+        this.observer = observer;
+    }
+
+    /**
+     * Adds a user by reserving the username, then the email.
+     *
+     * If the email turns out to be taken, the username reservation is
+     * released again. Until both keys are held the user is invisible to
+     * lookups, although the keys already count as taken.
+     */
+    @Override
+    public void add(User user) {
+        Registration registration = reserve(user);
+        registration.attach();
+        commit(registration);
+    }
+
+    /**
+     * Reserves the keys user by user, then hands all accepted users to each
+     * index in one call, so an index can group its updates for the batch.
+     */
+    @Override
+    public List<String> addAll(List<User> users) {
+        List<String> rejections = new ArrayList<>(users.size());
+        List<Registration> registrations = new ArrayList<>(users.size());
+        for (User user : users) {
+            try {
+                registrations.add(reserve(user));
+                rejections.add(null);
+            } catch (IllegalArgumentException e) {
+                rejections.add(e.getMessage());
+            }
+        }
+
+        List<User> added = new ArrayList<>(registrations.size());
+        List<UserState> states = new ArrayList<>(registrations.size());
+        for (Registration registration : registrations) {
+            added.add(registration.user);
+            states.add(UserState.of(registration.user));
+        }
+        for (UserIndex index : indexes) {
+            index.usersAdded(added, states);
+        }
+        for (int i = 0; i < registrations.size(); i++) {
+            registrations.get(i).listen(states.get(i));
+            commit(registrations.get(i));
+        }
+        return rejections;
+    }
+
+    private Registration reserve(User user) {
+        String usernameKey = UserStore.normalize(user.getUsername());
+        String emailKey = UserStore.normalize(user.getEmail());
+        Registration registration = new Registration(user);
+
+        if (usersByUsername.putIfAbsent(usernameKey, registration) != null) {
+            throw new IllegalArgumentException("Username already exists: " + user.getUsername());
+        }
+
+        if (usersByEmail.putIfAbsent(emailKey, registration) != null) {
+            usersByUsername.remove(usernameKey, registration);
+            throw new IllegalArgumentException("Email already exists: " + user.getEmail());
+        }
+        return registration;
+    }
+
+    private void commit(Registration registration) {
+        registration.publish();
+        registration.committed = true;
+    }
+
+    @Override
+    public User findByUsername(String username) {
+        if (username == null) {
+            return null;
+        }
+        Registration registration = usersByUsername.get(UserStore.normalize(username));
+        if (registration == null || !registration.committed) {
+            return null;
+        }
+        // The key ignores case, so confirm the exact spelling
+        User user = registration.user;
+        return user.getUsername().equals(username) ? user : null;
+    }
+
+    @Override
+    public boolean usernameExists(String username) {
+        return usersByUsername.containsKey(UserStore.normalize(username));
+    }
+
+    @Override
+    public boolean emailExists(String email) {
+        return usersByEmail.containsKey(UserStore.normalize(email));
+    }
+
+    /**
+     * Returns the users of the current version without copying them, so
+     * pages read by the default {@link #findPage} cost only the page.
+     */
+    @Override
+    public List<User> findAll() {
+        return current.get().getUsers();
+    }
+
+    /**
+     * Returns the latest published version; never waits for writers.
+     */
+    @Override
+    public UserSetVersion currentVersion() {
+        return current.get();
+    }
+
+    /**
+     * Answered from the birth date index; users come back oldest first.
+     */
+    @Override
+    public List<User> findByAgeRange(int minAge, int maxAge, LocalDate today) {
+        return birthDates.find(minAge, maxAge, today);
+    }
+
+    @Override
+    public int countByAgeRange(int minAge, int maxAge, LocalDate today) {
+        return birthDates.count(minAge, maxAge, today);
+    }
+
+    /**
+     * Answered from the status index, in the order users took the status.
+     */
+    @Override
+    public List<User> findByStatus(User.UserStatus status) {
+        return statuses.find(status);
+    }
+
+    @Override
+    public int countByStatus(User.UserStatus status) {
+        return statuses.count(status);
+    }
+
+    /**
+     * Answered from the ranking index without ranking every user.
+     */
+    @Override
+    public List<User> findTopRanked(int k, LocalDate today) {
+        return rankings.top(k, today);
+    }
+
+    @Override
+    public int rankOf(String username, LocalDate today) {
+        User user = findByUsername(username);
+        return user == null ? 0 : rankings.rankOf(user, today);
+    }
+
+    /**
+     * Answered from the premium index without evaluating the rule.
+     */
+    @Override
+    public boolean isPremium(String username, LocalDate today) {
+        User user = findByUsername(username);
+        return user != null && premium.contains(user, today);
+    }
+
+    /**
+     * Answered from the premium index, in the order users became eligible.
+     */
+    @Override
+    public List<User> findPremium(LocalDate today) {
+        return premium.find(today);
+    }
+
+    /**
+     * Rolls the date-dependent indexes forward, updating only the users with
+     * a threshold birthday since the last date they saw.
+     */
+    @Override
+    public void advanceTo(LocalDate today) {
+        indexes.forEach(index -> index.advanceTo(today));
+    }
+
+    @Override
+    public int size() {
+        return current.get().size();
+    }
+
+    @Override
+    public UserStatistics statistics() {
+        return statistics.snapshot(clock.today());
+    }
+
+    /**
+     * Removes all users. Not atomic with respect to concurrent adds.
+     */
+    @Override
+    public void clear() {
+        for (Registration registration : usersByUsername.values()) {
+            registration.detach();
+        }
+        current.updateAndGet(UserSetVersion::cleared);
+        usersByUsername.clear();
+        usersByEmail.clear();
+        indexes.forEach(UserIndex::cleared);
+    }
+
+    /**
+     * Index entry shared by both keys of one user.
+     *
+     * It also listens to the user's changes and forwards them to the
+     * indexes together with the previously indexed state.
+     */
+    private final class Registration implements UserChangeListener {
+        private final User user;
+        private volatile boolean committed;
+        private UserState state;
+        // Index in the published versions, once there is one
+        private int slot = -1;
+
+        private Registration(User user) {
+            this.user = user;
+        }
+
+        synchronized void attach() {
+            UserState added = UserState.of(user);
+            for (UserIndex index : indexes) {
+                index.userAdded(user, added);
+            }
+            listen(added);
+        }
+
+        /**
+         * Starts following the user once the indexes hold {@code indexed},
+         * forwarding any change made after that state was read.
+         */
+        synchronized void listen(UserState indexed) {
+            state = indexed;
+            user.setChangeListener(this);
+            userChanged(user);
+        }
+
+        /**
+         * Appends the user to the published versions with its latest state.
+         */
+        synchronized void publish() {
+            if (state == null) {
+                return;
+            }
+            UserSetVersion before;
+            do {
+                before = current.get();
+            } while (!current.compareAndSet(before, before.withAdded(user, state)));
+            slot = before.size();
+        }
+
+        synchronized void detach() {
+            user.setChangeListener(null);
+            state = null;
+        }
+
+        @Override
+        public synchronized void userChanged(User changed) {
+            if (state == null) {
+                return;
+            }
+            UserState before = state;
+            UserState after = UserState.of(user);
+            if (after.equals(before)) {
+                return;
+            }
+            state = after;
+            for (UserIndex index : indexes) {
+                index.userChanged(user, before, after);
+            }
+            if (slot >= 0) {
+                current.updateAndGet(version -> version.withChanged(slot, user, after));
+            }
+            observer.userChanged(user);
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package com.example.pitdemo.service.store;
+
+import com.example.pitdemo.model.User;
+import com.example.pitdemo.model.UserChangeListener;
+import com.example.pitdemo.repository.UserRepository;
+import com.example.pitdemo.service.UserPage;
+import com.example.pitdemo.service.UserService.UserStatistics;
+import com.example.pitdemo.util.AgeUtils;
+import com.example.pitdemo.util.DayClock;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Store that keeps users in the database through a {@link UserRepository}.
+ *
+ * Users handed out are entities detached from any persistence context.
+ * Like the row stores, the store attaches a listener that writes every
+ * change to score, status or birth date straight back, here as a single
+ * {@code UPDATE} by id. A change to several fields made through
+ * {@link #update} is written by one {@code UPDATE}, so it lands whole or
+ * not at all. Uniqueness is enforced by the unique constraints
+ * on the normalized username and email columns: inserts go straight to the
+ * database, and a rejected insert is reported from the violated constraint,
+ * so even application instances sharing a database cannot both take a
+ * name. Counts and statistics are computed by the database.
+ */
+public class JpaUserStore implements UserStore {
+
+    private final UserRepository repository;
+    private final DayClock clock;
+    private final UserChangeListener writer;
+
+    public JpaUserStore(UserRepository repository) {
+        this(repository, DayClock.system());
+    }
+
+    /**
+     * Creates a store whose statistics are as of the clock's date.
+     */
+    public JpaUserStore(UserRepository repository, DayClock clock) {
+        if (repository == null) {
+            throw new IllegalArgumentException("Repository cannot be null");
+        }
+        if (clock == null) {
+            throw new IllegalArgumentException("Clock cannot be null");
+        }
+        this.repository = repository;
+        this.clock = clock;
+        this.writer = user -> repository.updateState(user.getId(), user.getScore(), user.getStatus(),
+                user.getBirthDate());
+    }
+
+    /**
+     * Inserts the user without checking first. If both the username and the
+     * email are taken, the database decides which one is reported.
+     */
+    @Override
+    public void add(User user) {
+        try {
+            repository.insertAll(List.of(user));
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalArgumentException(rejection(user, e), e);
+        }
+        user.setChangeListener(writer);
+    }
+
+    /**
+     * Drops repeats within the batch, then inserts the rest in a single
+     * transaction. Only when the database rejects a row is the batch split,
+     * see {@link #insert}.
+     */
+    @Override
+    public List<String> addAll(List<User> users) {
+        String[] rejections = new String[users.size()];
+        List<Integer> candidates = new ArrayList<>(users.size());
+        Set<String> batchUsernames = new HashSet<>();
+        Set<String> batchEmails = new HashSet<>();
+        for (int i = 0; i < users.size(); i++) {
+            User user = users.get(i);
+            if (!batchUsernames.add(UserStore.normalize(user.getUsername()))) {
+                rejections[i] = "Username already exists: " + user.getUsername();
+            } else if (!batchEmails.add(UserStore.normalize(user.getEmail()))) {
+                rejections[i] = "Email already exists: " + user.getEmail();
+            } else {
+                candidates.add(i);
+            }
+        }
+        if (!candidates.isEmpty()) {
+            insert(users, candidates, rejections);
+        }
+        for (int i = 0; i < users.size(); i++) {
+            if (rejections[i] == null) {
+                users.get(i).setChangeListener(writer);
+            }
+        }
+        return Arrays.asList(rejections);
+    }
+
+    /**
+     * Inserts the users at the given positions in one transaction. If the
+     * database rejects a row, the transaction rolls back and each half is
+     * retried on its own, down to the single rejected users, so a batch of
+     * n with k taken keys costs about k log n extra transactions.
+     */
+    private void insert(List<User> users, List<Integer> positions, String[] rejections) {
+        List<User> batch = new ArrayList<>(positions.size());
+        for (int position : positions) {
+            batch.add(users.get(position));
+        }
+        try {
+            repository.insertAll(batch);
+            return;
+        } catch (DataIntegrityViolationException e) {
+            if (positions.size() == 1) {
+                rejections[positions.get(0)] = rejection(batch.get(0), e);
+                return;
+            }
+        }
+        int middle = positions.size() / 2;
+        insert(users, positions.subList(0, middle), rejections);
+        insert(users, positions.subList(middle, positions.size()), rejections);
+    }
+
+    /**
+     * Names the key a rejected insert clashed on, going by the constraint in
+     * the driver's message.
+     *
+     * @throws DataIntegrityViolationException if no key constraint was violated
+     */
+    private static String rejection(User user, DataIntegrityViolationException e) {
+        String message = String.valueOf(e.getMostSpecificCause().getMessage()).toLowerCase(Locale.ROOT);
+        if (message.contains(User.USERNAME_KEY_CONSTRAINT)) {
+            return "Username already exists: " + user.getUsername();
+        }
+        if (message.contains(User.EMAIL_KEY_CONSTRAINT)) {
+            return "Email already exists: " + user.getEmail();
+        }
+        throw e;
+    }
+
+    @Override
+    public User findByUsername(String username) {
+        if (username == null) {
+            return null;
+        }
+        return repository.findByUsername(username).map(this::attach).orElse(null);
+    }
+
+    @Override
+    public boolean usernameExists(String username) {
+        return repository.existsByUsernameKey(UserStore.normalize(username));
+    }
+
+    @Override
+    public boolean emailExists(String email) {
+        return repository.existsByEmailKey(UserStore.normalize(email));
+    }
+
+    /**
+     * Returns every user ordered by id, which follows insertion order.
+     */
+    @Override
+    public List<User> findAll() {
+        return attachAll(repository.findAll(Sort.by("id")));
+    }
+
+    /**
+     * Positions are ids. Reads one user more than the page to learn whether
+     * another page follows.
+     */
+    @Override
+    public UserPage findPage(long after, int limit) {
+        List<User> users = attachAll(repository.findByIdGreaterThanOrderByIdAsc(after,
+                Limit.of((int) Math.min((long) limit + 1, Integer.MAX_VALUE))));
+        boolean more = users.size() > limit;
+        List<User> page = more ? new ArrayList<>(users.subList(0, limit)) : users;
+        long last = page.isEmpty() ? after : page.get(page.size() - 1).getId();
+        return new UserPage(page, last, more);
+    }
+
+    /**
+     * Users come back oldest first, then those without a birth date.
+     */
+    @Override
+    public List<User> findByAgeRange(int minAge, int maxAge, LocalDate today) {
+        BirthDateRange range = BirthDateRange.forAges(minAge, maxAge, today);
+        return attachAll(repository.findByBirthDateRange(range.getFrom(), range.getTo(), range.includesUndated()));
+    }
+
+    @Override
+    public int countByAgeRange(int minAge, int maxAge, LocalDate today) {
+        BirthDateRange range = BirthDateRange.forAges(minAge, maxAge, today);
+        return Math.toIntExact(repository.countByBirthDateRange(range.getFrom(), range.getTo(),
+                range.includesUndated()));
+    }
+
+    @Override
+    public List<User> findByStatus(User.UserStatus status) {
+        return attachAll(repository.findByStatusOrderByIdAsc(status));
+    }
+
+    @Override
+    public int countByStatus(User.UserStatus status) {
+        return Math.toIntExact(repository.countByStatus(status));
+    }
+
+    @Override
+    public int size() {
+        return Math.toIntExact(repository.count());
+    }
+
+    /**
+     * Computes the statistics in the database with a single aggregate
+     * query, without loading any user.
+     */
+    @Override
+    public UserStatistics statistics() {
+        return statistics(clock.today());
+    }
+
+    UserStatistics statistics(LocalDate today) {
+        int packedToday = today.getYear() * 10_000 + today.getMonthValue() * 100 + today.getDayOfMonth();
+        return repository.aggregateStatistics(packedToday, AgeUtils.latestBirthDateForAge(today, 18),
+                User.UserStatus.ACTIVE).toStatistics();
+    }
+
+    /**
+     * Deletes every row in one statement. Users handed out earlier write
+     * their changes to rows that no longer exist, which updates nothing.
+     */
+    @Override
+    public void clear() {
+        repository.deleteAllInBatch();
+    }
+
+    private User attach(User user) {
+        user.setChangeListener(writer);
+        return user;
+    }
+
+    private List<User> attachAll(List<User> users) {
+        users.forEach(this::attach);
+        return users;
+    }
+}
@@ -0,0 +1,248 @@
+package com.example.pitdemo.service.store;
+
+import com.example.pitdemo.util.DayClock;
+import com.example.pitdemo.util.HashUtils;
+
+/**
+ * User store that keeps all user data in direct memory, outside the Java heap.
+ *
+ * Each user is a fixed-width 32-byte record holding the score, birth epoch
+ * day, status ordinal and references to the username and email in a string
+ * arena. The username and email indexes are open-addressed hash tables in
+ * direct memory as well. The heap therefore holds no object per user, so
+ * tens of millions of users add neither heap pressure nor GC work; the
+ * store's memory grows in pages and is released when the store is
+ * collected.
+ *
+ * Lookups hash the normalized key and compare it in place against the
+ * arena. Statistics, age range counts and {@link #forEachRecord} scans read
+ * records directly. See {@link RowUserStore} for how {@code User} objects
+ * are materialized and written back.
+ */
+public class OffHeapUserStore extends RowUserStore {
+
+    private static final int RECORD_SIZE = 32;
+    private static final int SCORE = 0;
+    private static final int BIRTH_DAY = 4;
+    private static final int USERNAME = 8;
+    private static final int EMAIL = 16;
+    private static final int STATUS = 24;
+
+    /** The most users a store can be sized for up front; it still grows beyond them. */
+    public static final int MAX_EXPECTED_USERS = 1 << 29;
+
+    private final int expectedUsers;
+    private final StringArena strings = new StringArena();
+    private final DirectPages records = new DirectPages(RECORD_SIZE);
+    private final KeyTable usernames;
+    private final KeyTable emails;
+
+    public OffHeapUserStore() {
+        this(DayClock.system());
+    }
+
+    /**
+     * Creates a store whose statistics are as of the clock's date.
+     */
+    public OffHeapUserStore(DayClock clock) {
+        this(clock, 0);
+    }
+
+    /**
+     * Creates a store sized up front for {@code expectedUsers}, so loading
+     * that many users neither grows the records nor rehashes the key
+     * tables. The direct memory for them is reserved at once, and again
+     * after {@link #clear()}; the store still grows beyond them.
+     */
+    public OffHeapUserStore(DayClock clock, int expectedUsers) {
+        super(clock);
+        if (expectedUsers < 0 || expectedUsers > MAX_EXPECTED_USERS) {
+            throw new IllegalArgumentException("Expected users must be between 0 and " + MAX_EXPECTED_USERS);
+        }
+        this.expectedUsers = expectedUsers;
+        this.usernames = new KeyTable(expectedUsers);
+        this.emails = new KeyTable(expectedUsers);
+        records.ensureCapacity(expectedUsers);
+    }
+
+    /**
+     * Bytes of direct memory currently reserved by this store.
+     */
+    public long offHeapBytes() {
+        return strings.byteSize() + records.byteSize() + usernames.byteSize() + emails.byteSize();
+    }
+
+    @Override
+    int rowOfUsernameKey(String key) {
+        return usernames.find(key);
+    }
+
+    @Override
+    int rowOfEmailKey(String key) {
+        return emails.find(key);
+    }
+
+    @Override
+    void checkStrings(String username, String email, String usernameKey, String emailKey) {
+        StringArena.checkLength(username);
+        StringArena.checkLength(email);
+        StringArena.checkLength(usernameKey);
+        StringArena.checkLength(emailKey);
+    }
+
+    @Override
+    void appendRow(int row, String username, String email, String usernameKey, String emailKey) {
+        checkStrings(username, email, usernameKey, emailKey);
+
+        records.ensureCapacity(row + 1);
+        long usernameRef = strings.add(username);
+        long emailRef = strings.add(email);
+        records.putLong(row, USERNAME, usernameRef);
+        records.putLong(row, EMAIL, emailRef);
+
+        // Keys are usually already normalized, so most users store each string once
+        usernames.put(usernameKey, usernameKey.equals(username) ? usernameRef : strings.add(usernameKey), row);
+        emails.put(emailKey, emailKey.equals(email) ? emailRef : strings.add(emailKey), row);
+    }
+
+    @Override
+    String username(int row) {
+        return strings.get(records.getLong(row, USERNAME));
+    }
+
+    @Override
+    boolean usernameMatches(int row, String username) {
+        return strings.matches(records.getLong(row, USERNAME), username);
+    }
+
+    @Override
+    String email(int row) {
+        return strings.get(records.getLong(row, EMAIL));
+    }
+
+    @Override
+    int score(int row) {
+        return records.getInt(row, SCORE);
+    }
+
+    @Override
+    int birthDay(int row) {
+        return records.getInt(row, BIRTH_DAY);
+    }
+
+    @Override
+    byte status(int row) {
+        return records.getByte(row, STATUS);
+    }
+
+    @Override
+    void setScore(int row, int score) {
+        records.putInt(row, SCORE, score);
+    }
+
+    @Override
+    void setBirthDay(int row, int birthDay) {
+        records.putInt(row, BIRTH_DAY, birthDay);
+    }
+
+    @Override
+    void setStatus(int row, byte status) {
+        records.putByte(row, STATUS, status);
+    }
+
+    @Override
+    void clearRows() {
+        strings.clear();
+        records.clear();
+        records.ensureCapacity(expectedUsers);
+        usernames.clear();
+        emails.clear();
+    }
+
+    /**
+     * Open-addressed hash table from a normalized key to a row, with linear
+     * probing. Each slot holds the key's hash, the row + 1 (0 when free) and
+     * the arena reference of the key. Kept at most half full.
+     */
+    private final class KeyTable {
+        private static final int HASH = 0;
+        private static final int ROW = 4;
+        private static final int KEY = 8;
+        private static final int SLOT_SIZE = 16;
+        private static final int MIN_CAPACITY = 1 << 16;
+
+        private final int initialCapacity;
+        private DirectPages slots;
+        private int mask;
+        private int size;
+
+        KeyTable(int expectedKeys) {
+            // At most half full with the expected keys; a power of two, so slots are masked
+            initialCapacity = Math.max(MIN_CAPACITY, Integer.highestOneBit(Math.max(expectedKeys * 2 - 1, 1)) << 1);
+            clear();
+        }
+
+        int find(String key) {
+            int hash = HashUtils.spread(key.hashCode());
+            for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+                int row = slots.getInt(slot, ROW) - 1;
+                if (row < 0) {
+                    return -1;
+                }
+                if (slots.getInt(slot, HASH) == hash && strings.matches(slots.getLong(slot, KEY), key)) {
+                    return row;
+                }
+            }
+        }
+
+        /**
+         * Adds a key known to be absent.
+         */
+        void put(String key, long keyRef, int row) {
+            if ((size + 1) * 2L > mask + 1L) {
+                resize((mask + 1) * 2);
+            }
+            insert(slots, mask, HashUtils.spread(key.hashCode()), keyRef, row + 1);
+            size++;
+        }
+
+        long byteSize() {
+            return slots.byteSize();
+        }
+
+        void clear() {
+            slots = newSlots(initialCapacity);
+            mask = initialCapacity - 1;
+            size = 0;
+        }
+
+        private void resize(int capacity) {
+            DirectPages resized = newSlots(capacity);
+            int resizedMask = capacity - 1;
+            for (int slot = 0; slot <= mask; slot++) {
+                int rowPlusOne = slots.getInt(slot, ROW);
+                if (rowPlusOne != 0) {
+                    insert(resized, resizedMask, slots.getInt(slot, HASH), slots.getLong(slot, KEY), rowPlusOne);
+                }
+            }
+            slots = resized;
+            mask = resizedMask;
+        }
+
+        private void insert(DirectPages target, int targetMask, int hash, long keyRef, int rowPlusOne) {
+            int slot = hash & targetMask;
+            while (target.getInt(slot, ROW) != 0) {
+                slot = (slot + 1) & targetMask;
+            }
+            target.putInt(slot, HASH, hash);
+            target.putInt(slot, ROW, rowPlusOne);
+            target.putLong(slot, KEY, keyRef);
+        }
+
+        private DirectPages newSlots(int capacity) {
+            DirectPages pages = new DirectPages(SLOT_SIZE);
+            pages.ensureCapacity(capacity);
+            return pages;
+        }
+    }
+}
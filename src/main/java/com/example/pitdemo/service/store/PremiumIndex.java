@@ -0,0 +1,98 @@
+package com.example.pitdemo.service.store;
+
+import com.example.pitdemo.model.User;
+import com.example.pitdemo.service.PremiumEligibility;
+import com.example.pitdemo.util.KeyUtils;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The users who can access premium features, for membership checks and
+ * listings that cost O(1) and O(output) instead of evaluating everyone.
+ *
+ * Eligibility is re-evaluated whenever score, status or birth date changes.
+ * Between changes it can only flip on a user's 18th or 25th birthday, so
+ * users also wait in a {@link BirthdayQueue} for the next of those still
+ * ahead and are re-evaluated by the first query or {@link #advanceTo} on
+ * or after it.
+ */
+class PremiumIndex implements UserIndex {
+
+    // Eligible users by username key, in the order they became eligible
+    private final Map<String, User> eligible = new LinkedHashMap<>();
+    private final BirthdayQueue birthdays = new BirthdayQueue(PremiumEligibility.ADULT_AGE,
+            PremiumEligibility.SENIOR_AGE);
+    private long evaluatedAsOf;
+
+    PremiumIndex(LocalDate today) {
+        this.evaluatedAsOf = today.toEpochDay();
+    }
+
+    @Override
+    public synchronized void userAdded(User user, UserState state) {
+        evaluate(user, state);
+    }
+
+    @Override
+    public synchronized void userChanged(User user, UserState before, UserState after) {
+        evaluate(user, after);
+    }
+
+    @Override
+    public synchronized void cleared() {
+        eligible.clear();
+        birthdays.clear();
+    }
+
+    @Override
+    public synchronized void advanceTo(LocalDate today) {
+        rollOver(today.toEpochDay());
+    }
+
+    /**
+     * Checks whether {@code user} is eligible as of {@code today}.
+     */
+    synchronized boolean contains(User user, LocalDate today) {
+        rollOver(today.toEpochDay());
+        return eligible.get(KeyUtils.normalize(user.getUsername())) == user;
+    }
+
+    /**
+     * Returns the users eligible as of {@code today}, in the order they became eligible.
+     */
+    synchronized List<User> find(LocalDate today) {
+        rollOver(today.toEpochDay());
+        return new ArrayList<>(eligible.values());
+    }
+
+    /**
+     * Adds or removes the user as eligible and queues it for its next threshold.
+     * A user who stays eligible keeps its place in the order.
+     */
+    private void evaluate(User user, UserState state) {
+        LocalDate birthDate = state.getBirthDate();
+        String key = KeyUtils.normalize(user.getUsername());
+        if (PremiumEligibility.isEligible(state.getScore(), state.getStatus(), birthDate,
+                LocalDate.ofEpochDay(evaluatedAsOf))) {
+            eligible.put(key, user);
+        } else {
+            eligible.remove(key, user);
+        }
+        birthdays.add(user, state, evaluatedAsOf);
+    }
+
+    /**
+     * Re-evaluates every user who has passed a threshold by {@code day}.
+     */
+    private void rollOver(long day) {
+        if (day <= evaluatedAsOf) {
+            return;
+        }
+        evaluatedAsOf = day;
+        birthdays.pollDue(day, this::evaluate);
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.pitdemo.service.store;
+
+import com.example.pitdemo.model.User;
+import com.example.pitdemo.service.UserRanking;
+import com.example.pitdemo.util.AgeUtils;
+import com.example.pitdemo.util.KeyUtils;
+import com.example.pitdemo.util.OrderStatisticTree;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Users in leaderboard order, for top-N and rank queries.
+ *
+ * Every rankable user sits in an {@link OrderStatisticTree} ordered as
+ * {@link UserRanking#leaderboardOrder} says, and is moved whenever score,
+ * status or birth date changes, so listing the top k costs O(log n + k)
+ * and a user's position O(log n) instead of ranking everyone.
+ *
+ * Adulthood changes with the calendar rather than with writes, so minors
+ * wait in a {@link BirthdayQueue} for their 18th birthday and are re-ranked
+ * as adults by the first query or {@link #advanceTo} on or after that day.
+ */
+class RankingIndex implements UserIndex {
+
+    private static final int ADULT_AGE = 18;
+
+    private static final Comparator<Ranked> ORDER = Comparator.comparingDouble((Ranked ranked) -> ranked.ranking)
+            .reversed()
+            .thenComparing(ranked -> ranked.key);
+
+    private final OrderStatisticTree<Ranked> leaderboard = new OrderStatisticTree<>(ORDER);
+    private final Map<User, Ranked> rankedUsers = new IdentityHashMap<>();
+    private final BirthdayQueue minors = new BirthdayQueue(ADULT_AGE);
+    private long adultsAsOf;
+
+    RankingIndex(LocalDate today) {
+        this.adultsAsOf = today.toEpochDay();
+    }
+
+    @Override
+    public synchronized void userAdded(User user, UserState state) {
+        add(user, state);
+    }
+
+    @Override
+    public synchronized void userChanged(User user, UserState before, UserState after) {
+        remove(user);
+        add(user, after);
+    }
+
+    @Override
+    public synchronized void cleared() {
+        leaderboard.clear();
+        rankedUsers.clear();
+        minors.clear();
+    }
+
+    @Override
+    public synchronized void advanceTo(LocalDate today) {
+        rollOver(today.toEpochDay());
+    }
+
+    /**
+     * Returns up to {@code k} users in leaderboard order as of {@code today}.
+     */
+    synchronized List<User> top(int k, LocalDate today) {
+        rollOver(today.toEpochDay());
+        List<Ranked> top = leaderboard.first(k);
+        List<User> users = new ArrayList<>(top.size());
+        for (Ranked ranked : top) {
+            users.add(ranked.user);
+        }
+        return users;
+    }
+
+    /**
+     * Returns 1 plus the number of users ranked strictly higher than
+     * {@code user} as of {@code today}, or 0 if the user is not ranked.
+     */
+    synchronized int rankOf(User user, LocalDate today) {
+        rollOver(today.toEpochDay());
+        Ranked ranked = rankedUsers.get(user);
+        if (ranked == null) {
+            return 0;
+        }
+        // The empty key sorts before every username with the same ranking
+        return leaderboard.countLessThan(new Ranked(ranked.ranking, "", null)) + 1;
+    }
+
+    private void add(User user, UserState state) {
+        LocalDate birthDate = state.getBirthDate();
+        boolean adult = birthDate != null && adulthoodDay(birthDate) <= adultsAsOf;
+        if (birthDate != null && !adult) {
+            minors.add(user, state, adultsAsOf);
+        }
+        if (!UserRanking.isRankable(state.getScore(), state.getStatus())) {
+            return;
+        }
+        Ranked ranked = new Ranked(UserRanking.of(state.getScore(), state.getStatus(), adult),
+                KeyUtils.normalize(user.getUsername()), user);
+        rankedUsers.put(user, ranked);
+        leaderboard.add(ranked);
+    }
+
+    private void remove(User user) {
+        minors.remove(user);
+        Ranked ranked = rankedUsers.remove(user);
+        if (ranked != null) {
+            leaderboard.remove(ranked);
+        }
+    }
+
+    /**
+     * Re-ranks every minor who has turned 18 by {@code day} as an adult.
+     */
+    private void rollOver(long day) {
+        if (day <= adultsAsOf) {
+            return;
+        }
+        adultsAsOf = day;
+        minors.pollDue(day, (user, state) -> {
+            remove(user);
+            add(user, state);
+        });
+    }
+
+    private static long adulthoodDay(LocalDate birthDate) {
+        return AgeUtils.dateOfAge(birthDate, ADULT_AGE).toEpochDay();
+    }
+
+    private static final class Ranked {
+        private final double ranking;
+        private final String key;
+        private final User user;
+
+        private Ranked(double ranking, String key, User user) {
+            this.ranking = ranking;
+            this.key = key;
+            this.user = user;
+        }
+    }
+}
@@ -0,0 +1,618 @@
+package com.example.pitdemo.service.store;
+
+import com.example.pitdemo.model.User;
+import com.example.pitdemo.model.UserChangeListener;
+import com.example.pitdemo.service.UserPage;
+import com.example.pitdemo.service.UserService.UserStatistics;
+import com.example.pitdemo.util.AgeUtils;
+import com.example.pitdemo.util.DayClock;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Base for stores that keep each user as a numbered row of primitive fields
+ * rather than as a {@code User} object.
+ *
+ * Subclasses decide where rows live; this class implements the store on
+ * top of them. Statistics and age range filters loop over rows reading
+ * only primitives. {@code User} objects are materialized on demand as
+ * detached copies that write their own changes to score, status or birth
+ * date back to the row; changes made through one copy are not visible in
+ * copies materialized earlier. The user passed to {@link #add(User)} writes
+ * back the same way. {@link #update} works on a reused copy loaded straight
+ * from the row instead, so it materializes nothing.
+ *
+ * Reads share a read lock and writes take a write lock. Birth dates are
+ * stored as {@code int} epoch days, which covers roughly five million
+ * years either side of 1970.
+ */
+abstract class RowUserStore implements UserStore {
+
+    static final int NO_BIRTH_DATE = Integer.MIN_VALUE;
+    static final byte NO_STATUS = -1;
+
+    private static final User.UserStatus[] STATUSES = User.UserStatus.values();
+    private static final byte ACTIVE = (byte) User.UserStatus.ACTIVE.ordinal();
+
+    private final DayClock clock;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private int size;
+
+    // Bumped on clear, so copies materialized before it stop writing back
+    private int generation;
+
+    // The copy update lends out on each thread; taken out while lent, so a nested update makes its own
+    private final ThreadLocal<User> scratch = new ThreadLocal<>();
+
+    /**
+     * Creates a store whose statistics are as of the clock's date.
+     */
+    RowUserStore(DayClock clock) {
+        if (clock == null) {
+            throw new IllegalArgumentException("Clock cannot be null");
+        }
+        this.clock = clock;
+    }
+
+    /**
+     * Returns the row whose normalized username is {@code key}, or -1.
+     */
+    abstract int rowOfUsernameKey(String key);
+
+    /**
+     * Returns the row whose normalized email is {@code key}, or -1.
+     */
+    abstract int rowOfEmailKey(String key);
+
+    /**
+     * Stores the strings of a new row and registers its keys. Must check
+     * everything that can fail before changing any state.
+     */
+    abstract void appendRow(int row, String username, String email, String usernameKey, String emailKey);
+
+    /**
+     * Checks that the strings of a new row can be stored. The default accepts any string.
+     *
+     * @throws IllegalArgumentException if one cannot
+     */
+    void checkStrings(String username, String email, String usernameKey, String emailKey) {
+    }
+
+    abstract String username(int row);
+
+    /**
+     * Checks whether the row's username is exactly {@code username}, without
+     * building a string from the row.
+     */
+    abstract boolean usernameMatches(int row, String username);
+
+    abstract String email(int row);
+
+    abstract int score(int row);
+
+    abstract int birthDay(int row);
+
+    abstract byte status(int row);
+
+    abstract void setScore(int row, int score);
+
+    abstract void setBirthDay(int row, int birthDay);
+
+    abstract void setStatus(int row, byte status);
+
+    /**
+     * Drops all rows and keys.
+     */
+    abstract void clearRows();
+
+    @Override
+    public void validate(User user) {
+        encodeBirthDate(user.getBirthDate());
+        checkStrings(user.getUsername(), user.getEmail(),
+                UserStore.normalize(user.getUsername()), UserStore.normalize(user.getEmail()));
+    }
+
+    @Override
+    public void add(User user) {
+        String usernameKey = UserStore.normalize(user.getUsername());
+        String emailKey = UserStore.normalize(user.getEmail());
+        int birthDay = encodeBirthDate(user.getBirthDate());
+
+        lock.writeLock().lock();
+        try {
+            addRow(user, usernameKey, emailKey, birthDay);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds the whole batch under a single write lock. Keys are normalized
+     * before the lock is taken.
+     */
+    @Override
+    public List<String> addAll(List<User> users) {
+        String[] usernameKeys = new String[users.size()];
+        String[] emailKeys = new String[users.size()];
+        for (int i = 0; i < users.size(); i++) {
+            usernameKeys[i] = UserStore.normalize(users.get(i).getUsername());
+            emailKeys[i] = UserStore.normalize(users.get(i).getEmail());
+        }
+
+        List<String> rejections = new ArrayList<>(users.size());
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i < users.size(); i++) {
+                User user = users.get(i);
+                try {
+                    addRow(user, usernameKeys[i], emailKeys[i], encodeBirthDate(user.getBirthDate()));
+                    rejections.add(null);
+                } catch (IllegalArgumentException e) {
+                    rejections.add(e.getMessage());
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return rejections;
+    }
+
+    /**
+     * Checks the keys and appends the row. The caller holds the write lock.
+     */
+    private void addRow(User user, String usernameKey, String emailKey, int birthDay) {
+        if (rowOfUsernameKey(usernameKey) >= 0) {
+            throw new IllegalArgumentException("Username already exists: " + user.getUsername());
+        }
+        if (rowOfEmailKey(emailKey) >= 0) {
+            throw new IllegalArgumentException("Email already exists: " + user.getEmail());
+        }
+
+        int row = size;
+        appendRow(row, user.getUsername(), user.getEmail(), usernameKey, emailKey);
+        setScore(row, user.getScore());
+        setBirthDay(row, birthDay);
+        setStatus(row, encodeStatus(user.getStatus()));
+        size = row + 1;
+        user.setChangeListener(new RowWriter(row, UserState.of(user)));
+    }
+
+    /**
+     * Materializes a fresh copy of the user's row.
+     */
+    @Override
+    public User findByUsername(String username) {
+        if (username == null) {
+            return null;
+        }
+        String key = UserStore.normalize(username);
+        lock.readLock().lock();
+        try {
+            int row = rowOfUsernameKey(key);
+            // The key ignores case, so confirm the exact spelling
+            if (row < 0 || !usernameMatches(row, username)) {
+                return null;
+            }
+            return materialize(row);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Loads the row into a copy reused by this thread, taking the caller's
+     * username rather than decoding it, runs the change, then stores only
+     * the fields that changed, as {@link RowWriter} does. Nothing is stored
+     * if the store was cleared in the meantime.
+     */
+    @Override
+    public boolean update(String username, Consumer<? super User> change) {
+        if (username == null) {
+            return false;
+        }
+        String key = UserStore.normalize(username);
+        User user = scratch.get();
+        scratch.set(null);
+        if (user == null) {
+            user = new User();
+        }
+        try {
+            int row;
+            int rowGeneration;
+            lock.readLock().lock();
+            try {
+                row = rowOfUsernameKey(key);
+                if (row < 0 || !usernameMatches(row, username)) {
+                    return false;
+                }
+                user.setUsername(username);
+                user.setEmail(email(row));
+                user.setState(score(row), decodeStatus(status(row)), decodeBirthDate(birthDay(row)));
+                rowGeneration = generation;
+            } finally {
+                lock.readLock().unlock();
+            }
+
+            int score = user.getScore();
+            User.UserStatus status = user.getStatus();
+            LocalDate birthDate = user.getBirthDate();
+            change.accept(user);
+            int birthDay = encodeBirthDate(user.getBirthDate());
+
+            lock.writeLock().lock();
+            try {
+                if (rowGeneration == generation) {
+                    if (user.getScore() != score) {
+                        setScore(row, user.getScore());
+                    }
+                    if (user.getStatus() != status) {
+                        setStatus(row, encodeStatus(user.getStatus()));
+                    }
+                    if (!Objects.equals(user.getBirthDate(), birthDate)) {
+                        setBirthDay(row, birthDay);
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return true;
+        } finally {
+            scratch.set(user);
+        }
+    }
+
+    @Override
+    public boolean usernameExists(String username) {
+        String key = UserStore.normalize(username);
+        lock.readLock().lock();
+        try {
+            return rowOfUsernameKey(key) >= 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean emailExists(String email) {
+        String key = UserStore.normalize(email);
+        lock.readLock().lock();
+        try {
+            return rowOfEmailKey(key) >= 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<User> findAll() {
+        lock.readLock().lock();
+        try {
+            List<User> users = new ArrayList<>(size);
+            for (int row = 0; row < size; row++) {
+                users.add(materialize(row));
+            }
+            return users;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Positions are row numbers from 1, so the page is read straight from its rows.
+     */
+    @Override
+    public UserPage findPage(long after, int limit) {
+        lock.readLock().lock();
+        try {
+            int from = (int) Math.min(after, size);
+            int to = (int) Math.min((long) from + limit, size);
+            List<User> users = new ArrayList<>(to - from);
+            for (int row = from; row < to; row++) {
+                users.add(materialize(row));
+            }
+            return new UserPage(users, to, to < size);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Scans only the status column, materializing just the matches.
+     */
+    @Override
+    public List<User> findByStatus(User.UserStatus status) {
+        byte encoded = encodeStatus(status);
+        lock.readLock().lock();
+        try {
+            List<User> users = new ArrayList<>();
+            for (int row = 0; row < size; row++) {
+                if (status(row) == encoded) {
+                    users.add(materialize(row));
+                }
+            }
+            return users;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int countByStatus(User.UserStatus status) {
+        byte encoded = encodeStatus(status);
+        lock.readLock().lock();
+        try {
+            int count = 0;
+            for (int row = 0; row < size; row++) {
+                if (status(row) == encoded) {
+                    count++;
+                }
+            }
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Visits every user in insertion order through a single reused view,
+     * without materializing any {@code User}. The view must not be kept
+     * after the callback, and the callback must not modify this store.
+     */
+    public void forEachRecord(Consumer<? super UserRecord> action) {
+        lock.readLock().lock();
+        try {
+            Cursor cursor = new Cursor();
+            for (int row = 0; row < size; row++) {
+                cursor.row = row;
+                action.accept(cursor);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Filters on birth dates; users come back in insertion order.
+     */
+    @Override
+    public List<User> findByAgeRange(int minAge, int maxAge, LocalDate today) {
+        BirthDateRange range = BirthDateRange.forAges(minAge, maxAge, today);
+        long from = range.fromEpochDay();
+        long to = range.toEpochDay();
+        boolean undated = range.includesUndated();
+
+        lock.readLock().lock();
+        try {
+            List<User> users = new ArrayList<>();
+            for (int row = 0; row < size; row++) {
+                int day = birthDay(row);
+                if (day == NO_BIRTH_DATE ? undated : day >= from && day < to) {
+                    users.add(materialize(row));
+                }
+            }
+            return users;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int countByAgeRange(int minAge, int maxAge, LocalDate today) {
+        BirthDateRange range = BirthDateRange.forAges(minAge, maxAge, today);
+        long from = range.fromEpochDay();
+        long to = range.toEpochDay();
+        boolean undated = range.includesUndated();
+
+        lock.readLock().lock();
+        try {
+            int count = 0;
+            for (int row = 0; row < size; row++) {
+                int day = birthDay(row);
+                if (day == NO_BIRTH_DATE ? undated : day >= from && day < to) {
+                    count++;
+                }
+            }
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Computes statistics in one pass over the score, birth date and status of each row.
+     */
+    @Override
+    public UserStatistics statistics() {
+        return statistics(clock.today());
+    }
+
+    UserStatistics statistics(LocalDate today) {
+        long todayDay = today.toEpochDay();
+        long adultBirthDay = AgeUtils.latestBirthDateForAge(today, 18).toEpochDay();
+
+        lock.readLock().lock();
+        try {
+            int activeUsers = 0;
+            int adultUsers = 0;
+            int promotableUsers = 0;
+            long scoreSum = 0;
+            long ageSum = 0;
+            for (int row = 0; row < size; row++) {
+                int score = score(row);
+                int day = birthDay(row);
+                boolean active = status(row) == ACTIVE;
+                boolean adult = day != NO_BIRTH_DATE && day <= adultBirthDay;
+
+                scoreSum += score;
+                if (day != NO_BIRTH_DATE) {
+                    ageSum += AgeUtils.age(day, todayDay);
+                }
+                if (active) {
+                    activeUsers++;
+                }
+                if (adult) {
+                    adultUsers++;
+                }
+                if (active && adult && score >= 75) {
+                    promotableUsers++;
+                }
+            }
+            double averageScore = size == 0 ? 0.0 : (double) scoreSum / size;
+            double averageAge = size == 0 ? 0.0 : (double) ageSum / size;
+            return new UserStatistics(size, averageScore, averageAge, activeUsers, adultUsers, promotableUsers);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Removes all users. Users materialized earlier stop writing back.
+     */
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            clearRows();
+            size = 0;
+            generation++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Builds a user from its row. The caller holds the read or write lock.
+     */
+    private User materialize(int row) {
+        User user = new User(username(row), email(row), decodeBirthDate(birthDay(row)));
+        user.setScore(score(row));
+        user.setStatus(decodeStatus(status(row)));
+        user.setChangeListener(new RowWriter(row, UserState.of(user)));
+        return user;
+    }
+
+    private static int encodeBirthDate(LocalDate birthDate) {
+        if (birthDate == null) {
+            return NO_BIRTH_DATE;
+        }
+        long epochDay = birthDate.toEpochDay();
+        if (epochDay <= NO_BIRTH_DATE || epochDay > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Birth date out of range: " + birthDate);
+        }
+        return (int) epochDay;
+    }
+
+    private static LocalDate decodeBirthDate(int day) {
+        return day == NO_BIRTH_DATE ? null : LocalDate.ofEpochDay(day);
+    }
+
+    private static byte encodeStatus(User.UserStatus status) {
+        return status == null ? NO_STATUS : (byte) status.ordinal();
+    }
+
+    private static User.UserStatus decodeStatus(byte ordinal) {
+        return ordinal == NO_STATUS ? null : STATUSES[ordinal];
+    }
+
+    /**
+     * Flyweight view over the current row of a scan.
+     */
+    private final class Cursor implements UserRecord {
+        private int row;
+
+        @Override
+        public String getUsername() {
+            return username(row);
+        }
+
+        @Override
+        public String getEmail() {
+            return email(row);
+        }
+
+        @Override
+        public int getScore() {
+            return score(row);
+        }
+
+        @Override
+        public User.UserStatus getStatus() {
+            return decodeStatus(status(row));
+        }
+
+        @Override
+        public boolean hasBirthDate() {
+            return birthDay(row) != NO_BIRTH_DATE;
+        }
+
+        @Override
+        public long getBirthEpochDay() {
+            return birthDay(row);
+        }
+
+        @Override
+        public int getAge(long todayEpochDay) {
+            int day = birthDay(row);
+            return day == NO_BIRTH_DATE ? 0 : AgeUtils.age(day, todayEpochDay);
+        }
+    }
+
+    /**
+     * Writes a user's changes back to its row.
+     *
+     * Only the fields that changed since this copy last wrote are stored, so
+     * two copies of one user changing different fields do not undo each other.
+     */
+    private final class RowWriter implements UserChangeListener {
+        private final int row;
+        private final int rowGeneration;
+        private UserState written;
+
+        private RowWriter(int row, UserState written) {
+            this.row = row;
+            this.rowGeneration = generation;
+            this.written = written;
+        }
+
+        @Override
+        public void userChanged(User user) {
+            UserState state = UserState.of(user);
+            int birthDay = encodeBirthDate(state.getBirthDate());
+
+            lock.writeLock().lock();
+            try {
+                if (rowGeneration != generation) {
+                    return;
+                }
+                if (state.getScore() != written.getScore()) {
+                    setScore(row, state.getScore());
+                }
+                if (state.getStatus() != written.getStatus()) {
+                    setStatus(row, encodeStatus(state.getStatus()));
+                }
+                if (!Objects.equals(state.getBirthDate(), written.getBirthDate())) {
+                    setBirthDay(row, birthDay);
+                }
+                written = state;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+}
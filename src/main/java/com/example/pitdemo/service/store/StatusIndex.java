@@ -0,0 +1,71 @@
+package com.example.pitdemo.service.store;
+
+import com.example.pitdemo.model.User;
+import com.example.pitdemo.util.KeyUtils;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Users by status, for listings that cost O(output) and counts that cost
+ * O(1) instead of checking everyone.
+ *
+ * A user moves between statuses on every change the store hears about,
+ * whether from {@code setStatus}, activation by a score update or the
+ * low-score suspension. Users without a status are not kept.
+ */
+class StatusIndex implements UserIndex {
+
+    // Users of each status by username key, in the order they took the status
+    private final Map<User.UserStatus, Map<String, User>> usersByStatus = new EnumMap<>(User.UserStatus.class);
+
+    StatusIndex() {
+        for (User.UserStatus status : User.UserStatus.values()) {
+            usersByStatus.put(status, new LinkedHashMap<>());
+        }
+    }
+
+    @Override
+    public synchronized void userAdded(User user, UserState state) {
+        add(user, state.getStatus());
+    }
+
+    @Override
+    public synchronized void userChanged(User user, UserState before, UserState after) {
+        if (before.getStatus() != after.getStatus()) {
+            remove(user, before.getStatus());
+            add(user, after.getStatus());
+        }
+    }
+
+    @Override
+    public synchronized void cleared() {
+        usersByStatus.values().forEach(Map::clear);
+    }
+
+    /**
+     * Returns the users with {@code status}, in the order they took it.
+     */
+    synchronized List<User> find(User.UserStatus status) {
+        return new ArrayList<>(usersByStatus.get(status).values());
+    }
+
+    synchronized int count(User.UserStatus status) {
+        return usersByStatus.get(status).size();
+    }
+
+    private void add(User user, User.UserStatus status) {
+        if (status != null) {
+            usersByStatus.get(status).put(KeyUtils.normalize(user.getUsername()), user);
+        }
+    }
+
+    private void remove(User user, User.UserStatus status) {
+        if (status != null) {
+            usersByStatus.get(status).remove(KeyUtils.normalize(user.getUsername()), user);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.pitdemo.service.store;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Append-only string storage in direct memory.
+ *
+ * Each string is stored as its length followed by its UTF-16 chars, which
+ * keeps any Java string intact and lets {@link #matches} compare a stored
+ * string without decoding it. Strings are addressed by a {@code long}
+ * reference and never span two chunks. Not thread-safe; callers guard it
+ * with their own lock.
+ */
+final class StringArena {
+
+    private static final int CHUNK_SHIFT = 20;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    /**
+     * Longest string that fits in one chunk after its length prefix.
+     */
+    static final int MAX_LENGTH = (CHUNK_SIZE - Integer.BYTES) / Character.BYTES;
+
+    private ByteBuffer[] chunks = new ByteBuffer[16];
+    private int chunkCount;
+    private int position = CHUNK_SIZE;
+
+    /**
+     * Stores a string and returns its reference.
+     *
+     * @throws IllegalArgumentException if the string is longer than {@link #MAX_LENGTH}
+     */
+    long add(String value) {
+        checkLength(value);
+        int bytes = Integer.BYTES + value.length() * Character.BYTES;
+        if (position + bytes > CHUNK_SIZE) {
+            newChunk();
+        }
+        ByteBuffer chunk = chunks[chunkCount - 1];
+        long ref = ((long) (chunkCount - 1) << CHUNK_SHIFT) | position;
+        chunk.putInt(position, value.length());
+        for (int i = 0; i < value.length(); i++) {
+            chunk.putChar(position + Integer.BYTES + i * Character.BYTES, value.charAt(i));
+        }
+        position += bytes;
+        return ref;
+    }
+
+    String get(long ref) {
+        ByteBuffer chunk = chunks[(int) (ref >>> CHUNK_SHIFT)];
+        int offset = (int) (ref & CHUNK_MASK);
+        char[] chars = new char[chunk.getInt(offset)];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = chunk.getChar(offset + Integer.BYTES + i * Character.BYTES);
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Checks whether the string at {@code ref} equals {@code value}, without allocating.
+     */
+    boolean matches(long ref, String value) {
+        ByteBuffer chunk = chunks[(int) (ref >>> CHUNK_SHIFT)];
+        int offset = (int) (ref & CHUNK_MASK);
+        if (chunk.getInt(offset) != value.length()) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (chunk.getChar(offset + Integer.BYTES + i * Character.BYTES) != value.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static void checkLength(String value) {
+        if (value.length() > MAX_LENGTH) {
+            throw new IllegalArgumentException("String too long to store: " + value.length() + " chars");
+        }
+    }
+
+    long byteSize() {
+        return (long) chunkCount * CHUNK_SIZE;
+    }
+
+    void clear() {
+        chunks = new ByteBuffer[16];
+        chunkCount = 0;
+        position = CHUNK_SIZE;
+    }
+
+    private void newChunk() {
+        if (chunkCount == chunks.length) {
+            chunks = Arrays.copyOf(chunks, chunkCount * 2);
+        }
+        chunks[chunkCount++] = ByteBuffer.allocateDirect(CHUNK_SIZE);
+        position = 0;
+    }
+}
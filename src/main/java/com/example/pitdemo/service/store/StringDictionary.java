@@ -0,0 +1,92 @@
+package com.example.pitdemo.service.store;
+
+import com.example.pitdemo.util.HashUtils;
+
+import java.util.Arrays;
+
+/**
+ * Assigns each distinct string a dense int code, so string columns can be
+ * stored as {@code int[]} and each distinct value is kept only once.
+ *
+ * The hash table is open-addressed over an {@code int[]}, so an entry costs
+ * a few bytes beyond the string itself rather than a map entry and a boxed
+ * code. Codes are never reused until the dictionary is cleared. Not
+ * thread-safe; callers guard it with their own lock.
+ */
+final class StringDictionary {
+
+    static final int NOT_FOUND = -1;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private String[] values = new String[INITIAL_CAPACITY];
+    // Code + 1 per slot, 0 when free; kept at most half full
+    private int[] slots = new int[INITIAL_CAPACITY * 2];
+    private int size;
+
+    /**
+     * Returns the code of {@code value}, assigning the next free code if it is new.
+     */
+    int encode(String value) {
+        int slot = slotOf(value);
+        if (slots[slot] != 0) {
+            return slots[slot] - 1;
+        }
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        int code = size++;
+        values[code] = value;
+        slots[slot] = code + 1;
+        if (size * 2 > slots.length) {
+            rehash(slots.length * 2);
+        }
+        return code;
+    }
+
+    /**
+     * Returns the code of {@code value}, or {@link #NOT_FOUND} without assigning one.
+     */
+    int find(String value) {
+        return slots[slotOf(value)] - 1;
+    }
+
+    String decode(int code) {
+        return values[code];
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        values = new String[INITIAL_CAPACITY];
+        slots = new int[INITIAL_CAPACITY * 2];
+        size = 0;
+    }
+
+    /**
+     * Returns the slot holding {@code value}, or the free slot where it belongs.
+     */
+    private int slotOf(String value) {
+        int mask = slots.length - 1;
+        int slot = HashUtils.spread(value.hashCode()) & mask;
+        while (slots[slot] != 0 && !values[slots[slot] - 1].equals(value)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void rehash(int capacity) {
+        int[] rehashed = new int[capacity];
+        int mask = capacity - 1;
+        for (int code = 0; code < size; code++) {
+            int slot = HashUtils.spread(values[code].hashCode()) & mask;
+            while (rehashed[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            rehashed[slot] = code + 1;
+        }
+        slots = rehashed;
+    }
+}
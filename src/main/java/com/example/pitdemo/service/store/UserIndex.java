@@ -0,0 +1,39 @@
+package com.example.pitdemo.service.store;
+
+import com.example.pitdemo.model.User;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Derived structure kept up to date by {@link InMemoryUserStore}.
+ *
+ * Calls for one user never overlap, but calls for different users may run
+ * concurrently, so implementations must be thread-safe.
+ */
+public interface UserIndex {
+
+    void userAdded(User user, UserState state);
+
+    /**
+     * Adds a batch of users, each with the state at the same position. The
+     * default adds them one by one; indexes may group the batch instead.
+     */
+    default void usersAdded(List<User> users, List<UserState> states) {
+        for (int i = 0; i < users.size(); i++) {
+            userAdded(users.get(i), states.get(i));
+        }
+    }
+
+    void userChanged(User user, UserState before, UserState after);
+
+    void cleared();
+
+    /**
+     * Brings state that depends on the date, such as who is an adult, up to
+     * {@code today}, so the next query on that day has nothing left to update.
+     * Indexes roll forward only; earlier dates are ignored.
+     */
+    default void advanceTo(LocalDate today) {
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.pitdemo.service.store;
+
+import com.example.pitdemo.model.User;
+
+/**
+ * Read-only view of one stored user during a scan.
+ *
+ * Row-based stores hand out a single view and move it from user to user,
+ * so a scan allocates nothing per user. Only the string accessors decode
+ * into new objects.
+ */
+public interface UserRecord {
+
+    /**
+     * Decodes the username; allocates a string.
+     */
+    String getUsername();
+
+    /**
+     * Decodes the email; allocates a string.
+     */
+    String getEmail();
+
+    int getScore();
+
+    User.UserStatus getStatus();
+
+    boolean hasBirthDate();
+
+    /**
+     * Birth date as an epoch day; meaningless unless {@link #hasBirthDate()}.
+     */
+    long getBirthEpochDay();
+
+    /**
+     * Age in whole years on the given epoch day, or 0 without a birth date.
+     */
+    int getAge(long todayEpochDay);
+}
@@ -0,0 +1,155 @@
+package com.example.pitdemo.service.store;
+
+import com.example.pitdemo.model.User;
+
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.BiConsumer;
+
+/**
+ * Immutable point-in-time view of every user in a store, in insertion order,
+ * together with the score, status and birth date each had at that point.
+ *
+ * {@link InMemoryUserStore} publishes a new version on every add, change and
+ * clear, built from the previous one by copying a few small arrays (see
+ * {@link PersistentVector}), so taking the current version is one read that
+ * never waits for writers, and a long-running report reads one consistent
+ * version however much changes meanwhile. The {@code User} objects
+ * themselves stay live; read what they looked like in this version from
+ * {@link #getState(int)} or {@link #forEach}.
+ */
+public final class UserSetVersion {
+
+    static final UserSetVersion EMPTY = new UserSetVersion(0, PersistentVector.empty());
+
+    private final long version;
+    private final PersistentVector<Entry> entries;
+    private final List<User> users = new Users();
+
+    private UserSetVersion(long version, PersistentVector<Entry> entries) {
+        this.version = version;
+        this.entries = entries;
+    }
+
+    /**
+     * Captures {@code users} and their current states as a version numbered 0,
+     * for stores that do not keep versions.
+     */
+    public static UserSetVersion of(List<User> users) {
+        PersistentVector<Entry> entries = PersistentVector.empty();
+        for (User user : users) {
+            entries = entries.append(new Entry(user, UserState.of(user)));
+        }
+        return new UserSetVersion(0, entries);
+    }
+
+    /**
+     * Returns the number of this version, which grows with every change
+     * published by the store; 0 for a new store.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the users of this version, in insertion order, as an
+     * unmodifiable list that is not copied.
+     */
+    public List<User> getUsers() {
+        return users;
+    }
+
+    /**
+     * Returns the state the user at {@code index} of {@link #getUsers()} had in this version.
+     */
+    public UserState getState(int index) {
+        return entries.get(index).state;
+    }
+
+    /**
+     * Hands every user, in insertion order, to {@code action} with the state it had in this version.
+     */
+    public void forEach(BiConsumer<? super User, ? super UserState> action) {
+        entries.forEach(entry -> action.accept(entry.user, entry.state));
+    }
+
+    /**
+     * Finds the users whose age on {@code today} is between the bounds,
+     * inclusive, by their birth dates in this version, in insertion order.
+     */
+    public List<User> findByAgeRange(int minAge, int maxAge, LocalDate today) {
+        BirthDateRange range = BirthDateRange.forAges(minAge, maxAge, today);
+        List<User> result = new ArrayList<>();
+        entries.forEach(entry -> {
+            if (range.contains(entry.state.getBirthDate())) {
+                result.add(entry.user);
+            }
+        });
+        return result;
+    }
+
+    public int countByAgeRange(int minAge, int maxAge, LocalDate today) {
+        BirthDateRange range = BirthDateRange.forAges(minAge, maxAge, today);
+        int[] count = new int[1];
+        entries.forEach(entry -> {
+            if (range.contains(entry.state.getBirthDate())) {
+                count[0]++;
+            }
+        });
+        return count[0];
+    }
+
+    /**
+     * Returns the next version, with {@code user} added at the end.
+     */
+    UserSetVersion withAdded(User user, UserState state) {
+        return new UserSetVersion(version + 1, entries.append(new Entry(user, state)));
+    }
+
+    /**
+     * Returns the next version, with the state of the user at {@code index}
+     * replaced, or this version if {@code user} is not there, as after a clear.
+     */
+    UserSetVersion withChanged(int index, User user, UserState state) {
+        if (index >= entries.size() || entries.get(index).user != user) {
+            return this;
+        }
+        return new UserSetVersion(version + 1, entries.set(index, new Entry(user, state)));
+    }
+
+    /**
+     * Returns the next version, without any users.
+     */
+    UserSetVersion cleared() {
+        return new UserSetVersion(version + 1, PersistentVector.empty());
+    }
+
+    private static final class Entry {
+        private final User user;
+        private final UserState state;
+
+        private Entry(User user, UserState state) {
+            this.user = user;
+            this.state = state;
+        }
+    }
+
+    private final class Users extends AbstractList<User> implements RandomAccess {
+        @Override
+        public User get(int index) {
+            return entries.get(index).user;
+        }
+
+        @Override
+        public int size() {
+            return entries.size();
+        }
+    }
+}
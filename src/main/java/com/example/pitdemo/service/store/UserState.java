@@ -0,0 +1,76 @@
+package com.example.pitdemo.service.store;
+
+import com.example.pitdemo.model.User;
+
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Immutable copy of the user fields that store indexes depend on.
+ *
+ * Indexes receive the state before and after every change, so they can
+ * remove the old contribution and add the new one without rescanning.
+ */
+public final class UserState {
+
+    private final int score;
+    private final User.UserStatus status;
+    private final LocalDate birthDate;
+
+    public UserState(int score, User.UserStatus status, LocalDate birthDate) {
+        this.score = score;
+        this.status = status;
+        this.birthDate = birthDate;
+    }
+
+    public static UserState of(User user) {
+        return new UserState(user.getScore(), user.getStatus(), user.getBirthDate());
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public User.UserStatus getStatus() {
+        return status;
+    }
+
+    public LocalDate getBirthDate() {
+        return birthDate;
+    }
+
+    public boolean isActive() {
+        return status == User.UserStatus.ACTIVE;
+    }
+
+    /**
+     * Mirrors {@link User#canBePromoted()} apart from the age check.
+     */
+    public boolean meetsPromotionScore() {
+        return isActive() && score >= 75;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        UserState that = (UserState) o;
+        return score == that.score &&
+               status == that.status &&
+               Objects.equals(birthDate, that.birthDate);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(score, status, birthDate);
+    }
+
+    @Override
+    public String toString() {
+        return "UserState{" +
+                "score=" + score +
+                ", status=" + status +
+                ", birthDate=" + birthDate +
+                '}';
+    }
+}
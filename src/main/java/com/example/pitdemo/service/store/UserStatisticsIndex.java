@@ -0,0 +1,261 @@
+package com.example.pitdemo.service.store;
+
+import com.example.pitdemo.model.User;
+import com.example.pitdemo.service.UserService.UserStatistics;
+import com.example.pitdemo.util.AgeUtils;
+
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Running aggregates behind {@link UserStatistics}, updated on every add and change.
+ *
+ * Counts and sums live in {@link LongAdder}s so concurrent writers do not
+ * contend. Average age is derived from the sum of birth years and a histogram
+ * of birthdays by day of year, which gives the exact average of
+ * {@link User#getAge()} for any date without visiting users.
+ *
+ * Adulthood changes with the calendar rather than with writes, so minors are
+ * kept by the day they turn 18 and moved into the adult counters by the
+ * first snapshot or {@link #advanceTo} on or after that day. They stay in a
+ * sorted map rather than a {@link BirthdayQueue}, because correcting the
+ * average age for birth dates in the future needs the latest of them.
+ */
+class UserStatisticsIndex implements UserIndex {
+
+    private static final int ADULT_AGE = 18;
+
+    // Days before each month in a leap year, so every month-day has a fixed slot
+    private static final int[] DAYS_BEFORE_MONTH = {0, 31, 60, 91, 121, 152, 182, 213, 244, 274, 305, 335};
+
+    private final LongAdder totalUsers = new LongAdder();
+    private final LongAdder activeUsers = new LongAdder();
+    private final LongAdder scoreSum = new LongAdder();
+    private final LongAdder datedUsers = new LongAdder();
+    private final LongAdder birthYearSum = new LongAdder();
+    private final AtomicLongArray birthdaysByDay = new AtomicLongArray(366);
+    private final LongAdder adultUsers = new LongAdder();
+    private final LongAdder promotableUsers = new LongAdder();
+
+    private final Object minorsLock = new Object();
+    private final NavigableMap<Long, Map<User, UserState>> minorsByAdulthood = new TreeMap<>();
+    private volatile long adultsAsOf;
+
+    UserStatisticsIndex(LocalDate today) {
+        this.adultsAsOf = today.toEpochDay();
+    }
+
+    @Override
+    public void userAdded(User user, UserState state) {
+        totalUsers.increment();
+        addTotals(state, 1);
+
+        LocalDate birthDate = state.getBirthDate();
+        if (birthDate == null) {
+            return;
+        }
+        if (isCountedAdult(birthDate)) {
+            countAdult(state, 1);
+            return;
+        }
+
+        synchronized (minorsLock) {
+            addAdultContribution(user, state);
+        }
+    }
+
+    @Override
+    public void userChanged(User user, UserState before, UserState after) {
+        addTotals(before, -1);
+        addTotals(after, 1);
+
+        LocalDate birthDate = after.getBirthDate();
+        if (Objects.equals(before.getBirthDate(), birthDate)) {
+            if (birthDate == null) {
+                return;
+            }
+            if (isCountedAdult(birthDate)) {
+                // Adulthood never reverts, so no lock is needed to adjust the adult counters
+                promotableUsers.add(promotableDelta(before, after));
+                return;
+            }
+        }
+
+        synchronized (minorsLock) {
+            removeAdultContribution(user, before);
+            addAdultContribution(user, after);
+        }
+    }
+
+    @Override
+    public void cleared() {
+        synchronized (minorsLock) {
+            totalUsers.reset();
+            activeUsers.reset();
+            scoreSum.reset();
+            datedUsers.reset();
+            birthYearSum.reset();
+            for (int i = 0; i < birthdaysByDay.length(); i++) {
+                birthdaysByDay.set(i, 0);
+            }
+            adultUsers.reset();
+            promotableUsers.reset();
+            minorsByAdulthood.clear();
+        }
+    }
+
+    @Override
+    public void advanceTo(LocalDate today) {
+        synchronized (minorsLock) {
+            rollOver(today.toEpochDay());
+        }
+    }
+
+    /**
+     * Builds statistics as of {@code today} in time independent of the number of users.
+     */
+    UserStatistics snapshot(LocalDate today) {
+        long total = totalUsers.sum();
+        if (total == 0) {
+            return new UserStatistics(0, 0.0, 0.0, 0, 0, 0);
+        }
+
+        long futureBirthDateCorrection;
+        synchronized (minorsLock) {
+            rollOver(today.toEpochDay());
+            futureBirthDateCorrection = futureBirthDateCorrection(today);
+        }
+
+        double averageScore = scoreSum.sum() / (double) total;
+        double averageAge = (ageSum(today) + futureBirthDateCorrection) / (double) total;
+
+        return new UserStatistics((int) total, averageScore, averageAge,
+                (int) activeUsers.sum(), (int) adultUsers.sum(), (int) promotableUsers.sum());
+    }
+
+    private void addTotals(UserState state, int sign) {
+        if (state.isActive()) {
+            activeUsers.add(sign);
+        }
+        scoreSum.add((long) sign * state.getScore());
+
+        LocalDate birthDate = state.getBirthDate();
+        if (birthDate != null) {
+            datedUsers.add(sign);
+            birthYearSum.add((long) sign * birthDate.getYear());
+            birthdaysByDay.addAndGet(dayOfYearSlot(birthDate), sign);
+        }
+    }
+
+    private boolean isCountedAdult(LocalDate birthDate) {
+        return adulthoodDay(birthDate) <= adultsAsOf;
+    }
+
+    private void countAdult(UserState state, int sign) {
+        adultUsers.add(sign);
+        if (state.meetsPromotionScore()) {
+            promotableUsers.add(sign);
+        }
+    }
+
+    private void addAdultContribution(User user, UserState state) {
+        LocalDate birthDate = state.getBirthDate();
+        if (birthDate == null) {
+            return;
+        }
+        if (isCountedAdult(birthDate)) {
+            countAdult(state, 1);
+        } else {
+            minorsByAdulthood.computeIfAbsent(adulthoodDay(birthDate), day -> new IdentityHashMap<>())
+                    .put(user, state);
+        }
+    }
+
+    private void removeAdultContribution(User user, UserState state) {
+        LocalDate birthDate = state.getBirthDate();
+        if (birthDate == null) {
+            return;
+        }
+        if (isCountedAdult(birthDate)) {
+            countAdult(state, -1);
+        } else {
+            long day = adulthoodDay(birthDate);
+            Map<User, UserState> minors = minorsByAdulthood.get(day);
+            if (minors != null) {
+                minors.remove(user);
+                if (minors.isEmpty()) {
+                    minorsByAdulthood.remove(day);
+                }
+            }
+        }
+    }
+
+    /**
+     * Moves every minor who has turned 18 by {@code day} into the adult counters.
+     */
+    private void rollOver(long day) {
+        if (day <= adultsAsOf) {
+            return;
+        }
+
+        Iterator<Map<User, UserState>> due = minorsByAdulthood.headMap(day, true).values().iterator();
+        while (due.hasNext()) {
+            for (UserState state : due.next().values()) {
+                countAdult(state, 1);
+            }
+            due.remove();
+        }
+        adultsAsOf = day;
+    }
+
+    /**
+     * Sum of ages assuming every birth date is on or before {@code today}.
+     */
+    private long ageSum(LocalDate today) {
+        long birthdaysStillAhead = 0;
+        for (int slot = dayOfYearSlot(today) + 1; slot < birthdaysByDay.length(); slot++) {
+            birthdaysStillAhead += birthdaysByDay.get(slot);
+        }
+        return datedUsers.sum() * today.getYear() - birthYearSum.sum() - birthdaysStillAhead;
+    }
+
+    /**
+     * Period rounds negative ages toward zero, so birth dates after {@code today}
+     * need a correction. Such users are always minors, and normally there are none.
+     */
+    private long futureBirthDateCorrection(LocalDate today) {
+        long correction = 0;
+        long firstDay = adulthoodDay(today.plusDays(1));
+        for (Map<User, UserState> minors : minorsByAdulthood.tailMap(firstDay, true).values()) {
+            for (UserState state : minors.values()) {
+                LocalDate birthDate = state.getBirthDate();
+                if (birthDate.isAfter(today)) {
+                    int assumedAge = today.getYear() - birthDate.getYear()
+                            - (dayOfYearSlot(birthDate) > dayOfYearSlot(today) ? 1 : 0);
+                    correction += Period.between(birthDate, today).getYears() - assumedAge;
+                }
+            }
+        }
+        return correction;
+    }
+
+    private static int promotableDelta(UserState before, UserState after) {
+        return (after.meetsPromotionScore() ? 1 : 0) - (before.meetsPromotionScore() ? 1 : 0);
+    }
+
+    private static long adulthoodDay(LocalDate birthDate) {
+        return AgeUtils.dateOfAge(birthDate, ADULT_AGE).toEpochDay();
+    }
+
+    private static int dayOfYearSlot(LocalDate date) {
+        return DAYS_BEFORE_MONTH[date.getMonthValue() - 1] + date.getDayOfMonth() - 1;
+    }
+}
@@ -0,0 +1,265 @@
+package com.example.pitdemo.service.store;
+
+import com.example.pitdemo.model.User;
+import com.example.pitdemo.service.PremiumEligibility;
+import com.example.pitdemo.service.UserPage;
+import com.example.pitdemo.service.UserRanking;
+import com.example.pitdemo.service.UserService.UserStatistics;
+import com.example.pitdemo.util.KeyUtils;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Storage abstraction behind {@link com.example.pitdemo.service.UserService}.
+ *
+ * Usernames and emails are unique ignoring case, while lookups by username
+ * are case-sensitive. Implementations answer both from a single index keyed
+ * by the normalized form returned by {@link #normalize(String)}.
+ */
+public interface UserStore {
+
+    /**
+     * Adds a user to the store.
+     *
+     * @throws IllegalArgumentException if the username or email is already taken
+     */
+    void add(User user);
+
+    /**
+     * Adds several users in one operation. A user whose username or email is
+     * taken, including by an earlier user of the same batch, is skipped
+     * instead of failing the whole batch.
+     *
+     * The default adds users one by one; stores may take their write lock
+     * once for the whole batch instead.
+     *
+     * @return for each user in order, why it was rejected, or {@code null} if it was added
+     */
+    default List<String> addAll(List<User> users) {
+        List<String> rejections = new ArrayList<>(users.size());
+        for (User user : users) {
+            try {
+                add(user);
+                rejections.add(null);
+            } catch (IllegalArgumentException e) {
+                rejections.add(e.getMessage());
+            }
+        }
+        return rejections;
+    }
+
+    /**
+     * Checks that the store could hold the user if its username and email
+     * were free, so a caller can refuse the user before recording it
+     * anywhere else. {@link #add} and {@link #addAll} check the same again.
+     *
+     * The default accepts every user; stores with limits of their own, such
+     * as a range of birth dates, check them. A store that enforces
+     * uniqueness shared with other writers can still reject the user later.
+     *
+     * @throws IllegalArgumentException if the store cannot hold the user
+     */
+    default void validate(User user) {
+    }
+
+    /**
+     * Finds a user by exact (case-sensitive) username.
+     *
+     * @return the user, or {@code null} if no user has exactly this username
+     */
+    User findByUsername(String username);
+
+    /**
+     * Changes the user with exactly this username as one write. {@code change}
+     * gets a detached copy of the user's current state; once it returns, the
+     * store takes on the copy's score, status and birth date together. If
+     * {@code change} throws, the store is left as it was. The copy must not
+     * be kept after {@code change} returns.
+     *
+     * The default copies the user found by {@link #findByUsername} and hands
+     * the result back through {@link User#setState}, which the user's
+     * listener hears as a single change; stores may reuse the copy instead.
+     *
+     * @return false if there is no such user
+     */
+    default boolean update(String username, Consumer<? super User> change) {
+        User user = findByUsername(username);
+        if (user == null) {
+            return false;
+        }
+        User copy = new User(user.getUsername(), user.getEmail(), user.getBirthDate());
+        copy.setId(user.getId());
+        copy.setState(user.getScore(), user.getStatus(), user.getBirthDate());
+        change.accept(copy);
+        user.setState(copy.getScore(), copy.getStatus(), copy.getBirthDate());
+        return true;
+    }
+
+    /**
+     * Checks whether a username is taken, ignoring case.
+     */
+    boolean usernameExists(String username);
+
+    /**
+     * Checks whether an email is taken, ignoring case.
+     */
+    boolean emailExists(String email);
+
+    /**
+     * Returns all users in insertion order. The list may be unmodifiable.
+     */
+    List<User> findAll();
+
+    /**
+     * Returns every user with its score, status and birth date as of one
+     * point in time, for reports that must not mix states from before and
+     * after a concurrent change.
+     *
+     * The default captures {@link #findAll()}; stores may publish versions as they change instead.
+     */
+    default UserSetVersion currentVersion() {
+        return UserSetVersion.of(findAll());
+    }
+
+    /**
+     * Returns up to {@code limit} users in insertion order, continuing after
+     * position {@code after}: the last position of the previous page, or 0
+     * for the first page. Every user has a position, above 0, that is larger
+     * than those of users added before it since the store was last cleared,
+     * so users added while paging never shift a page.
+     *
+     * The default numbers the users returned by {@link #findAll()} from 1 and
+     * copies just the page, which costs O(n) only in stores whose
+     * {@code findAll} copies; stores with positions of their own seek to the page instead.
+     */
+    default UserPage findPage(long after, int limit) {
+        List<User> all = findAll();
+        int from = (int) Math.min(after, all.size());
+        int to = (int) Math.min((long) from + limit, all.size());
+        return new UserPage(new ArrayList<>(all.subList(from, to)), to, to < all.size());
+    }
+
+    /**
+     * Finds users whose age on {@code today} is between the bounds, inclusive.
+     */
+    List<User> findByAgeRange(int minAge, int maxAge, LocalDate today);
+
+    /**
+     * Counts users whose age on {@code today} is between the bounds, inclusive.
+     */
+    int countByAgeRange(int minAge, int maxAge, LocalDate today);
+
+    /**
+     * Finds users with {@code status}.
+     *
+     * The default checks every user; stores may keep users by status instead.
+     */
+    default List<User> findByStatus(User.UserStatus status) {
+        return findAll().stream()
+                .filter(user -> user.getStatus() == status)
+                .toList();
+    }
+
+    /**
+     * Counts users with {@code status}.
+     *
+     * The default checks every user; stores may keep a count per status instead.
+     */
+    default int countByStatus(User.UserStatus status) {
+        return findByStatus(status).size();
+    }
+
+    /**
+     * Returns up to {@code k} users in leaderboard order as of {@code today}
+     * (see {@link UserRanking#leaderboardOrder}), skipping users that cannot be ranked.
+     *
+     * The default ranks and sorts every user; stores may keep the order instead.
+     */
+    default List<User> findTopRanked(int k, LocalDate today) {
+        return findAll().stream()
+                .filter(user -> UserRanking.isRankable(user.getScore(), user.getStatus()))
+                .sorted(UserRanking.leaderboardOrder(today))
+                .limit(k)
+                .toList();
+    }
+
+    /**
+     * Returns the leaderboard position of the user with exactly this
+     * username as of {@code today}: 1 plus the number of users ranked
+     * strictly higher, so tied users share a position.
+     *
+     * The default ranks every user; stores may keep the order instead.
+     *
+     * @return the position, or 0 if there is no such user or it cannot be ranked
+     */
+    default int rankOf(String username, LocalDate today) {
+        User user = findByUsername(username);
+        if (user == null || !UserRanking.isRankable(user.getScore(), user.getStatus())) {
+            return 0;
+        }
+        double ranking = UserRanking.of(user, today);
+        int ahead = 0;
+        for (User other : findAll()) {
+            if (UserRanking.isRankable(other.getScore(), other.getStatus()) && UserRanking.of(other, today) > ranking) {
+                ahead++;
+            }
+        }
+        return ahead + 1;
+    }
+
+    /**
+     * Checks whether the user with exactly this username can access premium
+     * features as of {@code today} (see {@link PremiumEligibility}).
+     *
+     * The default evaluates the rule; stores may keep the eligible users instead.
+     */
+    default boolean isPremium(String username, LocalDate today) {
+        User user = findByUsername(username);
+        return user != null && PremiumEligibility.isEligible(user, today);
+    }
+
+    /**
+     * Returns every user who can access premium features as of {@code today}.
+     *
+     * The default checks every user; stores may keep the eligible users instead.
+     */
+    default List<User> findPremium(LocalDate today) {
+        return findAll().stream()
+                .filter(user -> PremiumEligibility.isEligible(user, today))
+                .toList();
+    }
+
+    /**
+     * Brings whatever the store keeps that depends on the date up to
+     * {@code today}, such as who counts as an adult, for example just after
+     * midnight so queries that day do not pay for it. Stores that compute
+     * such answers on demand ignore it, which the default does.
+     */
+    default void advanceTo(LocalDate today) {
+    }
+
+    int size();
+
+    default boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Returns statistics over all users as of today.
+     */
+    UserStatistics statistics();
+
+    void clear();
+
+    /**
+     * Normalizes a username or email into its index key.
+     *
+     * @see KeyUtils#normalize(String)
+     */
+    static String normalize(String key) {
+        return KeyUtils.normalize(key);
+    }
+}
@@ -0,0 +1,456 @@
+package com.example.pitdemo.service.store;
+
+import com.example.pitdemo.model.User;
+import com.example.pitdemo.repository.UserRepository;
+import com.example.pitdemo.service.UserPage;
+import com.example.pitdemo.service.UserService.UserStatistics;
+import com.example.pitdemo.util.DayClock;
+import org.springframework.data.domain.Sort;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Store that serves every read and write from memory and writes changes
+ * to the database in the background.
+ *
+ * An {@link InMemoryUserStore} holds all users, loaded from the database on
+ * startup, and decides uniqueness. Each added or changed user is marked
+ * pending; a background thread writes the pending users in one transaction
+ * whenever {@code batchSize} of them are waiting or {@code flushInterval}
+ * has passed. Changes coalesce: a user changed many times between flushes
+ * is written once, with its state at flush time, and a user added and
+ * changed in between is simply inserted in its latest state.
+ *
+ * At most {@code maxPending} users are pending. A change to one more user
+ * blocks until the background thread has taken the waiting ones, so a
+ * slow database slows writers down instead of letting the backlog grow.
+ * {@link #close()} writes whatever is still pending; changes made after
+ * that are not written.
+ *
+ * The store assumes it is the only writer of the users table. If a write
+ * fails, none of it is committed; its users go back to pending and the
+ * write is retried after {@code flushInterval}, unless they were cleared
+ * in the meantime.
+ */
+public class WriteBehindUserStore implements UserStore, AutoCloseable {
+
+    private static final System.Logger LOG = System.getLogger(WriteBehindUserStore.class.getName());
+
+    private final InMemoryUserStore cache;
+    private final UserRepository repository;
+    private final int maxPending;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition flushDue = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private final Condition written = lock.newCondition();
+
+    // Guarded by lock. Pending users by normalized username, in order of first change;
+    // those without an id yet are inserted, the others updated
+    private Map<String, User> pending = new LinkedHashMap<>();
+    private boolean clearPending;
+    private boolean flushRequested;
+    private boolean closed;
+    // Changes recorded so far, and how many of them are in the database
+    private long changeCount;
+    private long writtenCount;
+    // Bumped by clear, so a failed write does not bring back cleared users
+    private long generation;
+
+    private final Thread flusher;
+
+    public WriteBehindUserStore(UserRepository repository, int maxPending, int batchSize, Duration flushInterval) {
+        this(repository, DayClock.system(), maxPending, batchSize, flushInterval);
+    }
+
+    /**
+     * Loads every user from the database and starts the background writer.
+     *
+     * @param clock the date the in-memory indexes and statistics are kept as of
+     * @param maxPending the most users with unwritten changes
+     * @param batchSize how many pending users trigger a write before the interval is up
+     * @param flushInterval the longest a change waits to be written
+     */
+    public WriteBehindUserStore(UserRepository repository, DayClock clock, int maxPending, int batchSize,
+                                Duration flushInterval) {
+        if (repository == null) {
+            throw new IllegalArgumentException("Repository cannot be null");
+        }
+        if (maxPending < 1 || batchSize < 1 || batchSize > maxPending) {
+            throw new IllegalArgumentException("Need 1 <= batch size <= max pending, got "
+                    + batchSize + " and " + maxPending);
+        }
+        if (flushInterval.isNegative() || flushInterval.isZero()) {
+            throw new IllegalArgumentException("Flush interval must be positive");
+        }
+        this.repository = repository;
+        this.maxPending = maxPending;
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+
+        cache = new InMemoryUserStore(clock, this::changed);
+        cache.addAll(repository.findAll(Sort.by("id")));
+
+        flusher = new Thread(this::flushLoop, "write-behind");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    @Override
+    public void add(User user) {
+        checkOpen();
+        cache.add(user);
+        changed(user);
+    }
+
+    @Override
+    public List<String> addAll(List<User> users) {
+        checkOpen();
+        List<String> rejections = cache.addAll(users);
+        for (int i = 0; i < users.size(); i++) {
+            if (rejections.get(i) == null) {
+                changed(users.get(i));
+            }
+        }
+        return rejections;
+    }
+
+    @Override
+    public User findByUsername(String username) {
+        return cache.findByUsername(username);
+    }
+
+    @Override
+    public boolean usernameExists(String username) {
+        return cache.usernameExists(username);
+    }
+
+    @Override
+    public boolean emailExists(String email) {
+        return cache.emailExists(email);
+    }
+
+    @Override
+    public List<User> findAll() {
+        return cache.findAll();
+    }
+
+    @Override
+    public UserSetVersion currentVersion() {
+        return cache.currentVersion();
+    }
+
+    @Override
+    public UserPage findPage(long after, int limit) {
+        return cache.findPage(after, limit);
+    }
+
+    @Override
+    public List<User> findByAgeRange(int minAge, int maxAge, LocalDate today) {
+        return cache.findByAgeRange(minAge, maxAge, today);
+    }
+
+    @Override
+    public int countByAgeRange(int minAge, int maxAge, LocalDate today) {
+        return cache.countByAgeRange(minAge, maxAge, today);
+    }
+
+    @Override
+    public List<User> findByStatus(User.UserStatus status) {
+        return cache.findByStatus(status);
+    }
+
+    @Override
+    public int countByStatus(User.UserStatus status) {
+        return cache.countByStatus(status);
+    }
+
+    @Override
+    public List<User> findTopRanked(int k, LocalDate today) {
+        return cache.findTopRanked(k, today);
+    }
+
+    @Override
+    public int rankOf(String username, LocalDate today) {
+        return cache.rankOf(username, today);
+    }
+
+    @Override
+    public boolean isPremium(String username, LocalDate today) {
+        return cache.isPremium(username, today);
+    }
+
+    @Override
+    public List<User> findPremium(LocalDate today) {
+        return cache.findPremium(today);
+    }
+
+    @Override
+    public void advanceTo(LocalDate today) {
+        cache.advanceTo(today);
+    }
+
+    @Override
+    public int size() {
+        return cache.size();
+    }
+
+    @Override
+    public UserStatistics statistics() {
+        return cache.statistics();
+    }
+
+    /**
+     * Removes all users at once; pending changes are dropped and the table
+     * is emptied with the next write.
+     */
+    @Override
+    public void clear() {
+        checkOpen();
+        // Outside the lock: a user's listener may be waiting for it while holding the user
+        cache.clear();
+        lock.lock();
+        try {
+            pending = new LinkedHashMap<>();
+            clearPending = true;
+            flushRequested = true;
+            generation++;
+            changeCount++;
+            flushDue.signal();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits until every change made before the call is in the database.
+     */
+    public void flush() throws InterruptedException {
+        lock.lock();
+        try {
+            long target = changeCount;
+            flushRequested = true;
+            flushDue.signal();
+            while (writtenCount < target) {
+                if (closed && !flusher.isAlive()) {
+                    throw new IllegalStateException("Store closed with unwritten changes");
+                }
+                written.await(flushIntervalNanos, TimeUnit.NANOSECONDS);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns how many users have changes not yet taken by the background writer.
+     */
+    public int pendingCount() {
+        lock.lock();
+        try {
+            return pending.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes everything still pending and stops the background writer.
+     * If the database keeps failing, the remaining changes are logged as lost.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        lock.lock();
+        try {
+            closed = true;
+            flushDue.signal();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        flusher.join();
+    }
+
+    private void checkOpen() {
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Store is closed");
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Marks a user pending, waiting for room if {@code maxPending} users
+     * already are. Called with the user's latest state already set, so the
+     * background writer sees at least this state.
+     */
+    private void changed(User user) {
+        String key = UserStore.normalize(user.getUsername());
+        lock.lock();
+        try {
+            while (!closed && !pending.containsKey(key) && pending.size() >= maxPending) {
+                flushRequested = true;
+                flushDue.signal();
+                notFull.awaitUninterruptibly();
+            }
+            if (closed) {
+                return;
+            }
+            pending.put(key, user);
+            changeCount++;
+            if (pending.size() >= batchSize) {
+                flushDue.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void flushLoop() {
+        while (true) {
+            Batch batch;
+            lock.lock();
+            try {
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                while (!closed && !flushRequested && pending.size() < batchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    flushDue.awaitNanos(remaining);
+                }
+                if (writtenCount == changeCount) {
+                    flushRequested = false;
+                    if (closed) {
+                        return;
+                    }
+                    continue;
+                }
+                batch = drain();
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                write(batch);
+                lock.lock();
+                try {
+                    writtenCount = batch.upTo;
+                    written.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+            } catch (RuntimeException e) {
+                if (!retry(batch, e)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    // Called with the lock held
+    private Batch drain() {
+        Batch batch = new Batch(clearPending, changeCount, generation);
+        for (User user : pending.values()) {
+            batch.users.add(user);
+            if (user.getId() == null) {
+                batch.inserted.add(user);
+                batch.inserts.add(copyOf(user));
+            } else {
+                batch.updates.add(copyOf(user));
+            }
+        }
+        pending = new LinkedHashMap<>();
+        clearPending = false;
+        flushRequested = false;
+        notFull.signalAll();
+        return batch;
+    }
+
+    private void write(Batch batch) {
+        repository.writeBatch(batch.clear, batch.inserts, batch.updates);
+        // Only now that the transaction has committed do the inserted users have rows
+        for (int i = 0; i < batch.inserts.size(); i++) {
+            batch.inserted.get(i).setId(batch.inserts.get(i).getId());
+        }
+    }
+
+    /**
+     * Puts a failed batch back in front of the newer pending users and waits
+     * before trying again.
+     *
+     * @return whether the background writer should keep running
+     */
+    private boolean retry(Batch batch, RuntimeException e) {
+        lock.lock();
+        try {
+            int unwritten = batch.users.size();
+            if (closed) {
+                LOG.log(System.Logger.Level.ERROR, "Writing users failed on close, "
+                        + (unwritten + pending.size()) + " users not written", e);
+                return false;
+            }
+            LOG.log(System.Logger.Level.WARNING, "Writing " + unwritten + " users failed, retrying", e);
+            clearPending |= batch.clear;
+            if (batch.generation == generation) {
+                // Nothing was committed, so users that were to be inserted are inserted again
+                Map<String, User> requeued = new LinkedHashMap<>();
+                for (User user : batch.users) {
+                    requeued.put(UserStore.normalize(user.getUsername()), user);
+                }
+                requeued.putAll(pending);
+                pending = requeued;
+            }
+            flushDue.awaitNanos(flushIntervalNanos);
+            return true;
+        } catch (InterruptedException interrupted) {
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static User copyOf(User user) {
+        User copy = new User(user.getUsername(), user.getEmail(), user.getBirthDate());
+        copy.setId(user.getId());
+        copy.setScore(user.getScore());
+        copy.setStatus(user.getStatus());
+        return copy;
+    }
+
+    /**
+     * Copies of the pending users taken at one flush, so the database write
+     * runs without the lock while the users keep changing.
+     */
+    private static final class Batch {
+        private final boolean clear;
+        private final long upTo;
+        private final long generation;
+        private final List<User> users = new ArrayList<>();
+        private final List<User> inserted = new ArrayList<>();
+        private final List<User> inserts = new ArrayList<>();
+        private final List<User> updates = new ArrayList<>();
+
+        private Batch(boolean clear, long upTo, long generation) {
+            this.clear = clear;
+            this.upTo = upTo;
+            this.generation = generation;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.pitdemo.util;
+
+import java.time.LocalDate;
+
+/**
+ * Age arithmetic that agrees exactly with {@code Period.between(birthDate, today).getYears()},
+ * which is how {@link com.example.pitdemo.model.User#getAge()} defines age; the user
+ * computes its age with {@link #age(long, long)}.
+ *
+ * These helpers let indexes turn age conditions into birth date boundaries
+ * once, instead of computing a period for every user.
+ */
+public final class AgeUtils {
+
+    private AgeUtils() {
+    }
+
+    /**
+     * Returns the latest birth date of someone who is at least {@code age} years old on {@code today}.
+     * Everyone born on or before this date qualifies; everyone born after does not.
+     */
+    public static LocalDate latestBirthDateForAge(LocalDate today, int age) {
+        return today.minusYears(age);
+    }
+
+    /**
+     * Returns the first date on which someone born on {@code birthDate} is {@code age} years old.
+     * Birthdays on February 29 fall on March 1 in non-leap years.
+     */
+    public static LocalDate dateOfAge(LocalDate birthDate, int age) {
+        LocalDate anniversary = birthDate.plusYears(age);
+        if (anniversary.getDayOfMonth() != birthDate.getDayOfMonth()) {
+            // plusYears clamped February 29 to February 28
+            return anniversary.plusDays(1);
+        }
+        return anniversary;
+    }
+
+    /**
+     * Returns the age in whole years on {@code todayEpochDay} of someone born on
+     * {@code birthEpochDay}, with the same result as {@code Period.between(...).getYears()}.
+     * Works on epoch days directly and allocates nothing, for loops over primitive columns.
+     */
+    public static int age(long birthEpochDay, long todayEpochDay) {
+        if (birthEpochDay > todayEpochDay) {
+            // Period truncates toward zero, so a future birth date mirrors a past one
+            return -age(todayEpochDay, birthEpochDay);
+        }
+        // Packed as year * 10000 + month * 100 + day, so whole years are the quotient
+        return (int) ((packedDate(todayEpochDay) - packedDate(birthEpochDay)) / 10_000);
+    }
+
+    /**
+     * Converts an epoch day to {@code year * 10000 + month * 100 + day} using
+     * the days-to-civil algorithm on a calendar whose years start in March.
+     */
+    private static long packedDate(long epochDay) {
+        long shifted = epochDay + 719_468;
+        long era = Math.floorDiv(shifted, 146_097);
+        long dayOfEra = shifted - era * 146_097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long monthFromMarch = (5 * dayOfYear + 2) / 153;
+        long day = dayOfYear - (153 * monthFromMarch + 2) / 5 + 1;
+        long month = monthFromMarch < 10 ? monthFromMarch + 3 : monthFromMarch - 9;
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        return year * 10_000 + month * 100 + day;
+    }
+}
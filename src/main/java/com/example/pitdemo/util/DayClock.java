@@ -0,0 +1,103 @@
+package com.example.pitdemo.util;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+/**
+ * Today's date from a {@link Clock}, worked out once per day.
+ *
+ * {@code LocalDate.now()} converts the current instant to a date on every
+ * call. This clock remembers the current day together with the instants it
+ * starts and ends at, so while the day lasts {@link #epochDay()} is a read
+ * of the clock's millis and two comparisons, and allocates nothing.
+ *
+ * Passing a fixed or offset {@code Clock} makes everything that asks this
+ * clock for the date evaluate "as of" that date.
+ */
+public final class DayClock {
+
+    private static final DayClock SYSTEM = new DayClock(Clock.systemDefaultZone());
+
+    private final Clock clock;
+    private volatile Day day;
+
+    public DayClock(Clock clock) {
+        if (clock == null) {
+            throw new IllegalArgumentException("Clock cannot be null");
+        }
+        this.clock = clock;
+        this.day = dayOf(clock.millis());
+    }
+
+    /**
+     * The clock of the system default time zone, shared by everything that
+     * is not given a clock.
+     */
+    public static DayClock system() {
+        return SYSTEM;
+    }
+
+    /**
+     * A clock that is always on {@code date}, for evaluating as of that date.
+     */
+    public static DayClock fixed(LocalDate date) {
+        ZoneId zone = ZoneId.systemDefault();
+        return new DayClock(Clock.fixed(date.atStartOfDay(zone).toInstant(), zone));
+    }
+
+    /**
+     * Returns today as days since 1970-01-01.
+     */
+    public long epochDay() {
+        return current().epochDay;
+    }
+
+    /**
+     * Returns today's date; the same instance all day.
+     */
+    public LocalDate today() {
+        return current().date;
+    }
+
+    /**
+     * Returns how many milliseconds are left until the next day starts.
+     */
+    public long millisUntilTomorrow() {
+        return current().endMillis - clock.millis();
+    }
+
+    private Day current() {
+        long millis = clock.millis();
+        Day current = day;
+        if (millis < current.startMillis || millis >= current.endMillis) {
+            // Day holders are immutable, so racing threads at most compute the same one twice
+            current = dayOf(millis);
+            day = current;
+        }
+        return current;
+    }
+
+    private Day dayOf(long millis) {
+        ZoneId zone = clock.getZone();
+        LocalDate date = LocalDate.ofInstant(Instant.ofEpochMilli(millis), zone);
+        return new Day(date,
+                date.atStartOfDay(zone).toInstant().toEpochMilli(),
+                date.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli());
+    }
+
+    private static final class Day {
+        private final LocalDate date;
+        private final long epochDay;
+        private final long startMillis;
+        private final long endMillis;
+
+        private Day(LocalDate date, long startMillis, long endMillis) {
+            this.date = date;
+            this.epochDay = date.toEpochDay();
+            this.startMillis = startMillis;
+            this.endMillis = endMillis;
+        }
+    }
+}
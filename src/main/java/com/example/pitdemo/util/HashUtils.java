@@ -0,0 +1,28 @@
+package com.example.pitdemo.util;
+
+/**
+ * Hash spreading for power-of-two tables.
+ *
+ * Shared by the stores' hash tables and the lock stripes, which all pick a
+ * slot by masking off the low bits of a key's hash.
+ */
+public final class HashUtils {
+
+    private HashUtils() {
+    }
+
+    /**
+     * Mixes every bit of {@code hash} into its low bits, so masking keeps
+     * apart keys that differ anywhere.
+     *
+     * String hashes of similar keys differ mostly in low bits, and other
+     * hashes may differ only in high ones. Folding the high half down, then
+     * multiplying by the golden ratio to carry low bits up and folding again,
+     * lands both kinds apart even in a small table.
+     */
+    public static int spread(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+}
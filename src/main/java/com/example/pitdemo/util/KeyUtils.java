@@ -0,0 +1,40 @@
+package com.example.pitdemo.util;
+
+/**
+ * Case-insensitive keys for usernames and emails.
+ *
+ * Shared by the in-memory indexes and the normalized key columns of the
+ * users table, so both agree on which names clash.
+ */
+public final class KeyUtils {
+
+    private KeyUtils() {
+    }
+
+    /**
+     * Normalizes a username or email into its index key.
+     *
+     * Two strings get the same key exactly when {@link String#equalsIgnoreCase}
+     * considers them equal, so a hash lookup on the key matches the
+     * case-insensitive comparison the service has always used.
+     */
+    public static String normalize(String key) {
+        int length = key.length();
+        for (int i = 0; i < length; i++) {
+            char c = key.charAt(i);
+            if (Character.isSurrogate(c) || Character.toLowerCase(Character.toUpperCase(c)) != c) {
+                return normalizeFrom(key, i);
+            }
+        }
+        return key;
+    }
+
+    private static String normalizeFrom(String key, int start) {
+        StringBuilder normalized = new StringBuilder(key.length());
+        normalized.append(key, 0, start);
+        key.codePoints().skip(key.codePointCount(0, start))
+                .map(cp -> Character.toLowerCase(Character.toUpperCase(cp)))
+                .forEach(normalized::appendCodePoint);
+        return normalized.toString();
+    }
+}
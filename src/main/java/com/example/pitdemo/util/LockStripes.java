@@ -0,0 +1,97 @@
+package com.example.pitdemo.util;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A fixed set of locks shared by key hash.
+ *
+ * Operations on the same key always get the same lock, while operations on
+ * different keys usually get different locks, so unrelated writers do not
+ * serialize on one global monitor. Memory stays bounded no matter how many
+ * keys exist.
+ */
+public class LockStripes {
+
+    private final Lock[] locks;
+    private final int mask;
+
+    /**
+     * Creates at least the requested number of stripes, rounded up to a power of two.
+     */
+    public LockStripes(int stripes) {
+        if (stripes < 1) {
+            throw new IllegalArgumentException("Stripe count must be positive");
+        }
+
+        int size = Integer.highestOneBit(stripes);
+        if (size < stripes) {
+            size <<= 1;
+        }
+
+        this.locks = new Lock[size];
+        for (int i = 0; i < size; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+    }
+
+    /**
+     * Returns the lock guarding the given key.
+     */
+    public Lock lockFor(Object key) {
+        return locks[indexFor(key)];
+    }
+
+    /**
+     * Acquires every stripe, always in the same order, to exclude all
+     * per-key operations at once. Release with {@link #unlockAll()}.
+     */
+    public void lockAll() {
+        for (Lock lock : locks) {
+            lock.lock();
+        }
+    }
+
+    public void unlockAll() {
+        for (int i = locks.length - 1; i >= 0; i--) {
+            locks[i].unlock();
+        }
+    }
+
+    /**
+     * Acquires the stripes of all the given keys, each once and in the same
+     * order as {@link #lockAll()}, so callers holding overlapping sets of
+     * keys cannot deadlock. Release with {@link #unlock(int[])}.
+     *
+     * @return the stripes taken, to pass to {@link #unlock(int[])}
+     */
+    public int[] lockAll(Collection<?> keys) {
+        int[] stripes = new int[keys.size()];
+        int i = 0;
+        for (Object key : keys) {
+            stripes[i++] = indexFor(key);
+        }
+        stripes = Arrays.stream(stripes).sorted().distinct().toArray();
+        for (int stripe : stripes) {
+            locks[stripe].lock();
+        }
+        return stripes;
+    }
+
+    public void unlock(int[] stripes) {
+        for (int i = stripes.length - 1; i >= 0; i--) {
+            locks[stripes[i]].unlock();
+        }
+    }
+
+    public int stripeCount() {
+        return locks.length;
+    }
+
+    int indexFor(Object key) {
+        return HashUtils.spread(key.hashCode()) & mask;
+    }
+}
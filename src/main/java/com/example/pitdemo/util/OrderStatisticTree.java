@@ -0,0 +1,167 @@
+package com.example.pitdemo.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Sorted multiset that also answers "how many elements come before this
+ * one" and "what are the first k elements" in logarithmic time.
+ *
+ * A treap: a binary search tree by the comparator that is kept balanced in
+ * expectation by random heap priorities, with every node counting the
+ * elements below it. Adding, removing and counting take O(log n) expected
+ * time; listing the first k elements takes O(log n + k).
+ *
+ * Not thread-safe.
+ */
+public final class OrderStatisticTree<E> {
+
+    private final Comparator<? super E> comparator;
+    private final SplittableRandom random = new SplittableRandom(0x5EED);
+    private Node<E> root;
+
+    public OrderStatisticTree(Comparator<? super E> comparator) {
+        if (comparator == null) {
+            throw new IllegalArgumentException("Comparator cannot be null");
+        }
+        this.comparator = comparator;
+    }
+
+    public int size() {
+        return size(root);
+    }
+
+    /**
+     * Adds an element after any elements that compare equal to it.
+     */
+    public void add(E element) {
+        Node<E> node = new Node<>(element, random.nextInt());
+        Node<E>[] parts = split(root, element, true);
+        root = merge(merge(parts[0], node), parts[1]);
+    }
+
+    /**
+     * Removes one element that compares equal to {@code element}.
+     *
+     * @return whether an element was removed
+     */
+    public boolean remove(E element) {
+        Node<E>[] lower = split(root, element, false);
+        Node<E>[] upper = split(lower[1], element, true);
+        Node<E> equal = upper[0];
+        boolean removed = equal != null;
+        if (removed) {
+            equal = merge(equal.left, equal.right);
+        }
+        root = merge(merge(lower[0], equal), upper[1]);
+        return removed;
+    }
+
+    /**
+     * Counts the elements that compare strictly less than {@code probe},
+     * which need not be in the tree.
+     */
+    public int countLessThan(E probe) {
+        int count = 0;
+        Node<E> node = root;
+        while (node != null) {
+            if (comparator.compare(node.element, probe) < 0) {
+                count += size(node.left) + 1;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the first {@code k} elements in order, or all if there are fewer.
+     */
+    public List<E> first(int k) {
+        List<E> result = new ArrayList<>(Math.min(k, size()));
+        Deque<Node<E>> path = new ArrayDeque<>();
+        Node<E> node = root;
+        while (result.size() < k && (node != null || !path.isEmpty())) {
+            while (node != null) {
+                path.push(node);
+                node = node.left;
+            }
+            node = path.pop();
+            result.add(node.element);
+            node = node.right;
+        }
+        return result;
+    }
+
+    public void clear() {
+        root = null;
+    }
+
+    /**
+     * Splits a subtree into elements before {@code key} and the rest; with
+     * {@code inclusive}, elements equal to {@code key} go to the first part.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Node<E>[] split(Node<E> node, E key, boolean inclusive) {
+        if (node == null) {
+            return new Node[] {null, null};
+        }
+        int cmp = comparator.compare(node.element, key);
+        if (cmp < 0 || (inclusive && cmp == 0)) {
+            Node<E>[] parts = split(node.right, key, inclusive);
+            node.right = parts[0];
+            node.update();
+            parts[0] = node;
+            return parts;
+        }
+        Node<E>[] parts = split(node.left, key, inclusive);
+        node.left = parts[1];
+        node.update();
+        parts[1] = node;
+        return parts;
+    }
+
+    // Every element of left comes before every element of right
+    private static <E> Node<E> merge(Node<E> left, Node<E> right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            left.update();
+            return left;
+        }
+        right.left = merge(left, right.left);
+        right.update();
+        return right;
+    }
+
+    private static int size(Node<?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static final class Node<E> {
+        private final E element;
+        private final int priority;
+        private Node<E> left;
+        private Node<E> right;
+        private int size = 1;
+
+        private Node(E element, int priority) {
+            this.element = element;
+            this.priority = priority;
+        }
+
+        private void update() {
+            size = 1 + size(left) + size(right);
+        }
+    }
+}
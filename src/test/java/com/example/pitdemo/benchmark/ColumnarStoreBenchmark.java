@@ -0,0 +1,127 @@
+package com.example.pitdemo.benchmark;
+
+import com.example.pitdemo.model.User;
+import com.example.pitdemo.service.store.ColumnarUserStore;
+
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntSupplier;
+
+/**
+ * Scan benchmark for the columnar store.
+ *
+ * Compares statistics and an age range count over a plain {@code List<User>},
+ * scanned with streams the way the service used to, against the same
+ * population in a {@link ColumnarUserStore}. Also reports the heap each
+ * representation retains. Not a unit test; run it manually after
+ * {@code mvn test-compile}, with enough heap for both copies:
+ *
+ * <pre>
+ * java -Xmx4g -cp target/classes:target/test-classes \
+ *     com.example.pitdemo.benchmark.ColumnarStoreBenchmark [users] [rounds]
+ * </pre>
+ */
+public class ColumnarStoreBenchmark {
+
+    private static final User.UserStatus[] STATUSES = User.UserStatus.values();
+
+    // Keeps results alive so the JIT cannot drop the measured work
+    private static int sink;
+
+    public static void main(String[] args) {
+        int userCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        LocalDate today = LocalDate.now();
+
+        long baseline = usedHeap();
+        List<User> list = createUsers(userCount, today);
+        long listHeap = usedHeap() - baseline;
+
+        ColumnarUserStore store = createStore(userCount, today);
+        long storeHeap = usedHeap() - baseline - listHeap;
+
+        System.out.printf("%d users, %d rounds%n", userCount, rounds);
+        System.out.printf("retained heap: list %d MB, columnar %d MB%n", listHeap >> 20, storeHeap >> 20);
+        System.out.printf("%-22s %14s %14s %8s%n", "operation", "list ms", "columnar ms", "speedup");
+
+        report("statistics", rounds,
+                () -> listStatistics(list, today),
+                () -> store.statistics().getAdultUsers());
+        report("count ages 18..30", rounds,
+                () -> (int) list.stream()
+                        .filter(u -> {
+                            int age = Period.between(u.getBirthDate(), today).getYears();
+                            return age >= 18 && age <= 30;
+                        })
+                        .count(),
+                () -> store.countByAgeRange(18, 30, today));
+    }
+
+    private static List<User> createUsers(int count, LocalDate today) {
+        Random random = new Random(1);
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            User user = new User("user" + i, "user" + i + "@example.com", today.minusDays(random.nextInt(80 * 365)));
+            user.setScore(random.nextInt(101));
+            user.setStatus(STATUSES[random.nextInt(STATUSES.length)]);
+            users.add(user);
+        }
+        return users;
+    }
+
+    /**
+     * Loads the store in its own frame, so the source users are garbage once it returns.
+     */
+    private static ColumnarUserStore createStore(int count, LocalDate today) {
+        ColumnarUserStore store = new ColumnarUserStore();
+        for (User user : createUsers(count, today)) {
+            store.add(user);
+        }
+        return store;
+    }
+
+    /**
+     * The stream-per-figure statistics the service computed before it had a store.
+     */
+    private static int listStatistics(List<User> users, LocalDate today) {
+        double averageScore = users.stream().mapToInt(User::getScore).average().orElse(0.0);
+        double averageAge = users.stream()
+                .mapToInt(u -> Period.between(u.getBirthDate(), today).getYears())
+                .average().orElse(0.0);
+        long active = users.stream().filter(u -> u.getStatus() == User.UserStatus.ACTIVE).count();
+        long adults = users.stream().filter(u -> Period.between(u.getBirthDate(), today).getYears() >= 18).count();
+        long promotable = users.stream()
+                .filter(u -> u.getStatus() == User.UserStatus.ACTIVE && u.getScore() >= 75
+                        && Period.between(u.getBirthDate(), today).getYears() >= 18)
+                .count();
+        return (int) (adults + active + promotable + (long) averageScore + (long) averageAge);
+    }
+
+    private static void report(String name, int rounds, IntSupplier list, IntSupplier columnar) {
+        // Warm up both paths so the measurement is not dominated by JIT
+        time(list, rounds);
+        time(columnar, rounds);
+        double listMillis = time(list, rounds);
+        double columnarMillis = time(columnar, rounds);
+        System.out.printf("%-22s %14.2f %14.2f %7.1fx%n", name, listMillis, columnarMillis, listMillis / columnarMillis);
+    }
+
+    private static double time(IntSupplier operation, int rounds) {
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            sink += operation.getAsInt();
+        }
+        return (System.nanoTime() - start) / 1e6 / rounds;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
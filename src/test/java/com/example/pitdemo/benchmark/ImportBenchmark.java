@@ -0,0 +1,96 @@
+package com.example.pitdemo.benchmark;
+
+import com.example.pitdemo.service.UserService;
+import com.example.pitdemo.service.importer.ImportReport;
+import com.example.pitdemo.service.importer.UserImporter;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Random;
+
+/**
+ * Throughput benchmark for file imports.
+ *
+ * Writes a CSV file of users, then loads it once with {@link UserImporter}
+ * and once the naive way, reading each line into a string, splitting it and
+ * calling {@code createUser}. Each run starts from an empty service, and
+ * the earlier rounds warm up the JIT. Not a unit test; run it manually
+ * after {@code mvn test-compile}:
+ *
+ * <pre>
+ * java -Xmx4g -cp target/classes:target/test-classes \
+ *     com.example.pitdemo.benchmark.ImportBenchmark [users]
+ * </pre>
+ */
+public class ImportBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        int userCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Path file = Files.createTempFile("users", ".csv");
+        try {
+            writeFile(file, userCount);
+            System.out.printf("%d users, %d MB%n", userCount, Files.size(file) >> 20);
+
+            for (int round = 1; round <= 3; round++) {
+                ImportReport report = new UserImporter(new UserService()).importFile(file);
+                System.out.printf("round %d mapped importer: %.0f rows/s (%d created, %d rejected)%n",
+                        round, report.getRowsPerSecond(), report.getCreated(), report.getRejected());
+
+                long start = System.nanoTime();
+                int created = readLineByLine(file);
+                System.out.printf("round %d line by line:    %.0f rows/s (%d created)%n",
+                        round, userCount * 1e9 / (System.nanoTime() - start), created);
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static int readLineByLine(Path file) throws IOException {
+        UserService userService = new UserService();
+        int created = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            reader.readLine();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split(",", -1);
+                try {
+                    userService.createUser(fields[0], fields[1], LocalDate.parse(fields[2]));
+                    created++;
+                } catch (IllegalArgumentException e) {
+                    // Counted by the difference from the row count
+                }
+            }
+        }
+        return created;
+    }
+
+    private static void writeFile(Path file, int userCount) throws IOException {
+        Random random = new Random(1);
+        LocalDate today = LocalDate.now();
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("username,email,birthDate\n");
+            for (int i = 0; i < userCount; i++) {
+                String name = name(i);
+                writer.write(name + "," + name + "@example.com," + today.minusDays(random.nextInt(80 * 365)) + "\n");
+            }
+        }
+    }
+
+    /**
+     * Spells {@code i} in letters, since usernames must be mostly letters.
+     */
+    private static String name(int i) {
+        StringBuilder name = new StringBuilder("user");
+        do {
+            name.append((char) ('a' + i % 26));
+            i /= 26;
+        } while (i > 0);
+        return name.toString();
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.pitdemo.benchmark;
+
+import com.example.pitdemo.PitDemoApplication;
+import com.example.pitdemo.service.BulkCreateReport;
+import com.example.pitdemo.service.NewUser;
+import com.example.pitdemo.service.UserService;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Insert throughput of the JPA store on the embedded H2 database.
+ *
+ * Starts the application with {@code pitdemo.store=jpa}, without the web
+ * server, and loads users three ways: one {@code createUser} call per user,
+ * and {@code createUsers} in chunks with JDBC batching on (the configured
+ * batch size) and off (batch size 1). Each run gets a fresh in-memory
+ * database. Not a unit test; it needs the runtime classpath, so run it
+ * after {@code mvn test-compile dependency:build-classpath -Dmdep.outputFile=cp.txt}:
+ *
+ * <pre>
+ * java -cp target/classes:target/test-classes:$(cat cp.txt) \
+ *     com.example.pitdemo.benchmark.JpaInsertBenchmark [users]
+ * </pre>
+ */
+public class JpaInsertBenchmark {
+
+    private static final int CHUNK = 10_000;
+
+    public static void main(String[] args) {
+        int userCount = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        System.out.printf("%d users%n", userCount);
+
+        run("createUser, one by one", userCount, 50, false);
+        run("createUsers, batch size 1", userCount, 1, true);
+        run("createUsers, batch size 50", userCount, 50, true);
+    }
+
+    private static void run(String label, int userCount, int batchSize, boolean bulk) {
+        try (ConfigurableApplicationContext context = SpringApplication.run(PitDemoApplication.class,
+                "--pitdemo.store=jpa",
+                "--spring.main.web-application-type=none",
+                "--spring.datasource.url=jdbc:h2:mem:bench" + System.nanoTime(),
+                "--spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize,
+                "--logging.level.root=WARN")) {
+            UserService service = context.getBean(UserService.class);
+            LocalDate birthDate = LocalDate.of(1990, 1, 1);
+
+            long start = System.nanoTime();
+            long created = 0;
+            if (bulk) {
+                for (int from = 0; from < userCount; from += CHUNK) {
+                    List<NewUser> chunk = new ArrayList<>(CHUNK);
+                    for (int i = from; i < Math.min(from + CHUNK, userCount); i++) {
+                        chunk.add(new NewUser("user" + i, "user" + i + "@example.com", birthDate));
+                    }
+                    BulkCreateReport report = service.createUsers(chunk);
+                    created += report.getCreatedCount();
+                }
+            } else {
+                for (int i = 0; i < userCount; i++) {
+                    service.createUser("user" + i, "user" + i + "@example.com", birthDate);
+                    created++;
+                }
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("%-28s %,10.0f inserts/s (%d users in %.1f s)%n",
+                    label, created / seconds, created, seconds);
+        }
+    }
+}
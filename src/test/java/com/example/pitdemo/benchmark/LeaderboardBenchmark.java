@@ -0,0 +1,95 @@
+package com.example.pitdemo.benchmark;
+
+import com.example.pitdemo.model.User;
+import com.example.pitdemo.service.UserRanking;
+import com.example.pitdemo.service.UserService;
+import com.example.pitdemo.service.store.ColumnarUserStore;
+
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.function.IntSupplier;
+
+/**
+ * Leaderboard benchmark.
+ *
+ * Loads the same users into a service on the default store, which keeps
+ * them in ranking order, and one on the columnar store, which ranks every
+ * user and sorts on each query. Reports the time of a top-10 listing and of
+ * a user's position on both, and the cost the ranking index adds to score
+ * updates. Not a unit test; run it manually after {@code mvn test-compile}:
+ *
+ * <pre>
+ * java -cp target/classes:target/test-classes \
+ *     com.example.pitdemo.benchmark.LeaderboardBenchmark [users] [rounds]
+ * </pre>
+ */
+public class LeaderboardBenchmark {
+
+    // Keeps results alive so the JIT cannot drop the measured work
+    private static int sink;
+
+    public static void main(String[] args) {
+        int userCount = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+
+        UserService indexed = new UserService();
+        UserService scanning = new UserService(new ColumnarUserStore());
+        Random random = new Random(42);
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i < userCount; i++) {
+            LocalDate birthDate = today.minusDays(random.nextInt(60 * 365) + 1);
+            int score = random.nextInt(101);
+            for (UserService service : new UserService[] {indexed, scanning}) {
+                service.createUser("player" + i, "player" + i + "@example.com", birthDate);
+                service.updateUserScore("player" + i, score);
+            }
+        }
+        String probe = "player" + (userCount / 2);
+
+        System.out.printf("%d users, %d rounds%n", userCount, rounds);
+        System.out.printf("%-18s %14s %14s %10s%n", "operation", "scan ms", "index ms", "speedup");
+        report("topN(10)", rounds,
+                () -> scanning.topN(10).size(),
+                () -> indexed.topN(10).size());
+        report("rankOf", rounds,
+                () -> scanning.rankOf(probe),
+                () -> indexed.rankOf(probe));
+        report("rank and sort all", rounds,
+                () -> scanning.getAllUsers().stream().sorted(UserRanking.leaderboardOrder(today)).toList().size(),
+                () -> indexed.topN(userCount).size());
+
+        int updates = 1_000_000;
+        System.out.printf("%-18s %,14.0f %,14.0f  (updates/s, columnar vs. default store)%n", "updateUserScore",
+                updateRate(scanning, userCount, updates), updateRate(indexed, userCount, updates));
+        System.out.println(sink == 42 ? "" : "done");
+    }
+
+    private static void report(String label, int rounds, IntSupplier scan, IntSupplier index) {
+        double scanMs = time(rounds, scan);
+        double indexMs = time(rounds, index);
+        System.out.printf("%-18s %14.3f %14.3f %9.0fx%n", label, scanMs, indexMs, scanMs / indexMs);
+    }
+
+    // Mean milliseconds per call after a warm-up of the same length
+    private static double time(int rounds, IntSupplier operation) {
+        for (int i = 0; i < rounds; i++) {
+            sink += operation.getAsInt();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            sink += operation.getAsInt();
+        }
+        return (System.nanoTime() - start) / 1e6 / rounds;
+    }
+
+    private static double updateRate(UserService service, int userCount, int updates) {
+        long start = System.nanoTime();
+        for (int i = 0; i < updates; i++) {
+            service.updateUserScore("player" + (i % userCount), i % 101);
+        }
+        return updates * 1e9 / (System.nanoTime() - start);
+    }
+
+    private LeaderboardBenchmark() {
+    }
+}
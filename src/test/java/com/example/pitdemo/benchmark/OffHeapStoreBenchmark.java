@@ -0,0 +1,108 @@
+package com.example.pitdemo.benchmark;
+
+import com.example.pitdemo.model.User;
+import com.example.pitdemo.service.store.ColumnarUserStore;
+import com.example.pitdemo.service.store.InMemoryUserStore;
+import com.example.pitdemo.service.store.OffHeapUserStore;
+import com.example.pitdemo.service.store.UserStore;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import java.util.Random;
+
+/**
+ * Footprint benchmark for the user stores.
+ *
+ * Loads users into one store and reports the load rate, the heap the store
+ * retains, its direct memory, the GC work done while loading and the cost
+ * of statistics and lookups afterwards. Run one store per JVM so the
+ * numbers do not mix. Not a unit test; run it manually after
+ * {@code mvn test-compile}:
+ *
+ * <pre>
+ * java -Xmx8g -XX:MaxDirectMemorySize=8g -cp target/classes:target/test-classes \
+ *     com.example.pitdemo.benchmark.OffHeapStoreBenchmark [offheap|columnar|heap] [users]
+ * </pre>
+ */
+public class OffHeapStoreBenchmark {
+
+    private static final User.UserStatus[] STATUSES = User.UserStatus.values();
+
+    public static void main(String[] args) {
+        String kind = args.length > 0 ? args[0] : "offheap";
+        int userCount = args.length > 1 ? Integer.parseInt(args[1]) : 10_000_000;
+        UserStore store = switch (kind) {
+            case "offheap" -> new OffHeapUserStore();
+            case "columnar" -> new ColumnarUserStore();
+            case "heap" -> new InMemoryUserStore();
+            default -> throw new IllegalArgumentException("Unknown store: " + kind);
+        };
+
+        long baseline = usedHeap();
+        long gcCountBefore = gcCount();
+        long gcMillisBefore = gcMillis();
+        long start = System.nanoTime();
+
+        Random random = new Random(1);
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i < userCount; i++) {
+            User user = new User("user" + i, "user" + i + "@example.com", today.minusDays(random.nextInt(80 * 365)));
+            user.setScore(random.nextInt(101));
+            user.setStatus(STATUSES[random.nextInt(STATUSES.length)]);
+            store.add(user);
+        }
+
+        double loadSeconds = (System.nanoTime() - start) / 1e9;
+        long gcCount = gcCount() - gcCountBefore;
+        long gcMillis = gcMillis() - gcMillisBefore;
+        long heap = usedHeap() - baseline;
+
+        System.out.printf("%s store, %d users%n", kind, userCount);
+        System.out.printf("load:         %.0f users/s, %d GCs, %d ms in GC%n", userCount / loadSeconds, gcCount, gcMillis);
+        System.out.printf("heap:         %d MB retained%n", heap >> 20);
+        if (store instanceof OffHeapUserStore offHeap) {
+            System.out.printf("direct:       %d MB reserved%n", offHeap.offHeapBytes() >> 20);
+        }
+
+        // Warm up, then measure
+        store.statistics();
+        start = System.nanoTime();
+        int adults = store.statistics().getAdultUsers();
+        System.out.printf("statistics:   %.1f ms (%d adults)%n", (System.nanoTime() - start) / 1e6, adults);
+
+        int lookups = 1_000_000;
+        int found = 0;
+        start = System.nanoTime();
+        for (int i = 0; i < lookups; i++) {
+            if (store.usernameExists("user" + random.nextInt(userCount))) {
+                found++;
+            }
+        }
+        System.out.printf("lookups:      %.0f /s (%d found)%n", lookups / ((System.nanoTime() - start) / 1e9), found);
+    }
+
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(gc.getCollectionCount(), 0);
+        }
+        return count;
+    }
+
+    private static long gcMillis() {
+        long millis = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            millis += Math.max(gc.getCollectionTime(), 0);
+        }
+        return millis;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.pitdemo.benchmark;
+
+import com.example.pitdemo.model.User;
+import com.example.pitdemo.service.UserRanking;
+
+import java.util.Random;
+
+/**
+ * Ranking formula benchmark.
+ *
+ * Ranks the same generated users three ways: with the formula as it was
+ * before the multiplier table (a factor at a time, switching on the status
+ * and on the experience level's name), with {@link UserRanking#of} per
+ * user, and with {@link UserRanking#rankAll} over primitive columns. It
+ * checks that all three agree and reports millions of rankings per second.
+ * Not a unit test; run it manually after {@code mvn test-compile}:
+ *
+ * <pre>
+ * java -cp target/classes:target/test-classes \
+ *     com.example.pitdemo.benchmark.RankingBenchmark [users] [rounds]
+ * </pre>
+ */
+public class RankingBenchmark {
+
+    private static final User.UserStatus[] STATUSES = User.UserStatus.values();
+
+    public static void main(String[] args) {
+        int users = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+
+        Random random = new Random(42);
+        int[] scores = new int[users];
+        byte[] statuses = new byte[users];
+        boolean[] adults = new boolean[users];
+        User.UserStatus[] statusObjects = new User.UserStatus[users];
+        for (int i = 0; i < users; i++) {
+            scores[i] = random.nextInt(101);
+            statuses[i] = (byte) random.nextInt(STATUSES.length);
+            statusObjects[i] = STATUSES[statuses[i]];
+            adults[i] = random.nextInt(5) > 0;
+        }
+
+        double[] expected = new double[users];
+        double[] table = new double[users];
+        for (int i = 0; i < users; i++) {
+            expected[i] = switches(scores[i], statusObjects[i], adults[i]);
+            table[i] = UserRanking.of(scores[i], statusObjects[i], adults[i]);
+        }
+        double[] batch = UserRanking.rankAll(scores, statuses, adults);
+        for (int i = 0; i < users; i++) {
+            if (expected[i] != table[i] || expected[i] != batch[i]) {
+                throw new IllegalStateException("Rankings differ for user " + i);
+            }
+        }
+
+        System.out.printf("%d users, %d rounds%n", users, rounds);
+        System.out.printf("%-20s %14s%n", "method", "M rankings/s");
+        double sink = 0;
+        for (int warmup = 0; warmup < 2; warmup++) {
+            long switchNanos = 0;
+            long tableNanos = 0;
+            long batchNanos = 0;
+            for (int round = 0; round < rounds; round++) {
+                long start = System.nanoTime();
+                for (int i = 0; i < users; i++) {
+                    sink += switches(scores[i], statusObjects[i], adults[i]);
+                }
+                switchNanos += System.nanoTime() - start;
+
+                start = System.nanoTime();
+                for (int i = 0; i < users; i++) {
+                    sink += UserRanking.of(scores[i], statusObjects[i], adults[i]);
+                }
+                tableNanos += System.nanoTime() - start;
+
+                start = System.nanoTime();
+                sink += UserRanking.rankAll(scores, statuses, adults)[users - 1];
+                batchNanos += System.nanoTime() - start;
+            }
+            if (warmup == 1) {
+                long rankings = (long) users * rounds;
+                System.out.printf("%-20s %14.1f%n", "switches", rankings * 1e3 / switchNanos);
+                System.out.printf("%-20s %14.1f%n", "table per user", rankings * 1e3 / tableNanos);
+                System.out.printf("%-20s %14.1f%n", "rankAll columns", rankings * 1e3 / batchNanos);
+            }
+        }
+        System.out.println(sink == 0 ? "" : "done");
+    }
+
+    /**
+     * The ranking formula before the multiplier table.
+     */
+    private static double switches(int score, User.UserStatus status, boolean adult) {
+        double ranking = score;
+        if (adult) {
+            ranking *= 1.2;
+        } else {
+            ranking *= 0.8;
+        }
+        switch (status) {
+            case ACTIVE:
+                ranking *= 1.5;
+                break;
+            case INACTIVE:
+                ranking *= 0.5;
+                break;
+            case SUSPENDED:
+                ranking *= 0.1;
+                break;
+            case DELETED:
+                ranking = 0.0;
+                break;
+        }
+        switch (levelName(score)) {
+            case "Expert":
+                ranking *= 2.0;
+                break;
+            case "Advanced":
+                ranking *= 1.7;
+                break;
+            case "Intermediate":
+                ranking *= 1.3;
+                break;
+            case "Beginner":
+                ranking *= 1.0;
+                break;
+            case "Novice":
+                ranking *= 0.7;
+                break;
+        }
+        return Math.round(ranking * 100.0) / 100.0;
+    }
+
+    /**
+     * The experience level as found before {@link User.ExperienceLevel}.
+     */
+    private static String levelName(int score) {
+        if (score >= 90) {
+            return "Expert";
+        } else if (score >= 70) {
+            return "Advanced";
+        } else if (score >= 50) {
+            return "Intermediate";
+        } else if (score >= 30) {
+            return "Beginner";
+        }
+        return "Novice";
+    }
+}
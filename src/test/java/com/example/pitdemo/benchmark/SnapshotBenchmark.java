@@ -0,0 +1,84 @@
+package com.example.pitdemo.benchmark;
+
+import com.example.pitdemo.model.User;
+import com.example.pitdemo.service.UserService;
+import com.example.pitdemo.service.snapshot.SnapshotFile;
+import com.example.pitdemo.service.snapshot.UserSnapshot;
+import com.example.pitdemo.service.store.ColumnarUserStore;
+import com.example.pitdemo.service.store.InMemoryUserStore;
+import com.example.pitdemo.service.store.UserStore;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Random;
+
+/**
+ * Snapshot and restore benchmark.
+ *
+ * Snapshots a service holding generated users to a file, then restores it
+ * into a new service, reporting the time of each phase and the file size.
+ * Not a unit test; run it manually after {@code mvn test-compile}:
+ *
+ * <pre>
+ * java -Xmx8g -cp target/classes:target/test-classes \
+ *     com.example.pitdemo.benchmark.SnapshotBenchmark [heap|columnar] [users]
+ * </pre>
+ */
+public class SnapshotBenchmark {
+
+    private static final User.UserStatus[] STATUSES = User.UserStatus.values();
+
+    public static void main(String[] args) throws IOException {
+        String kind = args.length > 0 ? args[0] : "heap";
+        int userCount = args.length > 1 ? Integer.parseInt(args[1]) : 5_000_000;
+        Path file = Files.createTempFile("users", ".snapshot");
+        try {
+            UserService source = new UserService(newStore(kind));
+            source.restore(generate(userCount));
+
+            long start = System.nanoTime();
+            UserSnapshot snapshot = source.snapshot();
+            long captured = System.nanoTime();
+            SnapshotFile.write(snapshot, file);
+            long written = System.nanoTime();
+            System.out.printf("%s store, %d users, %d MB snapshot%n", kind, userCount, Files.size(file) >> 20);
+            System.out.printf("capture: %6d ms%n", (captured - start) / 1_000_000);
+            System.out.printf("write:   %6d ms%n", (written - captured) / 1_000_000);
+            snapshot = null;
+            source = null;
+
+            start = System.nanoTime();
+            UserSnapshot read = SnapshotFile.read(file);
+            long decoded = System.nanoTime();
+            UserService restored = new UserService(newStore(kind));
+            int count = restored.restore(read);
+            long loaded = System.nanoTime();
+            System.out.printf("read:    %6d ms%n", (decoded - start) / 1_000_000);
+            System.out.printf("restore: %6d ms (%d users, %d adults)%n",
+                    (loaded - decoded) / 1_000_000, count, restored.countUsersByAgeRange(18, 150));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static UserStore newStore(String kind) {
+        return switch (kind) {
+            case "heap" -> new InMemoryUserStore();
+            case "columnar" -> new ColumnarUserStore();
+            default -> throw new IllegalArgumentException("Unknown store: " + kind);
+        };
+    }
+
+    private static UserSnapshot generate(int userCount) {
+        Random random = new Random(1);
+        LocalDate today = LocalDate.now();
+        UserSnapshot.Builder builder = UserSnapshot.builder(userCount);
+        for (int i = 0; i < userCount; i++) {
+            builder.add("user" + i, "user" + i + "@example.com", today.minusDays(random.nextInt(80 * 365)),
+                    random.nextInt(101), STATUSES[random.nextInt(STATUSES.length)]);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.pitdemo.benchmark;
+
+import com.example.pitdemo.service.UserService;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contention benchmark for UserService.
+ *
+ * Runs a mix of score updates and ranking reads against a shared service
+ * from 1 up to N threads, once with the service's own striped locking and
+ * once with every call wrapped in a single global lock. Not a unit test;
+ * run it manually after {@code mvn test-compile}:
+ *
+ * <pre>
+ * java -cp target/classes:target/test-classes \
+ *     com.example.pitdemo.benchmark.UserServiceContentionBenchmark [users] [seconds]
+ * </pre>
+ */
+public class UserServiceContentionBenchmark {
+
+    public static void main(String[] args) throws InterruptedException {
+        int userCount = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+        int maxThreads = Runtime.getRuntime().availableProcessors();
+
+        UserService service = new UserService();
+        for (int i = 0; i < userCount; i++) {
+            service.createUser("user" + i, "user" + i + "@example.com", LocalDate.of(1990, 1, 1));
+        }
+
+        Object globalLock = new Object();
+        Runnable striped = () -> runOperation(service, userCount);
+        Runnable global = () -> {
+            synchronized (globalLock) {
+                runOperation(service, userCount);
+            }
+        };
+
+        // Warm up both paths so the first measured row is not dominated by JIT
+        measure(striped, maxThreads, 1);
+        measure(global, maxThreads, 1);
+
+        System.out.printf("%d users, %d cores, %ds per run%n", userCount, maxThreads, seconds);
+        System.out.printf("%8s %18s %8s %18s %8s%n", "threads", "striped ops/s", "scale", "global ops/s", "scale");
+
+        double stripedBase = 0;
+        double globalBase = 0;
+        for (int threads = 1; threads <= maxThreads; threads = nextThreadCount(threads, maxThreads)) {
+            double stripedRate = measure(striped, threads, seconds);
+            double globalRate = measure(global, threads, seconds);
+            if (threads == 1) {
+                stripedBase = stripedRate;
+                globalBase = globalRate;
+            }
+            System.out.printf("%8d %18.0f %7.2fx %18.0f %7.2fx%n", threads,
+                    stripedRate, stripedRate / stripedBase, globalRate, globalRate / globalBase);
+        }
+    }
+
+    private static int nextThreadCount(int threads, int maxThreads) {
+        if (threads == maxThreads) {
+            return maxThreads + 1;
+        }
+        return Math.min(threads * 2, maxThreads);
+    }
+
+    private static void runOperation(UserService service, int userCount) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String username = "user" + random.nextInt(userCount);
+        if (random.nextBoolean()) {
+            service.updateUserScore(username, 10 + random.nextInt(91));
+        } else {
+            service.calculateUserRanking(username);
+        }
+    }
+
+    private static double measure(Runnable operation, int threads, int seconds) throws InterruptedException {
+        LongAdder operations = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        long durationNanos = seconds * 1_000_000_000L;
+
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                long deadline = System.nanoTime() + durationNanos;
+                long count = 0;
+                while (System.nanoTime() < deadline) {
+                    operation.run();
+                    count++;
+                }
+                operations.add(count);
+            });
+            workers.add(worker);
+            worker.start();
+        }
+
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return operations.sum() / (double) seconds;
+    }
+}
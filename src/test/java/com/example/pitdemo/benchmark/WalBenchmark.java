@@ -0,0 +1,94 @@
+package com.example.pitdemo.benchmark;
+
+import com.example.pitdemo.service.UserService;
+import com.example.pitdemo.service.snapshot.FsyncPolicy;
+import com.example.pitdemo.service.snapshot.WriteAheadLog;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Write-ahead log benchmark.
+ *
+ * Runs score updates from several threads against a service logging to a
+ * temporary directory, once per fsync policy and once without a log, and
+ * reports operations per second. Group commit shows as per-batch throughput
+ * growing with the thread count while per-operation stays flat. Not a unit
+ * test; run it manually after {@code mvn test-compile}:
+ *
+ * <pre>
+ * java -cp target/classes:target/test-classes \
+ *     com.example.pitdemo.benchmark.WalBenchmark [threads] [seconds]
+ * </pre>
+ */
+public class WalBenchmark {
+
+    private static final int USERS = 10_000;
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        System.out.printf("%d threads, %d s per run%n", threads, seconds);
+        System.out.printf("%-14s %12s%n", "policy", "ops/s");
+        System.out.printf("%-14s %,12.0f%n", "none", run(null, threads, seconds));
+        for (FsyncPolicy policy : FsyncPolicy.values()) {
+            System.out.printf("%-14s %,12.0f%n", policy, run(policy, threads, seconds));
+        }
+    }
+
+    private static double run(FsyncPolicy policy, int threads, int seconds) throws Exception {
+        Path directory = Files.createTempDirectory("wal");
+        WriteAheadLog log = policy == null ? null : new WriteAheadLog(directory, policy, Duration.ofSeconds(1));
+        try {
+            UserService service = new UserService();
+            for (int i = 0; i < USERS; i++) {
+                service.createUser("user" + i, "user" + i + "@example.com", LocalDate.of(1990, 1, 1));
+            }
+            service.setWriteAheadLog(log);
+
+            AtomicLong operations = new AtomicLong();
+            CountDownLatch done = new CountDownLatch(threads);
+            long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+            List<Thread> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int offset = t;
+                workers.add(new Thread(() -> {
+                    long count = 0;
+                    for (int i = offset; System.nanoTime() < deadline; i += threads) {
+                        service.updateUserScore("user" + (i % USERS), i % 101);
+                        count++;
+                    }
+                    operations.addAndGet(count);
+                    done.countDown();
+                }));
+            }
+            long start = System.nanoTime();
+            workers.forEach(Thread::start);
+            done.await();
+            return operations.get() * 1e9 / (System.nanoTime() - start);
+        } finally {
+            if (log != null) {
+                log.close();
+            }
+            deleteRecursively(directory);
+        }
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+}
@@ -92,6 +92,22 @@ class UserImprovedTest {
             
             assertEquals(24, user.getAge()); // Still 24 until birthday
         }
+
+        @Test
+        @DisplayName("Should calculate age and adulthood as of a given day")
+        void shouldCalculateAgeAsOfDay() {
+            user.setBirthDate(LocalDate.of(2008, 2, 29));
+
+            assertEquals(17, user.getAge(LocalDate.of(2026, 2, 28).toEpochDay()));
+            assertFalse(user.isAdult(LocalDate.of(2026, 2, 28).toEpochDay()));
+            assertEquals(18, user.getAge(LocalDate.of(2026, 3, 1).toEpochDay()));
+            assertTrue(user.isAdult(LocalDate.of(2026, 3, 1).toEpochDay()));
+            assertEquals(-2, user.getAge(LocalDate.of(2006, 1, 1).toEpochDay()));
+
+            user.setBirthDate(null);
+            assertEquals(0, user.getAge(LocalDate.of(2026, 3, 1).toEpochDay()));
+            assertFalse(user.isAdult(LocalDate.of(2026, 3, 1).toEpochDay()));
+        }
     }
 
     @Nested
@@ -160,6 +176,49 @@ class UserImprovedTest {
             );
             assertEquals("Score cannot be negative", exception.getMessage());
         }
+
+        @ParameterizedTest
+        @CsvSource({
+            "0, NOVICE",
+            "29, NOVICE",
+            "30, BEGINNER",
+            "49, BEGINNER",
+            "50, INTERMEDIATE",
+            "69, INTERMEDIATE",
+            "70, ADVANCED",
+            "89, ADVANCED",
+            "90, EXPERT",
+            "100, EXPERT",
+            "101, EXPERT",
+            "2147483647, EXPERT"
+        })
+        @DisplayName("Should look up the typed level for score")
+        void shouldReturnTypedExperienceLevel(int score, User.ExperienceLevel expectedLevel) {
+            user.setScore(score);
+            assertEquals(expectedLevel, user.experienceLevel());
+            assertEquals(expectedLevel.getDisplayName(), user.getExperienceLevel());
+            assertEquals(expectedLevel, User.ExperienceLevel.of(score));
+        }
+
+        @Test
+        @DisplayName("Should order typed levels by minimum score")
+        void shouldOrderTypedLevelsByMinScore() {
+            User.ExperienceLevel[] levels = User.ExperienceLevel.values();
+            assertEquals(0, levels[0].getMinScore());
+            for (int i = 1; i < levels.length; i++) {
+                assertTrue(levels[i - 1].getMinScore() < levels[i].getMinScore());
+                assertEquals(levels[i], User.ExperienceLevel.of(levels[i].getMinScore()));
+                assertEquals(levels[i - 1], User.ExperienceLevel.of(levels[i].getMinScore() - 1));
+            }
+        }
+
+        @Test
+        @DisplayName("Should reject negative score for typed level")
+        void shouldRejectNegativeScoreForTypedLevel() {
+            user.setScore(-1);
+            assertThrows(IllegalArgumentException.class, () -> user.experienceLevel());
+            assertThrows(IllegalArgumentException.class, () -> User.ExperienceLevel.of(Integer.MIN_VALUE));
+        }
     }
 
     @Nested
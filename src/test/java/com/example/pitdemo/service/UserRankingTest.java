@@ -0,0 +1,109 @@
+package com.example.pitdemo.service;
+
+import com.example.pitdemo.model.User;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the ranking table, checked against the formula it replaced.
+ */
+@DisplayName("UserRanking Tests")
+class UserRankingTest {
+
+    private static final User.UserStatus[] STATUSES = User.UserStatus.values();
+
+    /**
+     * The ranking formula as written before the table: one factor after
+     * another, with the level found by its name.
+     */
+    private static double reference(int score, User.UserStatus status, boolean adult) {
+        double ranking = score * (adult ? 1.2 : 0.8);
+        switch (status) {
+            case ACTIVE -> ranking *= 1.5;
+            case INACTIVE -> ranking *= 0.5;
+            case SUSPENDED -> ranking *= 0.1;
+            case DELETED -> ranking = 0.0;
+        }
+        switch (levelName(score)) {
+            case "Expert" -> ranking *= 2.0;
+            case "Advanced" -> ranking *= 1.7;
+            case "Intermediate" -> ranking *= 1.3;
+            case "Beginner" -> ranking *= 1.0;
+            case "Novice" -> ranking *= 0.7;
+            default -> fail("Unknown level");
+        }
+        return Math.round(ranking * 100.0) / 100.0;
+    }
+
+    @Test
+    @DisplayName("Should match the factor-by-factor formula for every cell")
+    void shouldMatchReferenceFormula() {
+        for (int score = 0; score <= 100_000; score++) {
+            for (User.UserStatus status : STATUSES) {
+                assertEquals(reference(score, status, true), UserRanking.of(score, status, true));
+                assertEquals(reference(score, status, false), UserRanking.of(score, status, false));
+            }
+        }
+        Random random = new Random(11);
+        for (int i = 0; i < 100_000; i++) {
+            int score = random.nextInt(Integer.MAX_VALUE);
+            User.UserStatus status = STATUSES[random.nextInt(STATUSES.length)];
+            boolean adult = random.nextBoolean();
+            assertEquals(reference(score, status, adult), UserRanking.of(score, status, adult));
+        }
+    }
+
+    @Test
+    @DisplayName("Should rank columns as ranking each user does")
+    void shouldRankColumns() {
+        Random random = new Random(5);
+        int[] scores = new int[1000];
+        byte[] statuses = new byte[1000];
+        boolean[] adults = new boolean[1000];
+        for (int i = 0; i < scores.length; i++) {
+            scores[i] = random.nextInt(101);
+            statuses[i] = (byte) random.nextInt(STATUSES.length);
+            adults[i] = random.nextBoolean();
+        }
+
+        double[] rankings = UserRanking.rankAll(scores, statuses, adults);
+
+        assertEquals(scores.length, rankings.length);
+        for (int i = 0; i < scores.length; i++) {
+            assertEquals(UserRanking.of(scores[i], STATUSES[statuses[i]], adults[i]), rankings[i]);
+        }
+        assertEquals(0, UserRanking.rankAll(new int[0], new byte[0], new boolean[0]).length);
+    }
+
+    @Test
+    @DisplayName("Should reject negative scores and malformed columns")
+    void shouldRejectInvalidInput() {
+        assertThrows(IllegalArgumentException.class, () -> UserRanking.of(-1, User.UserStatus.ACTIVE, true));
+        assertThrows(IllegalArgumentException.class,
+                () -> UserRanking.rankAll(new int[] {-1}, new byte[1], new boolean[1]));
+        assertThrows(IllegalArgumentException.class,
+                () -> UserRanking.rankAll(new int[] {50}, new byte[] {4}, new boolean[1]));
+        assertThrows(IllegalArgumentException.class,
+                () -> UserRanking.rankAll(new int[2], new byte[1], new boolean[2]));
+        assertThrows(IllegalArgumentException.class,
+                () -> UserRanking.rankAll(new int[2], new byte[2], new boolean[1]));
+    }
+
+    // The level chain as written before ExperienceLevel
+    private static String levelName(int score) {
+        if (score >= 90) {
+            return "Expert";
+        } else if (score >= 70) {
+            return "Advanced";
+        } else if (score >= 50) {
+            return "Intermediate";
+        } else if (score >= 30) {
+            return "Beginner";
+        }
+        return "Novice";
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.pitdemo.service;
+
+import com.example.pitdemo.model.User;
+import com.example.pitdemo.service.store.ColumnarUserStore;
+import com.example.pitdemo.service.store.InMemoryUserStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for bulk user creation and its per-row report.
+ */
+@DisplayName("UserService Bulk Create Tests")
+class UserServiceBulkCreateTest {
+
+    private static final LocalDate ADULT = LocalDate.now().minusYears(30);
+
+    private UserService userService;
+
+    @BeforeEach
+    void setUp() {
+        userService = new UserService();
+    }
+
+    @Test
+    @DisplayName("Should create valid rows and report each rejected row")
+    void shouldReportEachRow() {
+        userService.createUser("existing", "existing@example.com", ADULT);
+
+        BulkCreateReport report = userService.createUsers(Arrays.asList(
+                new NewUser("alice", "alice@example.com", ADULT),
+                null,
+                new NewUser("", "blank@example.com", ADULT),
+                new NewUser("future", "future@example.com", LocalDate.now().plusDays(1)),
+                new NewUser("ALICE", "other@example.com", ADULT),
+                new NewUser("bob", "Alice@Example.com", ADULT),
+                new NewUser("Existing", "new@example.com", ADULT),
+                new NewUser("teen", "teen@example.com", LocalDate.now().minusYears(15))));
+
+        List<String> errors = report.getRows().stream().map(BulkCreateReport.Row::getError).toList();
+        assertEquals(Arrays.asList(
+                null,
+                "User data cannot be null",
+                "Username cannot be null or empty",
+                "Birth date cannot be in the future",
+                "Duplicate username in batch: ALICE",
+                "Duplicate email in batch: Alice@Example.com",
+                "Username already exists: Existing",
+                null), errors);
+
+        assertEquals(2, report.getCreatedCount());
+        assertEquals(6, report.getRejectedCount());
+        assertEquals(List.of(1, 2, 3, 4, 5, 6),
+                report.getRejectedRows().stream().map(BulkCreateReport.Row::getIndex).toList());
+        assertEquals(3, userService.getAllUsers().size());
+        assertEquals(3, userService.generateStatistics().getTotalUsers());
+    }
+
+    @Test
+    @DisplayName("Should apply the auto-activation rule")
+    void shouldApplyAutoActivation() {
+        BulkCreateReport report = userService.createUsers(List.of(
+                new NewUser("adult", "adult@example.com", ADULT),
+                new NewUser("adult2", "not-an-email", ADULT),
+                new NewUser("teen", "teen@example.com", LocalDate.now().minusYears(15))));
+
+        List<User> created = report.getCreatedUsers();
+        assertEquals(User.UserStatus.ACTIVE, created.get(0).getStatus());
+        assertEquals(User.UserStatus.INACTIVE, created.get(1).getStatus());
+        assertEquals(User.UserStatus.INACTIVE, created.get(2).getStatus());
+        assertEquals(1, userService.generateStatistics().getActiveUsers());
+    }
+
+    @Test
+    @DisplayName("Should leave taken keys to the store when not logging")
+    void shouldNotLookUpKeysBeforeInsert() {
+        AtomicInteger lookups = new AtomicInteger();
+        UserService service = new UserService(new InMemoryUserStore() {
+            @Override
+            public boolean usernameExists(String username) {
+                lookups.incrementAndGet();
+                return super.usernameExists(username);
+            }
+
+            @Override
+            public boolean emailExists(String email) {
+                lookups.incrementAndGet();
+                return super.emailExists(email);
+            }
+        });
+        service.createUser("alice", "alice@example.com", ADULT);
+
+        IllegalArgumentException taken = assertThrows(IllegalArgumentException.class,
+                () -> service.createUser("ALICE", "other@example.com", ADULT));
+        BulkCreateReport report = service.createUsers(List.of(new NewUser("bob", "Alice@Example.com", ADULT)));
+
+        assertEquals("Username already exists: ALICE", taken.getMessage());
+        assertEquals("Email already exists: Alice@Example.com", report.getRows().get(0).getError());
+        assertEquals(0, lookups.get());
+        assertEquals(1, service.getAllUsers().size());
+    }
+
+    @Test
+    @DisplayName("Should handle an empty batch and reject a null one")
+    void shouldHandleEmptyAndNullBatches() {
+        BulkCreateReport report = userService.createUsers(List.of());
+
+        assertEquals(0, report.getCreatedCount());
+        assertTrue(report.getRows().isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> userService.createUsers(null));
+    }
+
+    @Test
+    @DisplayName("Should validate large batches in parallel with the same result")
+    void shouldValidateLargeBatches() {
+        List<NewUser> batch = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            String username = i % 1000 == 999 ? "1bad" + i : "member" + i;
+            batch.add(new NewUser(username, "user" + i + "@example.com", ADULT));
+        }
+        // A late duplicate of an early row
+        batch.add(new NewUser("MEMBER5", "late@example.com", ADULT));
+
+        for (UserService service : List.of(userService, new UserService(new ColumnarUserStore()))) {
+            BulkCreateReport report = service.createUsers(batch);
+
+            assertEquals(20_001 - 20 - 1, report.getCreatedCount());
+            assertEquals("Invalid username format", report.getRows().get(999).getError());
+            assertEquals("Duplicate username in batch: MEMBER5", report.getRows().get(20_000).getError());
+            assertEquals(report.getCreatedCount(), service.generateStatistics().getTotalUsers());
+            assertNotNull(service.getAllUsers().stream().filter(u -> u.getUsername().equals("member19998")).findFirst().orElse(null));
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep created users updatable through the service")
+    void shouldKeepCreatedUsersUpdatable() {
+        userService.createUsers(List.of(new NewUser("alice", "alice@example.com", ADULT)));
+
+        userService.updateUserScore("alice", 80);
+
+        assertEquals(1, userService.generateStatistics().getPromotableUsers());
+        assertThrows(IllegalArgumentException.class,
+                () -> userService.createUser("alice", "again@example.com", ADULT));
+    }
+}
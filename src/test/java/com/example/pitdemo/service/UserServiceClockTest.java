@@ -0,0 +1,76 @@
+package com.example.pitdemo.service;
+
+import com.example.pitdemo.model.User;
+import com.example.pitdemo.service.store.ColumnarUserStore;
+import com.example.pitdemo.service.store.InMemoryUserStore;
+import com.example.pitdemo.service.store.OffHeapUserStore;
+import com.example.pitdemo.util.DayClock;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for evaluating the service as of a date given by its clock.
+ */
+@DisplayName("UserService Clock Tests")
+class UserServiceClockTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 2, 28);
+
+    private UserService serviceOn(LocalDate date) {
+        DayClock clock = DayClock.fixed(date);
+        return new UserService(new InMemoryUserStore(clock), clock);
+    }
+
+    @Test
+    @DisplayName("Should judge adulthood, ranking and age ranges as of the clock's date")
+    void shouldEvaluateAsOfClockDate() {
+        UserService service = serviceOn(TODAY);
+        User leapling = service.createUser("leapling", "leapling@example.com", LocalDate.of(2008, 2, 29));
+        User adult = service.createUser("adult", "adult@example.com", LocalDate.of(2008, 2, 28));
+
+        assertEquals(User.UserStatus.INACTIVE, leapling.getStatus());
+        assertEquals(User.UserStatus.ACTIVE, adult.getStatus());
+        assertEquals(List.of(adult), service.findUsersByAgeRange(18, 18));
+        assertEquals(1, service.countUsersByAgeRange(17, 17));
+        assertEquals(1, service.generateStatistics().getAdultUsers());
+
+        leapling.setStatus(User.UserStatus.ACTIVE);
+        service.updateUserScore("leapling", 95);
+        service.updateUserScore("adult", 95);
+        assertEquals(95 * 0.8 * 1.5 * 2.0, service.calculateUserRanking("leapling"), 1e-9);
+        assertEquals(95 * 1.2 * 1.5 * 2.0, service.calculateUserRanking("adult"), 1e-9);
+        assertEquals(List.of(adult, leapling), service.topN(2));
+    }
+
+    @Test
+    @DisplayName("Should validate birth dates against the clock's date")
+    void shouldValidateBirthDatesAgainstClock() {
+        UserService service = serviceOn(TODAY);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> service.createUser("future", "future@example.com", TODAY.plusDays(1)));
+        assertNotNull(service.createUser("today", "today@example.com", TODAY));
+    }
+
+    @Test
+    @DisplayName("Should have row stores compute statistics as of the clock's date")
+    void shouldComputeRowStoreStatisticsAsOfClockDate() {
+        for (LocalDate date : List.of(TODAY, TODAY.plusDays(1))) {
+            DayClock clock = DayClock.fixed(date);
+            for (UserService service : List.of(new UserService(new ColumnarUserStore(clock), clock),
+                    new UserService(new OffHeapUserStore(clock), clock))) {
+                service.createUser("leapling", "leapling@example.com", LocalDate.of(2008, 2, 29));
+                service.createUser("adult", "adult@example.com", LocalDate.of(2008, 2, 28));
+
+                // The leapling turns 18 on March 1st in a common year
+                assertEquals(date.equals(TODAY) ? 1 : 2, service.generateStatistics().getAdultUsers());
+                assertEquals(date.equals(TODAY) ? 17.5 : 18.0, service.generateStatistics().getAverageAge(), 1e-9);
+            }
+        }
+    }
+}
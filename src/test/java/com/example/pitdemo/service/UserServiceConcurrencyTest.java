@@ -0,0 +1,225 @@
+package com.example.pitdemo.service;
+
+import com.example.pitdemo.model.User;
+import com.example.pitdemo.service.snapshot.FsyncPolicy;
+import com.example.pitdemo.service.snapshot.WriteAheadLog;
+import com.example.pitdemo.service.store.InMemoryUserStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that UserService stays consistent when called from many threads.
+ */
+@DisplayName("UserService Concurrency Tests")
+class UserServiceConcurrencyTest {
+
+    private static final int THREADS = 8;
+
+    private UserService userService;
+
+    @TempDir
+    Path directory;
+
+    @BeforeEach
+    void setUp() {
+        userService = new UserService();
+    }
+
+    private void runConcurrently(List<Callable<Void>> tasks) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (Callable<Void> task : tasks) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+            for (Future<Void> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Should create distinct users from many threads")
+    void shouldCreateDistinctUsersConcurrently() throws Exception {
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            tasks.add(() -> {
+                for (int i = 0; i < 250; i++) {
+                    userService.createUser("user" + thread + "x" + i,
+                            "user" + thread + "x" + i + "@example.com", LocalDate.of(1990, 1, 1));
+                }
+                return null;
+            });
+        }
+
+        runConcurrently(tasks);
+
+        assertEquals(THREADS * 250, userService.getAllUsers().size());
+        assertEquals(THREADS * 250, userService.generateStatistics().getTotalUsers());
+    }
+
+    @Test
+    @DisplayName("Should keep usernames and emails unique under racing signups")
+    void shouldKeepKeysUniqueUnderRacingSignups() throws Exception {
+        AtomicInteger successes = new AtomicInteger();
+        AtomicInteger rejections = new AtomicInteger();
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            tasks.add(() -> {
+                for (int i = 0; i < 200; i++) {
+                    // Half the threads race on the username, the other half on the email
+                    String username = thread % 2 == 0 ? "racer" + i : "racer" + i + "t" + thread;
+                    String email = thread % 2 == 0 ? "racer" + i + "t" + thread + "@example.com" : "racer" + i + "@example.com";
+                    try {
+                        userService.createUser(username, email, LocalDate.of(1990, 1, 1));
+                        successes.incrementAndGet();
+                    } catch (IllegalArgumentException e) {
+                        rejections.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+
+        runConcurrently(tasks);
+
+        List<User> users = userService.getAllUsers();
+        assertEquals(successes.get(), users.size());
+        assertEquals(THREADS * 200, successes.get() + rejections.get());
+        assertEquals(users.size(), users.stream().map(u -> u.getUsername().toLowerCase()).distinct().count());
+        assertEquals(users.size(), users.stream().map(u -> u.getEmail().toLowerCase()).distinct().count());
+    }
+
+    @Test
+    @DisplayName("Should apply concurrent score updates without losing rules")
+    void shouldApplyConcurrentScoreUpdates() throws Exception {
+        for (int i = 0; i < 100; i++) {
+            userService.createUser("user" + i, "user" + i + "@example.com", LocalDate.of(1990, 1, 1));
+        }
+
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            tasks.add(() -> {
+                for (int round = 0; round < 50; round++) {
+                    for (int i = 0; i < 100; i++) {
+                        userService.updateUserScore("user" + i, 60);
+                        userService.calculateUserRanking("user" + i);
+                    }
+                }
+                return null;
+            });
+        }
+
+        runConcurrently(tasks);
+
+        // The first update of each user grants the 10 point adult bonus, later ones do not
+        for (User user : userService.getAllUsers()) {
+            assertEquals(60, user.getScore(), user.getUsername());
+            assertEquals(User.UserStatus.ACTIVE, user.getStatus());
+        }
+    }
+
+    @Test
+    @DisplayName("Should log batch signups and racing clears in the order they were applied")
+    void shouldOrderBatchSignupsAgainstClears() throws Exception {
+        List<Callable<Void>> tasks = new ArrayList<>();
+        try (WriteAheadLog log = new WriteAheadLog(directory, FsyncPolicy.PER_BATCH, null)) {
+            userService.setWriteAheadLog(log);
+            for (int t = 0; t < THREADS - 2; t++) {
+                int thread = t;
+                tasks.add(() -> {
+                    for (int batch = 0; batch < 50; batch++) {
+                        List<NewUser> users = new ArrayList<>();
+                        for (int i = 0; i < 20; i++) {
+                            String name = "user" + thread + "x" + batch + "x" + i;
+                            users.add(new NewUser(name, name + "@example.com", LocalDate.of(1990, 1, 1)));
+                        }
+                        userService.createUsers(users);
+                    }
+                    return null;
+                });
+            }
+            for (int t = 0; t < 2; t++) {
+                tasks.add(() -> {
+                    for (int i = 0; i < 100; i++) {
+                        userService.clearUsers();
+                        Thread.yield();
+                    }
+                    return null;
+                });
+            }
+
+            runConcurrently(tasks);
+
+            UserService recovered = new UserService();
+            log.replay(0, recovered::replay);
+            assertEquals(usernames(userService), usernames(recovered));
+        }
+    }
+
+    @Test
+    @DisplayName("Should read a user without waiting for a change to it in progress")
+    void shouldReadWithoutWaitingForWriters() throws Exception {
+        CountDownLatch updating = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        UserService service = new UserService(new InMemoryUserStore() {
+            @Override
+            public boolean update(String username, Consumer<? super User> change) {
+                updating.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.update(username, change);
+            }
+        });
+        service.createUser("alice", "alice@example.com", LocalDate.now().minusYears(30));
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> update = executor.submit(() -> service.updateUserScore("alice", 80));
+            assertTrue(updating.await(5, TimeUnit.SECONDS));
+
+            Future<Boolean> read = executor.submit(() -> service.calculateUserRanking("alice") >= 0
+                    && !service.canAccessPremiumFeatures("alice"));
+            assertTrue(read.get(5, TimeUnit.SECONDS));
+
+            release.countDown();
+            update.get(5, TimeUnit.SECONDS);
+            assertTrue(service.canAccessPremiumFeatures("alice"));
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    private static List<String> usernames(UserService service) {
+        return service.getAllUsers().stream().map(User::getUsername).sorted().toList();
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.pitdemo.service;
+
+import com.example.pitdemo.model.User;
+import com.example.pitdemo.service.store.ColumnarUserStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the top-N leaderboard and leaderboard positions.
+ */
+@DisplayName("UserService Leaderboard Tests")
+class UserServiceLeaderboardTest {
+
+    private static final LocalDate ADULT = LocalDate.now().minusYears(30);
+    private static final LocalDate MINOR = LocalDate.now().minusYears(10);
+
+    private UserService userService;
+
+    @BeforeEach
+    void setUp() {
+        userService = new UserService();
+    }
+
+    private List<String> topUsernames(UserService service, int k) {
+        return service.topN(k).stream().map(User::getUsername).toList();
+    }
+
+    @Test
+    @DisplayName("Should list the best ranked users and follow score updates")
+    void shouldListTopUsers() {
+        userService.createUser("alice", "alice@example.com", ADULT);
+        userService.createUser("bob", "bob@example.com", ADULT);
+        userService.createUser("kid", "kid@example.com", MINOR);
+        userService.updateUserScore("alice", 60);
+        userService.updateUserScore("bob", 95);
+        userService.updateUserScore("kid", 95);
+
+        assertEquals(List.of("bob", "kid"), topUsernames(userService, 2));
+        assertEquals(1, userService.rankOf("bob"));
+        assertEquals(3, userService.rankOf("alice"));
+
+        userService.updateUserScore("alice", 100);
+        assertEquals(List.of("alice", "bob", "kid"), topUsernames(userService, 5));
+        assertEquals(List.of(), userService.topN(0));
+    }
+
+    @Test
+    @DisplayName("Should agree with calculateUserRanking")
+    void shouldAgreeWithCalculateUserRanking() {
+        Random random = new Random(3);
+        for (int i = 0; i < 50; i++) {
+            LocalDate birthDate = LocalDate.now().minusDays(random.nextInt(40 * 365) + 1);
+            userService.createUser("user" + i, "user" + i + "@example.com", birthDate);
+            userService.updateUserScore("user" + i, random.nextInt(101));
+        }
+
+        List<User> top = userService.topN(50);
+        assertEquals(50, top.size());
+        for (int i = 1; i < top.size(); i++) {
+            assertTrue(userService.calculateUserRanking(top.get(i - 1).getUsername())
+                    >= userService.calculateUserRanking(top.get(i).getUsername()));
+        }
+        for (User user : top) {
+            double ranking = userService.calculateUserRanking(user.getUsername());
+            long ahead = top.stream()
+                    .filter(other -> userService.calculateUserRanking(other.getUsername()) > ranking)
+                    .count();
+            assertEquals(ahead + 1, userService.rankOf(user.getUsername()));
+        }
+    }
+
+    @Test
+    @DisplayName("Should give the same leaderboard on a store that ranks by scanning")
+    void shouldMatchScanningStore() {
+        UserService columnar = new UserService(new ColumnarUserStore());
+        for (UserService service : List.of(userService, columnar)) {
+            service.createUser("Zed", "zed@example.com", ADULT);
+            service.createUser("amy", "amy@example.com", ADULT);
+            service.createUser("kid", "kid@example.com", MINOR);
+            service.updateUserScore("Zed", 70);
+            service.updateUserScore("amy", 70);
+            service.updateUserScore("kid", 40);
+        }
+
+        assertEquals(topUsernames(userService, 3), topUsernames(columnar, 3));
+        assertEquals(List.of("amy", "Zed", "kid"), topUsernames(columnar, 3));
+        assertEquals(userService.rankOf("Zed"), columnar.rankOf("Zed"));
+        assertEquals(1, columnar.rankOf("Zed"));
+    }
+
+    @Test
+    @DisplayName("Should reject negative k and unknown users")
+    void shouldRejectInvalidArguments() {
+        userService.createUser("alice", "alice@example.com", ADULT);
+
+        assertThrows(IllegalArgumentException.class, () -> userService.topN(-1));
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> userService.rankOf("ALICE"));
+        assertEquals("User not found: ALICE", e.getMessage());
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.pitdemo.service;
+
+import com.example.pitdemo.model.User;
+import com.example.pitdemo.service.store.ColumnarUserStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for paging through users with continuation tokens.
+ */
+@DisplayName("UserService Pagination Tests")
+class UserServicePaginationTest {
+
+    private UserService userService;
+
+    @BeforeEach
+    void setUp() {
+        userService = new UserService();
+    }
+
+    private static void createUsers(UserService service, int from, int to) {
+        for (int i = from; i < to; i++) {
+            service.createUser("user" + i, "user" + i + "@example.com", LocalDate.of(1990, 1, 1));
+        }
+    }
+
+    private static List<String> usernames(List<User> users) {
+        return users.stream().map(User::getUsername).collect(Collectors.toList());
+    }
+
+    private static List<String> pageThrough(UserService service, int pageSize) {
+        List<String> seen = new ArrayList<>();
+        String token = null;
+        do {
+            UserPage page = service.getUsers(token, pageSize);
+            assertTrue(page.getUsers().size() <= pageSize);
+            seen.addAll(usernames(page.getUsers()));
+            token = page.getNextPageToken();
+        } while (token != null);
+        return seen;
+    }
+
+    @Test
+    @DisplayName("Should page through every user once in insertion order")
+    void shouldPageThroughEveryUser() {
+        createUsers(userService, 0, 25);
+
+        assertEquals(usernames(userService.getAllUsers()), pageThrough(userService, 10));
+        assertEquals(usernames(userService.getAllUsers()), pageThrough(userService, 25));
+        assertEquals(usernames(userService.getAllUsers()), pageThrough(userService, 1));
+    }
+
+    @Test
+    @DisplayName("Should return a single last page when everyone fits")
+    void shouldReturnLastPageWhenEveryoneFits() {
+        createUsers(userService, 0, 3);
+
+        UserPage page = userService.getUsers(null, 10);
+
+        assertEquals(List.of("user0", "user1", "user2"), usernames(page.getUsers()));
+        assertFalse(page.hasNextPage());
+        assertNull(page.getNextPageToken());
+    }
+
+    @Test
+    @DisplayName("Should return an empty last page for an empty store")
+    void shouldReturnEmptyPageForEmptyStore() {
+        UserPage page = userService.getUsers(null, 10);
+
+        assertTrue(page.getUsers().isEmpty());
+        assertNull(page.getNextPageToken());
+    }
+
+    @Test
+    @DisplayName("Should neither skip nor repeat users added between pages")
+    void shouldStayStableUnderInserts() {
+        createUsers(userService, 0, 10);
+
+        UserPage first = userService.getUsers(null, 4);
+        createUsers(userService, 10, 13);
+        UserPage second = userService.getUsers(first.getNextPageToken(), 4);
+
+        assertEquals(List.of("user0", "user1", "user2", "user3"), usernames(first.getUsers()));
+        assertEquals(List.of("user4", "user5", "user6", "user7"), usernames(second.getUsers()));
+
+        List<String> rest = new ArrayList<>();
+        String token = second.getNextPageToken();
+        while (token != null) {
+            UserPage page = userService.getUsers(token, 4);
+            rest.addAll(usernames(page.getUsers()));
+            token = page.getNextPageToken();
+        }
+        assertEquals(List.of("user8", "user9", "user10", "user11", "user12"), rest);
+    }
+
+    @Test
+    @DisplayName("Should include users added before the next page is read")
+    void shouldPickUpUsersAddedBeforeLastPage() {
+        createUsers(userService, 0, 3);
+        UserPage first = userService.getUsers(null, 2);
+
+        createUsers(userService, 3, 5);
+
+        UserPage second = userService.getUsers(first.getNextPageToken(), 2);
+        assertEquals(List.of("user2", "user3"), usernames(second.getUsers()));
+        assertTrue(second.hasNextPage());
+        UserPage third = userService.getUsers(second.getNextPageToken(), 2);
+        assertEquals(List.of("user4"), usernames(third.getUsers()));
+        assertFalse(third.hasNextPage());
+    }
+
+    @Test
+    @DisplayName("Should page the same way on a row store")
+    void shouldPageRowStoreTheSame() {
+        UserService columnar = new UserService(new ColumnarUserStore());
+        createUsers(columnar, 0, 25);
+        createUsers(userService, 0, 25);
+
+        assertEquals(pageThrough(userService, 7), pageThrough(columnar, 7));
+
+        UserPage first = columnar.getUsers(null, 20);
+        createUsers(columnar, 25, 27);
+        UserPage second = columnar.getUsers(first.getNextPageToken(), 20);
+        assertEquals(List.of("user20", "user21", "user22", "user23", "user24", "user25", "user26"),
+                usernames(second.getUsers()));
+        assertFalse(second.hasNextPage());
+    }
+
+    @Test
+    @DisplayName("Should not let callers change a page")
+    void shouldReturnUnmodifiablePage() {
+        createUsers(userService, 0, 2);
+
+        UserPage page = userService.getUsers(null, 10);
+
+        assertThrows(UnsupportedOperationException.class, () -> page.getUsers().clear());
+    }
+
+    @Test
+    @DisplayName("Should reject page sizes out of range")
+    void shouldRejectInvalidPageSize() {
+        IllegalArgumentException zero = assertThrows(IllegalArgumentException.class,
+                () -> userService.getUsers(null, 0));
+        assertEquals("Page size must be between 1 and 1000", zero.getMessage());
+        assertThrows(IllegalArgumentException.class,
+                () -> userService.getUsers(null, UserService.MAX_PAGE_SIZE + 1));
+        assertDoesNotThrow(() -> userService.getUsers(null, UserService.MAX_PAGE_SIZE));
+    }
+
+    @Test
+    @DisplayName("Should reject page tokens it did not make")
+    void shouldRejectInvalidPageToken() {
+        IllegalArgumentException garbage = assertThrows(IllegalArgumentException.class,
+                () -> userService.getUsers("not a token", 10));
+        assertEquals("Invalid page token: not a token", garbage.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> userService.getUsers("0", 10));
+        assertThrows(IllegalArgumentException.class, () -> userService.getUsers("-5", 10));
+        assertThrows(IllegalArgumentException.class, () -> userService.getUsers("", 10));
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.pitdemo.service;
+
+import com.example.pitdemo.model.User;
+import com.example.pitdemo.service.store.ColumnarUserStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the maintained premium user set.
+ */
+@DisplayName("UserService Premium Tests")
+class UserServicePremiumTest {
+
+    private UserService userService;
+
+    @BeforeEach
+    void setUp() {
+        userService = new UserService();
+    }
+
+    private Set<String> premiumUsernames(UserService service) {
+        return service.listPremiumUsers().stream().map(User::getUsername).collect(Collectors.toSet());
+    }
+
+    @Test
+    @DisplayName("Should agree with canAccessPremiumFeatures through score updates")
+    void shouldAgreeWithCanAccessPremiumFeatures() {
+        Random random = new Random(9);
+        for (int i = 0; i < 100; i++) {
+            LocalDate birthDate = LocalDate.now().minusDays(random.nextInt(40 * 365) + 1);
+            userService.createUser("user" + i, "user" + i + "@example.com", birthDate);
+        }
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 100; i++) {
+                userService.updateUserScore("user" + i, random.nextInt(101));
+            }
+
+            Set<String> expected = userService.getAllUsers().stream()
+                    .map(User::getUsername)
+                    .filter(userService::canAccessPremiumFeatures)
+                    .collect(Collectors.toSet());
+            assertFalse(expected.isEmpty());
+            assertEquals(expected, premiumUsernames(userService));
+            for (int i = 0; i < 100; i++) {
+                String username = "user" + i;
+                assertEquals(expected.contains(username), userService.isPremium(username), username);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should give the same premium users on a store that checks every user")
+    void shouldMatchScanningStore() {
+        UserService columnar = new UserService(new ColumnarUserStore());
+        for (UserService service : List.of(userService, columnar)) {
+            service.createUser("alice", "alice@example.com", LocalDate.now().minusYears(30));
+            service.createUser("bob", "bob@example.com", LocalDate.now().minusYears(20));
+            service.createUser("kid", "kid@example.com", LocalDate.now().minusYears(10));
+            service.updateUserScore("alice", 73);
+            service.updateUserScore("bob", 61);
+            service.updateUserScore("kid", 97);
+        }
+
+        assertEquals(Set.of("alice", "bob"), premiumUsernames(userService));
+        assertEquals(premiumUsernames(userService), premiumUsernames(columnar));
+        assertTrue(columnar.isPremium("bob"));
+        assertFalse(columnar.isPremium("kid"));
+    }
+
+    @Test
+    @DisplayName("Should report unknown users as not premium")
+    void shouldReportUnknownUsers() {
+        userService.createUser("alice", "alice@example.com", LocalDate.now().minusYears(30));
+        userService.updateUserScore("alice", 97);
+
+        assertTrue(userService.isPremium("alice"));
+        assertFalse(userService.isPremium("ALICE"));
+        assertFalse(userService.isPremium("nobody"));
+        assertFalse(userService.isPremium(null));
+    }
+}
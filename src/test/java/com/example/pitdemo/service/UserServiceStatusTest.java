@@ -0,0 +1,104 @@
+package com.example.pitdemo.service;
+
+import com.example.pitdemo.model.User;
+import com.example.pitdemo.service.store.ColumnarUserStore;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for finding and counting users by status.
+ */
+@DisplayName("UserService Status Tests")
+class UserServiceStatusTest {
+
+    private static List<String> usernames(List<User> users) {
+        return users.stream().map(User::getUsername).collect(Collectors.toList());
+    }
+
+    // Minors, so they start inactive instead of being activated on signup
+    private static void createUsers(UserService service) {
+        for (String name : List.of("alice", "bob", "carol", "dave")) {
+            service.createUser(name, name + "@example.com", LocalDate.now().minusYears(12));
+        }
+    }
+
+    @Test
+    @DisplayName("Should follow activation by score and the low-score suspension")
+    void shouldFollowScoreRules() {
+        UserService service = new UserService();
+        createUsers(service);
+        assertEquals(4, service.countUsersByStatus(User.UserStatus.INACTIVE));
+
+        service.updateUserScore("bob", 60);
+        service.updateUserScore("alice", 55);
+        service.updateUserScore("bob", 5);
+
+        assertEquals(List.of("alice"), usernames(service.findUsersByStatus(User.UserStatus.ACTIVE)));
+        assertEquals(List.of("bob"), usernames(service.findUsersByStatus(User.UserStatus.SUSPENDED)));
+        assertEquals(List.of("carol", "dave"), usernames(service.findUsersByStatus(User.UserStatus.INACTIVE)));
+        assertEquals(1, service.countUsersByStatus(User.UserStatus.ACTIVE));
+        assertEquals(1, service.countUsersByStatus(User.UserStatus.SUSPENDED));
+        assertEquals(0, service.countUsersByStatus(User.UserStatus.DELETED));
+        assertEquals(1, service.generateStatistics().getActiveUsers());
+    }
+
+    @Test
+    @DisplayName("Should follow status set directly on a user")
+    void shouldFollowDirectStatusChanges() {
+        UserService service = new UserService();
+        createUsers(service);
+
+        // The default store hands out the stored users themselves
+        service.getAllUsers().get(2).setStatus(User.UserStatus.DELETED);
+
+        assertEquals(List.of("carol"), usernames(service.findUsersByStatus(User.UserStatus.DELETED)));
+        assertEquals(3, service.countUsersByStatus(User.UserStatus.INACTIVE));
+    }
+
+    @Test
+    @DisplayName("Should give the same answers on a store that scans its status column")
+    void shouldMatchRowStore() {
+        UserService indexed = new UserService();
+        UserService columnar = new UserService(new ColumnarUserStore());
+        for (UserService service : List.of(indexed, columnar)) {
+            createUsers(service);
+            service.updateUserScore("dave", 70);
+            service.updateUserScore("carol", 50);
+            service.updateUserScore("carol", 2);
+        }
+
+        for (User.UserStatus status : User.UserStatus.values()) {
+            assertEquals(usernames(indexed.findUsersByStatus(status)), usernames(columnar.findUsersByStatus(status)));
+            assertEquals(indexed.countUsersByStatus(status), columnar.countUsersByStatus(status));
+        }
+    }
+
+    @Test
+    @DisplayName("Should forget users on clear")
+    void shouldForgetUsersOnClear() {
+        UserService service = new UserService();
+        createUsers(service);
+
+        service.clearUsers();
+
+        assertEquals(0, service.countUsersByStatus(User.UserStatus.INACTIVE));
+        assertTrue(service.findUsersByStatus(User.UserStatus.INACTIVE).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should reject a null status")
+    void shouldRejectNullStatus() {
+        UserService service = new UserService();
+
+        IllegalArgumentException find = assertThrows(IllegalArgumentException.class,
+                () -> service.findUsersByStatus(null));
+        assertEquals("Status cannot be null", find.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> service.countUsersByStatus(null));
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.pitdemo.service;
+
+import com.example.pitdemo.model.User;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the single-pass statistics accumulator.
+ */
+@DisplayName("UserStatisticsAccumulator Tests")
+class UserStatisticsAccumulatorTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 10, 15);
+
+    private static User user(LocalDate birthDate, int score, User.UserStatus status) {
+        User user = new User("user", "user@example.com", birthDate);
+        user.setScore(score);
+        user.setStatus(status);
+        return user;
+    }
+
+    @Test
+    @DisplayName("Should compute all figures in one pass")
+    void shouldComputeAllFigures() {
+        List<User> users = List.of(
+                user(LocalDate.of(1996, 10, 15), 80, User.UserStatus.ACTIVE),   // age 30
+                user(LocalDate.of(2010, 10, 16), 40, User.UserStatus.INACTIVE), // age 15
+                user(LocalDate.of(2000, 1, 1), 75, User.UserStatus.ACTIVE),     // age 26
+                user(null, 0, User.UserStatus.SUSPENDED));                      // age 0
+
+        UserStatisticsAccumulator stats = users.stream()
+                .collect(UserStatisticsAccumulator.collector(TODAY));
+
+        assertEquals(4, stats.getCount());
+        assertEquals(2, stats.getActiveUsers());
+        assertEquals(2, stats.getAdultUsers());
+        assertEquals(2, stats.getPromotableUsers());
+
+        assertEquals(48.75, stats.getAverageScore());
+        assertEquals(0, stats.getMinScore());
+        assertEquals(80, stats.getMaxScore());
+        assertEquals(Math.sqrt((80 * 80 + 40 * 40 + 75 * 75) / 4.0 - 48.75 * 48.75),
+                stats.getScoreStandardDeviation(), 1e-9);
+
+        assertEquals(71 / 4.0, stats.getAverageAge());
+        assertEquals(0, stats.getMinAge());
+        assertEquals(30, stats.getMaxAge());
+        assertEquals(Math.sqrt((30 * 30 + 15 * 15 + 26 * 26) / 4.0 - 17.75 * 17.75),
+                stats.getAgeStandardDeviation(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Should report zeros when empty")
+    void shouldReportZerosWhenEmpty() {
+        UserStatisticsAccumulator stats = new UserStatisticsAccumulator(TODAY);
+
+        assertEquals(0, stats.getCount());
+        assertEquals(0.0, stats.getAverageScore());
+        assertEquals(0, stats.getMinScore());
+        assertEquals(0, stats.getMaxAge());
+        assertEquals(0.0, stats.getScoreStandardDeviation());
+        assertEquals(0, stats.toStatistics().getTotalUsers());
+    }
+
+    @Test
+    @DisplayName("Should give the same result sequentially, merged and in parallel")
+    void shouldGiveSameResultMergedAndInParallel() {
+        Random random = new Random(7);
+        User.UserStatus[] statuses = User.UserStatus.values();
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            users.add(user(TODAY.minusDays(random.nextInt(30_000)), random.nextInt(101),
+                    statuses[random.nextInt(statuses.length)]));
+        }
+
+        UserStatisticsAccumulator sequential = users.stream()
+                .collect(UserStatisticsAccumulator.collector(TODAY));
+        UserStatisticsAccumulator parallel = users.parallelStream()
+                .collect(UserStatisticsAccumulator.collector(TODAY));
+
+        UserStatisticsAccumulator left = new UserStatisticsAccumulator(TODAY);
+        UserStatisticsAccumulator right = new UserStatisticsAccumulator(TODAY);
+        users.subList(0, 1234).forEach(left::accept);
+        users.subList(1234, users.size()).forEach(right::accept);
+        UserStatisticsAccumulator merged = left.combine(right);
+
+        for (UserStatisticsAccumulator other : List.of(parallel, merged)) {
+            assertEquals(sequential.getCount(), other.getCount());
+            assertEquals(sequential.getPromotableUsers(), other.getPromotableUsers());
+            assertEquals(sequential.getAverageAge(), other.getAverageAge());
+            assertEquals(sequential.getMinScore(), other.getMinScore());
+            assertEquals(sequential.getMaxAge(), other.getMaxAge());
+            assertEquals(sequential.getScoreStandardDeviation(), other.getScoreStandardDeviation());
+        }
+    }
+
+    @Test
+    @DisplayName("Should agree with the service's maintained statistics")
+    void shouldAgreeWithMaintainedStatistics() {
+        UserService userService = new UserService();
+        userService.createUser("alice", "alice@example.com", LocalDate.of(1990, 1, 1));
+        userService.createUser("bob", "bob@example.com", LocalDate.of(2012, 5, 5));
+        userService.updateUserScore("alice", 80);
+        userService.updateUserScore("bob", 55);
+
+        UserService.UserStatistics maintained = userService.generateStatistics();
+        UserService.UserStatistics recomputed = userService.recomputeStatistics().toStatistics();
+
+        assertEquals(maintained.getTotalUsers(), recomputed.getTotalUsers());
+        assertEquals(maintained.getActiveUsers(), recomputed.getActiveUsers());
+        assertEquals(maintained.getAdultUsers(), recomputed.getAdultUsers());
+        assertEquals(maintained.getPromotableUsers(), recomputed.getPromotableUsers());
+        assertEquals(maintained.getAverageScore(), recomputed.getAverageScore(), 1e-9);
+        assertEquals(maintained.getAverageAge(), recomputed.getAverageAge(), 1e-9);
+    }
+}
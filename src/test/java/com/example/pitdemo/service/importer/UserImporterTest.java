@@ -0,0 +1,266 @@
+package com.example.pitdemo.service.importer;
+
+import com.example.pitdemo.model.User;
+import com.example.pitdemo.service.UserService;
+import com.example.pitdemo.service.store.InMemoryUserStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the memory-mapped CSV and NDJSON importer.
+ */
+@DisplayName("UserImporter Tests")
+class UserImporterTest {
+
+    @TempDir
+    Path directory;
+
+    private InMemoryUserStore store;
+    private UserService userService;
+
+    @BeforeEach
+    void setUp() {
+        store = new InMemoryUserStore();
+        userService = new UserService(store);
+    }
+
+    private Path write(String name, String content) throws IOException {
+        Path file = directory.resolve(name);
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static List<String> rejections(ImportReport report) {
+        return report.getRejections().stream().map(ImportReport.Rejection::toString).toList();
+    }
+
+    @Test
+    @DisplayName("Should import CSV rows in header column order")
+    void shouldImportCsvWithHeader() throws IOException {
+        Path file = write("users.csv",
+                "BirthDate,Username,Email\n"
+                + "1990-05-01,alice,alice@example.com\n"
+                + "1985-02-03,bob,bob@example.com\n");
+
+        ImportReport report = new UserImporter(userService).importFile(file);
+
+        assertEquals(2, report.getRowsRead());
+        assertEquals(2, report.getCreated());
+        assertEquals(0, report.getRejected());
+        User alice = store.findByUsername("alice");
+        assertEquals("alice@example.com", alice.getEmail());
+        assertEquals(LocalDate.of(1990, 5, 1), alice.getBirthDate());
+        assertEquals("bob@example.com", store.findByUsername("bob").getEmail());
+    }
+
+    @Test
+    @DisplayName("Should treat the first CSV line as data without a header")
+    void shouldImportCsvWithoutHeader() throws IOException {
+        Path file = write("users.csv", "alice,alice@example.com,1990-05-01\r\nbob,bob@example.com,1985-02-03\r\n");
+
+        ImportReport report = new UserImporter(userService).importFile(file);
+
+        assertEquals(2, report.getCreated());
+        assertTrue(store.usernameExists("alice"));
+        assertTrue(store.usernameExists("bob"));
+    }
+
+    @Test
+    @DisplayName("Should unquote CSV fields and skip a byte order mark and blank lines")
+    void shouldUnquoteCsvFields() throws IOException {
+        Path file = write("users.csv",
+                "\uFEFFusername,email,birthDate,note\n"
+                + "\n"
+                + "\"zoë\",\"zoe@example.com\",1990-05-01,\"says \"\"hi\"\", twice\"\n"
+                + "\r\n");
+
+        ImportReport report = new UserImporter(userService).importFile(file);
+
+        assertEquals(1, report.getRowsRead());
+        assertEquals(1, report.getCreated());
+        assertEquals("zoe@example.com", store.findByUsername("zoë").getEmail());
+    }
+
+    @Test
+    @DisplayName("Should reject malformed CSV rows with their line numbers")
+    void shouldRejectMalformedCsvRows() throws IOException {
+        Path file = write("users.csv",
+                "username,email,birthDate\n"
+                + "alice,alice@example.com\n"
+                + "bob,bob@example.com,1990-13-01\n"
+                + "carol,\"carol@example.com,1990-01-01\n"
+                + "dave,\"dave\"@example.com,1990-01-01\n"
+                + "erin,erin@example.com,01/02/1990\n"
+                + "frank,frank@example.com,1990-01-01\n");
+
+        ImportReport report = new UserImporter(userService).importFile(file);
+
+        assertEquals(6, report.getRowsRead());
+        assertEquals(1, report.getCreated());
+        assertEquals(5, report.getRejected());
+        assertEquals(List.of(
+                "line 2: Expected 3 fields but found 2",
+                "line 3: Invalid birth date: 1990-13-01",
+                "line 4: Unterminated quoted field",
+                "line 5: Unexpected character after quoted field",
+                "line 6: Invalid birth date: 01/02/1990"), rejections(report));
+        assertTrue(store.usernameExists("frank"));
+    }
+
+    @Test
+    @DisplayName("Should import NDJSON with escapes, nulls and unknown fields")
+    void shouldImportNdjson() throws IOException {
+        Path file = write("users.ndjson",
+                "{\"username\":\"alice\",\"email\":\"alice@example.com\",\"birthDate\":\"1990-05-01\"}\n"
+                + "{ \"id\" : 7, \"tags\": [\"a\", {\"b\": \"}\"}], \"username\" : \"b\\u00f6b\", "
+                + "\"email\": \"bob@example.com\", \"birthDate\": \"1985-02-03\", \"nickname\": null, \"active\": true }\n"
+                + "{\"email\":\"say\\\"hi\\\"@example.com\",\"username\":\"carol\",\"birthDate\":\"1990-01-01\"}\n"
+                + "{\"username\":\"dave\",\"email\":\"smile\\ud83d\\ude00@example.com\",\"birthDate\":\"1990-01-01\"}\n");
+
+        ImportReport report = new UserImporter(userService).importFile(file);
+
+        assertEquals(4, report.getRowsRead());
+        assertEquals(4, report.getCreated(), rejections(report).toString());
+        assertEquals(LocalDate.of(1990, 5, 1),
+                store.findByUsername("alice").getBirthDate());
+        assertEquals("bob@example.com", store.findByUsername("b\u00f6b").getEmail());
+        assertEquals("say\"hi\"@example.com", store.findByUsername("carol").getEmail());
+        assertEquals("smile\uD83D\uDE00@example.com", store.findByUsername("dave").getEmail());
+    }
+
+    @Test
+    @DisplayName("Should reject malformed NDJSON lines with their line numbers")
+    void shouldRejectMalformedNdjsonLines() throws IOException {
+        Path file = write("users.jsonl",
+                "[1, 2]\n"
+                + "{\"username\": 5}\n"
+                + "{\"username\":\"alice\"\n"
+                + "{\"username\":\"alice\"} trailing\n"
+                + "{\"username\":\"al\\qice\"}\n"
+                + "{\"username\":\"\\ud83d\"}\n"
+                + "{\"username\":\"alice\",\"email\":\"alice@example.com\",\"birthDate\":\"1990-5-1\"}\n"
+                + "{\"username\":\"alice\",\"email\":\"alice@example.com\",\"birthDate\":null}\n");
+
+        ImportReport report = new UserImporter(userService).importFile(file);
+
+        assertEquals(List.of(
+                "line 1: Expected '{'",
+                "line 2: Expected a string",
+                "line 3: Expected '}'",
+                "line 4: Unexpected content after JSON object",
+                "line 5: Invalid escape: \\q",
+                "line 6: Unpaired surrogate escape",
+                "line 7: Invalid birth date: 1990-5-1",
+                "line 8: Birth date cannot be null"), rejections(report));
+        assertEquals(0, report.getCreated());
+    }
+
+    @Test
+    @DisplayName("Should report rows the service rejects, across chunks")
+    void shouldReportServiceRejectionsAcrossChunks() throws IOException {
+        userService.createUser("existing", "existing@example.com", LocalDate.of(1990, 1, 1));
+        Path file = write("users.csv",
+                "alpha,alpha@example.com,1990-01-01\n"
+                + "existing,fresh@example.com,1990-01-01\n"
+                + "bravo,bravo@example.com,1990-01-01\n"
+                + "ALPHA,other@example.com,1990-01-01\n"
+                + "charlie,charlie@example.com,1990-01-01\n"
+                + "delta,Charlie@Example.com,1990-01-01\n"
+                + ",blank@example.com,1990-01-01\n");
+
+        ImportReport report = new UserImporter(userService, 2).importFile(file);
+
+        assertEquals(7, report.getRowsRead());
+        assertEquals(3, report.getCreated());
+        assertEquals(List.of(
+                "line 2: Username already exists: existing",
+                "line 4: Username already exists: ALPHA",
+                "line 6: Duplicate email in batch: Charlie@Example.com",
+                "line 7: Username cannot be null or empty"), rejections(report));
+    }
+
+    @Test
+    @DisplayName("Should carry lines across mapping windows")
+    void shouldReadAcrossWindows() throws IOException {
+        StringBuilder content = new StringBuilder("username,email,birthDate\n");
+        for (char a = 'a'; a <= 'z'; a++) {
+            for (char b = 'a'; b <= 'z'; b++) {
+                content.append("member").append(a).append(b).append(",member").append(a).append(b)
+                        .append("@example.com,1990-01-01\r\n");
+            }
+        }
+        // No trailing newline on the last line
+        content.append("lastone,lastone@example.com,1990-01-01");
+        Path file = write("users.csv", content.toString());
+
+        ImportReport report = new UserImporter(userService, 100, 64).importFile(file);
+
+        assertEquals(26 * 26 + 1, report.getRowsRead());
+        assertEquals(26 * 26 + 1, report.getCreated(), rejections(report).toString());
+        assertTrue(store.usernameExists("memberzz"));
+        assertTrue(store.usernameExists("lastone"));
+    }
+
+    @Test
+    @DisplayName("Should fail on a line longer than the mapping window")
+    void shouldFailOnLineLongerThanWindow() throws IOException {
+        Path file = write("users.csv", "alice,alice@example.com,1990-01-01\nbob,bob@example.com,1990-01-01\n");
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> new UserImporter(userService, 10, 16).importFile(file));
+        assertEquals("Line 1 is longer than 16 bytes", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Should keep only the first rejections but count them all")
+    void shouldBoundRecordedRejections() throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < ImportReport.MAX_RECORDED_REJECTIONS + 50; i++) {
+            content.append("broken\n");
+        }
+        Path file = write("users.csv", content.toString());
+
+        ImportReport report = new UserImporter(userService).importFile(file);
+
+        assertEquals(ImportReport.MAX_RECORDED_REJECTIONS + 50, report.getRejected());
+        assertEquals(ImportReport.MAX_RECORDED_REJECTIONS, report.getRejections().size());
+        assertEquals(1, report.getRejections().get(0).getLine());
+    }
+
+    @Test
+    @DisplayName("Should import an empty file")
+    void shouldImportEmptyFile() throws IOException {
+        ImportReport report = new UserImporter(userService).importFile(write("users.ndjson", ""));
+
+        assertEquals(0, report.getRowsRead());
+        assertEquals(0, report.getCreated());
+    }
+
+    @Test
+    @DisplayName("Should pick the format from the file extension")
+    void shouldPickFormatFromExtension() {
+        assertEquals(ImportFormat.CSV, ImportFormat.fromFileName("Users.CSV"));
+        assertEquals(ImportFormat.NDJSON, ImportFormat.fromFileName("users.ndjson"));
+        assertEquals(ImportFormat.NDJSON, ImportFormat.fromFileName("users.jsonl"));
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> ImportFormat.fromFileName("users.xml"));
+        assertEquals("Unknown import format: users.xml", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Should reject a non-positive chunk size")
+    void shouldRejectNonPositiveChunkSize() {
+        assertThrows(IllegalArgumentException.class, () -> new UserImporter(userService, 0));
+    }
+}
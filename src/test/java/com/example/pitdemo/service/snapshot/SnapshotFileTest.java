@@ -0,0 +1,236 @@
+package com.example.pitdemo.service.snapshot;
+
+import com.example.pitdemo.model.User;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the binary snapshot format.
+ */
+@DisplayName("SnapshotFile Tests")
+class SnapshotFileTest {
+
+    @TempDir
+    Path directory;
+
+    private static UserSnapshot sample() {
+        return UserSnapshot.builder(4)
+                .add("alice", "alice@example.com", LocalDate.of(1990, 5, 1), 85, User.UserStatus.ACTIVE)
+                .add("bob", "bob@example.com", null, -3, null)
+                .add("zoë", "zoë@exämple.org", LocalDate.of(1, 1, 1), Integer.MAX_VALUE, User.UserStatus.SUSPENDED)
+                .add("nodomain", "nodomain", LocalDate.of(2020, 2, 29), 0, User.UserStatus.INACTIVE)
+                .build();
+    }
+
+    private static void assertSameContents(UserSnapshot expected, UserSnapshot actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.getUsername(i), actual.getUsername(i));
+            assertEquals(expected.getEmail(i), actual.getEmail(i));
+            assertEquals(expected.getBirthDate(i), actual.getBirthDate(i));
+            assertEquals(expected.getScore(i), actual.getScore(i));
+            assertEquals(expected.getStatus(i), actual.getStatus(i));
+        }
+    }
+
+    @Test
+    @DisplayName("Should read back exactly what was written")
+    void shouldRoundTrip() throws IOException {
+        Path file = directory.resolve("users.snapshot");
+        UserSnapshot snapshot = sample();
+
+        SnapshotFile.write(snapshot, file);
+
+        assertSameContents(snapshot, SnapshotFile.read(file));
+        assertFalse(Files.exists(directory.resolve("users.snapshot.tmp")));
+    }
+
+    @Test
+    @DisplayName("Should keep the log sequence and read version 1 files as sequence 0")
+    void shouldKeepSequence() throws IOException {
+        Path file = directory.resolve("users.snapshot");
+        UserSnapshot snapshot = UserSnapshot.builder(0).sequence(1L << 40).build();
+        SnapshotFile.write(snapshot, file);
+        assertEquals(1L << 40, SnapshotFile.read(file).getSequence());
+
+        SnapshotFile.write(sample(), file);
+        byte[] bytes = Files.readAllBytes(file);
+        // Version 1 has no sequence: drop its one-byte varint after the version
+        byte[] versionOne = new byte[bytes.length - 1];
+        System.arraycopy(bytes, 0, versionOne, 0, 8);
+        System.arraycopy(bytes, 9, versionOne, 8, bytes.length - 9);
+        ByteBuffer.wrap(versionOne).putInt(4, 1);
+        rewriteChecksum(versionOne);
+        Files.write(file, versionOne);
+
+        UserSnapshot read = SnapshotFile.read(file);
+        assertEquals(0, read.getSequence());
+        assertSameContents(sample(), read);
+        assertThrows(IllegalArgumentException.class, () -> UserSnapshot.builder(0).sequence(-1));
+    }
+
+    @Test
+    @DisplayName("Should round trip an empty snapshot")
+    void shouldRoundTripEmptySnapshot() throws IOException {
+        Path file = directory.resolve("users.snapshot");
+
+        SnapshotFile.write(UserSnapshot.builder(0).build(), file);
+
+        assertEquals(0, SnapshotFile.read(file).size());
+    }
+
+    @Test
+    @DisplayName("Should store shared email domains once")
+    void shouldStoreDomainsOnce() throws IOException {
+        String domain = "a-rather-long-corporate-domain.example.com";
+        UserSnapshot.Builder builder = UserSnapshot.builder(1000);
+        for (int i = 0; i < 1000; i++) {
+            builder.add("user" + i, "user" + i + "@" + domain, LocalDate.of(1990, 1, 1), 50, User.UserStatus.ACTIVE);
+        }
+        Path file = directory.resolve("users.snapshot");
+
+        SnapshotFile.write(builder.build(), file);
+
+        // Each email alone is over 50 bytes; records store only the part before the domain
+        assertTrue(Files.size(file) < 1000 * 30, "size " + Files.size(file));
+        assertEquals("user999@" + domain, SnapshotFile.read(file).getEmail(999));
+    }
+
+    @Test
+    @DisplayName("Should replace an existing snapshot")
+    void shouldReplaceExistingSnapshot() throws IOException {
+        Path file = directory.resolve("users.snapshot");
+        SnapshotFile.write(sample(), file);
+
+        UserSnapshot replacement = UserSnapshot.builder(1)
+                .add("carol", "carol@example.com", LocalDate.of(1985, 3, 3), 10, User.UserStatus.DELETED)
+                .build();
+        SnapshotFile.write(replacement, file);
+
+        assertSameContents(replacement, SnapshotFile.read(file));
+    }
+
+    @Test
+    @DisplayName("Should detect a corrupted snapshot by its checksum")
+    void shouldDetectCorruption() throws IOException {
+        Path file = directory.resolve("users.snapshot");
+        SnapshotFile.write(sample(), file);
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length / 2] ^= 0x40;
+        Files.write(file, bytes);
+
+        IOException exception = assertThrows(IOException.class, () -> SnapshotFile.read(file));
+        assertTrue(exception.getMessage().startsWith("Corrupt snapshot, checksum mismatch"));
+    }
+
+    @Test
+    @DisplayName("Should reject a truncated snapshot")
+    void shouldRejectTruncatedSnapshot() throws IOException {
+        Path file = directory.resolve("users.snapshot");
+        SnapshotFile.write(sample(), file);
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 10));
+
+        assertThrows(IOException.class, () -> SnapshotFile.read(file));
+    }
+
+    @Test
+    @DisplayName("Should reject a file that is not a snapshot")
+    void shouldRejectOtherFiles() throws IOException {
+        Path file = directory.resolve("users.csv");
+        Files.writeString(file, "username,email,birthDate\n");
+
+        IOException exception = assertThrows(IOException.class, () -> SnapshotFile.read(file));
+        assertEquals("Not a user snapshot: " + file, exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Should reject an unknown version")
+    void shouldRejectUnknownVersion() throws IOException {
+        Path file = directory.resolve("users.snapshot");
+        SnapshotFile.write(sample(), file);
+        byte[] bytes = Files.readAllBytes(file);
+        ByteBuffer.wrap(bytes).putInt(4, SnapshotFile.VERSION + 1);
+        rewriteChecksum(bytes);
+        Files.write(file, bytes);
+
+        IOException exception = assertThrows(IOException.class, () -> SnapshotFile.read(file));
+        assertEquals("Unsupported snapshot version: " + (SnapshotFile.VERSION + 1), exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Should reject a record that overruns its length")
+    void shouldRejectRecordOverrun() throws IOException {
+        Path file = directory.resolve("users.snapshot");
+        SnapshotFile.write(UserSnapshot.builder(1)
+                .add("alice", "alice@example.com", LocalDate.of(1990, 5, 1), 85, User.UserStatus.ACTIVE)
+                .build(), file);
+        byte[] bytes = Files.readAllBytes(file);
+        // The record length is the byte after the user count, which follows the one-domain dictionary
+        int recordLength = indexOf(bytes, "example.com".getBytes()) + "example.com".length() + 1;
+        bytes[recordLength]--;
+        rewriteChecksum(bytes);
+        Files.write(file, bytes);
+
+        IOException exception = assertThrows(IOException.class, () -> SnapshotFile.read(file));
+        assertEquals("Corrupt snapshot: " + file, exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Should encode variable-length integers")
+    void shouldEncodeVarints() throws IOException {
+        long[] values = {0, 1, -1, 63, -64, 64, 127, 128, 16383, 16384, Integer.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE};
+        for (long value : values) {
+            long zigZag = SnapshotFile.zigZag(value);
+            assertEquals(value, SnapshotFile.unZigZag(zigZag));
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            SnapshotFile.writeVarLong(new DataOutputStream(bytes), zigZag);
+            assertEquals(SnapshotFile.varLength(zigZag), bytes.size());
+            assertEquals(zigZag, SnapshotFile.readVarLong(ByteBuffer.wrap(bytes.toByteArray())));
+        }
+        assertEquals(1, SnapshotFile.varLength(SnapshotFile.zigZag(-64)));
+        assertEquals(2, SnapshotFile.varLength(SnapshotFile.zigZag(64)));
+    }
+
+    @Test
+    @DisplayName("Should not accept users without username or email")
+    void shouldRejectMissingKeys() {
+        UserSnapshot.Builder builder = UserSnapshot.builder(1);
+        assertThrows(IllegalArgumentException.class,
+                () -> builder.add(null, "a@example.com", null, 0, User.UserStatus.ACTIVE));
+        assertThrows(IllegalArgumentException.class,
+                () -> builder.add("alice", null, null, 0, User.UserStatus.ACTIVE));
+    }
+
+    private static void rewriteChecksum(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length - 4);
+        ByteBuffer.wrap(bytes).putInt(bytes.length - 4, (int) crc.getValue());
+    }
+
+    private static int indexOf(byte[] bytes, byte[] pattern) {
+        outer:
+        for (int i = 0; i <= bytes.length - pattern.length; i++) {
+            for (int j = 0; j < pattern.length; j++) {
+                if (bytes[i + j] != pattern[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+}
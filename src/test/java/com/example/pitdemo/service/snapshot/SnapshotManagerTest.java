@@ -0,0 +1,335 @@
+package com.example.pitdemo.service.snapshot;
+
+import com.example.pitdemo.model.User;
+import com.example.pitdemo.service.BulkCreateReport;
+import com.example.pitdemo.service.NewUser;
+import com.example.pitdemo.service.UserService;
+import com.example.pitdemo.service.store.ColumnarUserStore;
+import com.example.pitdemo.service.store.InMemoryUserStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for taking, writing and restoring snapshots of a user service.
+ */
+@DisplayName("SnapshotManager Tests")
+class SnapshotManagerTest {
+
+    @TempDir
+    Path directory;
+
+    private Path file;
+    private UserService userService;
+
+    @BeforeEach
+    void setUp() {
+        file = directory.resolve("users.snapshot");
+        userService = new UserService();
+        userService.createUser("alice", "alice@example.com", LocalDate.now().minusYears(30));
+        userService.createUser("teenager", "teen@example.com", LocalDate.now().minusYears(15));
+        userService.createUser("carol", "carol@example.com", LocalDate.now().minusYears(40));
+        userService.updateUserScore("alice", 85);
+        userService.updateUserScore("carol", 5);
+    }
+
+    @Test
+    @DisplayName("Should restore users and rebuild indexes in a new service")
+    void shouldRestoreIntoNewService() throws Exception {
+        SnapshotManager snapshots = new SnapshotManager(userService, file);
+        assertEquals(3, snapshots.snapshotAsync().get());
+
+        UserService restoredService = new UserService();
+        assertEquals(3, new SnapshotManager(restoredService, file).restore());
+
+        assertUsersEqual(userService.getAllUsers(), restoredService.getAllUsers());
+        assertEquals(User.UserStatus.SUSPENDED, restoredService.getAllUsers().get(2).getStatus());
+        assertEquals(2, restoredService.countUsersByAgeRange(18, 100));
+        assertEquals(1, restoredService.findUsersByAgeRange(0, 17).size());
+        assertEquals(1, restoredService.generateStatistics().getPromotableUsers());
+        assertThrows(IllegalArgumentException.class,
+                () -> restoredService.createUser("ALICE", "new@example.com", LocalDate.of(1990, 1, 1)));
+
+        // Restored users stay wired to the indexes
+        restoredService.updateUserScore("teenager", 60);
+        assertEquals(2, restoredService.generateStatistics().getActiveUsers());
+    }
+
+    @Test
+    @DisplayName("Should restore into a columnar store")
+    void shouldRestoreIntoColumnarStore() throws Exception {
+        SnapshotFile.write(userService.snapshot(), file);
+
+        UserService restoredService = new UserService(new ColumnarUserStore());
+        new SnapshotManager(restoredService, file).restore();
+
+        assertUsersEqual(userService.getAllUsers(), restoredService.getAllUsers());
+        assertEquals(2, restoredService.countUsersByAgeRange(18, 100));
+    }
+
+    @Test
+    @DisplayName("Should replace existing users on restore")
+    void shouldReplaceUsersOnRestore() throws Exception {
+        SnapshotFile.write(userService.snapshot(), file);
+        UserService restoredService = new UserService();
+        restoredService.createUser("stale", "stale@example.com", LocalDate.of(1990, 1, 1));
+
+        new SnapshotManager(restoredService, file).restore();
+
+        assertEquals(3, restoredService.getAllUsers().size());
+        assertEquals(0, restoredService.getAllUsers().stream().filter(u -> u.getUsername().equals("stale")).count());
+    }
+
+    @Test
+    @DisplayName("Should restore nothing when there is no snapshot yet")
+    void shouldRestoreNothingWithoutSnapshot() throws IOException {
+        assertEquals(0, new SnapshotManager(userService, file).restore());
+        assertEquals(3, userService.getAllUsers().size());
+    }
+
+    @Test
+    @DisplayName("Should write a final snapshot on close and refuse work afterwards")
+    void shouldWriteSnapshotOnClose() throws IOException {
+        SnapshotManager snapshots = new SnapshotManager(userService, file);
+        snapshots.scheduleEvery(Duration.ofHours(1));
+
+        snapshots.close();
+
+        assertEquals(3, SnapshotFile.read(file).size());
+        assertThrows(IllegalStateException.class, snapshots::snapshotAsync);
+        snapshots.close();
+    }
+
+    @Test
+    @DisplayName("Should write snapshots on a schedule")
+    void shouldWriteOnSchedule() throws Exception {
+        SnapshotManager snapshots = new SnapshotManager(userService, file);
+        snapshots.scheduleEvery(Duration.ofMillis(10));
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!Files.exists(file) && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        snapshots.close();
+
+        assertTrue(Files.exists(file));
+    }
+
+    @Test
+    @DisplayName("Should keep the schedule running after a snapshot fails unexpectedly")
+    void shouldKeepScheduleAfterUnexpectedFailure() throws Exception {
+        WriteAheadLog log = new WriteAheadLog(directory.resolve("wal"), FsyncPolicy.PER_BATCH, null);
+        log.close();
+        // Each snapshot is written, then checkpointing the closed log throws
+        SnapshotManager snapshots = new SnapshotManager(userService, file, log);
+        snapshots.scheduleEvery(Duration.ofMillis(10));
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        for (int run = 0; run < 2; run++) {
+            while (!Files.exists(file) && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            assertTrue(Files.deleteIfExists(file), "Run " + run);
+        }
+        assertThrows(IllegalStateException.class, snapshots::close);
+    }
+
+    @Test
+    @DisplayName("Should report a failed write through the future")
+    void shouldReportFailedWrite() {
+        SnapshotManager snapshots = new SnapshotManager(userService, directory.resolve("missing").resolve("users.snapshot"));
+
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> snapshots.snapshotAsync().get());
+        assertInstanceOf(IOException.class, exception.getCause().getCause());
+    }
+
+    @Test
+    @DisplayName("Should recover changes logged after the last snapshot")
+    void shouldReplayLogAfterSnapshot() throws Exception {
+        Path logDirectory = directory.resolve("wal");
+        UserService service = new UserService();
+        try (WriteAheadLog log = new WriteAheadLog(logDirectory, FsyncPolicy.PER_BATCH, null)) {
+            SnapshotManager snapshots = new SnapshotManager(service, file, log);
+            snapshots.restore();
+            service.createUser("alice", "alice@example.com", LocalDate.now().minusYears(30));
+            service.updateUserScore("alice", 85);
+            snapshots.snapshotAsync().get();
+
+            service.createUser("bob", "bob@example.com", LocalDate.now().minusYears(20));
+            service.updateUserScore("alice", 5);
+            service.createUsers(List.of(new NewUser("carol", "carol@example.com", LocalDate.now().minusYears(40))));
+            // Crash: no final snapshot
+        }
+
+        UserService recovered = new UserService();
+        try (WriteAheadLog log = new WriteAheadLog(logDirectory, FsyncPolicy.PER_BATCH, null)) {
+            assertEquals(1, new SnapshotManager(recovered, file, log).restore());
+
+            assertUsersEqual(service.getAllUsers(), recovered.getAllUsers());
+            assertEquals(User.UserStatus.SUSPENDED, recovered.getAllUsers().get(0).getStatus());
+            assertEquals(2, recovered.generateStatistics().getActiveUsers());
+
+            // The recovered service logs its own changes
+            recovered.updateUserScore("bob", 70);
+            assertEquals(SnapshotFile.read(file).getSequence() + 4, log.lastSequence());
+        }
+    }
+
+    @Test
+    @DisplayName("Should replay a clear and the users created after it")
+    void shouldReplayClear() throws Exception {
+        Path logDirectory = directory.resolve("wal");
+        try (WriteAheadLog log = new WriteAheadLog(logDirectory, FsyncPolicy.PER_OPERATION, null)) {
+            SnapshotManager snapshots = new SnapshotManager(userService, file, log);
+            snapshots.snapshotAsync().get();
+            snapshots.restore();
+            userService.clearUsers();
+            userService.createUser("dave", "dave@example.com", LocalDate.now().minusYears(50));
+        }
+
+        UserService recovered = new UserService();
+        try (WriteAheadLog log = new WriteAheadLog(logDirectory, FsyncPolicy.PER_OPERATION, null)) {
+            assertEquals(3, new SnapshotManager(recovered, file, log).restore());
+        }
+
+        assertUsersEqual(userService.getAllUsers(), recovered.getAllUsers());
+        assertEquals(1, recovered.getAllUsers().size());
+    }
+
+    @Test
+    @DisplayName("Should let the log drop segments covered by a snapshot")
+    void shouldCheckpointLogAfterSnapshot() throws Exception {
+        Path logDirectory = directory.resolve("wal");
+        try (WriteAheadLog log = new WriteAheadLog(logDirectory, FsyncPolicy.PER_BATCH, null)) {
+            SnapshotManager snapshots = new SnapshotManager(userService, file, log);
+            snapshots.restore();
+            userService.updateUserScore("alice", 90);
+            userService.updateUserScore("carol", 60);
+
+            snapshots.close();
+
+            assertEquals(2, SnapshotFile.read(file).getSequence());
+            assertEquals(0, log.replay(0, record -> fail("Covered by the snapshot: " + record)));
+        }
+    }
+
+    @Test
+    @DisplayName("Should leave users unchanged when the log refuses a change")
+    void shouldNotApplyChangesTheLogRefuses() throws Exception {
+        UserService columnar = new UserService(new ColumnarUserStore());
+        columnar.createUser("alice", "alice@example.com", LocalDate.now().minusYears(30));
+        WriteAheadLog log = new WriteAheadLog(directory.resolve("wal"), FsyncPolicy.PER_OPERATION, null);
+        userService.setWriteAheadLog(log);
+        columnar.setWriteAheadLog(log);
+        String before = userService.getAllUsers().toString();
+        log.close();
+
+        assertThrows(IllegalStateException.class, () -> userService.updateUserScore("alice", 20));
+        assertThrows(IllegalStateException.class, () -> columnar.updateUserScore("alice", 60));
+        assertThrows(IllegalStateException.class,
+                () -> userService.createUser("dave", "dave@example.com", LocalDate.now().minusYears(50)));
+        assertThrows(IllegalStateException.class, () -> userService.createUsers(
+                List.of(new NewUser("erin", "erin@example.com", LocalDate.now().minusYears(20)))));
+        assertThrows(IllegalStateException.class, userService::clearUsers);
+
+        assertEquals(before, userService.getAllUsers().toString());
+        assertEquals(0, columnar.getAllUsers().get(0).getScore());
+        assertEquals(3, userService.generateStatistics().getTotalUsers());
+        assertEquals(1, userService.generateStatistics().getActiveUsers());
+    }
+
+    @Test
+    @DisplayName("Should not log users the store cannot hold")
+    void shouldNotLogUsersTheStoreRefuses() throws Exception {
+        UserService columnar = new UserService(new ColumnarUserStore());
+        try (WriteAheadLog log = new WriteAheadLog(directory.resolve("wal"), FsyncPolicy.PER_OPERATION, null)) {
+            columnar.setWriteAheadLog(log);
+
+            assertThrows(IllegalArgumentException.class,
+                    () -> columnar.createUser("methuselah", "old@example.com", LocalDate.MIN));
+            BulkCreateReport report = columnar.createUsers(List.of(
+                    new NewUser("ancient", "ancient@example.com", LocalDate.MIN),
+                    new NewUser("bob", "bob@example.com", LocalDate.now().minusYears(20))));
+
+            assertEquals(1, report.getCreatedCount());
+            assertTrue(report.getRows().get(0).getError().startsWith("Birth date out of range"));
+            assertEquals(1, log.lastSequence());
+            assertEquals(1, log.replay(0, record -> assertEquals("bob", record.getUsername())));
+        }
+    }
+
+    @Test
+    @DisplayName("Should snapshot exactly the changes applied up to its sequence")
+    void shouldNotSnapshotLoggedChangesNotYetApplied() throws Exception {
+        CountDownLatch adding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        UserService service = new UserService(new InMemoryUserStore() {
+            @Override
+            public void add(User user) {
+                adding.countDown();
+                awaitQuietly(release);
+                super.add(user);
+            }
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try (WriteAheadLog log = new WriteAheadLog(directory.resolve("wal"), FsyncPolicy.PER_BATCH, null)) {
+            service.setWriteAheadLog(log);
+            Future<?> create = executor.submit(
+                    () -> service.createUser("dave", "dave@example.com", LocalDate.now().minusYears(50)));
+            assertTrue(adding.await(5, TimeUnit.SECONDS));
+            Future<UserSnapshot> snapshot = executor.submit(service::snapshot);
+
+            assertThrows(TimeoutException.class, () -> snapshot.get(100, TimeUnit.MILLISECONDS));
+            release.countDown();
+            create.get(5, TimeUnit.SECONDS);
+
+            assertEquals(1, snapshot.get(5, TimeUnit.SECONDS).getSequence());
+            assertEquals("dave", snapshot.get().getUsername(0));
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject invalid arguments")
+    void shouldRejectInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new SnapshotManager(null, file));
+        assertThrows(IllegalArgumentException.class, () -> new SnapshotManager(userService, null));
+        SnapshotManager snapshots = new SnapshotManager(userService, file);
+        assertThrows(IllegalArgumentException.class, () -> snapshots.scheduleEvery(Duration.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> userService.restore(null));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void assertUsersEqual(List<User> expected, List<User> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).toString(), actual.get(i).toString());
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package com.example.pitdemo.service.snapshot;
+
+import com.example.pitdemo.model.User;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for appending, syncing, replaying and checkpointing the write-ahead log.
+ */
+@DisplayName("WriteAheadLog Tests")
+class WriteAheadLogTest {
+
+    @TempDir
+    Path directory;
+
+    private static WalRecord put(String username, int score) {
+        User user = new User(username, username + "@example.com", LocalDate.of(1990, 5, 1));
+        user.setScore(score);
+        user.setStatus(User.UserStatus.ACTIVE);
+        return WalRecord.put(user);
+    }
+
+    private static List<WalRecord> replayAll(WriteAheadLog log, long afterSequence) throws IOException {
+        List<WalRecord> records = new ArrayList<>();
+        log.replay(afterSequence, records::add);
+        return records;
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"PER_OPERATION", "PER_BATCH", "INTERVAL"})
+    @DisplayName("Should replay what was appended after reopening")
+    void shouldReplayAfterReopening(FsyncPolicy policy) throws IOException {
+        try (WriteAheadLog log = new WriteAheadLog(directory, policy, Duration.ofMillis(10))) {
+            assertEquals(1, log.append(put("alice", 85)));
+            User bob = new User("bob", "zoë@exämple.org", null);
+            bob.setScore(-3);
+            bob.setStatus(null);
+            assertEquals(2, log.append(WalRecord.put(bob)));
+            assertEquals(3, log.append(WalRecord.clear()));
+            log.sync(3);
+        }
+
+        try (WriteAheadLog log = new WriteAheadLog(directory, policy, Duration.ofMillis(10))) {
+            List<WalRecord> records = replayAll(log, 0);
+
+            assertEquals(3, records.size());
+            WalRecord alice = records.get(0);
+            assertEquals(1, alice.getSequence());
+            assertEquals(WalRecord.Type.PUT, alice.getType());
+            assertEquals("alice", alice.getUsername());
+            assertEquals("alice@example.com", alice.getEmail());
+            assertEquals(LocalDate.of(1990, 5, 1), alice.getBirthDate());
+            assertEquals(85, alice.getScore());
+            assertEquals(User.UserStatus.ACTIVE, alice.getStatus());
+            WalRecord bob = records.get(1);
+            assertEquals("zoë@exämple.org", bob.getEmail());
+            assertNull(bob.getBirthDate());
+            assertEquals(-3, bob.getScore());
+            assertNull(bob.getStatus());
+            assertEquals(WalRecord.Type.CLEAR, records.get(2).getType());
+            assertEquals(3, log.lastSequence());
+            assertEquals(4, log.append(put("carol", 1)));
+        }
+    }
+
+    @Test
+    @DisplayName("Should replay only records after the given sequence")
+    void shouldReplayAfterSequence() throws IOException {
+        try (WriteAheadLog log = new WriteAheadLog(directory, FsyncPolicy.PER_OPERATION, null)) {
+            for (int i = 0; i < 5; i++) {
+                log.append(put("user" + i, i));
+            }
+
+            assertEquals(List.of("user3", "user4"),
+                    replayAll(log, 3).stream().map(WalRecord::getUsername).toList());
+            assertEquals(0, log.replay(5, record -> fail("Nothing to replay")));
+        }
+    }
+
+    @Test
+    @DisplayName("Should drop a torn last record when reopened")
+    void shouldTruncateTornRecord() throws IOException {
+        try (WriteAheadLog log = new WriteAheadLog(directory, FsyncPolicy.PER_OPERATION, null)) {
+            log.append(put("alice", 1));
+            log.append(put("bob", 2));
+        }
+        Path segment = segments().get(0);
+        long intact = Files.size(segment);
+        // A crash in the middle of the third record leaves half a frame behind
+        Files.write(segment, new byte[] {0, 0, 0, 40, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        try (WriteAheadLog log = new WriteAheadLog(directory, FsyncPolicy.PER_OPERATION, null)) {
+            assertEquals(intact, Files.size(segment));
+            assertEquals(2, log.lastSequence());
+            assertEquals(3, log.append(put("carol", 3)));
+        }
+        try (WriteAheadLog log = new WriteAheadLog(directory, FsyncPolicy.PER_OPERATION, null)) {
+            assertEquals(List.of("alice", "bob", "carol"),
+                    replayAll(log, 0).stream().map(WalRecord::getUsername).toList());
+        }
+    }
+
+    @Test
+    @DisplayName("Should drop a last record whose checksum does not match")
+    void shouldTruncateRecordWithBadChecksum() throws IOException {
+        try (WriteAheadLog log = new WriteAheadLog(directory, FsyncPolicy.PER_OPERATION, null)) {
+            log.append(put("alice", 1));
+            log.append(put("bob", 2));
+        }
+        Path segment = segments().get(0);
+        byte[] bytes = Files.readAllBytes(segment);
+        bytes[bytes.length - 2] ^= 0x01;
+        Files.write(segment, bytes);
+
+        try (WriteAheadLog log = new WriteAheadLog(directory, FsyncPolicy.PER_OPERATION, null)) {
+            assertEquals(List.of("alice"), replayAll(log, 0).stream().map(WalRecord::getUsername).toList());
+        }
+    }
+
+    @Test
+    @DisplayName("Should roll segments at the size limit and fail on corruption in an older one")
+    void shouldRollSegments() throws IOException {
+        try (WriteAheadLog log = new WriteAheadLog(directory, FsyncPolicy.PER_OPERATION, null, 200)) {
+            for (int i = 0; i < 20; i++) {
+                log.append(put("user" + i, i));
+            }
+            assertTrue(segments().size() > 2, "segments " + segments());
+            assertEquals(20, replayAll(log, 0).size());
+            assertEquals(List.of("user18", "user19"),
+                    replayAll(log, 18).stream().map(WalRecord::getUsername).toList());
+        }
+
+        Path first = segments().get(0);
+        assertEquals(WriteAheadLog.segmentName(1), first.getFileName().toString());
+        byte[] bytes = Files.readAllBytes(first);
+        bytes[bytes.length - 2] ^= 0x01;
+        Files.write(first, bytes);
+        try (WriteAheadLog log = new WriteAheadLog(directory, FsyncPolicy.PER_OPERATION, null, 200)) {
+            IOException exception = assertThrows(IOException.class, () -> replayAll(log, 0));
+            assertEquals("Corrupt write-ahead log segment: " + first, exception.getMessage());
+        }
+    }
+
+    @Test
+    @DisplayName("Should delete the segments a checkpoint covers and keep numbering")
+    void shouldCheckpoint() throws IOException {
+        try (WriteAheadLog log = new WriteAheadLog(directory, FsyncPolicy.PER_BATCH, null)) {
+            log.append(put("alice", 1));
+            log.sync(log.append(put("bob", 2)));
+
+            log.checkpoint(2);
+            assertEquals(List.of(directory.resolve(WriteAheadLog.segmentName(3))), segments());
+
+            log.sync(log.append(put("carol", 3)));
+            // Carol's segment is not covered, so it stays next to the new one
+            log.checkpoint(2);
+            assertEquals(List.of(directory.resolve(WriteAheadLog.segmentName(3)),
+                    directory.resolve(WriteAheadLog.segmentName(4))), segments());
+        }
+
+        try (WriteAheadLog log = new WriteAheadLog(directory, FsyncPolicy.PER_BATCH, null)) {
+            List<WalRecord> records = replayAll(log, 2);
+            assertEquals(1, records.size());
+            assertEquals(3, records.get(0).getSequence());
+            assertEquals(4, log.append(put("dave", 4)));
+        }
+    }
+
+    @Test
+    @DisplayName("Should continue numbering after a snapshot when the log is empty")
+    void shouldSkipToSnapshotSequence() throws IOException {
+        try (WriteAheadLog log = new WriteAheadLog(directory, FsyncPolicy.PER_BATCH, null)) {
+            log.skipTo(41);
+            log.skipTo(7);
+
+            assertEquals(41, log.lastSequence());
+            long sequence = log.append(put("alice", 1));
+            assertEquals(42, sequence);
+            log.sync(sequence);
+        }
+        try (WriteAheadLog log = new WriteAheadLog(directory, FsyncPolicy.PER_BATCH, null)) {
+            assertEquals(42, log.lastSequence());
+        }
+    }
+
+    @Test
+    @DisplayName("Should sync records appended concurrently in shared batches")
+    void shouldGroupCommitConcurrentAppends() throws Exception {
+        int threads = 8;
+        int perThread = 200;
+        try (WriteAheadLog log = new WriteAheadLog(directory, FsyncPolicy.PER_BATCH, null)) {
+            List<Thread> writers = new ArrayList<>();
+            List<Throwable> failures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int id = t;
+                writers.add(new Thread(() -> {
+                    try {
+                        for (int i = 0; i < perThread; i++) {
+                            log.sync(log.append(put("user" + id + "x" + i, i)));
+                        }
+                    } catch (Throwable e) {
+                        synchronized (failures) {
+                            failures.add(e);
+                        }
+                    }
+                }));
+            }
+            writers.forEach(Thread::start);
+            for (Thread writer : writers) {
+                writer.join();
+            }
+            assertEquals(List.of(), failures);
+        }
+
+        try (WriteAheadLog log = new WriteAheadLog(directory, FsyncPolicy.PER_BATCH, null)) {
+            List<WalRecord> records = replayAll(log, 0);
+            assertEquals(threads * perThread, records.size());
+            Set<String> usernames = new HashSet<>();
+            for (int i = 0; i < records.size(); i++) {
+                assertEquals(i + 1, records.get(i).getSequence());
+                usernames.add(records.get(i).getUsername());
+            }
+            assertEquals(threads * perThread, usernames.size());
+        }
+    }
+
+    @Test
+    @DisplayName("Should write buffered records on close and refuse appends afterwards")
+    void shouldFlushOnClose() throws IOException {
+        WriteAheadLog log = new WriteAheadLog(directory, FsyncPolicy.PER_BATCH, null);
+        log.append(put("alice", 1));
+        log.close();
+        log.close();
+
+        assertThrows(IllegalStateException.class, () -> log.append(put("bob", 2)));
+        try (WriteAheadLog reopened = new WriteAheadLog(directory, FsyncPolicy.PER_BATCH, null)) {
+            assertEquals(1, replayAll(reopened, 0).size());
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject a directory holding something other than a log")
+    void shouldRejectForeignSegment() throws IOException {
+        Files.writeString(directory.resolve(WriteAheadLog.segmentName(1)), "username,email\nalice,a@example.com\n");
+
+        IOException exception = assertThrows(IOException.class,
+                () -> new WriteAheadLog(directory, FsyncPolicy.PER_BATCH, null));
+        assertTrue(exception.getMessage().startsWith("Not a write-ahead log segment"));
+    }
+
+    @Test
+    @DisplayName("Should reject invalid arguments")
+    void shouldRejectInvalidArguments() throws IOException {
+        assertThrows(IllegalArgumentException.class, () -> new WriteAheadLog(null, FsyncPolicy.PER_BATCH, null));
+        assertThrows(IllegalArgumentException.class, () -> new WriteAheadLog(directory, null, null));
+        assertThrows(IllegalArgumentException.class, () -> new WriteAheadLog(directory, FsyncPolicy.INTERVAL, null));
+        assertThrows(IllegalArgumentException.class,
+                () -> new WriteAheadLog(directory, FsyncPolicy.INTERVAL, Duration.ZERO));
+        try (WriteAheadLog log = new WriteAheadLog(directory, FsyncPolicy.PER_BATCH, null)) {
+            assertThrows(IllegalArgumentException.class, () -> log.append(null));
+            assertThrows(IllegalArgumentException.class, () -> log.sync(1));
+        }
+        assertThrows(IllegalArgumentException.class,
+                () -> WalRecord.put(new User(null, "a@example.com", null)));
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.pitdemo.service.store;
+
+import com.example.pitdemo.model.User;
+import com.example.pitdemo.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that birth date range scans return exactly the users a per-user
+ * Period check would, including leap days, missing and future birth dates.
+ */
+@DisplayName("BirthDateIndex Tests")
+class BirthDateIndexTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 2, 28);
+
+    private BirthDateIndex index;
+    private List<User> users;
+
+    @BeforeEach
+    void setUp() {
+        index = new BirthDateIndex();
+        users = new ArrayList<>();
+    }
+
+    private User add(LocalDate birthDate) {
+        User user = new User("user" + users.size(), "user" + users.size() + "@example.com", birthDate);
+        users.add(user);
+        index.userAdded(user, UserState.of(user));
+        return user;
+    }
+
+    private List<User> expected(int minAge, int maxAge, LocalDate today) {
+        List<User> matches = new ArrayList<>();
+        for (User user : users) {
+            int age = user.getBirthDate() == null ? 0 : Period.between(user.getBirthDate(), today).getYears();
+            if (age >= minAge && age <= maxAge) {
+                matches.add(user);
+            }
+        }
+        return matches;
+    }
+
+    private void assertRange(int minAge, int maxAge, LocalDate today) {
+        List<User> expected = expected(minAge, maxAge, today);
+        List<User> actual = index.find(minAge, maxAge, today);
+
+        assertEquals(new HashSet<>(expected), new HashSet<>(actual), minAge + ".." + maxAge + " on " + today);
+        assertEquals(expected.size(), actual.size());
+        assertEquals(expected.size(), index.count(minAge, maxAge, today));
+    }
+
+    @Test
+    @DisplayName("Should include both age boundaries")
+    void shouldIncludeBothBoundaries() {
+        User justEighteen = add(LocalDate.of(2008, 2, 28));
+        User almostEighteen = add(LocalDate.of(2008, 2, 29));
+        User thirty = add(LocalDate.of(1995, 6, 1));
+        User justThirtyOne = add(LocalDate.of(1995, 2, 28));
+
+        assertEquals(List.of(thirty, justEighteen), index.find(18, 30, TODAY));
+        assertEquals(List.of(almostEighteen), index.find(17, 17, TODAY));
+        assertEquals(List.of(justThirtyOne), index.find(31, 31, TODAY));
+        assertEquals(0, index.count(40, 60, TODAY));
+    }
+
+    @Test
+    @DisplayName("Should treat missing and near-future birth dates as age 0")
+    void shouldTreatMissingAndNearFutureBirthDatesAsAgeZero() {
+        add(null);
+        add(TODAY);
+        add(TODAY.plusMonths(6));
+        add(TODAY.plusYears(2));
+
+        assertRange(0, 0, TODAY);
+        assertRange(0, 5, TODAY);
+        assertRange(1, 5, TODAY);
+        assertEquals(3, index.count(0, 0, TODAY));
+    }
+
+    @Test
+    @DisplayName("Should handle extreme age bounds")
+    void shouldHandleExtremeAgeBounds() {
+        add(LocalDate.of(1900, 1, 1));
+        add(LocalDate.of(2000, 1, 1));
+
+        assertRange(0, Integer.MAX_VALUE, TODAY);
+        assertRange(Integer.MAX_VALUE, Integer.MAX_VALUE, TODAY);
+        assertRange(100, Integer.MAX_VALUE, TODAY);
+    }
+
+    @Test
+    @DisplayName("Should follow birth date changes")
+    void shouldFollowBirthDateChanges() {
+        User user = add(LocalDate.of(1990, 1, 1));
+
+        UserState before = UserState.of(user);
+        user.setBirthDate(LocalDate.of(2015, 1, 1));
+        index.userChanged(user, before, UserState.of(user));
+        assertRange(0, 100, TODAY);
+        assertEquals(List.of(user), index.find(11, 11, TODAY));
+
+        before = UserState.of(user);
+        user.setBirthDate(null);
+        index.userChanged(user, before, UserState.of(user));
+        assertEquals(List.of(user), index.find(0, 0, TODAY));
+
+        index.cleared();
+        assertEquals(0, index.count(0, Integer.MAX_VALUE, TODAY));
+    }
+
+    @Test
+    @DisplayName("Should match a per-user Period check for random populations")
+    void shouldMatchPeriodForRandomPopulations() {
+        Random random = new Random(3);
+        for (int i = 0; i < 2000; i++) {
+            add(TODAY.minusDays(random.nextInt(100 * 365) - 400));
+        }
+
+        for (int i = 0; i < 200; i++) {
+            int minAge = random.nextInt(90);
+            int maxAge = minAge + random.nextInt(30);
+            assertRange(minAge, maxAge, TODAY.plusDays(random.nextInt(800)));
+        }
+    }
+
+    @Test
+    @DisplayName("Should return users oldest first")
+    void shouldReturnUsersOldestFirst() {
+        Random random = new Random(5);
+        for (int i = 0; i < 100; i++) {
+            add(TODAY.minusDays(random.nextInt(50 * 365)));
+        }
+
+        List<User> found = index.find(0, 200, TODAY);
+        List<User> sorted = new ArrayList<>(found);
+        sorted.sort(Comparator.comparing(User::getBirthDate));
+        assertEquals(sorted, found);
+    }
+
+    @Test
+    @DisplayName("Should count users by age range through the service")
+    void shouldCountUsersThroughService() {
+        UserService userService = new UserService();
+        userService.createUser("adult", "adult@example.com", LocalDate.now().minusYears(30));
+        userService.createUser("teen", "teen@example.com", LocalDate.now().minusYears(15));
+
+        assertEquals(1, userService.countUsersByAgeRange(18, 65));
+        assertEquals(2, userService.countUsersByAgeRange(0, 120));
+        assertThrows(IllegalArgumentException.class, () -> userService.countUsersByAgeRange(30, 20));
+        assertThrows(IllegalArgumentException.class, () -> userService.countUsersByAgeRange(-1, 20));
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.pitdemo.service.store;
+
+import com.example.pitdemo.model.User;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the queue of upcoming threshold birthdays.
+ */
+@DisplayName("BirthdayQueue Tests")
+class BirthdayQueueTest {
+
+    private static final long TODAY = LocalDate.of(2026, 2, 20).toEpochDay();
+
+    private static User user(String name, LocalDate birthDate) {
+        return new User(name, name + "@example.com", birthDate);
+    }
+
+    private static List<String> pollDue(BirthdayQueue queue, LocalDate day) {
+        List<String> due = new ArrayList<>();
+        queue.pollDue(day.toEpochDay(), (user, state) -> due.add(user.getUsername()));
+        return due;
+    }
+
+    @Test
+    @DisplayName("Should hand out users on their next threshold birthday, in birthday order")
+    void shouldPollInBirthdayOrder() {
+        BirthdayQueue queue = new BirthdayQueue(18, 25);
+        User later = user("later", LocalDate.of(2008, 3, 10));
+        User sooner = user("sooner", LocalDate.of(2008, 3, 1));
+        User senior = user("senior", LocalDate.of(2001, 2, 25));
+        User old = user("old", LocalDate.of(1970, 1, 1));
+        for (User user : List.of(later, sooner, senior, old, user("undated", null))) {
+            queue.add(user, UserState.of(user), TODAY);
+        }
+
+        assertEquals(3, queue.size());
+        assertEquals(List.of(), pollDue(queue, LocalDate.of(2026, 2, 24)));
+        assertEquals(List.of("senior", "sooner"), pollDue(queue, LocalDate.of(2026, 3, 1)));
+        assertEquals(List.of("later"), pollDue(queue, LocalDate.of(2040, 1, 1)));
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    @DisplayName("Should skip removed users and replace the entry of a re-added one")
+    void shouldSkipRemovedAndReplacedEntries() {
+        BirthdayQueue queue = new BirthdayQueue(18, 25);
+        User removed = user("removed", LocalDate.of(2008, 3, 1));
+        User moved = user("moved", LocalDate.of(2008, 3, 1));
+        queue.add(removed, UserState.of(removed), TODAY);
+        queue.add(moved, UserState.of(moved), TODAY);
+
+        queue.remove(removed);
+        moved.setBirthDate(LocalDate.of(2008, 6, 1));
+        queue.add(moved, UserState.of(moved), TODAY);
+
+        List<UserState> states = new ArrayList<>();
+        queue.pollDue(LocalDate.of(2026, 3, 1).toEpochDay(), (user, state) -> fail("Stale entry"));
+        queue.pollDue(LocalDate.of(2026, 6, 1).toEpochDay(), (user, state) -> states.add(state));
+        assertEquals(List.of(UserState.of(moved)), states);
+    }
+
+    @Test
+    @DisplayName("Should let the action queue users for their next threshold")
+    void shouldRequeueFromAction() {
+        BirthdayQueue queue = new BirthdayQueue(18, 25);
+        User user = user("user", LocalDate.of(2008, 2, 29));
+        queue.add(user, UserState.of(user), TODAY);
+
+        long adulthood = LocalDate.of(2026, 3, 1).toEpochDay();
+        queue.pollDue(adulthood, (due, state) -> queue.add(due, state, adulthood));
+        assertEquals(1, queue.size());
+        assertEquals(List.of(), pollDue(queue, LocalDate.of(2033, 2, 28)));
+        assertEquals(List.of("user"), pollDue(queue, LocalDate.of(2033, 3, 1)));
+    }
+
+    @Test
+    @DisplayName("Should keep working after many removals and a clear")
+    void shouldCompactAndClear() {
+        BirthdayQueue queue = new BirthdayQueue(18);
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            User user = user("user" + i, LocalDate.of(2010, 1, 1).plusDays(i));
+            users.add(user);
+            queue.add(user, UserState.of(user), TODAY);
+        }
+        for (int i = 0; i < 500; i += 2) {
+            queue.remove(users.get(i));
+        }
+
+        assertEquals(250, queue.size());
+        List<String> due = pollDue(queue, LocalDate.of(2030, 1, 1));
+        assertEquals(250, due.size());
+        assertEquals("user1", due.get(0));
+
+        queue.add(users.get(0), UserState.of(users.get(0)), TODAY);
+        queue.clear();
+        assertEquals(List.of(), pollDue(queue, LocalDate.of(2040, 1, 1)));
+        assertThrows(IllegalArgumentException.class, () -> new BirthdayQueue(25, 18));
+    }
+}
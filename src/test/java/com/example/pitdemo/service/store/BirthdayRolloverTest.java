@@ -0,0 +1,122 @@
+package com.example.pitdemo.service.store;
+
+import com.example.pitdemo.model.User;
+import com.example.pitdemo.service.UserService.UserStatistics;
+import com.example.pitdemo.util.DayClock;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that the store is advanced right after midnight.
+ */
+@DisplayName("BirthdayRollover Tests")
+class BirthdayRolloverTest {
+
+    /**
+     * Records the dates it is advanced to and stores nothing.
+     */
+    private static final class RecordingStore implements UserStore {
+        private final BlockingQueue<LocalDate> advances = new LinkedBlockingQueue<>();
+
+        @Override
+        public void advanceTo(LocalDate today) {
+            advances.add(today);
+        }
+
+        @Override
+        public void add(User user) {
+        }
+
+        @Override
+        public User findByUsername(String username) {
+            return null;
+        }
+
+        @Override
+        public boolean usernameExists(String username) {
+            return false;
+        }
+
+        @Override
+        public boolean emailExists(String email) {
+            return false;
+        }
+
+        @Override
+        public List<User> findAll() {
+            return List.of();
+        }
+
+        @Override
+        public List<User> findByAgeRange(int minAge, int maxAge, LocalDate today) {
+            return List.of();
+        }
+
+        @Override
+        public int countByAgeRange(int minAge, int maxAge, LocalDate today) {
+            return 0;
+        }
+
+        @Override
+        public int size() {
+            return 0;
+        }
+
+        @Override
+        public UserStatistics statistics() {
+            return new UserStatistics(0, 0.0, 0.0, 0, 0, 0);
+        }
+
+        @Override
+        public void clear() {
+        }
+    }
+
+    @Test
+    @DisplayName("Should advance the store to the new date just after midnight")
+    void shouldAdvanceAfterMidnight() throws InterruptedException {
+        ZoneId zone = ZoneId.of("UTC");
+        ZonedDateTime now = ZonedDateTime.now(zone);
+        ZonedDateTime midnight = now.toLocalDate().plusDays(1).atStartOfDay(zone);
+        // A clock that reaches midnight 200 ms from now
+        Clock clock = Clock.offset(Clock.system(zone), Duration.between(now, midnight).minusMillis(200));
+        LocalDate tomorrow = midnight.toLocalDate();
+        RecordingStore store = new RecordingStore();
+
+        try (BirthdayRollover rollover = new BirthdayRollover(store, new DayClock(clock))) {
+            assertEquals(tomorrow, store.advances.poll(5, TimeUnit.SECONDS));
+        }
+        assertNull(store.advances.poll(300, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    @DisplayName("Should leave nothing for queries after advancing the in-memory store")
+    void shouldAdvanceInMemoryIndexes() {
+        LocalDate today = LocalDate.of(2026, 2, 27);
+        InMemoryUserStore store = new InMemoryUserStore(DayClock.fixed(today));
+        User user = new User("alice", "alice@example.com", LocalDate.of(2008, 2, 28));
+        user.setStatus(User.UserStatus.ACTIVE);
+        user.setScore(97);
+        store.add(user);
+        assertFalse(store.isPremium("alice", today));
+
+        store.advanceTo(today.plusDays(1));
+
+        // Indexes only move forward, so even a query for the old date sees the 18-year-old
+        assertTrue(store.isPremium("alice", today));
+        assertEquals(1, store.rankOf("alice", today));
+        assertEquals(List.of(user), store.findPremium(today.plusDays(1)));
+    }
+}
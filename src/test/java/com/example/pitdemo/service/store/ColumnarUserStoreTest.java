@@ -0,0 +1,207 @@
+package com.example.pitdemo.service.store;
+
+import com.example.pitdemo.model.User;
+import com.example.pitdemo.service.UserService;
+import com.example.pitdemo.service.UserService.UserStatistics;
+import com.example.pitdemo.service.UserStatisticsAccumulator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the columnar user store.
+ *
+ * Checks that materialized users round-trip through the columns, that
+ * their changes are written back, and that the column scans agree with
+ * per-user Period computations.
+ */
+@DisplayName("ColumnarUserStore Tests")
+class ColumnarUserStoreTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 2, 28);
+
+    private ColumnarUserStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new ColumnarUserStore();
+    }
+
+    private static User user(String username, String email, LocalDate birthDate) {
+        return new User(username, email, birthDate);
+    }
+
+    @Test
+    @DisplayName("Should round-trip users through the columns")
+    void shouldRoundTripUsers() {
+        User alice = user("Alice", "alice@example.com", LocalDate.of(1990, 5, 17));
+        alice.setScore(42);
+        alice.setStatus(User.UserStatus.SUSPENDED);
+        store.add(alice);
+        store.add(user("bob", "bob@example.com", null));
+
+        User found = store.findByUsername("Alice");
+        assertNotSame(alice, found);
+        assertEquals("Alice", found.getUsername());
+        assertEquals("alice@example.com", found.getEmail());
+        assertEquals(LocalDate.of(1990, 5, 17), found.getBirthDate());
+        assertEquals(42, found.getScore());
+        assertEquals(User.UserStatus.SUSPENDED, found.getStatus());
+        assertNull(store.findByUsername("bob").getBirthDate());
+
+        assertNull(store.findByUsername("alice"));
+        assertNull(store.findByUsername(null));
+        assertEquals(List.of("Alice", "bob"), store.findAll().stream().map(User::getUsername).toList());
+    }
+
+    @Test
+    @DisplayName("Should enforce uniqueness ignoring case")
+    void shouldEnforceUniquenessIgnoringCase() {
+        store.add(user("alice", "alice@example.com", TODAY));
+
+        IllegalArgumentException username = assertThrows(IllegalArgumentException.class,
+                () -> store.add(user("ALICE", "other@example.com", TODAY)));
+        assertEquals("Username already exists: ALICE", username.getMessage());
+        IllegalArgumentException email = assertThrows(IllegalArgumentException.class,
+                () -> store.add(user("bob", "Alice@Example.com", TODAY)));
+        assertEquals("Email already exists: Alice@Example.com", email.getMessage());
+
+        assertEquals(1, store.size());
+        assertTrue(store.usernameExists("Alice"));
+        assertTrue(store.emailExists("ALICE@EXAMPLE.COM"));
+        assertFalse(store.usernameExists("bob"));
+    }
+
+    @Test
+    @DisplayName("Should write changes back without undoing other copies")
+    void shouldWriteChangesBack() {
+        User original = user("alice", "alice@example.com", LocalDate.of(1990, 1, 1));
+        store.add(original);
+        User first = store.findByUsername("alice");
+        User second = store.findByUsername("alice");
+
+        original.updateScore(60);
+        first.setStatus(User.UserStatus.SUSPENDED);
+        second.setBirthDate(LocalDate.of(2000, 1, 1));
+
+        User current = store.findByUsername("alice");
+        assertEquals(60, current.getScore());
+        assertEquals(User.UserStatus.SUSPENDED, current.getStatus());
+        assertEquals(LocalDate.of(2000, 1, 1), current.getBirthDate());
+    }
+
+    @Test
+    @DisplayName("Should stop writing back after clear")
+    void shouldStopWritingBackAfterClear() {
+        User original = user("alice", "alice@example.com", TODAY);
+        store.add(original);
+        store.clear();
+        store.add(user("bob", "bob@example.com", TODAY));
+
+        original.setScore(99);
+
+        assertEquals(0, store.findByUsername("bob").getScore());
+        assertEquals(1, store.size());
+        assertFalse(store.usernameExists("alice"));
+    }
+
+    @Test
+    @DisplayName("Should update a row in place and write nothing after clear")
+    void shouldUpdateRowInPlace() {
+        store.add(user("alice", "alice@example.com", LocalDate.of(1990, 1, 1)));
+
+        assertTrue(store.update("alice", user -> user.updateScore(70)));
+        assertEquals(70, store.findByUsername("alice").getScore());
+        assertEquals(User.UserStatus.ACTIVE, store.findByUsername("alice").getStatus());
+
+        assertTrue(store.update("alice", user -> {
+            store.clear();
+            store.add(user("bob", "bob@example.com", TODAY));
+            user.setScore(99);
+        }));
+        assertEquals(0, store.findByUsername("bob").getScore());
+        assertFalse(store.update("Alice", user -> fail("no such user")));
+    }
+
+    @Test
+    @DisplayName("Should grow past its initial capacity")
+    void shouldGrowPastInitialCapacity() {
+        for (int i = 0; i < 5000; i++) {
+            store.add(user("user" + i, "user" + i + "@example.com", TODAY.minusDays(i)));
+        }
+
+        assertEquals(5000, store.size());
+        assertEquals(TODAY.minusDays(4321), store.findByUsername("user4321").getBirthDate());
+    }
+
+    @Test
+    @DisplayName("Should match Period for age ranges and statistics")
+    void shouldMatchPeriodForAgeRangesAndStatistics() {
+        Random random = new Random(11);
+        User.UserStatus[] statuses = User.UserStatus.values();
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            LocalDate birthDate = i % 100 == 0 ? null : TODAY.minusDays(random.nextInt(90 * 365) - 400);
+            User user = user("user" + i, "user" + i + "@example.com", birthDate);
+            user.setScore(random.nextInt(101));
+            user.setStatus(statuses[random.nextInt(statuses.length)]);
+            users.add(user);
+            store.add(user);
+        }
+
+        for (int i = 0; i < 100; i++) {
+            int minAge = random.nextInt(80);
+            int maxAge = minAge + random.nextInt(30);
+            if (i % 10 == 0) {
+                minAge = 0;
+            }
+            List<String> expected = new ArrayList<>();
+            for (User user : users) {
+                int age = user.getBirthDate() == null ? 0 : Period.between(user.getBirthDate(), TODAY).getYears();
+                if (age >= minAge && age <= maxAge) {
+                    expected.add(user.getUsername());
+                }
+            }
+            assertEquals(expected, store.findByAgeRange(minAge, maxAge, TODAY).stream().map(User::getUsername).toList());
+            assertEquals(expected.size(), store.countByAgeRange(minAge, maxAge, TODAY));
+        }
+
+        UserStatistics expected = users.stream()
+                .collect(UserStatisticsAccumulator.collector(TODAY))
+                .toStatistics();
+        UserStatistics actual = store.statistics(TODAY);
+        assertEquals(expected.getTotalUsers(), actual.getTotalUsers());
+        assertEquals(expected.getActiveUsers(), actual.getActiveUsers());
+        assertEquals(expected.getAdultUsers(), actual.getAdultUsers());
+        assertEquals(expected.getPromotableUsers(), actual.getPromotableUsers());
+        assertEquals(expected.getAverageScore(), actual.getAverageScore(), 1e-9);
+        assertEquals(expected.getAverageAge(), actual.getAverageAge(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Should back the service")
+    void shouldBackTheService() {
+        UserService userService = new UserService(store);
+        userService.createUser("alice", "alice@example.com", LocalDate.now().minusYears(30));
+        userService.createUser("teen", "teen@example.com", LocalDate.now().minusYears(15));
+
+        userService.updateUserScore("alice", 45);
+        userService.updateUserScore("alice", 60);
+
+        // 60 plus the qualification bonus for an adult with a valid email
+        assertEquals(70, store.findByUsername("alice").getScore());
+        assertEquals(1, userService.countUsersByAgeRange(18, 65));
+        assertEquals(2, userService.generateStatistics().getTotalUsers());
+        assertEquals(1, userService.generateStatistics().getAdultUsers());
+        assertThrows(IllegalArgumentException.class,
+                () -> userService.createUser("ALICE", "new@example.com", LocalDate.of(1990, 1, 1)));
+    }
+}
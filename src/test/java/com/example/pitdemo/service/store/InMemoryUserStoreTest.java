@@ -0,0 +1,269 @@
+package com.example.pitdemo.service.store;
+
+import com.example.pitdemo.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the hash-indexed in-memory user store.
+ *
+ * Covers case-insensitive uniqueness, case-sensitive lookup and
+ * insertion ordering, which the service relies on.
+ */
+@DisplayName("InMemoryUserStore Tests")
+class InMemoryUserStoreTest {
+
+    private InMemoryUserStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new InMemoryUserStore();
+    }
+
+    private static User user(String username, String email) {
+        return new User(username, email, LocalDate.of(1990, 1, 1));
+    }
+
+    @Test
+    @DisplayName("Should find user by exact username only")
+    void shouldFindUserByExactUsernameOnly() {
+        User alice = user("Alice", "alice@example.com");
+        store.add(alice);
+
+        assertSame(alice, store.findByUsername("Alice"));
+        assertNull(store.findByUsername("alice"));
+        assertNull(store.findByUsername("ALICE"));
+        assertNull(store.findByUsername("bob"));
+        assertNull(store.findByUsername(null));
+    }
+
+    @Test
+    @DisplayName("Should report username and email existence ignoring case")
+    void shouldReportExistenceIgnoringCase() {
+        store.add(user("Alice", "Alice@Example.com"));
+
+        assertTrue(store.usernameExists("alice"));
+        assertTrue(store.usernameExists("ALICE"));
+        assertFalse(store.usernameExists("alicia"));
+        assertTrue(store.emailExists("alice@example.com"));
+        assertFalse(store.emailExists("bob@example.com"));
+    }
+
+    @Test
+    @DisplayName("Should reject duplicate username ignoring case")
+    void shouldRejectDuplicateUsername() {
+        store.add(user("alice", "alice@example.com"));
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> store.add(user("ALICE", "other@example.com")));
+        assertEquals("Username already exists: ALICE", exception.getMessage());
+        assertEquals(1, store.size());
+        assertFalse(store.emailExists("other@example.com"));
+    }
+
+    @Test
+    @DisplayName("Should reject duplicate email ignoring case")
+    void shouldRejectDuplicateEmail() {
+        store.add(user("alice", "alice@example.com"));
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> store.add(user("bob", "ALICE@example.com")));
+        assertEquals("Email already exists: ALICE@example.com", exception.getMessage());
+        assertEquals(1, store.size());
+        assertFalse(store.usernameExists("bob"));
+    }
+
+    @Test
+    @DisplayName("Should release username reservation when email is taken")
+    void shouldReleaseUsernameWhenEmailTaken() {
+        store.add(user("alice", "shared@example.com"));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> store.add(user("bob", "shared@example.com")));
+
+        assertFalse(store.usernameExists("bob"));
+        User bob = user("bob", "bob@example.com");
+        store.add(bob);
+        assertSame(bob, store.findByUsername("bob"));
+        assertEquals(2, store.size());
+    }
+
+    @Test
+    @DisplayName("Should return users in insertion order")
+    void shouldReturnUsersInInsertionOrder() {
+        User charlie = user("charlie", "charlie@example.com");
+        User alice = user("alice", "alice@example.com");
+        User bob = user("bob", "bob@example.com");
+        store.add(charlie);
+        store.add(alice);
+        store.add(bob);
+
+        assertEquals(List.of(charlie, alice, bob), store.findAll());
+        assertEquals(3, store.size());
+    }
+
+    @Test
+    @DisplayName("Should keep statistics in sync with changes made through setters")
+    void shouldKeepStatisticsInSyncWithSetters() {
+        User alice = user("alice", "alice@example.com");
+        store.add(alice);
+
+        alice.setStatus(User.UserStatus.ACTIVE);
+        alice.setScore(90);
+
+        assertEquals(1, store.statistics().getActiveUsers());
+        assertEquals(1, store.statistics().getPromotableUsers());
+        assertEquals(90.0, store.statistics().getAverageScore());
+
+        alice.updateScore(20);
+        assertEquals(0, store.statistics().getPromotableUsers());
+        assertEquals(20.0, store.statistics().getAverageScore());
+    }
+
+    @Test
+    @DisplayName("Should apply an update to the stored user as one change, and not at all if it fails")
+    void shouldApplyUpdateOnce() {
+        User alice = user("alice", "alice@example.com");
+        store.add(alice);
+        long before = store.currentVersion().getVersion();
+
+        assertTrue(store.update("alice", user -> {
+            assertNotSame(alice, user);
+            user.updateScore(50);
+            user.setScore(60);
+        }));
+        assertThrows(IllegalStateException.class, () -> store.update("alice", user -> {
+            user.setScore(5);
+            throw new IllegalStateException("failed");
+        }));
+
+        assertEquals(60, alice.getScore());
+        assertEquals(User.UserStatus.ACTIVE, alice.getStatus());
+        assertEquals(before + 1, store.currentVersion().getVersion());
+        assertEquals(1, store.countByStatus(User.UserStatus.ACTIVE));
+        assertFalse(store.update("Alice", user -> fail("no such user")));
+    }
+
+    @Test
+    @DisplayName("Should add a batch, skipping taken keys, and index every added user")
+    void shouldAddBatch() {
+        store.add(user("existing", "existing@example.com"));
+        User alice = user("alice", "alice@example.com");
+        User teen = new User("teen", "teen@example.com", LocalDate.now().minusYears(15));
+        User undated = new User("undated", "undated@example.com", null);
+        alice.setStatus(User.UserStatus.ACTIVE);
+
+        List<String> rejections = store.addAll(List.of(
+                alice, user("EXISTING", "new@example.com"), teen, user("bob", "ALICE@example.com"), undated));
+
+        assertEquals(Arrays.asList(null, "Username already exists: EXISTING", null,
+                "Email already exists: ALICE@example.com", null), rejections);
+        assertEquals(4, store.size());
+        assertSame(alice, store.findAll().get(1));
+        assertEquals(1, store.statistics().getActiveUsers());
+        assertEquals(2, store.countByAgeRange(18, 100, LocalDate.now()));
+        assertEquals(List.of(teen), store.findByAgeRange(1, 17, LocalDate.now()));
+        assertEquals(List.of(undated), store.findByAgeRange(0, 0, LocalDate.now()));
+        assertFalse(store.usernameExists("bob"));
+
+        // Users added in a batch keep the indexes in sync like any other
+        teen.setBirthDate(LocalDate.of(1990, 1, 1));
+        alice.setScore(90);
+        assertEquals(3, store.countByAgeRange(18, 100, LocalDate.now()));
+        assertEquals(1, store.statistics().getPromotableUsers());
+    }
+
+    @Test
+    @DisplayName("Should stop tracking users once cleared")
+    void shouldStopTrackingClearedUsers() {
+        User alice = user("alice", "alice@example.com");
+        store.add(alice);
+        store.clear();
+
+        alice.setStatus(User.UserStatus.ACTIVE);
+
+        assertEquals(0, store.statistics().getTotalUsers());
+        assertEquals(0, store.statistics().getActiveUsers());
+    }
+
+    @Test
+    @DisplayName("Should clear all indexes")
+    void shouldClearAllIndexes() {
+        store.add(user("alice", "alice@example.com"));
+        store.clear();
+
+        assertTrue(store.isEmpty());
+        assertFalse(store.usernameExists("alice"));
+        assertFalse(store.emailExists("alice@example.com"));
+        assertDoesNotThrow(() -> store.add(user("alice", "alice@example.com")));
+    }
+
+    @Test
+    @DisplayName("Should keep a version as it was while users are added and changed")
+    void shouldKeepVersionUnchangedByLaterWrites() {
+        User alice = user("alice", "alice@example.com");
+        store.add(alice);
+        store.add(user("bob", "bob@example.com"));
+        UserSetVersion version = store.currentVersion();
+
+        alice.setScore(80);
+        alice.setStatus(User.UserStatus.SUSPENDED);
+        store.add(user("charlie", "charlie@example.com"));
+
+        assertEquals(2, version.size());
+        assertEquals(List.of(alice, store.findByUsername("bob")), version.getUsers());
+        assertEquals(0, version.getState(0).getScore());
+        assertEquals(User.UserStatus.INACTIVE, version.getState(0).getStatus());
+
+        UserSetVersion latest = store.currentVersion();
+        assertEquals(version.getVersion() + 3, latest.getVersion());
+        assertEquals(3, latest.size());
+        assertEquals(80, latest.getState(0).getScore());
+        assertEquals(User.UserStatus.SUSPENDED, latest.getState(0).getStatus());
+        assertSame(latest, store.currentVersion());
+    }
+
+    @Test
+    @DisplayName("Should publish an empty version on clear that later changes to cleared users leave alone")
+    void shouldPublishEmptyVersionOnClear() {
+        User alice = user("alice", "alice@example.com");
+        store.add(alice);
+        UserSetVersion before = store.currentVersion();
+
+        store.clear();
+        alice.setScore(50);
+        User bob = user("bob", "bob@example.com");
+        store.add(bob);
+
+        assertEquals(1, before.size());
+        assertEquals(List.of(bob), store.currentVersion().getUsers());
+        assertEquals(0, store.currentVersion().getState(0).getScore());
+        assertTrue(store.currentVersion().getVersion() > before.getVersion());
+    }
+
+    @Test
+    @DisplayName("Should not let callers change the users it returns")
+    void shouldReturnUnmodifiableUsers() {
+        store.add(user("alice", "alice@example.com"));
+
+        assertThrows(UnsupportedOperationException.class, () -> store.findAll().clear());
+    }
+
+    @Test
+    @DisplayName("Should normalize keys the same way as equalsIgnoreCase")
+    void shouldNormalizeKeysLikeEqualsIgnoreCase() {
+        assertEquals("user_01", UserStore.normalize("User_01"));
+        assertEquals(UserStore.normalize("STRASSE"), UserStore.normalize("strasse"));
+        // "ß" has no single-char upper case, so equalsIgnoreCase keeps it distinct from "ss"
+        assertFalse("straße".equalsIgnoreCase("strasse"));
+        assertNotEquals(UserStore.normalize("straße"), UserStore.normalize("strasse"));
+        assertEquals(UserStore.normalize("ΣΊΣΥΦΟΣ"), UserStore.normalize("σίσυφος"));
+    }
+}
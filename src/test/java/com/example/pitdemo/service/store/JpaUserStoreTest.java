@@ -0,0 +1,313 @@
+package com.example.pitdemo.service.store;
+
+import com.example.pitdemo.model.User;
+import com.example.pitdemo.repository.UserRepository;
+import com.example.pitdemo.service.NewUser;
+import com.example.pitdemo.service.UserPage;
+import com.example.pitdemo.service.UserService;
+import com.example.pitdemo.service.UserStatisticsAccumulator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the database-backed user store against the embedded H2 database.
+ *
+ * Tests run outside a test transaction, as the store does in production, so
+ * a rejected insert rolls back only its own transaction.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DisplayName("JpaUserStore Tests")
+class JpaUserStoreTest {
+
+    @Autowired
+    private UserRepository repository;
+
+    private JpaUserStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new JpaUserStore(repository);
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.deleteAllInBatch();
+    }
+
+    private static User user(String username, String email, LocalDate birthDate) {
+        return new User(username, email, birthDate);
+    }
+
+    // Every repository call has its own persistence context, so this reads the row
+    private User reload(String username) {
+        return store.findByUsername(username);
+    }
+
+    @Test
+    @DisplayName("Should find by exact username and check uniqueness ignoring case")
+    void shouldFindAndCheckUniqueness() {
+        store.add(user("Alice", "Alice@Example.com", LocalDate.of(1990, 1, 1)));
+
+        assertEquals("Alice", reload("Alice").getUsername());
+        assertNull(store.findByUsername("alice"));
+        assertNull(store.findByUsername(null));
+        assertTrue(store.usernameExists("ALICE"));
+        assertTrue(store.emailExists("alice@example.com"));
+        assertFalse(store.usernameExists("bob"));
+
+        IllegalArgumentException username = assertThrows(IllegalArgumentException.class,
+                () -> store.add(user("ALICE", "other@example.com", null)));
+        assertEquals("Username already exists: ALICE", username.getMessage());
+        IllegalArgumentException email = assertThrows(IllegalArgumentException.class,
+                () -> store.add(user("bob", "alice@EXAMPLE.com", null)));
+        assertEquals("Email already exists: alice@EXAMPLE.com", email.getMessage());
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    @DisplayName("Should let the unique key constraints reject clashing inserts")
+    void shouldRejectClashesInTheDatabase() {
+        repository.insertAll(List.of(user("Alice", "alice@example.com", null)));
+        User clash = user("aLICE", "other@example.com", null);
+
+        DataIntegrityViolationException e = assertThrows(DataIntegrityViolationException.class,
+                () -> repository.insertAll(List.of(user("fresh", "fresh@example.com", null), clash)));
+
+        assertTrue(e.getMostSpecificCause().getMessage().toLowerCase(Locale.ROOT)
+                .contains(User.USERNAME_KEY_CONSTRAINT));
+        assertNull(clash.getId());
+        assertTrue(repository.existsByUsernameKey("alice"));
+        assertFalse(repository.existsByUsernameKey("fresh"));
+    }
+
+    @Test
+    @DisplayName("Should report each taken key when the database rejects a batch")
+    void shouldSplitRejectedBatch() {
+        store.add(user("taken", "taken@example.com", null));
+        List<User> batch = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            batch.add(user("user" + i, "user" + i + "@example.com", null));
+        }
+        batch.set(13, user("TAKEN", "thirteen@example.com", null));
+        batch.set(170, user("seventy", "Taken@Example.com", null));
+
+        List<String> rejections = store.addAll(batch);
+
+        assertEquals("Username already exists: TAKEN", rejections.get(13));
+        assertEquals("Email already exists: Taken@Example.com", rejections.get(170));
+        assertEquals(2, rejections.stream().filter(Objects::nonNull).count());
+        assertEquals(199, store.size());
+        assertNull(batch.get(13).getId());
+        assertNotNull(batch.get(14).getId());
+        assertEquals("user199@example.com", reload("user199").getEmail());
+    }
+
+    @Test
+    @DisplayName("Should assign ids from the sequence and keep insertion order")
+    void shouldAssignSequenceIds() {
+        User charlie = user("charlie", "charlie@example.com", null);
+        User alice = user("alice", "alice@example.com", null);
+        store.add(charlie);
+        store.add(alice);
+
+        assertNotNull(charlie.getId());
+        assertTrue(alice.getId() > charlie.getId());
+        assertEquals(List.of("charlie", "alice"), store.findAll().stream().map(User::getUsername).toList());
+    }
+
+    @Test
+    @DisplayName("Should add a batch, rejecting taken keys and repeats within the batch")
+    void shouldAddBatch() {
+        store.add(user("existing", "existing@example.com", null));
+        List<User> batch = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            batch.add(user("user" + i, "user" + i + "@example.com", LocalDate.of(1990, 1, 1)));
+        }
+        batch.add(user("EXISTING", "new@example.com", null));
+        batch.add(user("USER7", "seven@example.com", null));
+        batch.add(user("fresh", "USER8@example.com", null));
+
+        List<String> rejections = store.addAll(batch);
+
+        assertEquals(Arrays.asList(null, null), rejections.subList(0, 2));
+        assertEquals(Arrays.asList("Username already exists: EXISTING", "Username already exists: USER7",
+                "Email already exists: USER8@example.com"), rejections.subList(120, 123));
+        assertEquals(121, store.size());
+        assertNotNull(batch.get(119).getId());
+        assertEquals("user119@example.com", reload("user119").getEmail());
+    }
+
+    @Test
+    @DisplayName("Should write changes made through setters back to the database")
+    void shouldWriteChangesBack() {
+        User added = user("alice", "alice@example.com", LocalDate.of(1990, 1, 1));
+        store.add(added);
+        added.setScore(40);
+
+        User found = reload("alice");
+        assertEquals(40, found.getScore());
+        found.updateScore(80);
+        found.setBirthDate(LocalDate.of(2000, 2, 2));
+
+        User again = reload("alice");
+        assertEquals(80, again.getScore());
+        assertEquals(User.UserStatus.ACTIVE, again.getStatus());
+        assertEquals(LocalDate.of(2000, 2, 2), again.getBirthDate());
+    }
+
+    @Test
+    @DisplayName("Should write a change to several fields once, and not at all if it fails")
+    void shouldWriteUpdateOnce() {
+        User added = user("alice", "alice@example.com", LocalDate.of(1990, 1, 1));
+        store.add(added);
+
+        assertTrue(store.update("alice", user -> {
+            user.updateScore(50);
+            user.setScore(60);
+            assertEquals(0, reload("alice").getScore());
+        }));
+        assertThrows(IllegalStateException.class, () -> store.update("alice", user -> {
+            user.setStatus(User.UserStatus.SUSPENDED);
+            throw new IllegalStateException("failed");
+        }));
+
+        User found = reload("alice");
+        assertEquals(60, found.getScore());
+        assertEquals(User.UserStatus.ACTIVE, found.getStatus());
+        assertEquals(60, added.getScore());
+        assertFalse(store.update("bob", user -> fail("no such user")));
+    }
+
+    @Test
+    @DisplayName("Should filter and count by age oldest first, undated last")
+    void shouldFilterByAge() {
+        LocalDate today = LocalDate.of(2024, 6, 15);
+        store.add(user("young", "young@example.com", LocalDate.of(2010, 1, 1)));
+        store.add(user("undated", "undated@example.com", null));
+        store.add(user("adult", "adult@example.com", LocalDate.of(2000, 1, 1)));
+        store.add(user("eldest", "eldest@example.com", LocalDate.of(1950, 1, 1)));
+        store.add(user("birthday", "birthday@example.com", LocalDate.of(2006, 6, 15)));
+
+        assertEquals(List.of("eldest", "adult", "birthday"),
+                store.findByAgeRange(18, 150, today).stream().map(User::getUsername).toList());
+        assertEquals(3, store.countByAgeRange(18, 150, today));
+        assertEquals(List.of("eldest", "adult", "birthday", "young", "undated"),
+                store.findByAgeRange(0, Integer.MAX_VALUE, today).stream().map(User::getUsername).toList());
+        assertEquals(2, store.countByAgeRange(0, 17, today));
+    }
+
+    @Test
+    @DisplayName("Should aggregate statistics in the database like the in-memory accumulator")
+    void shouldAggregateStatistics() {
+        LocalDate today = LocalDate.of(2024, 2, 29);
+        List<User> users = List.of(
+                user("leap", "leap@example.com", LocalDate.of(2006, 2, 28)),
+                user("eve", "eve@example.com", LocalDate.of(2006, 3, 1)),
+                user("leapling", "leapling@example.com", LocalDate.of(2000, 2, 29)),
+                user("undated", "undated@example.com", null),
+                user("future", "future@example.com", LocalDate.of(2025, 6, 1)));
+        users.get(0).updateScore(90);
+        users.get(2).updateScore(80);
+        users.get(3).updateScore(95);
+        users.get(4).setStatus(User.UserStatus.SUSPENDED);
+        store.addAll(users);
+
+        UserService.UserStatistics expected = users.stream()
+                .collect(UserStatisticsAccumulator.collector(today)).toStatistics();
+        UserService.UserStatistics actual = store.statistics(today);
+
+        assertEquals(expected.getTotalUsers(), actual.getTotalUsers());
+        assertEquals(expected.getAverageScore(), actual.getAverageScore(), 1e-9);
+        assertEquals(expected.getAverageAge(), actual.getAverageAge(), 1e-9);
+        assertEquals(expected.getActiveUsers(), actual.getActiveUsers());
+        assertEquals(expected.getAdultUsers(), actual.getAdultUsers());
+        assertEquals(2, actual.getPromotableUsers());
+        assertEquals(expected.getPromotableUsers(), actual.getPromotableUsers());
+
+        store.clear();
+        assertEquals(0, store.statistics(today).getTotalUsers());
+        assertEquals(0.0, store.statistics(today).getAverageAge());
+    }
+
+    @Test
+    @DisplayName("Should apply the service's rules on top of the database")
+    void shouldBackUserService() {
+        UserService service = new UserService(store);
+        service.createUser("alice", "alice@example.com", LocalDate.now().minusYears(30));
+        service.createUsers(List.of(new NewUser("teen", "teen@example.com", LocalDate.now().minusYears(15))));
+
+        service.updateUserScore("alice", 50);
+
+        UserService.UserStatistics statistics = service.generateStatistics();
+        assertEquals(2, statistics.getTotalUsers());
+        assertEquals(1, statistics.getActiveUsers());
+        assertEquals(1, statistics.getAdultUsers());
+        // Crossing 50 earns the adult, valid-email bonus of 10
+        assertEquals(60, store.findByUsername("alice").getScore());
+        assertThrows(IllegalArgumentException.class,
+                () -> service.createUser("Alice", "new@example.com", LocalDate.of(1990, 1, 1)));
+    }
+
+    @Test
+    @DisplayName("Should page by id without skipping users inserted between pages")
+    void shouldPageById() {
+        for (int i = 0; i < 5; i++) {
+            store.add(user("user" + i, "user" + i + "@example.com", null));
+        }
+
+        UserService service = new UserService(store);
+        UserPage first = service.getUsers(null, 3);
+        store.add(user("user5", "user5@example.com", null));
+        UserPage second = service.getUsers(first.getNextPageToken(), 3);
+
+        assertEquals(List.of("user0", "user1", "user2"), first.getUsers().stream().map(User::getUsername).toList());
+        assertTrue(first.hasNextPage());
+        assertEquals(List.of("user3", "user4", "user5"), second.getUsers().stream().map(User::getUsername).toList());
+        assertFalse(second.hasNextPage());
+    }
+
+    @Test
+    @DisplayName("Should find and count users by status in insertion order")
+    void shouldFindByStatus() {
+        store.add(user("alice", "alice@example.com", null));
+        store.add(user("bob", "bob@example.com", null));
+        store.add(user("carol", "carol@example.com", null));
+
+        reload("carol").setStatus(User.UserStatus.SUSPENDED);
+        reload("alice").setStatus(User.UserStatus.SUSPENDED);
+
+        assertEquals(List.of("alice", "carol"),
+                store.findByStatus(User.UserStatus.SUSPENDED).stream().map(User::getUsername).toList());
+        assertEquals(2, store.countByStatus(User.UserStatus.SUSPENDED));
+        assertEquals(1, store.countByStatus(User.UserStatus.INACTIVE));
+        assertEquals(0, store.countByStatus(User.UserStatus.ACTIVE));
+    }
+
+    @Test
+    @DisplayName("Should delete every user on clear")
+    void shouldClear() {
+        store.add(user("alice", "alice@example.com", null));
+
+        store.clear();
+
+        assertTrue(store.isEmpty());
+        assertFalse(store.usernameExists("alice"));
+    }
+}
@@ -0,0 +1,248 @@
+package com.example.pitdemo.service.store;
+
+import com.example.pitdemo.model.User;
+import com.example.pitdemo.service.UserService;
+import com.example.pitdemo.service.UserService.UserStatistics;
+import com.example.pitdemo.service.UserStatisticsAccumulator;
+import com.example.pitdemo.util.DayClock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the off-heap user store.
+ *
+ * Covers records and strings round-tripping through direct memory, the
+ * off-heap key tables as they grow, and scans through the flyweight view.
+ */
+@DisplayName("OffHeapUserStore Tests")
+class OffHeapUserStoreTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 10, 15);
+
+    private OffHeapUserStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new OffHeapUserStore();
+    }
+
+    private static User user(String username, String email, LocalDate birthDate) {
+        return new User(username, email, birthDate);
+    }
+
+    @Test
+    @DisplayName("Should round-trip users, including non-ASCII strings")
+    void shouldRoundTripUsers() {
+        User alice = user("Ålice", "ålice@example.com", LocalDate.of(1990, 5, 17));
+        alice.setScore(42);
+        alice.setStatus(User.UserStatus.SUSPENDED);
+        store.add(alice);
+        store.add(user("emoji😀", "bad\uD800@example.com", null));
+
+        User found = store.findByUsername("Ålice");
+        assertEquals("ålice@example.com", found.getEmail());
+        assertEquals(LocalDate.of(1990, 5, 17), found.getBirthDate());
+        assertEquals(42, found.getScore());
+        assertEquals(User.UserStatus.SUSPENDED, found.getStatus());
+
+        User other = store.findByUsername("emoji😀");
+        assertEquals("bad\uD800@example.com", other.getEmail());
+        assertNull(other.getBirthDate());
+
+        assertNull(store.findByUsername("ålice"));
+        assertTrue(store.usernameExists("ÅLICE"));
+        assertTrue(store.emailExists("BAD\uD800@EXAMPLE.COM"));
+    }
+
+    @Test
+    @DisplayName("Should enforce uniqueness ignoring case")
+    void shouldEnforceUniquenessIgnoringCase() {
+        store.add(user("Alice", "Alice@Example.com", TODAY));
+
+        IllegalArgumentException username = assertThrows(IllegalArgumentException.class,
+                () -> store.add(user("alice", "other@example.com", TODAY)));
+        assertEquals("Username already exists: alice", username.getMessage());
+        IllegalArgumentException email = assertThrows(IllegalArgumentException.class,
+                () -> store.add(user("bob", "alice@example.COM", TODAY)));
+        assertEquals("Email already exists: alice@example.COM", email.getMessage());
+
+        assertEquals(1, store.size());
+        assertFalse(store.usernameExists("bob"));
+        assertFalse(store.emailExists("other@example.com"));
+    }
+
+    @Test
+    @DisplayName("Should reject strings too long for the arena")
+    void shouldRejectOverlongStrings() {
+        String longEmail = "x".repeat(StringArena.MAX_LENGTH + 1);
+
+        assertThrows(IllegalArgumentException.class, () -> store.add(user("alice", longEmail, TODAY)));
+        assertEquals(0, store.size());
+        assertFalse(store.usernameExists("alice"));
+    }
+
+    @Test
+    @DisplayName("Should keep finding users as pages and key tables grow")
+    void shouldGrowAcrossPages() {
+        int count = 150_000;
+        for (int i = 0; i < count; i++) {
+            store.add(user("User" + i, "user" + i + "@example.com", TODAY.minusDays(i % 30_000)));
+        }
+
+        assertEquals(count, store.size());
+        for (int i = 0; i < count; i += 997) {
+            User found = store.findByUsername("User" + i);
+            assertEquals("user" + i + "@example.com", found.getEmail());
+            assertEquals(TODAY.minusDays(i % 30_000), found.getBirthDate());
+        }
+        assertTrue(store.usernameExists("user149999"));
+        assertFalse(store.usernameExists("user150000"));
+        assertTrue(store.offHeapBytes() > 0);
+    }
+
+    @Test
+    @DisplayName("Should reserve memory for the expected users up front and again after clear")
+    void shouldPresizeForExpectedUsers() {
+        int count = 150_000;
+        OffHeapUserStore sized = new OffHeapUserStore(DayClock.fixed(TODAY), count);
+        long reserved = sized.offHeapBytes();
+        assertTrue(reserved > store.offHeapBytes());
+
+        for (int i = 0; i < count + 10; i++) {
+            sized.add(user("User" + i, "user" + i + "@example.com", TODAY.minusDays(i % 30_000)));
+        }
+        assertEquals(count + 10, sized.size());
+        assertEquals("user149999@example.com", sized.findByUsername("User149999").getEmail());
+
+        sized.clear();
+        assertEquals(reserved, sized.offHeapBytes());
+        assertThrows(IllegalArgumentException.class, () -> new OffHeapUserStore(DayClock.fixed(TODAY), -1));
+        assertThrows(IllegalArgumentException.class,
+                () -> new OffHeapUserStore(DayClock.fixed(TODAY), OffHeapUserStore.MAX_EXPECTED_USERS + 1));
+    }
+
+    @Test
+    @DisplayName("Should write changes back and stop after clear")
+    void shouldWriteChangesBack() {
+        User original = user("alice", "alice@example.com", LocalDate.of(1990, 1, 1));
+        store.add(original);
+
+        original.updateScore(60);
+        store.findByUsername("alice").setBirthDate(LocalDate.of(2000, 1, 1));
+
+        User current = store.findByUsername("alice");
+        assertEquals(60, current.getScore());
+        assertEquals(User.UserStatus.ACTIVE, current.getStatus());
+        assertEquals(LocalDate.of(2000, 1, 1), current.getBirthDate());
+
+        store.clear();
+        store.add(user("bob", "bob@example.com", TODAY));
+        original.setScore(99);
+        assertEquals(0, store.findByUsername("bob").getScore());
+        assertFalse(store.usernameExists("alice"));
+    }
+
+    @Test
+    @DisplayName("Should update the row through one reused copy, matching the exact spelling")
+    void shouldUpdateThroughReusedCopy() {
+        store.add(user("Ålice", "ålice@example.com", LocalDate.of(1990, 5, 17)));
+        User stale = store.findByUsername("Ålice");
+        List<User> copies = new ArrayList<>();
+
+        assertTrue(store.update("Ålice", user -> {
+            copies.add(user);
+            assertEquals("ålice@example.com", user.getEmail());
+            user.updateScore(50);
+        }));
+        // Only the changed fields are stored, so an older copy's change survives
+        stale.setBirthDate(LocalDate.of(2000, 1, 1));
+        assertTrue(store.update("Ålice", user -> {
+            copies.add(user);
+            user.setScore(user.getScore() + 10);
+        }));
+        assertThrows(IllegalStateException.class, () -> store.update("Ålice", user -> {
+            user.setStatus(User.UserStatus.DELETED);
+            throw new IllegalStateException("failed");
+        }));
+        assertFalse(store.update("ålice", user -> fail("no such user")));
+        assertFalse(store.update(null, user -> fail("no such user")));
+
+        assertSame(copies.get(0), copies.get(1));
+        User current = store.findByUsername("Ålice");
+        assertEquals(60, current.getScore());
+        assertEquals(User.UserStatus.ACTIVE, current.getStatus());
+        assertEquals(LocalDate.of(2000, 1, 1), current.getBirthDate());
+        assertNull(store.findByUsername("ålice"));
+    }
+
+    @Test
+    @DisplayName("Should scan through one reused view")
+    void shouldScanThroughReusedView() {
+        store.add(user("alice", "alice@example.com", LocalDate.of(1996, 10, 15)));
+        store.add(user("bob", "bob@example.com", null));
+
+        List<UserRecord> views = new ArrayList<>();
+        List<String> seen = new ArrayList<>();
+        store.forEachRecord(record -> {
+            views.add(record);
+            seen.add(record.getUsername() + ":" + record.getAge(TODAY.toEpochDay()) + ":" + record.hasBirthDate());
+        });
+
+        assertEquals(List.of("alice:30:true", "bob:0:false"), seen);
+        assertSame(views.get(0), views.get(1));
+    }
+
+    @Test
+    @DisplayName("Should agree with a per-user computation for statistics and age ranges")
+    void shouldAgreeWithPerUserComputation() {
+        Random random = new Random(13);
+        User.UserStatus[] statuses = User.UserStatus.values();
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            LocalDate birthDate = i % 50 == 0 ? null : TODAY.minusDays(random.nextInt(80 * 365) - 200);
+            User user = user("user" + i, "user" + i + "@example.com", birthDate);
+            user.setScore(random.nextInt(101));
+            user.setStatus(statuses[random.nextInt(statuses.length)]);
+            users.add(user);
+            store.add(user);
+        }
+
+        UserStatistics expected = users.stream()
+                .collect(UserStatisticsAccumulator.collector(TODAY))
+                .toStatistics();
+        UserStatistics actual = store.statistics(TODAY);
+        assertEquals(expected.getTotalUsers(), actual.getTotalUsers());
+        assertEquals(expected.getActiveUsers(), actual.getActiveUsers());
+        assertEquals(expected.getAdultUsers(), actual.getAdultUsers());
+        assertEquals(expected.getPromotableUsers(), actual.getPromotableUsers());
+        assertEquals(expected.getAverageScore(), actual.getAverageScore(), 1e-9);
+        assertEquals(expected.getAverageAge(), actual.getAverageAge(), 1e-9);
+
+        long adults = users.stream()
+                .filter(u -> u.getBirthDate() != null && !u.getBirthDate().isAfter(TODAY.minusYears(18)))
+                .count();
+        assertEquals(adults, store.countByAgeRange(18, Integer.MAX_VALUE, TODAY));
+    }
+
+    @Test
+    @DisplayName("Should back the service")
+    void shouldBackTheService() {
+        UserService userService = new UserService(store);
+        userService.createUser("alice", "alice@example.com", LocalDate.now().minusYears(30));
+
+        userService.updateUserScore("alice", 89);
+
+        // 89 plus the qualification bonus
+        assertEquals(99, userService.getAllUsers().get(0).getScore());
+        assertTrue(userService.canAccessPremiumFeatures("alice"));
+        assertEquals(1, userService.generateStatistics().getPromotableUsers());
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.pitdemo.service.store;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the structurally shared immutable vector.
+ */
+@DisplayName("PersistentVector Tests")
+class PersistentVectorTest {
+
+    private static <E> List<E> toList(PersistentVector<E> vector) {
+        List<E> elements = new ArrayList<>();
+        vector.forEach(elements::add);
+        return elements;
+    }
+
+    @Test
+    @DisplayName("Should append and read back across tree levels")
+    void shouldAppendAcrossLevels() {
+        PersistentVector<Integer> vector = PersistentVector.empty();
+        // The tree gains a level at 1056 elements and again at 33824
+        for (int i = 0; i < 40_000; i++) {
+            vector = vector.append(i);
+        }
+
+        assertEquals(40_000, vector.size());
+        for (int i = 0; i < 40_000; i++) {
+            assertEquals(i, vector.get(i));
+        }
+        List<Integer> elements = toList(vector);
+        assertEquals(40_000, elements.size());
+        for (int i = 0; i < elements.size(); i++) {
+            assertEquals(i, elements.get(i));
+        }
+    }
+
+    @Test
+    @DisplayName("Should leave earlier versions untouched by appends and sets")
+    void shouldLeaveEarlierVersionsUntouched() {
+        PersistentVector<String> empty = PersistentVector.empty();
+        PersistentVector<String> one = empty.append("a");
+        PersistentVector<String> two = one.append("b");
+        PersistentVector<String> replaced = two.set(0, "z");
+        PersistentVector<String> branch = one.append("c");
+
+        assertEquals(0, empty.size());
+        assertEquals(List.of("a"), toList(one));
+        assertEquals(List.of("a", "b"), toList(two));
+        assertEquals(List.of("z", "b"), toList(replaced));
+        assertEquals(List.of("a", "c"), toList(branch));
+    }
+
+    @Test
+    @DisplayName("Should match a list through random appends and sets, keeping every version")
+    void shouldMatchListThroughRandomOperations() {
+        Random random = new Random(24);
+        List<List<Integer>> expected = new ArrayList<>();
+        List<PersistentVector<Integer>> versions = new ArrayList<>();
+        List<Integer> list = new ArrayList<>();
+        PersistentVector<Integer> vector = PersistentVector.empty();
+        for (int step = 0; step < 5_000; step++) {
+            int value = random.nextInt();
+            if (list.isEmpty() || random.nextInt(3) > 0) {
+                list.add(value);
+                vector = vector.append(value);
+            } else {
+                int index = random.nextInt(list.size());
+                list.set(index, value);
+                vector = vector.set(index, value);
+            }
+            if (step % 250 == 0) {
+                expected.add(new ArrayList<>(list));
+                versions.add(vector);
+            }
+        }
+
+        assertEquals(list, toList(vector));
+        for (int i = 0; i < versions.size(); i++) {
+            assertEquals(expected.get(i), toList(versions.get(i)));
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject indexes outside the vector")
+    void shouldRejectOutOfRangeIndexes() {
+        PersistentVector<String> vector = PersistentVector.<String>empty().append("a");
+
+        assertThrows(IndexOutOfBoundsException.class, () -> vector.get(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> vector.get(-1));
+        assertThrows(IndexOutOfBoundsException.class, () -> vector.set(1, "b"));
+    }
+}
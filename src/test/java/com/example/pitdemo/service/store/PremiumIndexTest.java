@@ -0,0 +1,161 @@
+package com.example.pitdemo.service.store;
+
+import com.example.pitdemo.model.User;
+import com.example.pitdemo.service.PremiumEligibility;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that the maintained premium set always matches evaluating every
+ * user, including when users turn 18 or 25 without any write.
+ */
+@DisplayName("PremiumIndex Tests")
+class PremiumIndexTest {
+
+    private static final LocalDate START = LocalDate.of(2026, 2, 20);
+
+    private PremiumIndex index;
+    private List<User> users;
+
+    @BeforeEach
+    void setUp() {
+        index = new PremiumIndex(START);
+        users = new ArrayList<>();
+    }
+
+    private User add(LocalDate birthDate, int score, User.UserStatus status) {
+        User user = new User("user" + users.size(), "user" + users.size() + "@example.com", birthDate);
+        user.setScore(score);
+        user.setStatus(status);
+        users.add(user);
+        index.userAdded(user, UserState.of(user));
+        return user;
+    }
+
+    private void change(User user, Consumer<User> mutation) {
+        UserState before = UserState.of(user);
+        mutation.accept(user);
+        index.userChanged(user, before, UserState.of(user));
+    }
+
+    private void assertMatchesRecomputation(LocalDate today) {
+        List<User> expected = users.stream()
+                .filter(user -> PremiumEligibility.isEligible(user, today))
+                .toList();
+        assertEquals(new HashSet<>(expected), new HashSet<>(index.find(today)));
+        assertEquals(expected.size(), index.find(today).size());
+        for (User user : users) {
+            assertEquals(expected.contains(user), index.contains(user, today), user.getUsername());
+        }
+    }
+
+    @Test
+    @DisplayName("Should require an active adult with a prime or high score over the age minimum")
+    void shouldApplyEligibilityRule() {
+        User prime = add(LocalDate.of(1990, 1, 1), 71, User.UserStatus.ACTIVE);
+        User high = add(LocalDate.of(1990, 1, 1), 86, User.UserStatus.ACTIVE);
+        User composite = add(LocalDate.of(1990, 1, 1), 72, User.UserStatus.ACTIVE);
+        User junior = add(LocalDate.of(2004, 1, 1), 61, User.UserStatus.ACTIVE);
+        User seniorLow = add(LocalDate.of(1990, 1, 1), 61, User.UserStatus.ACTIVE);
+        User inactive = add(LocalDate.of(1990, 1, 1), 97, User.UserStatus.INACTIVE);
+        User minor = add(LocalDate.of(2015, 1, 1), 97, User.UserStatus.ACTIVE);
+        User undated = add(null, 97, User.UserStatus.ACTIVE);
+
+        assertEquals(List.of(prime, high, junior), index.find(START));
+        assertFalse(index.contains(composite, START));
+        assertFalse(index.contains(seniorLow, START));
+        assertFalse(index.contains(inactive, START));
+        assertFalse(index.contains(minor, START));
+        assertFalse(index.contains(undated, START));
+        assertMatchesRecomputation(START);
+    }
+
+    @Test
+    @DisplayName("Should follow score, status and birth date changes, keeping order for users who stay")
+    void shouldFollowChanges() {
+        User first = add(LocalDate.of(1990, 1, 1), 71, User.UserStatus.ACTIVE);
+        User second = add(LocalDate.of(1990, 1, 1), 50, User.UserStatus.ACTIVE);
+
+        change(second, user -> user.setScore(89));
+        change(first, user -> user.setScore(73));
+        assertEquals(List.of(first, second), index.find(START));
+
+        change(first, user -> user.setStatus(User.UserStatus.SUSPENDED));
+        change(second, user -> user.setBirthDate(LocalDate.of(2012, 1, 1)));
+        assertEquals(List.of(), index.find(START));
+
+        change(first, user -> user.setStatus(User.UserStatus.ACTIVE));
+        assertEquals(List.of(first), index.find(START));
+        assertMatchesRecomputation(START);
+    }
+
+    @Test
+    @DisplayName("Should gain users on their 18th birthday and drop low scorers on their 25th")
+    void shouldRollOverBirthdays() {
+        User turning18 = add(START.minusYears(18).plusDays(3), 61, User.UserStatus.ACTIVE);
+        User turning25 = add(START.minusYears(25).plusDays(5), 61, User.UserStatus.ACTIVE);
+        User leapling = add(LocalDate.of(2008, 2, 29), 89, User.UserStatus.ACTIVE);
+
+        assertEquals(List.of(turning25), index.find(START));
+        assertTrue(index.contains(turning18, START.plusDays(3)));
+        assertTrue(index.contains(turning25, START.plusDays(4)));
+        assertFalse(index.contains(turning25, START.plusDays(5)));
+        assertFalse(index.contains(leapling, LocalDate.of(2026, 2, 28)));
+        assertTrue(index.contains(leapling, LocalDate.of(2026, 3, 1)));
+        assertEquals(List.of(turning18, leapling), index.find(LocalDate.of(2026, 3, 1)));
+
+        // A user changed after rolling over is filed under its next threshold
+        change(turning18, user -> user.setScore(67));
+        assertTrue(index.contains(turning18, START.plusYears(7).plusDays(2)));
+        assertFalse(index.contains(turning18, START.plusYears(7).plusDays(3)));
+    }
+
+    @Test
+    @DisplayName("Should match recomputation through random changes and passing days")
+    void shouldMatchRecomputationUnderRandomChanges() {
+        Random random = new Random(17);
+        User.UserStatus[] statuses = User.UserStatus.values();
+        for (int i = 0; i < 200; i++) {
+            LocalDate birthDate = random.nextInt(20) == 0 ? null : START.minusDays(random.nextInt(30 * 365));
+            add(birthDate, random.nextInt(101), statuses[random.nextInt(statuses.length)]);
+        }
+
+        LocalDate today = START;
+        for (int step = 0; step < 300; step++) {
+            User user = users.get(random.nextInt(users.size()));
+            switch (random.nextInt(3)) {
+                case 0 -> change(user, u -> u.setScore(random.nextInt(101)));
+                case 1 -> change(user, u -> u.setStatus(statuses[random.nextInt(statuses.length)]));
+                default -> change(user, u -> u.setBirthDate(START.minusDays(random.nextInt(30 * 365))));
+            }
+            today = today.plusDays(random.nextInt(60));
+            if (step % 10 == 0) {
+                assertMatchesRecomputation(today);
+            }
+        }
+        assertMatchesRecomputation(today.plusYears(10));
+    }
+
+    @Test
+    @DisplayName("Should forget every user when cleared")
+    void shouldClear() {
+        add(LocalDate.of(1990, 1, 1), 97, User.UserStatus.ACTIVE);
+        add(START.minusYears(18).plusDays(1), 97, User.UserStatus.ACTIVE);
+
+        index.cleared();
+        users.clear();
+
+        assertEquals(List.of(), index.find(START.plusDays(2)));
+        assertMatchesRecomputation(START.plusDays(2));
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.pitdemo.service.store;
+
+import com.example.pitdemo.model.User;
+import com.example.pitdemo.service.UserRanking;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that the maintained leaderboard always matches ranking and sorting
+ * every user, including when minors turn 18 without any write.
+ */
+@DisplayName("RankingIndex Tests")
+class RankingIndexTest {
+
+    private static final LocalDate START = LocalDate.of(2026, 2, 20);
+
+    private RankingIndex index;
+    private List<User> users;
+
+    @BeforeEach
+    void setUp() {
+        index = new RankingIndex(START);
+        users = new ArrayList<>();
+    }
+
+    private User add(LocalDate birthDate, int score, User.UserStatus status) {
+        User user = new User("user" + users.size(), "user" + users.size() + "@example.com", birthDate);
+        user.setScore(score);
+        user.setStatus(status);
+        users.add(user);
+        index.userAdded(user, UserState.of(user));
+        return user;
+    }
+
+    private void change(User user, Consumer<User> mutation) {
+        UserState before = UserState.of(user);
+        mutation.accept(user);
+        index.userChanged(user, before, UserState.of(user));
+    }
+
+    private void assertMatchesRecomputation(LocalDate today) {
+        List<User> expected = users.stream()
+                .filter(user -> UserRanking.isRankable(user.getScore(), user.getStatus()))
+                .sorted(UserRanking.leaderboardOrder(today))
+                .toList();
+        assertEquals(expected, index.top(Integer.MAX_VALUE, today));
+        assertEquals(expected.subList(0, Math.min(3, expected.size())), index.top(3, today));
+
+        for (User user : expected) {
+            double ranking = UserRanking.of(user, today);
+            long ahead = expected.stream().filter(other -> UserRanking.of(other, today) > ranking).count();
+            assertEquals(ahead + 1, index.rankOf(user, today), user.getUsername());
+        }
+    }
+
+    @Test
+    @DisplayName("Should order by ranking, ties by username, and share positions on ties")
+    void shouldOrderAndRank() {
+        User novice = add(LocalDate.of(1990, 1, 1), 10, User.UserStatus.ACTIVE);
+        User expert = add(LocalDate.of(1990, 1, 1), 95, User.UserStatus.ACTIVE);
+        User twin = add(LocalDate.of(1985, 1, 1), 10, User.UserStatus.ACTIVE);
+        User minor = add(LocalDate.of(2015, 1, 1), 95, User.UserStatus.ACTIVE);
+
+        assertEquals(List.of(expert, minor, novice, twin), index.top(10, START));
+        assertEquals(1, index.rankOf(expert, START));
+        assertEquals(3, index.rankOf(novice, START));
+        assertEquals(3, index.rankOf(twin, START));
+        assertMatchesRecomputation(START);
+    }
+
+    @Test
+    @DisplayName("Should move users as score, status and birth date change")
+    void shouldFollowChanges() {
+        User alice = add(LocalDate.of(1990, 1, 1), 40, User.UserStatus.ACTIVE);
+        User bob = add(LocalDate.of(1990, 1, 1), 60, User.UserStatus.ACTIVE);
+
+        change(alice, user -> user.setScore(99));
+        assertEquals(List.of(alice, bob), index.top(2, START));
+
+        change(alice, user -> user.setStatus(User.UserStatus.DELETED));
+        assertEquals(List.of(bob, alice), index.top(2, START));
+
+        change(bob, user -> user.setBirthDate(LocalDate.of(2020, 1, 1)));
+        assertMatchesRecomputation(START);
+    }
+
+    @Test
+    @DisplayName("Should re-rank minors as adults once they turn 18")
+    void shouldRollMinorsOver() {
+        User adult = add(LocalDate.of(1990, 1, 1), 60, User.UserStatus.ACTIVE);
+        User minor = add(LocalDate.of(2008, 2, 29), 60, User.UserStatus.ACTIVE);
+
+        assertEquals(2, index.rankOf(minor, START));
+        assertEquals(2, index.rankOf(minor, LocalDate.of(2026, 2, 28)));
+        // Born on February 29, so 18 on March 1 in a common year
+        assertEquals(1, index.rankOf(minor, LocalDate.of(2026, 3, 1)));
+        assertEquals(1, index.rankOf(adult, LocalDate.of(2026, 3, 1)));
+        assertMatchesRecomputation(LocalDate.of(2026, 3, 1));
+    }
+
+    @Test
+    @DisplayName("Should leave out users that cannot be ranked, and empty on clear")
+    void shouldSkipUnrankableUsers() {
+        User ranked = add(null, 50, User.UserStatus.ACTIVE);
+        User negative = add(null, -5, User.UserStatus.ACTIVE);
+        User noStatus = add(null, 50, null);
+
+        assertEquals(List.of(ranked), index.top(10, START));
+        assertEquals(0, index.rankOf(negative, START));
+        assertEquals(0, index.rankOf(noStatus, START));
+
+        change(negative, user -> user.setScore(70));
+        assertEquals(List.of(negative, ranked), index.top(10, START));
+
+        index.cleared();
+        assertEquals(List.of(), index.top(10, START));
+        assertEquals(0, index.rankOf(ranked, START));
+    }
+
+    @Test
+    @DisplayName("Should match a full recomputation after random changes over time")
+    void shouldMatchRecomputationOverTime() {
+        Random random = new Random(7);
+        User.UserStatus[] statuses = User.UserStatus.values();
+        for (int i = 0; i < 300; i++) {
+            LocalDate birthDate = random.nextInt(10) == 0 ? null : START.minusDays(random.nextInt(40 * 365));
+            add(birthDate, random.nextInt(101), statuses[random.nextInt(statuses.length)]);
+        }
+
+        LocalDate today = START;
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 100; i++) {
+                User user = users.get(random.nextInt(users.size()));
+                int score = random.nextInt(101);
+                change(user, changed -> changed.setScore(score));
+            }
+            today = today.plusDays(random.nextInt(400));
+            assertMatchesRecomputation(today);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.pitdemo.service.store;
+
+import com.example.pitdemo.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that the users kept by status always match checking every user.
+ */
+@DisplayName("StatusIndex Tests")
+class StatusIndexTest {
+
+    private static final User.UserStatus[] STATUSES = User.UserStatus.values();
+
+    private StatusIndex index;
+    private List<User> users;
+
+    @BeforeEach
+    void setUp() {
+        index = new StatusIndex();
+        users = new ArrayList<>();
+    }
+
+    private User add(User.UserStatus status) {
+        User user = new User("user" + users.size(), "user" + users.size() + "@example.com", LocalDate.of(1990, 1, 1));
+        user.setStatus(status);
+        users.add(user);
+        index.userAdded(user, UserState.of(user));
+        return user;
+    }
+
+    private void setStatus(User user, User.UserStatus status) {
+        UserState before = UserState.of(user);
+        user.setStatus(status);
+        index.userChanged(user, before, UserState.of(user));
+    }
+
+    private void assertMatchesScan() {
+        for (User.UserStatus status : STATUSES) {
+            List<User> expected = users.stream().filter(user -> user.getStatus() == status).collect(Collectors.toList());
+            assertEquals(expected.size(), index.count(status), status.name());
+            assertEquals(expected.size(), index.find(status).size(), status.name());
+            assertTrue(index.find(status).containsAll(expected), status.name());
+        }
+    }
+
+    @Test
+    @DisplayName("Should match a scan through random status changes")
+    void shouldMatchScanThroughChanges() {
+        Random random = new Random(25);
+        for (int i = 0; i < 200; i++) {
+            add(STATUSES[random.nextInt(STATUSES.length)]);
+        }
+        assertMatchesScan();
+
+        for (int i = 0; i < 1_000; i++) {
+            setStatus(users.get(random.nextInt(users.size())), STATUSES[random.nextInt(STATUSES.length)]);
+        }
+        assertMatchesScan();
+    }
+
+    @Test
+    @DisplayName("Should list users in the order they took the status")
+    void shouldListInOrderStatusTaken() {
+        User first = add(User.UserStatus.ACTIVE);
+        User second = add(User.UserStatus.ACTIVE);
+        User third = add(User.UserStatus.INACTIVE);
+
+        setStatus(first, User.UserStatus.SUSPENDED);
+        setStatus(third, User.UserStatus.ACTIVE);
+        setStatus(first, User.UserStatus.ACTIVE);
+
+        assertEquals(List.of(second, third, first), index.find(User.UserStatus.ACTIVE));
+        assertEquals(List.of(), index.find(User.UserStatus.SUSPENDED));
+        assertEquals(0, index.count(User.UserStatus.INACTIVE));
+    }
+
+    @Test
+    @DisplayName("Should ignore changes that keep the status")
+    void shouldIgnoreOtherChanges() {
+        User user = add(User.UserStatus.ACTIVE);
+
+        UserState before = UserState.of(user);
+        user.setScore(70);
+        index.userChanged(user, before, UserState.of(user));
+
+        assertEquals(List.of(user), index.find(User.UserStatus.ACTIVE));
+    }
+
+    @Test
+    @DisplayName("Should leave out users without a status")
+    void shouldLeaveOutUsersWithoutStatus() {
+        User user = add(null);
+
+        setStatus(user, User.UserStatus.DELETED);
+        assertEquals(1, index.count(User.UserStatus.DELETED));
+        setStatus(user, null);
+
+        for (User.UserStatus status : STATUSES) {
+            assertEquals(0, index.count(status));
+        }
+    }
+
+    @Test
+    @DisplayName("Should forget every user on clear")
+    void shouldClear() {
+        add(User.UserStatus.ACTIVE);
+        add(User.UserStatus.SUSPENDED);
+
+        index.cleared();
+
+        for (User.UserStatus status : STATUSES) {
+            assertEquals(0, index.count(status));
+            assertTrue(index.find(status).isEmpty());
+        }
+    }
+}
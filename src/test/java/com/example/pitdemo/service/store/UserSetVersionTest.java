@@ -0,0 +1,140 @@
+package com.example.pitdemo.service.store;
+
+import com.example.pitdemo.model.User;
+import com.example.pitdemo.service.UserService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for point-in-time versions of the user set.
+ */
+@DisplayName("UserSetVersion Tests")
+class UserSetVersionTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 2, 20);
+
+    private static User user(String name, LocalDate birthDate) {
+        return new User(name, name + "@example.com", birthDate);
+    }
+
+    @Test
+    @DisplayName("Should find ages by the birth dates of the version, like the live index")
+    void shouldFindByAgeRangeLikeIndex() {
+        InMemoryUserStore store = new InMemoryUserStore();
+        Random random = new Random(24);
+        for (int i = 0; i < 300; i++) {
+            LocalDate birthDate = i % 50 == 0 ? null : TODAY.minusDays(random.nextInt(60 * 365));
+            store.add(user("user" + i, birthDate));
+        }
+        UserSetVersion version = store.currentVersion();
+
+        for (int[] range : new int[][] {{0, 0}, {0, 17}, {18, 65}, {30, 30}, {61, 200}}) {
+            List<User> expected = store.findByAgeRange(range[0], range[1], TODAY);
+            List<User> found = version.findByAgeRange(range[0], range[1], TODAY);
+            assertEquals(new HashSet<>(expected), new HashSet<>(found));
+            assertEquals(expected.size(), found.size());
+            assertEquals(expected.size(), version.countByAgeRange(range[0], range[1], TODAY));
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep age range answers as of the version when a birth date changes")
+    void shouldKeepBirthDatesOfVersion() {
+        InMemoryUserStore store = new InMemoryUserStore();
+        User teen = user("teen", TODAY.minusYears(15));
+        store.add(teen);
+        UserSetVersion version = store.currentVersion();
+
+        teen.setBirthDate(TODAY.minusYears(40));
+
+        assertEquals(List.of(teen), version.findByAgeRange(0, 17, TODAY));
+        assertEquals(0, version.countByAgeRange(18, 100, TODAY));
+        assertEquals(1, store.currentVersion().countByAgeRange(18, 100, TODAY));
+    }
+
+    @Test
+    @DisplayName("Should capture a list of users with their current states")
+    void shouldCaptureList() {
+        User alice = user("alice", TODAY.minusYears(30));
+        alice.setScore(70);
+        User bob = user("bob", null);
+
+        UserSetVersion version = UserSetVersion.of(List.of(alice, bob));
+        alice.setScore(10);
+
+        assertEquals(0, version.getVersion());
+        assertEquals(List.of(alice, bob), version.getUsers());
+        List<Integer> scores = new ArrayList<>();
+        version.forEach((user, state) -> scores.add(state.getScore()));
+        assertEquals(List.of(70, 0), scores);
+    }
+
+    @Test
+    @DisplayName("Should give row stores a version through the service")
+    void shouldCaptureRowStoreThroughService() {
+        UserService service = new UserService(new ColumnarUserStore());
+        service.createUser("alice", "alice@example.com", TODAY.minusYears(30));
+        service.createUser("bob", "bob@example.com", TODAY.minusYears(20));
+
+        UserSetVersion version = service.getUserSetVersion();
+
+        assertEquals(2, version.size());
+        assertEquals("bob", version.getUsers().get(1).getUsername());
+    }
+
+    @Test
+    @DisplayName("Should never show a reader a version that mixes two writes")
+    void shouldPublishConsistentVersionsUnderConcurrentWrites() throws InterruptedException {
+        UserService service = new UserService();
+        for (int i = 0; i < 100; i++) {
+            service.createUser("user" + i, "user" + i + "@example.com", TODAY.minusYears(30));
+        }
+        AtomicBoolean done = new AtomicBoolean();
+        CountDownLatch started = new CountDownLatch(1);
+        List<String> problems = new CopyOnWriteArrayList<>();
+        Thread reader = new Thread(() -> {
+            long last = -1;
+            started.countDown();
+            while (!done.get()) {
+                UserSetVersion version = service.getUserSetVersion();
+                // Every writer round sets all scores to the round number, one by one, ascending
+                int[] previous = {Integer.MAX_VALUE};
+                version.forEach((user, state) -> {
+                    if (state.getScore() > previous[0]) {
+                        problems.add("score rose within version " + version.getVersion());
+                    }
+                    previous[0] = state.getScore();
+                });
+                if (version.getVersion() < last) {
+                    problems.add("version went back to " + version.getVersion());
+                }
+                last = version.getVersion();
+            }
+        });
+        reader.start();
+        started.await();
+        // Below 50, so no qualification bonus breaks the pattern
+        for (int round = 1; round < 50; round++) {
+            for (int i = 0; i < 100; i++) {
+                service.updateUserScore("user" + i, round);
+            }
+        }
+        done.set(true);
+        reader.join();
+
+        assertEquals(List.of(), problems);
+        UserSetVersion last = service.getUserSetVersion();
+        last.forEach((user, state) -> assertEquals(user.getScore(), state.getScore()));
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.pitdemo.service.store;
+
+import com.example.pitdemo.model.User;
+import com.example.pitdemo.service.UserService.UserStatistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that the incrementally maintained statistics always match a full
+ * recomputation, including when minors turn 18 without any write.
+ */
+@DisplayName("UserStatisticsIndex Tests")
+class UserStatisticsIndexTest {
+
+    private static final LocalDate START = LocalDate.of(2026, 2, 20);
+
+    private UserStatisticsIndex index;
+    private List<User> users;
+
+    @BeforeEach
+    void setUp() {
+        index = new UserStatisticsIndex(START);
+        users = new ArrayList<>();
+    }
+
+    private User add(LocalDate birthDate, int score, User.UserStatus status) {
+        User user = new User("user" + users.size(), "user" + users.size() + "@example.com", birthDate);
+        user.setScore(score);
+        user.setStatus(status);
+        users.add(user);
+        index.userAdded(user, UserState.of(user));
+        return user;
+    }
+
+    private void change(User user, Consumer<User> mutation) {
+        UserState before = UserState.of(user);
+        mutation.accept(user);
+        index.userChanged(user, before, UserState.of(user));
+    }
+
+    private void assertMatchesRecomputation(LocalDate today) {
+        UserStatistics stats = index.snapshot(today);
+
+        int adults = 0;
+        int active = 0;
+        int promotable = 0;
+        long scoreSum = 0;
+        long ageSum = 0;
+        for (User user : users) {
+            int age = user.getBirthDate() == null ? 0 : Period.between(user.getBirthDate(), today).getYears();
+            boolean adult = age >= 18;
+            boolean isActive = user.getStatus() == User.UserStatus.ACTIVE;
+            adults += adult ? 1 : 0;
+            active += isActive ? 1 : 0;
+            promotable += isActive && user.getScore() >= 75 && adult ? 1 : 0;
+            scoreSum += user.getScore();
+            ageSum += age;
+        }
+
+        assertEquals(users.size(), stats.getTotalUsers(), "total on " + today);
+        assertEquals(active, stats.getActiveUsers(), "active on " + today);
+        assertEquals(adults, stats.getAdultUsers(), "adults on " + today);
+        assertEquals(promotable, stats.getPromotableUsers(), "promotable on " + today);
+        assertEquals(scoreSum / (double) users.size(), stats.getAverageScore(), 1e-9, "score on " + today);
+        assertEquals(ageSum / (double) users.size(), stats.getAverageAge(), 1e-9, "age on " + today);
+    }
+
+    @Test
+    @DisplayName("Should return zeros when empty")
+    void shouldReturnZerosWhenEmpty() {
+        UserStatistics stats = index.snapshot(START);
+
+        assertEquals(0, stats.getTotalUsers());
+        assertEquals(0.0, stats.getAverageScore());
+        assertEquals(0.0, stats.getAverageAge());
+        assertEquals(0, stats.getAdultUsers());
+    }
+
+    @Test
+    @DisplayName("Should compute exact averages and counts")
+    void shouldComputeExactAveragesAndCounts() {
+        add(LocalDate.of(1990, 1, 1), 80, User.UserStatus.ACTIVE);
+        add(LocalDate.of(2010, 6, 15), 40, User.UserStatus.INACTIVE);
+        add(LocalDate.of(2000, 2, 21), 75, User.UserStatus.ACTIVE);
+
+        UserStatistics stats = index.snapshot(START);
+
+        assertEquals(3, stats.getTotalUsers());
+        assertEquals(65.0, stats.getAverageScore());
+        // Ages 36, 15 and 25 (the 2000 birthday is one day away)
+        assertEquals(76 / 3.0, stats.getAverageAge(), 1e-9);
+        assertEquals(2, stats.getActiveUsers());
+        assertEquals(2, stats.getAdultUsers());
+        assertEquals(2, stats.getPromotableUsers());
+    }
+
+    @Test
+    @DisplayName("Should count minors as adults from their 18th birthday")
+    void shouldRollMinorsOverOnTheirBirthday() {
+        User minor = add(LocalDate.of(2008, 2, 22), 90, User.UserStatus.ACTIVE);
+        User leapling = add(LocalDate.of(2008, 2, 29), 10, User.UserStatus.INACTIVE);
+
+        assertEquals(0, index.snapshot(START).getAdultUsers());
+        assertEquals(0, index.snapshot(LocalDate.of(2026, 2, 21)).getAdultUsers());
+
+        UserStatistics birthday = index.snapshot(LocalDate.of(2026, 2, 22));
+        assertEquals(1, birthday.getAdultUsers());
+        assertEquals(1, birthday.getPromotableUsers());
+
+        // 2026 is not a leap year, so a February 29 birthday arrives on March 1
+        assertEquals(1, index.snapshot(LocalDate.of(2026, 2, 28)).getAdultUsers());
+        assertEquals(2, index.snapshot(LocalDate.of(2026, 3, 1)).getAdultUsers());
+
+        change(leapling, u -> u.updateScore(80));
+        change(minor, u -> u.setStatus(User.UserStatus.SUSPENDED));
+        assertMatchesRecomputation(LocalDate.of(2026, 3, 1));
+    }
+
+    @Test
+    @DisplayName("Should follow status, score and birth date changes")
+    void shouldFollowChanges() {
+        User user = add(LocalDate.of(1990, 1, 1), 0, User.UserStatus.INACTIVE);
+
+        change(user, u -> u.updateScore(80));
+        assertEquals(1, index.snapshot(START).getPromotableUsers());
+
+        change(user, u -> u.setBirthDate(LocalDate.of(2015, 1, 1)));
+        assertEquals(0, index.snapshot(START).getAdultUsers());
+        assertEquals(0, index.snapshot(START).getPromotableUsers());
+
+        change(user, u -> u.setBirthDate(null));
+        assertMatchesRecomputation(START);
+
+        change(user, u -> u.setBirthDate(LocalDate.of(1980, 5, 5)));
+        assertMatchesRecomputation(START);
+    }
+
+    @Test
+    @DisplayName("Should match Period for birth dates in the future")
+    void shouldMatchPeriodForFutureBirthDates() {
+        add(LocalDate.of(2030, 6, 1), 0, User.UserStatus.INACTIVE);
+        add(LocalDate.of(2027, 1, 1), 0, User.UserStatus.INACTIVE);
+        add(LocalDate.of(1999, 9, 9), 0, User.UserStatus.INACTIVE);
+
+        assertMatchesRecomputation(START);
+        assertMatchesRecomputation(LocalDate.of(2027, 6, 1));
+    }
+
+    @Test
+    @DisplayName("Should match a full recomputation over random changes and dates")
+    void shouldMatchRecomputationOverRandomChanges() {
+        Random random = new Random(42);
+        User.UserStatus[] statuses = User.UserStatus.values();
+        for (int i = 0; i < 300; i++) {
+            LocalDate birthDate = START.minusDays(random.nextInt(40 * 365));
+            add(birthDate, random.nextInt(101), statuses[random.nextInt(statuses.length)]);
+        }
+
+        LocalDate today = START;
+        for (int step = 0; step < 60; step++) {
+            for (int i = 0; i < 20; i++) {
+                User user = users.get(random.nextInt(users.size()));
+                switch (random.nextInt(4)) {
+                    case 0 -> change(user, u -> u.updateScore(random.nextInt(101)));
+                    case 1 -> change(user, u -> u.setStatus(statuses[random.nextInt(statuses.length)]));
+                    case 2 -> change(user, u -> u.setScore(random.nextInt(101)));
+                    default -> change(user, u -> u.setBirthDate(START.minusDays(random.nextInt(40 * 365))));
+                }
+            }
+            today = today.plusDays(random.nextInt(40));
+            assertMatchesRecomputation(today);
+        }
+    }
+
+    @Test
+    @DisplayName("Should reset on clear")
+    void shouldResetOnClear() {
+        add(LocalDate.of(1990, 1, 1), 80, User.UserStatus.ACTIVE);
+        add(LocalDate.of(2015, 1, 1), 80, User.UserStatus.ACTIVE);
+
+        index.cleared();
+        users.clear();
+
+        assertEquals(0, index.snapshot(START).getTotalUsers());
+        add(LocalDate.of(2000, 1, 1), 10, User.UserStatus.INACTIVE);
+        assertMatchesRecomputation(LocalDate.of(2040, 1, 1));
+    }
+}
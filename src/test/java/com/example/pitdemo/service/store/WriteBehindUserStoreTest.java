@@ -0,0 +1,270 @@
+package com.example.pitdemo.service.store;
+
+import com.example.pitdemo.model.User;
+import com.example.pitdemo.repository.UserRepository;
+import com.example.pitdemo.service.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the write-behind store against the embedded H2 database.
+ *
+ * Like the store's background writer, tests run outside a test transaction.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DisplayName("WriteBehindUserStore Tests")
+class WriteBehindUserStoreTest {
+
+    @Autowired
+    private UserRepository repository;
+
+    private WriteBehindUserStore store;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (store != null) {
+            store.close();
+        }
+        repository.deleteAllInBatch();
+    }
+
+    // A long interval, so only batch size, flush and close trigger writes
+    private WriteBehindUserStore open(int maxPending, int batchSize) {
+        store = new WriteBehindUserStore(repository, maxPending, batchSize, Duration.ofMinutes(1));
+        return store;
+    }
+
+    private int storedScore(String username) {
+        return repository.findByUsername(username).orElseThrow().getScore();
+    }
+
+    private List<String> storedUsernames() {
+        return repository.findAll().stream().map(User::getUsername).sorted().toList();
+    }
+
+    private static void awaitPending(WriteBehindUserStore store, int count) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (store.pendingCount() != count && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(count, store.pendingCount());
+    }
+
+    /**
+     * The repository, except that the next {@code failures} batch writes
+     * fail at their last step, inside their transaction. A failing write
+     * counts down {@code entered}, waits for {@code release} if blocking,
+     * and counts down {@code failed} once it has rolled back.
+     */
+    private final class FailingWrites {
+        private final AtomicInteger failures = new AtomicInteger();
+        private final CountDownLatch entered = new CountDownLatch(1);
+        private final CountDownLatch release;
+        private final CountDownLatch failed = new CountDownLatch(1);
+
+        private FailingWrites(boolean blocking) {
+            this.release = new CountDownLatch(blocking ? 1 : 0);
+        }
+
+        UserRepository repository() {
+            return (UserRepository) Proxy.newProxyInstance(UserRepository.class.getClassLoader(),
+                    new Class<?>[] {UserRepository.class}, (proxy, method, args) -> {
+                        boolean failing = method.getName().equals("writeBatch")
+                                && failures.getAndUpdate(n -> Math.max(n - 1, 0)) > 0;
+                        if (failing) {
+                            @SuppressWarnings("unchecked")
+                            List<User> updates = (List<User>) args[2];
+                            @SuppressWarnings("unchecked")
+                            List<User> inserts = (List<User>) args[1];
+                            if (updates.isEmpty()) {
+                                args[1] = failingOnRead(inserts);
+                            } else {
+                                args[2] = failingOnRead(updates);
+                            }
+                            entered.countDown();
+                            release.await();
+                        }
+                        try {
+                            return method.invoke(repository, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        } finally {
+                            if (failing) {
+                                failed.countDown();
+                            }
+                        }
+                    });
+        }
+
+        private List<User> failingOnRead(List<User> users) {
+            return new AbstractList<>() {
+                @Override
+                public User get(int index) {
+                    throw new IllegalStateException("Database unavailable");
+                }
+
+                @Override
+                public int size() {
+                    return users.size();
+                }
+            };
+        }
+    }
+
+    @Test
+    @DisplayName("Should serve from memory and write coalesced changes on flush")
+    void shouldWriteCoalescedChangesOnFlush() throws InterruptedException {
+        open(100, 100);
+        UserService service = new UserService(store);
+        service.createUser("alice", "alice@example.com", LocalDate.of(1990, 1, 1));
+        for (int score = 0; score <= 40; score++) {
+            service.updateUserScore("alice", score);
+        }
+
+        assertEquals(40, store.findByUsername("alice").getScore());
+        assertEquals(0, repository.count());
+        assertEquals(1, store.pendingCount());
+
+        store.flush();
+
+        assertEquals(0, store.pendingCount());
+        assertEquals(40, storedScore("alice"));
+        assertNotNull(store.findByUsername("alice").getId());
+
+        service.updateUserScore("alice", 45);
+        store.flush();
+        assertEquals(45, storedScore("alice"));
+        assertEquals(1, repository.count());
+    }
+
+    @Test
+    @DisplayName("Should load existing users and write pending changes on close")
+    void shouldLoadAndFlushOnClose() throws InterruptedException {
+        repository.insertAll(List.of(new User("bob", "bob@example.com", LocalDate.of(1980, 5, 5))));
+        open(100, 100);
+
+        User bob = store.findByUsername("bob");
+        assertNotNull(bob);
+        assertTrue(store.emailExists("BOB@example.com"));
+        bob.setScore(70);
+        store.add(new User("carol", "carol@example.com", null));
+
+        store.close();
+        store = null;
+
+        assertEquals(70, storedScore("bob"));
+        assertEquals(2, repository.count());
+    }
+
+    @Test
+    @DisplayName("Should hold writers back once max pending users are unwritten")
+    void shouldBoundPendingUsers() throws InterruptedException {
+        open(10, 5);
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            users.add(new User("user" + i, "user" + i + "@example.com", null));
+        }
+
+        store.addAll(users);
+
+        assertTrue(store.pendingCount() <= 10);
+        store.flush();
+        assertEquals(100, repository.count());
+    }
+
+    @Test
+    @DisplayName("Should empty the table on clear and reject use after close")
+    void shouldClearAndClose() throws InterruptedException {
+        open(100, 100);
+        store.add(new User("alice", "alice@example.com", null));
+        store.flush();
+
+        store.clear();
+        store.add(new User("dave", "dave@example.com", null));
+        store.flush();
+
+        assertTrue(repository.findByUsername("alice").isEmpty());
+        assertEquals(1, repository.count());
+
+        store.close();
+        assertThrows(IllegalStateException.class, () -> store.add(new User("eve", "eve@example.com", null)));
+    }
+
+    @Test
+    @DisplayName("Should roll back a failed write whole, requeue its users and retry")
+    void shouldRequeueAndRetryFailedWrite() throws InterruptedException {
+        FailingWrites writes = new FailingWrites(false);
+        store = new WriteBehindUserStore(writes.repository(), 100, 2, Duration.ofMinutes(1));
+        store.add(new User("alice", "alice@example.com", null));
+        store.flush();
+        writes.failures.set(1);
+
+        // An update and an insert fill the batch; the update fails after the insert ran
+        store.findByUsername("alice").setScore(70);
+        store.add(new User("carol", "carol@example.com", null));
+        assertTrue(writes.failed.await(10, TimeUnit.SECONDS));
+
+        assertEquals(List.of("alice"), storedUsernames());
+        assertEquals(0, storedScore("alice"));
+        awaitPending(store, 2);
+        assertNull(store.findByUsername("carol").getId());
+
+        store.flush();
+
+        assertEquals(List.of("alice", "carol"), storedUsernames());
+        assertEquals(70, storedScore("alice"));
+        assertNotNull(store.findByUsername("carol").getId());
+    }
+
+    @Test
+    @DisplayName("Should not bring back users cleared while their write was failing")
+    void shouldNotResurrectUsersClearedDuringFailedWrite() throws InterruptedException {
+        FailingWrites writes = new FailingWrites(true);
+        store = new WriteBehindUserStore(writes.repository(), 100, 1, Duration.ofMillis(50));
+        store.add(new User("alice", "alice@example.com", null));
+        store.flush();
+        writes.failures.set(1);
+
+        store.add(new User("bob", "bob@example.com", null));
+        assertTrue(writes.entered.await(10, TimeUnit.SECONDS));
+        store.clear();
+        writes.release.countDown();
+        assertTrue(writes.failed.await(10, TimeUnit.SECONDS));
+
+        store.flush();
+
+        assertEquals(List.of(), storedUsernames());
+        assertEquals(0, store.size());
+        assertEquals(0, store.pendingCount());
+    }
+
+    @Test
+    @DisplayName("Should reject invalid settings")
+    void shouldRejectInvalidSettings() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new WriteBehindUserStore(null, 10, 5, Duration.ofSeconds(1)));
+        assertThrows(IllegalArgumentException.class,
+                () -> new WriteBehindUserStore(repository, 10, 20, Duration.ofSeconds(1)));
+        assertThrows(IllegalArgumentException.class,
+                () -> new WriteBehindUserStore(repository, 10, 5, Duration.ZERO));
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.pitdemo.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.time.LocalDate;
+import java.time.Period;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that AgeUtils agrees with Period-based ages, especially around leap days.
+ */
+@DisplayName("AgeUtils Tests")
+class AgeUtilsTest {
+
+    @ParameterizedTest
+    @CsvSource({
+        "2000-05-10, 18, 2018-05-10",
+        "2008-02-29, 18, 2026-03-01",
+        "2004-02-29, 20, 2024-02-29",
+        "1999-12-31, 1, 2000-12-31"
+    })
+    @DisplayName("Should return the first date of the given age")
+    void shouldReturnFirstDateOfAge(String birthDate, int age, String expected) {
+        assertEquals(LocalDate.parse(expected), AgeUtils.dateOfAge(LocalDate.parse(birthDate), age));
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        "2026-10-15, 18, 2008-10-15",
+        "2024-02-29, 1, 2023-02-28",
+        "2028-02-29, 4, 2024-02-29"
+    })
+    @DisplayName("Should return the latest qualifying birth date")
+    void shouldReturnLatestBirthDateForAge(String today, int age, String expected) {
+        assertEquals(LocalDate.parse(expected), AgeUtils.latestBirthDateForAge(LocalDate.parse(today), age));
+    }
+
+    @Test
+    @DisplayName("Should agree with Period for every day across leap years")
+    void shouldAgreeWithPeriod() {
+        LocalDate[] birthDates = {
+            LocalDate.of(2000, 2, 29), LocalDate.of(2001, 2, 28), LocalDate.of(2001, 3, 1),
+            LocalDate.of(2003, 12, 31), LocalDate.of(2004, 1, 1)
+        };
+
+        for (LocalDate birthDate : birthDates) {
+            for (LocalDate today = LocalDate.of(2017, 1, 1); today.isBefore(LocalDate.of(2025, 1, 1)); today = today.plusDays(1)) {
+                int age = Period.between(birthDate, today).getYears();
+                for (int n = 15; n <= 22; n++) {
+                    boolean atLeast = age >= n;
+                    assertEquals(atLeast, !AgeUtils.dateOfAge(birthDate, n).isAfter(today),
+                            birthDate + " on " + today + " age " + n);
+                    assertEquals(atLeast, !birthDate.isAfter(AgeUtils.latestBirthDateForAge(today, n)),
+                            birthDate + " on " + today + " age " + n);
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should compute Period ages from epoch days, including future birth dates")
+    void shouldComputeAgeFromEpochDays() {
+        for (LocalDate today = LocalDate.of(2019, 1, 1); today.isBefore(LocalDate.of(2025, 1, 1)); today = today.plusDays(3)) {
+            for (LocalDate birthDate = today.minusYears(6); birthDate.isBefore(today.plusYears(3)); birthDate = birthDate.plusDays(1)) {
+                assertEquals(Period.between(birthDate, today).getYears(),
+                        AgeUtils.age(birthDate.toEpochDay(), today.toEpochDay()),
+                        birthDate + " on " + today);
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        "1600-02-29, 2026-02-28",
+        "1899-12-31, 2026-01-01",
+        "-0001-03-01, 2026-02-28",
+        "1970-01-01, 1969-12-31"
+    })
+    @DisplayName("Should compute Period ages across centuries and eras")
+    void shouldComputeAgeAcrossEras(String birthDate, String today) {
+        LocalDate birth = LocalDate.parse(birthDate);
+        LocalDate day = LocalDate.parse(today);
+        assertEquals(Period.between(birth, day).getYears(), AgeUtils.age(birth.toEpochDay(), day.toEpochDay()));
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.pitdemo.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the cached day of a clock.
+ */
+@DisplayName("DayClock Tests")
+class DayClockTest {
+
+    private static final ZoneId ZONE = ZoneId.of("America/New_York");
+
+    /**
+     * A clock whose time the test sets.
+     */
+    private static final class ManualClock extends Clock {
+        private Instant instant;
+
+        private ManualClock(LocalDateTime time) {
+            set(time);
+        }
+
+        private void set(LocalDateTime time) {
+            instant = time.atZone(ZONE).toInstant();
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZONE;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep the day until midnight in the clock's zone")
+    void shouldFollowMidnightInZone() {
+        ManualClock time = new ManualClock(LocalDateTime.of(2026, 3, 7, 23, 59, 59));
+        DayClock clock = new DayClock(time);
+
+        LocalDate today = clock.today();
+        assertEquals(LocalDate.of(2026, 3, 7), today);
+        time.set(LocalDateTime.of(2026, 3, 7, 0, 0));
+        assertSame(today, clock.today());
+
+        time.set(LocalDateTime.of(2026, 3, 8, 0, 0));
+        assertEquals(LocalDate.of(2026, 3, 8).toEpochDay(), clock.epochDay());
+        // A 23-hour day: clocks skip from 2:00 to 3:00
+        time.set(LocalDateTime.of(2026, 3, 8, 23, 59));
+        assertEquals(LocalDate.of(2026, 3, 8), clock.today());
+        time.set(LocalDateTime.of(2026, 3, 9, 0, 0));
+        assertEquals(LocalDate.of(2026, 3, 9), clock.today());
+    }
+
+    @Test
+    @DisplayName("Should go back when the clock does")
+    void shouldFollowClockBackwards() {
+        ManualClock time = new ManualClock(LocalDateTime.of(2026, 1, 2, 12, 0));
+        DayClock clock = new DayClock(time);
+        assertEquals(LocalDate.of(2026, 1, 2), clock.today());
+
+        time.set(LocalDateTime.of(2025, 12, 31, 12, 0));
+        assertEquals(LocalDate.of(2025, 12, 31), clock.today());
+    }
+
+    @Test
+    @DisplayName("Should stay on a fixed date and agree with the system date")
+    void shouldSupportFixedAndSystemClocks() {
+        DayClock fixed = DayClock.fixed(LocalDate.of(2000, 2, 29));
+        assertEquals(LocalDate.of(2000, 2, 29), fixed.today());
+        assertEquals(LocalDate.of(2000, 2, 29).toEpochDay(), fixed.epochDay());
+
+        LocalDate before = LocalDate.now();
+        LocalDate today = DayClock.system().today();
+        assertTrue(!today.isBefore(before) && !today.isAfter(LocalDate.now()));
+        assertThrows(IllegalArgumentException.class, () -> new DayClock(null));
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.pitdemo.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for spreading hashes before masking.
+ */
+@DisplayName("HashUtils Tests")
+class HashUtilsTest {
+
+    @Test
+    @DisplayName("Should spread hashes differing only in low or only in high bits across a small table")
+    void shouldSpreadLowAndHighBits() {
+        Set<Integer> fromLowBits = new HashSet<>();
+        Set<Integer> fromHighBits = new HashSet<>();
+        for (int i = 0; i < 64; i++) {
+            fromLowBits.add(HashUtils.spread(i * 64) & 15);
+            fromHighBits.add(HashUtils.spread(i << 24) & 15);
+        }
+
+        assertEquals(16, fromLowBits.size());
+        assertEquals(16, fromHighBits.size());
+    }
+
+    @Test
+    @DisplayName("Should be deterministic")
+    void shouldBeDeterministic() {
+        assertEquals(HashUtils.spread("alice".hashCode()), HashUtils.spread("alice".hashCode()));
+        assertEquals(0, HashUtils.spread(0));
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.pitdemo.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the case-insensitive username and email keys.
+ */
+@DisplayName("KeyUtils Tests")
+class KeyUtilsTest {
+
+    @Test
+    @DisplayName("Should return keys without case as they are")
+    void shouldKeepLowerCaseKeys() {
+        String key = "alice_01@example.com";
+
+        assertSame(key, KeyUtils.normalize(key));
+        assertEquals("", KeyUtils.normalize(""));
+    }
+
+    @Test
+    @DisplayName("Should give equal keys exactly to strings equal ignoring case")
+    void shouldMatchEqualsIgnoreCase() {
+        assertEquals("alice@example.com", KeyUtils.normalize("Alice@Example.COM"));
+        assertEquals("abc_def", KeyUtils.normalize("abc_DEF"));
+        assertNotEquals(KeyUtils.normalize("straße"), KeyUtils.normalize("STRASSE"));
+        assertEquals(KeyUtils.normalize("ΣΊΣΥΦΟΣ"), KeyUtils.normalize("σίσυφος"));
+        // Deseret letters lie outside the BMP
+        assertTrue("𐐀x".equalsIgnoreCase("𐐨X"));
+        assertEquals(KeyUtils.normalize("𐐀x"), KeyUtils.normalize("𐐨X"));
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.pitdemo.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the striped lock table used by UserService.
+ */
+@DisplayName("LockStripes Tests")
+class LockStripesTest {
+
+    @ParameterizedTest
+    @CsvSource({
+        "1, 1",
+        "2, 2",
+        "3, 4",
+        "64, 64",
+        "65, 128"
+    })
+    @DisplayName("Should round stripe count up to a power of two")
+    void shouldRoundStripeCountUpToPowerOfTwo(int requested, int expected) {
+        assertEquals(expected, new LockStripes(requested).stripeCount());
+    }
+
+    @Test
+    @DisplayName("Should reject non-positive stripe count")
+    void shouldRejectNonPositiveStripeCount() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> new LockStripes(0));
+        assertEquals("Stripe count must be positive", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Should return the same lock for equal keys")
+    void shouldReturnSameLockForEqualKeys() {
+        LockStripes stripes = new LockStripes(16);
+
+        assertSame(stripes.lockFor("alice"), stripes.lockFor(new String("alice")));
+    }
+
+    @Test
+    @DisplayName("Should spread keys across stripes")
+    void shouldSpreadKeysAcrossStripes() {
+        LockStripes stripes = new LockStripes(16);
+        boolean[] used = new boolean[16];
+
+        for (int i = 0; i < 1000; i++) {
+            used[stripes.indexFor("user" + i)] = true;
+        }
+
+        for (int i = 0; i < used.length; i++) {
+            assertTrue(used[i], "Stripe " + i + " was never used");
+        }
+    }
+
+    @Test
+    @DisplayName("Should hold every stripe between lockAll and unlockAll")
+    void shouldHoldEveryStripeBetweenLockAllAndUnlockAll() throws InterruptedException {
+        LockStripes stripes = new LockStripes(4);
+        boolean[] acquired = new boolean[2];
+
+        stripes.lockAll();
+        Thread other = new Thread(() -> acquired[0] = stripes.lockFor("alice").tryLock());
+        other.start();
+        other.join();
+        stripes.unlockAll();
+        Thread after = new Thread(() -> acquired[1] = stripes.lockFor("alice").tryLock());
+        after.start();
+        after.join();
+
+        assertFalse(acquired[0]);
+        assertTrue(acquired[1]);
+    }
+
+    @Test
+    @DisplayName("Should take the stripes of several keys once each, in stripe order")
+    void shouldLockStripesOfSeveralKeys() throws InterruptedException {
+        LockStripes stripes = new LockStripes(64);
+        String first = "alice";
+        String second = "bob@example.com";
+        boolean[] acquired = new boolean[3];
+
+        int[] taken = stripes.lockAll(List.of(second, first, new String(first)));
+        Thread other = new Thread(() -> {
+            acquired[0] = stripes.lockFor(first).tryLock();
+            acquired[1] = stripes.lockFor(second).tryLock();
+        });
+        other.start();
+        other.join();
+        stripes.unlock(taken);
+        Thread after = new Thread(() -> acquired[2] = stripes.lockFor(first).tryLock());
+        after.start();
+        after.join();
+
+        assertEquals(2, taken.length);
+        assertTrue(taken[0] < taken[1]);
+        assertFalse(acquired[0]);
+        assertFalse(acquired[1]);
+        assertTrue(acquired[2]);
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.pitdemo.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the order-statistic treap against a sorted list.
+ */
+@DisplayName("OrderStatisticTree Tests")
+class OrderStatisticTreeTest {
+
+    @Test
+    @DisplayName("Should keep order, counts and prefixes under random adds and removes")
+    void shouldMatchSortedList() {
+        OrderStatisticTree<Integer> tree = new OrderStatisticTree<>(Comparator.naturalOrder());
+        List<Integer> expected = new ArrayList<>();
+        Random random = new Random(42);
+
+        for (int step = 0; step < 5_000; step++) {
+            int value = random.nextInt(200);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(Integer.valueOf(value)), tree.remove(value));
+            } else {
+                tree.add(value);
+                expected.add(value);
+            }
+            if (step % 250 == 0) {
+                Collections.sort(expected);
+                assertEquals(expected.size(), tree.size());
+                assertEquals(expected, tree.first(Integer.MAX_VALUE));
+                int probe = random.nextInt(210) - 5;
+                assertEquals(expected.stream().filter(v -> v < probe).count(), tree.countLessThan(probe));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should list the first k elements, keeping equal elements in insertion order")
+    void shouldListFirstElements() {
+        OrderStatisticTree<String> tree = new OrderStatisticTree<>(Comparator.comparing(String::length));
+        tree.add("ccc");
+        tree.add("a");
+        tree.add("bb");
+        tree.add("b");
+
+        assertEquals(List.of("a", "b", "bb"), tree.first(3));
+        assertEquals(List.of(), tree.first(0));
+        assertEquals(4, tree.first(10).size());
+        assertEquals(2, tree.countLessThan("xx"));
+        assertEquals(0, tree.countLessThan(""));
+    }
+
+    @Test
+    @DisplayName("Should report whether anything was removed, and empty on clear")
+    void shouldRemoveAndClear() {
+        OrderStatisticTree<Integer> tree = new OrderStatisticTree<>(Comparator.naturalOrder());
+        tree.add(5);
+        tree.add(5);
+
+        assertTrue(tree.remove(5));
+        assertFalse(tree.remove(7));
+        assertEquals(List.of(5), tree.first(5));
+
+        tree.clear();
+        assertEquals(0, tree.size());
+        assertEquals(List.of(), tree.first(5));
+        assertThrows(IllegalArgumentException.class, () -> new OrderStatisticTree<Integer>(null));
+    }
+}